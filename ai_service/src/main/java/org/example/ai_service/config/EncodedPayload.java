@@ -0,0 +1,105 @@
+package org.example.ai_service.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoded Payload - Kafka kaydının henüz açılmamış değeri
+ *
+ * Collector büyük outbox payload'larını zstd ile sıkıştırıp "content-encoding: zstd"
+ * header'ı ile gönderir. Deserializer byte'ları ve codec'i olduğu gibi bu nesneye koyar;
+ * payload ancak listener text() ile okuduğunda açılır ve sonuç saklanır. Bozuk bir frame
+ * poll döngüsünü değil, sadece o kaydı işleyen listener'ı etkiler.
+ *
+ * Açma sözleşmesi collector'daki OutboxPayloadCodec.encodeInto ve streaming servisindeki
+ * serde.OutboxPayloadCodec.decode ile aynıdır.
+ */
+public final class EncodedPayload {
+
+    public static final String CODEC_ZSTD = "zstd";
+
+    private final byte[] data;
+    private final String codec;
+    private String text;
+
+    /**
+     * @param data  Kafka'dan gelen byte'lar
+     * @param codec Codec adı; null ise byte'lar düz UTF-8'dir
+     * @throws IllegalArgumentException Codec desteklenmiyorsa
+     */
+    public EncodedPayload(byte[] data, String codec) {
+        if (codec != null && !CODEC_ZSTD.equalsIgnoreCase(codec)) {
+            throw new IllegalArgumentException("Unsupported content-encoding: " + codec);
+        }
+        this.data = data;
+        this.codec = codec;
+    }
+
+    /**
+     * Null-safe metin erişimi.
+     *
+     * @param payload Kayıt değeri (tombstone ise null)
+     * @return Çözülmüş metin veya null
+     */
+    public static String textOf(EncodedPayload payload) {
+        return payload != null ? payload.text() : null;
+    }
+
+    /**
+     * Payload'ı ilk çağrıda açar; sonraki çağrılar aynı metni döndürür.
+     *
+     * @return Çözülmüş metin
+     * @throws UncheckedIOException Sıkıştırılmış veri bozuksa
+     */
+    public String text() {
+        if (text == null) {
+            text = decode(data, codec);
+        }
+        return text;
+    }
+
+    public boolean isEncoded() {
+        return codec != null;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    /** Kafka'dan gelen (sıkıştırılmış olabilir) byte sayısı */
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    /**
+     * Codec'e göre byte'ları metne çevirir.
+     *
+     * @param data  Kafka'dan gelen byte'lar
+     * @param codec Codec adı; null ise byte'lar düz UTF-8'dir
+     * @return Çözülmüş metin
+     */
+    public static String decode(byte[] data, String codec) {
+        if (codec == null) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        if (!CODEC_ZSTD.equalsIgnoreCase(codec)) {
+            throw new IllegalArgumentException("Unsupported content-encoding: " + codec);
+        }
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Record could not be decompressed", e);
+        }
+    }
+
+    /** Loglarda sıkıştırılmış payload açılmaz */
+    @Override
+    public String toString() {
+        return codec == null ? text() : "EncodedPayload[codec=" + codec + ", bytes=" + data.length + "]";
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.ai_service.config;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Content-Encoding Aware Payload Deserializer
+ *
+ * Kaydın content-encoding header'ını okur ve byte'ları açmadan EncodedPayload olarak
+ * döndürür; zstd payload'lar listener metni okuduğunda açılır (lazy). Header'sız kayıtlar
+ * düz UTF-8 metindir.
+ *
+ * Desteklenmeyen bir codec SerializationException olarak raporlanır. KafkaConsumerConfig
+ * bu deserializer'ı ErrorHandlingDeserializer ile sarar; hatalı kayıt partition'ı
+ * durdurmaz, container'ın error handler'ına iletilip atlanır.
+ */
+public class EncodedPayloadDeserializer implements Deserializer<EncodedPayload> {
+
+    public static final String HEADER_CONTENT_ENCODING = "content-encoding";
+
+    @Override
+    public EncodedPayload deserialize(String topic, byte[] data) {
+        return data == null ? null : new EncodedPayload(data, null);
+    }
+
+    @Override
+    public EncodedPayload deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header encoding = headers != null ? headers.lastHeader(HEADER_CONTENT_ENCODING) : null;
+        String codec = encoding != null ? new String(encoding.value(), StandardCharsets.UTF_8) : null;
+        try {
+            return new EncodedPayload(data, codec);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not decode record on topic " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
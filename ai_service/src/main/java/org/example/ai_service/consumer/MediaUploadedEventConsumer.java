@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.ai_service.config.EncodedPayload;
 import org.example.ai_service.domain.model.AudioEvent;
 import org.example.ai_service.service.AudioProcessingOrchestrator;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -28,12 +29,12 @@ public class MediaUploadedEventConsumer {
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeMediaUploadedEvent(ConsumerRecord<String, String> record, Acknowledgment ack) {
+    public void consumeMediaUploadedEvent(ConsumerRecord<String, EncodedPayload> record, Acknowledgment ack) {
         log.info("Media uploaded event received: key={}, partition={}, offset={}",
                 record.key(), record.partition(), record.offset());
 
         try {
-            String rawValue = record.value();
+            String rawValue = EncodedPayload.textOf(record.value());
             JsonNode event;
             
             if (rawValue == null || rawValue.trim().isEmpty()) {
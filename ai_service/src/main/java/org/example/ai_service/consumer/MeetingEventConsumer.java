@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.ai_service.config.EncodedPayload;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
@@ -21,11 +22,11 @@ public class MeetingEventConsumer {
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeMeetingEvent(ConsumerRecord<String, String> record, Acknowledgment ack) {
+    public void consumeMeetingEvent(ConsumerRecord<String, EncodedPayload> record, Acknowledgment ack) {
         log.info("Meeting event received: key={}", record.key());
 
         try {
-            JsonNode meetingNode = objectMapper.readTree(record.value());
+            JsonNode meetingNode = objectMapper.readTree(EncodedPayload.textOf(record.value()));
             String meetingId = meetingNode.get("id").asText();
             String status = meetingNode.has("status") ? meetingNode.get("status").asText() : "UNKNOWN";
 
@@ -0,0 +1,83 @@
+package org.example.ai_service.config;
+
+import com.github.luben.zstd.Zstd;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.*;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("EncodedPayloadDeserializer Unit Tests")
+public class EncodedPayloadDeserializerTest {
+
+    private static final String TOPIC = "raw-audio-events";
+    private static final String JSON = "{\"transcription\":\"" + "merhaba dünya ".repeat(200) + "\"}";
+
+    private EncodedPayloadDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        deserializer = new EncodedPayloadDeserializer();
+    }
+
+    private static RecordHeaders encoding(String codec) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EncodedPayloadDeserializer.HEADER_CONTENT_ENCODING, codec.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    @Test
+    @DisplayName("Plain records without a content-encoding header should be read as UTF-8")
+    void deserialize_PlainRecord_ShouldRoundTrip() {
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), data).text()).isEqualTo(JSON);
+        assertThat(deserializer.deserialize(TOPIC, null, data).text()).isEqualTo(JSON);
+        assertThat(deserializer.deserialize(TOPIC, data).text()).isEqualTo(JSON);
+        assertThat(deserializer.deserialize(TOPIC, data).isEncoded()).isFalse();
+    }
+
+    @Test
+    @DisplayName("zstd records should stay compressed until the text is read")
+    void deserialize_ZstdRecord_ShouldDecodeLazily() {
+        byte[] compressed = Zstd.compress(JSON.getBytes(StandardCharsets.UTF_8), 3);
+
+        EncodedPayload payload = deserializer.deserialize(TOPIC, encoding("zstd"), compressed);
+
+        assertThat(payload.isEncoded()).isTrue();
+        assertThat(payload.getEncodedSize()).isEqualTo(compressed.length).isLessThan(JSON.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(payload.toString()).doesNotContain("merhaba");
+        assertThat(payload.text()).isEqualTo(JSON);
+        assertThat(payload.text()).isSameAs(payload.text());
+        assertThat(deserializer.deserialize(TOPIC, encoding("ZSTD"), compressed).text()).isEqualTo(JSON);
+    }
+
+    @Test
+    @DisplayName("Null payloads (tombstones) should stay null")
+    void deserialize_NullData_ShouldReturnNull() {
+        assertThat(deserializer.deserialize(TOPIC, encoding("zstd"), null)).isNull();
+        assertThat(EncodedPayload.textOf(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Unknown encodings should fail as SerializationException")
+    void deserialize_UnknownEncoding_ShouldThrowSerializationException() {
+        byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, encoding("gzip"), data))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("gzip")
+                .hasMessageContaining(TOPIC);
+    }
+
+    @Test
+    @DisplayName("Corrupt zstd data should fail only when the text is read")
+    void text_CorruptZstd_ShouldFailOnRead() {
+        EncodedPayload payload = deserializer.deserialize(TOPIC, encoding("zstd"), JSON.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(payload::text).isInstanceOf(UncheckedIOException.class);
+    }
+}
@@ -8,6 +8,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("jacoco")
     id("io.qameta.allure") version "2.11.2"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -32,6 +33,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.apache.kafka:kafka-streams")
     implementation("org.springframework.kafka:spring-kafka")
+    implementation("com.github.luben:zstd-jni:1.5.6-4")
     implementation("org.springframework.boot:spring-boot-starter-websocket")
     implementation("jakarta.validation:jakarta.validation-api:4.0.0-M1")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -45,6 +47,7 @@ dependencies {
     implementation("com.auth0:java-jwt:4.4.0")
     implementation("io.jsonwebtoken:jjwt:0.13.0")
     testImplementation("com.h2database:h2")
+    jmh("com.h2database:h2")
     testImplementation("io.qameta.allure:allure-junit5:2.24.0")
     implementation("mysql:mysql-connector-java:8.0.33")
     implementation("com.google.cloud:google-cloud-vertexai:1.1.0")
@@ -56,6 +59,12 @@ dependencies {
     testAnnotationProcessor("org.projectlombok:lombok")
 }
 
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks.named<Test>("test") {
     useJUnitPlatform()
 }
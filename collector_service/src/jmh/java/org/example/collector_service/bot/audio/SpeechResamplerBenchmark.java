@@ -0,0 +1,55 @@
+package org.example.collector_service.bot.audio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpeechResamplerBenchmark - SpeechResampler JMH ölçümü
+ *
+ * Tek bir 20 ms Discord PCM paketinin (48 kHz stereo, 3840 bayt)
+ * 16 kHz mono'ya dönüştürülme süresini ölçer. Bir kullanıcının ses akışı
+ * saniyede 50 paket üretir; sonuç paket başına düşen CPU bütçesini gösterir.
+ *
+ * Çalıştırma: ./gradlew jmh
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpeechResamplerBenchmark {
+
+    private static final int PACKET_BYTES = 3840;
+
+    private SpeechResampler resampler;
+    private byte[] packet;
+    private byte[] output;
+
+    @Setup
+    public void setUp() {
+        resampler = new SpeechResampler();
+        packet = new byte[PACKET_BYTES];
+        for (int i = 0; i < PACKET_BYTES / 4; i++) {
+            int left = (int) (12000 * Math.sin(2 * Math.PI * 440 * i / 48000.0));
+            int right = (int) (9000 * Math.sin(2 * Math.PI * 1250 * i / 48000.0));
+            packet[i * 4] = (byte) (left >> 8);
+            packet[i * 4 + 1] = (byte) left;
+            packet[i * 4 + 2] = (byte) (right >> 8);
+            packet[i * 4 + 3] = (byte) right;
+        }
+        output = new byte[SpeechResampler.maxOutputBytes(PACKET_BYTES)];
+    }
+
+    @Benchmark
+    public int resamplePacket() {
+        return resampler.process(packet, 0, PACKET_BYTES, output, 0);
+    }
+}
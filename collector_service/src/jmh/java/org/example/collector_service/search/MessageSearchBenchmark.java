@@ -0,0 +1,128 @@
+package org.example.collector_service.search;
+
+import org.example.collector_service.domain.model.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageSearchBenchmark - LIKE taraması ile MessageSearchIndex karşılaştırması
+ *
+ * Aynı sentetik Türkçe / İngilizce mesajlar hem bellek içi H2 messages tablosuna
+ * hem de MessageSearchIndex'e yüklenir. likeQuery, MessageRepository.SearchbyContent'in
+ * yaptığı gibi content LIKE '%terim%' ile tüm tabloyu tarar; indexSearch aynı terimi
+ * ters indeksten bulur, BM25 ile sıralar ve ilk sayfayı döndürür.
+ *
+ * Çalıştırma: ./gradlew jmh
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "toplanti", "sprint", "deploy", "rollback", "gorusme", "review", "merhaba", "yarin",
+            "bugun", "proje", "musteri", "meeting", "release", "hotfix", "standup", "planlama",
+            "kod", "test", "incident", "rapor", "tasarim", "backend", "frontend", "database"
+    };
+    /** Nadir terim; LIKE '%incident42%' ile aynı kümeyi bulması için indekste önek sorgusu kullanılır */
+    private static final String QUERY_TERM = "incident42";
+    private static final int PAGE_SIZE = 20;
+
+    @Param("1000000")
+    public int messageCount;
+
+    private Connection connection;
+    private PreparedStatement likeStatement;
+    private MessageSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-bench;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE messages (id BIGINT PRIMARY KEY, channel_id VARCHAR(64), content VARCHAR(2000))");
+        }
+
+        index = new MessageSearchIndex(null, 5000, false);
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO messages (id, channel_id, content) VALUES (?, ?, ?)")) {
+            for (int id = 1; id <= messageCount; id++) {
+                String channelId = "channel-" + random.nextInt(50);
+                String content = randomContent(random);
+                insert.setLong(1, id);
+                insert.setString(2, channelId);
+                insert.setString(3, content);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                index.add(Message.builder().id((long) id).channelId(channelId).content(content).build());
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        likeStatement = connection.prepareStatement("SELECT id FROM messages WHERE content LIKE ?");
+        likeStatement.setString(1, "%" + QUERY_TERM + "%");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        likeStatement.close();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long likeQuery() throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = likeStatement.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(1);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int indexSearch() {
+        return index.search(QUERY_TERM + "*", null, 0, PAGE_SIZE).totalHits();
+    }
+
+    private static String randomContent(Random random) {
+        int words = 4 + random.nextInt(12);
+        StringBuilder sb = new StringBuilder(words * 10);
+        for (int i = 0; i < words; i++) {
+            // Nadir terimler için kelimeye sayı eklenir (terim sözlüğü gerçekçi boyuta ulaşır)
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            if (random.nextInt(4) == 0) {
+                sb.append(random.nextInt(1000));
+            }
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+}
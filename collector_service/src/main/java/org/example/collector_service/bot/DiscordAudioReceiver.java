@@ -1,177 +1,363 @@
 package org.example.collector_service.bot;
 
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.bot.audio.AudioCaptureWriter;
+import org.example.collector_service.bot.audio.AudioEncoderPool;
+import org.example.collector_service.bot.audio.CaptureFormat;
 import org.example.collector_service.domain.model.AudioMessage;
+import org.example.collector_service.domain.model.AudioSegment;
 import org.example.collector_service.domain.model.UserAudioData;
 import org.example.collector_service.service.AudioMessageService;
 import net.dv8tion.jda.api.audio.AudioReceiveHandler;
+import net.dv8tion.jda.api.audio.OpusPacket;
 import net.dv8tion.jda.api.audio.UserAudio;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.function.LongFunction;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * DiscordAudioReceiver - Discord ses akışı alıcısı
  * 
- * Discord ses kanallarından gelen PCM audio verilerini yakalar ve işler.
- * Her kullanıcı için ayrı audio stream'i yönetir ve MP3'e dönüştürür.
+ * Discord ses kanallarından gelen audio verilerini yakalar ve işler.
+ * Her kullanıcı için ayrı audio stream'i yönetir.
+ * Her ses bağlantısı (guild + kanal) kendi receiver'ına, yazıcı thread'ine ve
+ * kayıt klasörüne sahiptir; oturumlar DiscordRecordingSessionRegistry ile yönetilir.
  * 
  * Özellikler:
  * - Kullanıcı bazında ses verisi toplama
- * - PCM -> MP3 dönüşümü (FFmpeg ile)
+ * - OPUS modu: ham Opus frame'leri decode edilmeden Ogg/Opus dosyasına yazılır
+ * - PCM modu (fallback): decode edilmiş PCM -> MP3 dönüşümü (süreç içi libav, AudioEncoderPool)
+ * - SPEECH modu: decode edilmiş PCM diske yazılmadan 16 kHz mono'ya indirilir
+ * - Kullanıcı izleri paralel kodlanır; cleanUp() çağıran thread'i bloklamaz
+ * - Canlı segmentler: kayıt her N saniyede veya N MB'ta segmentlere bölünür,
+ *   her segment toplantı sürerken sıra numarası ve ofsetleriyle yayınlanır
  * - Veritabanına ses mesajı kaydetme
+ * - Ses thread'inde disk I/O yok: paketler kilitsiz halka tampona bırakılır,
+ *   AudioCaptureWriter thread'i toplu olarak diske yazar
+ * - Düşen ve geç gelen paket sayaçları
+ * - Encoder kuyruğu doluysa segment yeniden denenir; kalıcı hatada segment dosyaları silinir
  * 
- * Audio Format: 48kHz, Stereo, 16-bit signed big-endian PCM
+ * Audio Format: 48kHz, Stereo Opus (OPUS), 16-bit signed big-endian PCM (PCM) veya 16kHz mono PCM (SPEECH)
  * 
  * @author Ahmet
  * @version 1.0
  */
+@Slf4j
 public class DiscordAudioReceiver implements AudioReceiveHandler {
 
+    /** Varsayılan segment sınırları: 60 saniye veya 8 MB */
+    public static final long DEFAULT_SEGMENT_MILLIS = 60_000;
+    public static final long DEFAULT_SEGMENT_MAX_BYTES = 8L * 1024 * 1024;
+
+    /** Encoder kuyruğu dolduğunda bir segment için toplam deneme sayısı ve gecikme adımı */
+    private static final int MAX_SEGMENT_ATTEMPTS = 3;
+    private static final long SEGMENT_RETRY_DELAY_MILLIS = 500;
+
     private final AudioMessageService messageService;
+
+    /** PCM -> MP3 kodlama havuzu */
+    private final AudioEncoderPool encoderPool;
+
+    /** Kayıt formatı (OPUS veya PCM) */
+    private final CaptureFormat captureFormat;
+
+    /** Opus paketlerinde yalnızca kullanıcı ID'si gelir; görünen ad buradan çözülür */
+    private volatile LongFunction<String> userNameResolver = String::valueOf;
     
-    /** Kullanıcı ID -> Audio verisi eşlemesi */
-    private final Map<String, UserAudioData> userAudioMap = new HashMap<>();
+    /** Kullanıcı ID -> Audio verisi eşlemesi (ses, yazıcı ve komut thread'leri paylaşır) */
+    private final Map<String, UserAudioData> userAudioMap = new ConcurrentHashMap<>();
+
+    /** Oturumun kayıt klasörü (temp, segment ve nihai ses dosyaları) */
+    private final File storageDirectory;
+
+    /** Oturumun başladığı an */
+    private final LocalDateTime startedAt;
+
+    /** Yayınlanan ve başarısız olan segment sayıları */
+    private final AtomicLong publishedSegments = new AtomicLong();
+    private final AtomicLong failedSegments = new AtomicLong();
+
+    /** Halka tamponları diske boşaltan yazıcı */
+    private final AudioCaptureWriter captureWriter;
+
+    /** Temizlenmiş kullanıcılardan devreden düşen paket sayısı */
+    private final AtomicLong retiredDroppedPackets = new AtomicLong();
+
+    /** Temizlenmiş kullanıcılardan ve temizleme sırasında gelen geç paket sayısı */
+    private final AtomicLong retiredLatePackets = new AtomicLong();
     
     /** Aktif ses kanalının ID'si */
-    private String channleId;
+    private volatile String channleId;
     
-    /** Temizleme işlemi devam ediyor mu? */
+    /** Temizleme başladı mı? cleanUp() sonrası receiver yeni paket kabul etmez */
     private volatile boolean isCleaningUp = false;
 
+    /** O an ses thread'inde yürüyen handleUserAudio / handleEncodedAudio çağrısı sayısı */
+    private final AtomicInteger activeCallbacks = new AtomicInteger();
+
     /**
-     * DiscordAudioReceiver constructor.
+     * DiscordAudioReceiver constructor (PCM modu).
      *
      * @param messageService Ses mesajı kaydetme servisi
+     * @param encoderPool    PCM -> MP3 kodlama havuzu
      */
-    public DiscordAudioReceiver(AudioMessageService messageService) {
+    public DiscordAudioReceiver(AudioMessageService messageService, AudioEncoderPool encoderPool) {
+        this(messageService, CaptureFormat.PCM, encoderPool);
+    }
+
+    /**
+     * DiscordAudioReceiver constructor (varsayılan segment sınırları).
+     *
+     * @param messageService Ses mesajı kaydetme servisi
+     * @param captureFormat  Kayıt formatı (OPUS veya PCM)
+     * @param encoderPool    PCM -> MP3 kodlama havuzu
+     */
+    public DiscordAudioReceiver(AudioMessageService messageService, CaptureFormat captureFormat, AudioEncoderPool encoderPool) {
+        this(messageService, captureFormat, encoderPool, DEFAULT_SEGMENT_MILLIS, DEFAULT_SEGMENT_MAX_BYTES,
+                new File("audio_storage"), "discord-audio");
+    }
+
+    /**
+     * DiscordAudioReceiver constructor.
+     * Her ses bağlantısı (oturum) kendi receiver'ını, yazıcı thread'ini ve kayıt klasörünü kullanır.
+     *
+     * @param messageService   Ses mesajı kaydetme servisi
+     * @param captureFormat    Kayıt formatı (OPUS veya PCM)
+     * @param encoderPool      PCM -> MP3 kodlama havuzu
+     * @param segmentMillis    Segment süre sınırı (ms, 0 = sınırsız)
+     * @param segmentMaxBytes  Segment boyut sınırı (bayt, 0 = sınırsız)
+     * @param storageDirectory Oturumun kayıt klasörü
+     * @param sessionName      Oturum adı (yazıcı thread adı ve loglar için)
+     */
+    public DiscordAudioReceiver(AudioMessageService messageService, CaptureFormat captureFormat, AudioEncoderPool encoderPool,
+                                long segmentMillis, long segmentMaxBytes, File storageDirectory, String sessionName) {
         this.messageService = messageService;
+        this.captureFormat = captureFormat;
+        this.encoderPool = encoderPool;
+        this.storageDirectory = storageDirectory;
+        this.startedAt = LocalDateTime.now();
+        this.captureWriter = new AudioCaptureWriter(sessionName + "-writer", userAudioMap.values(),
+                segmentMillis, segmentMaxBytes, this::publishSegment);
+        this.captureWriter.start();
     }
 
     @Override
     public boolean canReceiveUser() {
-        return true;
+        return captureFormat.isDecoded();
     }
 
     @Override
-    public void handleUserAudio(UserAudio userAudio) {
-        if (isCleaningUp) {
-            System.out.println("Cleanup in progress, ignoring audio packet");
-            return;
-        }
-
-        byte[] audioData = userAudio.getAudioData(1.0);
-        String userId = userAudio.getUser().getId();
-        String userName = userAudio.getUser().getName();
-
-        try{
-            new File("audio_storage").mkdirs();
-
-            userAudioMap.computeIfAbsent(userId, k -> new UserAudioData(userId, userName));
+    public boolean canReceiveEncoded() {
+        return !captureFormat.isDecoded();
+    }
 
-            UserAudioData userAudioData = userAudioMap.get(userId);
-            
-            if (!userAudioData.isClosed()) {
-                userAudioData.writeAudioData(audioData);
+    @Override
+    public void handleUserAudio(UserAudio userAudio) {
+        activeCallbacks.incrementAndGet();
+        try {
+            if (isCleaningUp) {
+                retiredLatePackets.incrementAndGet();
+                return;
             }
 
-        }catch(java.io.IOException e){
+            String userId = userAudio.getUser().getId();
+            captureAudio(userId, userAudio.getUser().getName(), userAudio.getAudioData(1.0));
+        } finally {
+            activeCallbacks.decrementAndGet();
+        }
+    }
 
-            String message = e.getMessage();
-            if (message != null && (message.contains("Stream Closed") || message.contains("stream is already closed"))) {
+    @Override
+    public void handleEncodedAudio(OpusPacket packet) {
+        activeCallbacks.incrementAndGet();
+        try {
+            if (isCleaningUp) {
+                retiredLatePackets.incrementAndGet();
                 return;
             }
-            throw new RuntimeException("Could not handle user audio", e);
-        }catch(Exception e){
-            throw new RuntimeException("Could not handle user audio", e);
+
+            long userIdLong = packet.getUserId();
+            String userId = Long.toString(userIdLong);
+            String userName = userAudioMap.containsKey(userId) ? null : userNameResolver.apply(userIdLong);
+            captureAudio(userId, userName, packet.getOpusAudio());
+        } finally {
+            activeCallbacks.decrementAndGet();
         }
     }
 
     /**
-     * Ses kaydını sonlandırır ve tüm kullanıcı verilerini MP3'e dönüştürür.
+     * Paketi kullanıcının halka tamponuna bırakır; ilk pakette kullanıcı kaydını oluşturur.
+     */
+    private void captureAudio(String userId, String userName, byte[] audioData) {
+        UserAudioData userAudioData = userAudioMap.get(userId);
+        if (userAudioData == null) {
+            userAudioData = userAudioMap.computeIfAbsent(userId, k -> {
+                storageDirectory.mkdirs();
+                return new UserAudioData(userId, userName != null ? userName : userId, captureFormat, storageDirectory);
+            });
+        }
+
+        userAudioData.offerAudioData(audioData);
+    }
+
+    /**
+     * Ses kaydını sonlandırır ve her kullanıcının son segmentini kalıcı hale getirir.
+     * Önceki segmentler kayıt sırasında zaten yayınlanmıştır; burada yalnızca
+     * açık kalan son segment kapatılır. Çağıran thread kodlamayı beklemez;
+     * dönen future son segmentler kaydedildiğinde tamamlanır.
      * Kanal ayrılmadan önce çağrılmalıdır.
+     * 
+     * Sıralama: yeni paketler reddedilir, ses thread'inde süren çağrıların
+     * bitmesi beklenir, ardından yazıcı thread durdurulup join edilir; böylece
+     * süren bir segment kesimi son segmentle yarışmaz. cleanUp() sonrası
+     * receiver yeniden kullanılamaz.
+     *
+     * Bir kullanıcının son segmenti kapatılamazsa diğer kullanıcılarınki yine kaydedilir;
+     * hata dönen future'da raporlanır.
+     *
+     * @return Tüm son segmentler kaydedildiğinde tamamlanan, herhangi biri başarısız olduysa
+     *         hatayla tamamlanan future
      */
-    public void cleanUp(){
-        System.out.println("Converting starting...");
-        
+    public CompletableFuture<Void> cleanUp(){
+        log.info("Sealing recordings: channelId={}, users={}", channleId, userAudioMap.size());
+
         isCleaningUp = true;
-        
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        while (activeCallbacks.get() != 0) {
+            Thread.onSpinWait();
         }
+        captureWriter.stop();
 
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
         for(UserAudioData userData : userAudioMap.values()){
             try{
-                userData.closeOutputStream();
-                convertToMp3(userData);
+                AudioSegment finalSegment = userData.sealFinalSegment();
+                if(finalSegment != null){
+                    pending.add(publishSegment(finalSegment));
+                }
             }catch(Exception e){
-                throw new RuntimeException("Could not convert user audio data", e);
+                // Bir kullanıcının hatası diğerlerinin son segmentlerini düşürmez; dönen future'da raporlanır
+                failedSegments.incrementAndGet();
+                log.error("Could not seal final segment: userId={}", userData.getUserId(), e);
+                pending.add(CompletableFuture.failedFuture(e));
+            }finally{
+                retiredDroppedPackets.addAndGet(userData.getDroppedPacketCount());
+                retiredLatePackets.addAndGet(userData.getLatePacketCount());
             }
         }
         userAudioMap.clear();
-        isCleaningUp = false;
 
+        log.info("Capture stats: droppedPackets={}, latePackets={}", getDroppedPacketCount(), getLatePacketCount());
+
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
     }
 
-    private void convertToMp3(UserAudioData userData) throws Exception {
-        File pcmFile = userData.getTempPcmData();
+    /**
+     * Kapatılmış bir segmenti kodlar (PCM) ve ses mesajı olarak yayınlar.
+     * Yazıcı thread'inden de çağrılır; işin tamamı encoder havuzunda yürür.
+     */
+    private CompletableFuture<Void> publishSegment(AudioSegment segment) {
+        return publishSegment(segment, 1);
+    }
 
-        if(!pcmFile.exists()||pcmFile.length()==0){
-            System.out.printf("PCM file empty or doesn't exist!!");
-            return;
-        }
+    /**
+     * Segmenti yayınlar. Encoder kuyruğu doluysa segment kısa bir gecikmeyle
+     * MAX_SEGMENT_ATTEMPTS denemeye kadar yeniden gönderilir; kalıcı hatada
+     * segmentin yakalama dosyası ve yarım kalan çıktı diskten silinir.
+     */
+    private CompletableFuture<Void> publishSegment(AudioSegment segment, int attempt) {
+        String baseName = new File(storageDirectory, "audio_" + segment.getUserId() + "_" + segment.getRecordingStartMillis()
+                + "_" + segment.getSequence()).getPath();
+        File target = new File(baseName + (segment.getCaptureFormat() == CaptureFormat.OPUS ? ".ogg" : ".mp3"));
 
-        String mp3FilePath = "audio_storage/audio_" + userData.getUserId() + "_" + System.currentTimeMillis() + ".mp3";
+        CompletableFuture<File> encoded;
+        if (segment.getCaptureFormat() == CaptureFormat.OPUS) {
+            encoded = encoderPool.submit(() -> finalizeOpus(segment, target));
+        } else {
+            encoded = encoderPool.encodePcmToMp3(segment.getFile(), target,
+                    segment.getCaptureFormat().getSampleRate(), segment.getCaptureFormat().getChannels(),
+                    segment.getCaptureFormat().getEncodeBitRate());
+        }
 
-        ProcessBuilder processBuilder = new ProcessBuilder(
-                "ffmpeg",
-                "-f", "s16be",
-                "-ar", "48000",
-                "-ac", "2",
-                "-i", pcmFile.getAbsolutePath(),
-                "-y",
-                "-b:a", "128k",
-                mp3FilePath
-        );
+        return encoded
+                .thenAccept(audioFile -> {
+                    log.debug("Segment ready: userId={}, sequence={}", segment.getUserId(), segment.getSequence());
 
-        processBuilder.redirectErrorStream(true);
-        Process process = processBuilder.start();
+                    // Kayıt hatası exceptionallyCompose'a düşer; segment başarısız sayılır ve dosyaları silinir
+                    saveAudioMessageDB(segment, audioFile.getPath());
+                    publishedSegments.incrementAndGet();
+                    if(segment.getCaptureFormat().isDecoded() && !segment.getFile().delete()){
+                        log.warn("Could not delete PCM segment file: {}", segment.getFile().getPath());
+                    }
+                })
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof RejectedExecutionException && attempt < MAX_SEGMENT_ATTEMPTS) {
+                        log.warn("Encoder queue rejected segment, retrying: userId={}, sequence={}, attempt={}/{}",
+                                segment.getUserId(), segment.getSequence(), attempt, MAX_SEGMENT_ATTEMPTS);
+                        Executor delayed = CompletableFuture.delayedExecutor(SEGMENT_RETRY_DELAY_MILLIS * attempt, TimeUnit.MILLISECONDS);
+                        return CompletableFuture.runAsync(() -> { }, delayed)
+                                .thenCompose(ignored -> publishSegment(segment, attempt + 1));
+                    }
 
-        int exitVal = process.waitFor();
+                    failedSegments.incrementAndGet();
+                    log.error("Segment failed, discarding its files: userId={}, sequence={}, attempts={}",
+                            segment.getUserId(), segment.getSequence(), attempt, cause);
+                    discardSegmentFiles(segment, target);
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
 
-        if(exitVal != 0){
-            System.out.println("Ffmpeg converted is failed with exitcode: " + exitVal + "for user: "  + userData.getUserId());
+    private void discardSegmentFiles(AudioSegment segment, File target) {
+        for (File file : List.of(segment.getFile(), target)) {
+            if (file.exists() && !file.delete()) {
+                log.warn("Could not delete file of failed segment: {}", file.getPath());
+            }
         }
-        else{
-            System.out.println("Ffmpeg converted is successful for user: " + userData.getUserId());
+    }
 
-            saveAudioMessageDB(userData, mp3FilePath);
-            if(pcmFile.delete()){
-                System.out.println("PCM file deleted successfully! " + pcmFile.getName());
-            }
+    private File finalizeOpus(AudioSegment segment, File target) throws IOException {
+        if(!segment.getFile().renameTo(target)){
+            throw new IOException("Could not rename Ogg file for user: " + segment.getUserId());
         }
+        return target;
     }
 
-    private void saveAudioMessageDB(UserAudioData userAudioData, String mp3FilePath) {
-        try{
-            AudioMessage audioMessage = new AudioMessage();
-            audioMessage.setPlatform("Discord");
-            audioMessage.setChannelId(this.channleId);
-            audioMessage.setAuthor(userAudioData.getUserName());
-            audioMessage.setAudioUrl(mp3FilePath);
-            audioMessage.setTimestamp(LocalDateTime.now());
-            audioMessage.setVoiceSessionId(userAudioData.getUserId());
+    /**
+     * Segmenti AudioMessage (ve outbox event'i) olarak kaydeder. Hata yutulmaz; çağıran
+     * segmenti başarısız sayar, böylece hiçbir kaydın göstermediği ses dosyası kalmaz.
+     */
+    private void saveAudioMessageDB(AudioSegment segment, String audioFilePath) {
+        AudioMessage audioMessage = new AudioMessage();
+        audioMessage.setPlatform("Discord");
+        audioMessage.setChannelId(this.channleId);
+        audioMessage.setAuthor(segment.getUserName());
+        audioMessage.setAudioUrl(audioFilePath);
+        audioMessage.setTimestamp(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(segment.getRecordingStartMillis() + segment.getStartOffsetMillis()), ZoneId.systemDefault()));
+        audioMessage.setVoiceSessionId(segment.getUserId());
+        audioMessage.setSegmentSequence(segment.getSequence());
+        audioMessage.setSegmentStartOffsetMs(segment.getStartOffsetMillis());
+        audioMessage.setSegmentEndOffsetMs(segment.getEndOffsetMillis());
+        audioMessage.setLastSegment(segment.isLast());
 
-            messageService.processAndSaveAudioMessage(audioMessage);
+        messageService.processAndSaveAudioMessage(audioMessage);
 
-            System.out.println("Audio Message saved to database");
-        }catch(Exception e){
-            System.err.println("Failed to save audio message to database");
-            e.printStackTrace();
-        }
+        log.debug("Audio message saved: userId={}, sequence={}", segment.getUserId(), segment.getSequence());
     }
 
     /**
@@ -182,4 +368,83 @@ public class DiscordAudioReceiver implements AudioReceiveHandler {
     public void setChannleId(String channleId) {
         this.channleId = channleId;
     }
+
+    /**
+     * OPUS modunda kullanıcı ID'sinden görünen ada çözümleyiciyi ayarlar.
+     *
+     * @param userNameResolver Kullanıcı ID -> görünen ad fonksiyonu
+     */
+    public void setUserNameResolver(LongFunction<String> userNameResolver) {
+        this.userNameResolver = userNameResolver;
+    }
+
+    /**
+     * Halka tampon dolduğu için düşürülen toplam paket sayısını döndürür.
+     *
+     * @return Aktif ve temizlenmiş kullanıcılar dahil düşen paket sayısı
+     */
+    public long getDroppedPacketCount() {
+        long total = retiredDroppedPackets.get();
+        for (UserAudioData userData : userAudioMap.values()) {
+            total += userData.getDroppedPacketCount();
+        }
+        return total;
+    }
+
+    /**
+     * Kayıt kapatıldıktan veya temizleme başladıktan sonra gelen toplam paket sayısını döndürür.
+     *
+     * @return Aktif ve temizlenmiş kullanıcılar dahil geç gelen paket sayısı
+     */
+    public long getLatePacketCount() {
+        long total = retiredLatePackets.get();
+        for (UserAudioData userData : userAudioMap.values()) {
+            total += userData.getLatePacketCount();
+        }
+        return total;
+    }
+
+    /**
+     * Şu anda kaydedilen kullanıcı sayısını döndürür.
+     *
+     * @return Aktif kullanıcı sayısı
+     */
+    public int getActiveUserCount() {
+        return userAudioMap.size();
+    }
+
+    /**
+     * @return Başarıyla yayınlanan segment sayısı
+     */
+    public long getPublishedSegmentCount() {
+        return publishedSegments.get();
+    }
+
+    /**
+     * @return Kodlama veya kaydetme sırasında başarısız olan segment sayısı
+     */
+    public long getFailedSegmentCount() {
+        return failedSegments.get();
+    }
+
+    /**
+     * @return Oturumun başladığı an
+     */
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return Aktif ses kanalının ID'si
+     */
+    public String getChannleId() {
+        return channleId;
+    }
+
+    /**
+     * Yazıcı thread'ini durdurur. Receiver artık kullanılmayacaksa çağrılmalıdır.
+     */
+    public void shutdown() {
+        captureWriter.stop();
+    }
 }
@@ -0,0 +1,118 @@
+package org.example.collector_service.bot.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.AudioSegment;
+import org.example.collector_service.domain.model.UserAudioData;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AudioCaptureWriter - Kullanıcı halka tamponlarını diske boşaltan yazıcı thread
+ *
+ * JDA ses thread'i paketleri yalnızca UserAudioData halka tamponlarına bırakır.
+ * Bu sınıf ayrı bir daemon thread üzerinde tüm kullanıcı tamponlarını dolaşır
+ * ve paketleri büyük, sıralı yazmalar halinde diske aktarır.
+ *
+ * Çalışma Prensibi:
+ * - Tamponlarda veri varsa beklemeden tekrar dolaşır
+ * - Hiç veri yoksa IDLE_PARK_NANOS kadar park eder (busy-spin yapmaz)
+ * - Kaynak koleksiyon canlı bir görünümdür (örn. ConcurrentHashMap.values())
+ * - Segment süre/boyut sınırına ulaşan kayıtları keser ve segmentListener'a devreder
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class AudioCaptureWriter implements Runnable {
+
+    /** Boşta bekleme süresi; 20 ms'lik paket aralığının yarısı */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Collection<UserAudioData> sources;
+    private final long segmentMillis;
+    private final long segmentMaxBytes;
+    private final Consumer<AudioSegment> segmentListener;
+    private final Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * Constructor - Yazıcı thread'ini oluşturur (başlatmaz).
+     *
+     * @param threadName Thread adı
+     * @param sources    Boşaltılacak kullanıcı tamponlarının canlı görünümü
+     */
+    public AudioCaptureWriter(String threadName, Collection<UserAudioData> sources) {
+        this(threadName, sources, 0, 0, null);
+    }
+
+    /**
+     * Constructor - Segment kesme özellikli yazıcı thread'ini oluşturur (başlatmaz).
+     *
+     * @param threadName      Thread adı
+     * @param sources         Boşaltılacak kullanıcı tamponlarının canlı görünümü
+     * @param segmentMillis   Segment süre sınırı (ms, 0 = sınırsız)
+     * @param segmentMaxBytes Segment boyut sınırı (bayt, 0 = sınırsız)
+     * @param segmentListener Kesilen segmentleri alan callback (null ise segment kesilmez)
+     */
+    public AudioCaptureWriter(String threadName, Collection<UserAudioData> sources,
+                              long segmentMillis, long segmentMaxBytes, Consumer<AudioSegment> segmentListener) {
+        this.sources = sources;
+        this.segmentMillis = segmentMillis;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.segmentListener = segmentListener;
+        this.thread = new Thread(this, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Yazıcı thread'ini başlatır.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Yazıcı thread'ini durdurur ve sonlanmasını bekler.
+     * Tamponlarda kalan veri, kullanıcıların sealFinalSegment() çağrısında boşaltılır.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            int drained = 0;
+            for (UserAudioData userData : sources) {
+                if (userData.isClosed()) {
+                    continue;
+                }
+                try {
+                    drained += userData.drainToDisk();
+                    if (segmentListener != null) {
+                        AudioSegment segment = userData.rollSegmentIfDue(System.currentTimeMillis(), segmentMillis, segmentMaxBytes);
+                        if (segment != null) {
+                            segmentListener.accept(segment);
+                        }
+                    }
+                } catch (IOException e) {
+                    log.error("Could not write buffered audio: userId={}", userData.getUserId(), e);
+                }
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+}
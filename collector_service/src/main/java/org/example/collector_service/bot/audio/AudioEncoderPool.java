@@ -0,0 +1,188 @@
+package org.example.collector_service.bot.audio;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AudioEncoderPool - Sınırlı, süreç içi ses kodlama havuzu
+ *
+ * Kayıt sonlandırıldığında her kullanıcının ses izini paralel olarak kodlar.
+ * İşler sınırlı bir kuyruğa alınır; sonuçlar CompletableFuture ile döner,
+ * böylece çağıran thread (ör. JDA event thread'i) bloklanmaz.
+ *
+ * Özellikler:
+ * - Sabit boyutlu worker havuzu (varsayılan: CPU çekirdek sayısı)
+ * - Sınırlı kuyruk; kuyruk doluysa iş reddedilir ve future hata ile tamamlanır
+ * - Metrikler: kuyruk derinliği, aktif iş, tamamlanan/başarısız iş, ortalama ve maksimum kodlama süresi
+ *
+ * Konfigürasyon:
+ * - audio.encoder.pool-size      : Worker sayısı (0 = CPU çekirdek sayısı)
+ * - audio.encoder.queue-capacity : Bekleyen iş kapasitesi
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class AudioEncoderPool {
+
+    private final ThreadPoolExecutor executor;
+    private final PcmMp3Encoder mp3Encoder;
+
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+    private final AtomicLong totalEncodeNanos = new AtomicLong();
+    private final AtomicLong maxEncodeNanos = new AtomicLong();
+
+    /**
+     * AudioEncoderPool constructor.
+     *
+     * @param poolSize      Worker sayısı (0 veya negatif ise CPU çekirdek sayısı)
+     * @param queueCapacity Bekleyen iş kapasitesi
+     */
+    public AudioEncoderPool(@Value("${audio.encoder.pool-size:0}") int poolSize,
+                            @Value("${audio.encoder.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.mp3Encoder = new PcmMp3Encoder();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new EncoderThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Audio encoder pool started with {} workers, queue capacity {}", threads, queueCapacity);
+    }
+
+    /**
+     * PCM dosyasını (s16be, interleaved) asenkron olarak MP3'e kodlar.
+     *
+     * @param pcmFile    Kaynak PCM dosyası
+     * @param mp3File    Hedef MP3 dosyası
+     * @param sampleRate Örnekleme hızı (Hz)
+     * @param channels   Kanal sayısı
+     * @param bitRate    Hedef bit hızı (bit/s)
+     * @return Kodlama bittiğinde MP3 dosyası ile tamamlanan future
+     */
+    public CompletableFuture<File> encodePcmToMp3(File pcmFile, File mp3File, int sampleRate, int channels, long bitRate) {
+        return submit(() -> mp3Encoder.encode(pcmFile, mp3File, sampleRate, channels, bitRate));
+    }
+
+    /**
+     * Havuzda zamanlanmış bir kodlama işi çalıştırır.
+     * Kuyruk doluysa veya havuz kapatılmışsa future RejectedExecutionException ile tamamlanır.
+     *
+     * @param job Kodlama işi
+     * @return İş sonucu ile tamamlanan future
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> job) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> runTimed(job, future));
+        } catch (RejectedExecutionException e) {
+            rejectedJobs.incrementAndGet();
+            log.warn("Audio encode job rejected, queue depth: {}", getQueueDepth());
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void runTimed(Callable<T> job, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        try {
+            T result = job.call();
+            recordDuration(System.nanoTime() - start);
+            completedJobs.incrementAndGet();
+            future.complete(result);
+        } catch (Throwable t) {
+            recordDuration(System.nanoTime() - start);
+            failedJobs.incrementAndGet();
+            future.completeExceptionally(t);
+        }
+    }
+
+    private void recordDuration(long nanos) {
+        totalEncodeNanos.addAndGet(nanos);
+        maxEncodeNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** @return Kuyrukta bekleyen iş sayısı */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /** @return Şu anda kodlanan iş sayısı */
+    public int getActiveJobs() {
+        return executor.getActiveCount();
+    }
+
+    /** @return Başarıyla tamamlanan iş sayısı */
+    public long getCompletedJobs() {
+        return completedJobs.get();
+    }
+
+    /** @return Hata ile biten iş sayısı */
+    public long getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    /** @return Kuyruk dolu olduğu için reddedilen iş sayısı */
+    public long getRejectedJobs() {
+        return rejectedJobs.get();
+    }
+
+    /** @return Ortalama kodlama süresi (ms) */
+    public double getAverageEncodeMillis() {
+        long finished = completedJobs.get() + failedJobs.get();
+        return finished == 0 ? 0.0 : totalEncodeNanos.get() / 1_000_000.0 / finished;
+    }
+
+    /** @return En uzun kodlama süresi (ms) */
+    public double getMaxEncodeMillis() {
+        return maxEncodeNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Yeni iş kabulünü durdurur ve kuyruktaki işlerin bitmesini bekler.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                log.warn("Audio encoder pool did not finish in time, {} jobs pending", getQueueDepth());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Audio encoder pool stopped - completed: {}, failed: {}, rejected: {}, avg: {} ms, max: {} ms",
+                getCompletedJobs(), getFailedJobs(), getRejectedJobs(),
+                String.format("%.1f", getAverageEncodeMillis()), String.format("%.1f", getMaxEncodeMillis()));
+    }
+
+    private static final class EncoderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "audio-encoder-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.Closeable;
+
+/**
+ * AudioPacketWriter - Yakalanan ses paketlerini dosya formatına yazan hedef
+ *
+ * Halka tampondan boşaltılan her paket accept() ile yazılır. close() çağrısı
+ * kalan veriyi diske aktarır ve dosya formatını sonlandırır.
+ *
+ * Uygulamalar:
+ * - PcmPacketWriter: ham PCM byte'larını ardışık yazar
+ * - OggOpusWriter: Opus frame'lerini Ogg/Opus konteynerine mux eder
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public interface AudioPacketWriter extends AudioRingBuffer.PacketSink, Closeable {
+
+    /**
+     * Dosyaya yazılan (tamponda bekleyenler dahil) bayt sayısını döndürür.
+     * Dönüştüren yazıcılarda girişi değil, dönüşüm sonrası çıkış boyutunu verir.
+     *
+     * @return Yazılan bayt sayısı
+     */
+    long getBytesWritten();
+}
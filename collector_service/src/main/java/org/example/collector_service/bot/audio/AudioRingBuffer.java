@@ -0,0 +1,139 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AudioRingBuffer - Tek üretici / tek tüketici (SPSC) ses paketi halka tamponu
+ *
+ * JDA ses thread'i (üretici) ile disk yazıcı thread'i (tüketici) arasında
+ * kilitsiz (lock-free) paket aktarımı sağlar. Tüm slot'lar constructor'da
+ * önceden ayrılır; paket başına bellek ayırma yapılmaz.
+ *
+ * Özellikler:
+ * - Kilitsiz: üretici ve tüketici yalnızca kendi sayaçlarını yazar
+ * - Bloklamaz: tampon doluysa offer() anında false döner
+ * - Sabit bellek: capacity * maxPacketSize byte
+ *
+ * Thread-Safety: Yalnızca bir üretici ve bir tüketici thread'i için güvenlidir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class AudioRingBuffer {
+
+    private final byte[][] slots;
+    private final int[] lengths;
+    private final int mask;
+    private final int maxPacketSize;
+
+    /** Tüketicinin okuyacağı bir sonraki sıra numarası */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Üreticinin yazacağı bir sonraki sıra numarası */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Constructor - Tüm paket slot'larını önceden ayırır.
+     *
+     * @param capacity      Slot sayısı (2'nin kuvveti olmalıdır)
+     * @param maxPacketSize Tek bir paketin alabileceği maksimum byte sayısı
+     * @throws IllegalArgumentException capacity 2'nin kuvveti değilse veya maxPacketSize pozitif değilse
+     */
+    public AudioRingBuffer(int capacity, int maxPacketSize) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        if (maxPacketSize <= 0) {
+            throw new IllegalArgumentException("Max packet size must be positive: " + maxPacketSize);
+        }
+        this.slots = new byte[capacity][maxPacketSize];
+        this.lengths = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxPacketSize = maxPacketSize;
+    }
+
+    /**
+     * Paketi tampona kopyalar (yalnızca üretici thread).
+     *
+     * @param data Paket verisi
+     * @return Paket kabul edildiyse true; tampon doluysa veya paket çok büyükse false
+     */
+    public boolean offer(byte[] data) {
+        return offer(data, 0, data.length);
+    }
+
+    /**
+     * Paketin bir bölümünü tampona kopyalar (yalnızca üretici thread).
+     *
+     * @param data   Kaynak dizi
+     * @param offset Başlangıç indeksi
+     * @param length Kopyalanacak byte sayısı
+     * @return Paket kabul edildiyse true; tampon doluysa veya paket çok büyükse false
+     */
+    public boolean offer(byte[] data, int offset, int length) {
+        if (length > maxPacketSize) {
+            return false;
+        }
+        long currentTail = tail.get();
+        if (currentTail - head.get() >= slots.length) {
+            return false;
+        }
+        int index = (int) (currentTail & mask);
+        System.arraycopy(data, offset, slots[index], 0, length);
+        lengths[index] = length;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Bekleyen tüm paketleri sırayla sink'e aktarır (yalnızca tüketici thread).
+     *
+     * Sink'e verilen dizi tampona aittir; yalnızca accept() çağrısı süresince
+     * geçerlidir ve saklanmamalıdır. Sink hata fırlatırsa ilgili paket
+     * tamponda kalır ve bir sonraki çağrıda tekrar denenir.
+     *
+     * @param sink Paketleri alacak hedef
+     * @return Aktarılan paket sayısı
+     * @throws IOException Sink yazma hatası
+     */
+    public int drainTo(PacketSink sink) throws IOException {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        int drained = 0;
+        while (currentHead < currentTail) {
+            int index = (int) (currentHead & mask);
+            sink.accept(slots[index], lengths[index]);
+            currentHead++;
+            drained++;
+            head.lazySet(currentHead);
+        }
+        return drained;
+    }
+
+    /**
+     * Tamponda bekleyen paket sayısını döndürür.
+     *
+     * @return Bekleyen paket sayısı (yaklaşık; eşzamanlı erişimde anlık görüntüdür)
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Tamponun slot kapasitesini döndürür.
+     *
+     * @return Slot sayısı
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Tampondan okunan paketleri işleyen hedef.
+     */
+    @FunctionalInterface
+    public interface PacketSink {
+        void accept(byte[] buffer, int length) throws IOException;
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.collector_service.bot.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.avcodec.AVCodec;
+import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
+import org.bytedeco.ffmpeg.avcodec.AVCodecParameters;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVFormatContext;
+import org.bytedeco.ffmpeg.avutil.AVChannelLayout;
+import org.bytedeco.ffmpeg.avutil.AVDictionary;
+import org.bytedeco.ffmpeg.avutil.AVFrame;
+import org.bytedeco.ffmpeg.swresample.SwrContext;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.bytedeco.ffmpeg.global.avcodec.*;
+import static org.bytedeco.ffmpeg.global.avformat.*;
+import static org.bytedeco.ffmpeg.global.avutil.*;
+import static org.bytedeco.ffmpeg.global.swresample.*;
+
+/**
+ * AudioTrackExtractor - Video dosyalarından yalnızca ses izini çıkaran bileşen
+ *
+ * Yüklenen video (mp4, webm, mov, avi) transkripsiyon için sadece sesine ihtiyaç
+ * duyulduğu halde tüm haliyle AI servisine gönderiliyordu. Bu bileşen ingest sırasında
+ * konteyneri demux eder, yalnızca en uygun ses akışının paketlerini decode eder
+ * (video paketleri decode edilmeden atlanır) ve konuşma için yeterli kompakt bir MP3 üretir.
+ *
+ * İş Akışı:
+ * 1. avformat ile konteyner açılır, av_find_best_stream ile ses akışı seçilir
+ * 2. Ses paketleri decode edilir
+ * 3. swresample ile 16 kHz mono 16-bit PCM'e dönüştürülür
+ * 4. PcmMp3Encoder.Mp3Output ile akış halinde MP3'e kodlanır
+ *
+ * Teknik Detaylar:
+ * - Varsayılan çıktı 16 kHz mono 32 kbps (CaptureFormat.SPEECH ile aynı profil)
+ * - Ara PCM dosyası oluşturulmaz; bellek kullanımı paket boyutuyla sınırlıdır
+ * - Ses izi olmayan videolarda boş Optional döner
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class AudioTrackExtractor {
+
+    /** Çıkarılan ses dosyasının MIME tipi */
+    public static final String OUTPUT_MIME_TYPE = "audio/mpeg";
+
+    /** Çıkarılan ses dosyasının uzantısı */
+    public static final String OUTPUT_EXTENSION = ".mp3";
+
+    private final int sampleRate;
+    private final int channels;
+    private final long bitRate;
+    private final PcmMp3Encoder encoder = new PcmMp3Encoder();
+
+    public AudioTrackExtractor(
+            @Value("${media.audio-extraction.sample-rate:16000}") int sampleRate,
+            @Value("${media.audio-extraction.channels:1}") int channels,
+            @Value("${media.audio-extraction.bit-rate:32000}") long bitRate) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitRate = bitRate;
+    }
+
+    /**
+     * Video dosyasının ses izini hedef MP3 dosyasına çıkarır.
+     *
+     * @param source Kaynak video dosyası
+     * @param target Hedef MP3 dosyası
+     * @return Ses izi varsa oluşturulan dosya, yoksa boş
+     * @throws IOException Demux, decode veya encode hatası
+     */
+    public Optional<Path> extractAudio(Path source, Path target) throws IOException {
+        long startNanos = System.nanoTime();
+        AVFormatContext inputContext = new AVFormatContext(null);
+        AVCodecContext decoderContext = null;
+        SwrContext resampler = null;
+        AVPacket packet = null;
+        AVFrame frame = null;
+        AVChannelLayout outputLayout = new AVChannelLayout();
+        ResampleBuffer buffer = new ResampleBuffer();
+        boolean inputOpened = false;
+        boolean completed = false;
+
+        try {
+            PcmMp3Encoder.check(avformat_open_input(inputContext, source.toAbsolutePath().toString(), null, null),
+                    "open input");
+            inputOpened = true;
+            PcmMp3Encoder.check(avformat_find_stream_info(inputContext, (PointerPointer<?>) null), "find stream info");
+
+            int streamIndex = av_find_best_stream(inputContext, AVMEDIA_TYPE_AUDIO, -1, -1, (AVCodec) null, 0);
+            if (streamIndex < 0) {
+                log.info("No audio track found in {}", source);
+                return Optional.empty();
+            }
+            discardOtherStreams(inputContext, streamIndex);
+
+            AVCodecParameters parameters = inputContext.streams(streamIndex).codecpar();
+            AVCodec decoder = avcodec_find_decoder(parameters.codec_id());
+            if (decoder == null || decoder.isNull()) {
+                throw new IOException("No decoder for audio codec id " + parameters.codec_id());
+            }
+            decoderContext = avcodec_alloc_context3(decoder);
+            PcmMp3Encoder.check(avcodec_parameters_to_context(decoderContext, parameters), "copy decoder parameters");
+            PcmMp3Encoder.check(avcodec_open2(decoderContext, decoder, (AVDictionary) null), "open decoder");
+
+            av_channel_layout_default(outputLayout, channels);
+            resampler = swr_alloc();
+            PcmMp3Encoder.check(av_opt_set_chlayout(resampler, "in_chlayout", decoderContext.ch_layout(), 0), "set input layout");
+            PcmMp3Encoder.check(av_opt_set_int(resampler, "in_sample_rate", decoderContext.sample_rate(), 0), "set input rate");
+            PcmMp3Encoder.check(av_opt_set_sample_fmt(resampler, "in_sample_fmt", decoderContext.sample_fmt(), 0), "set input format");
+            PcmMp3Encoder.check(av_opt_set_chlayout(resampler, "out_chlayout", outputLayout, 0), "set output layout");
+            PcmMp3Encoder.check(av_opt_set_int(resampler, "out_sample_rate", sampleRate, 0), "set output rate");
+            PcmMp3Encoder.check(av_opt_set_sample_fmt(resampler, "out_sample_fmt", AV_SAMPLE_FMT_S16, 0), "set output format");
+            PcmMp3Encoder.check(swr_init(resampler), "init resampler");
+
+            packet = av_packet_alloc();
+            frame = av_frame_alloc();
+
+            try (PcmMp3Encoder.Mp3Output output = encoder.open(target.toFile(), sampleRate, channels, bitRate)) {
+                while (av_read_frame(inputContext, packet) >= 0) {
+                    try {
+                        if (packet.stream_index() == streamIndex) {
+                            PcmMp3Encoder.check(avcodec_send_packet(decoderContext, packet), "send packet");
+                            drainDecoder(decoderContext, frame, resampler, buffer, output);
+                        }
+                    } finally {
+                        av_packet_unref(packet);
+                    }
+                }
+
+                PcmMp3Encoder.check(avcodec_send_packet(decoderContext, (AVPacket) null), "flush decoder");
+                drainDecoder(decoderContext, frame, resampler, buffer, output);
+                resample(resampler, null, 0, buffer, output);
+                output.finish();
+            }
+
+            completed = true;
+            log.info("Extracted audio track. Source: {}, Target: {}, Size: {} bytes, Took: {} ms",
+                    source.getFileName(), target.getFileName(), Files.size(target),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            return Optional.of(target);
+
+        } finally {
+            if (frame != null) {
+                av_frame_free(frame);
+            }
+            if (packet != null) {
+                av_packet_free(packet);
+            }
+            if (resampler != null) {
+                swr_free(resampler);
+            }
+            if (decoderContext != null) {
+                avcodec_free_context(decoderContext);
+            }
+            av_channel_layout_uninit(outputLayout);
+            buffer.release();
+            if (inputOpened) {
+                avformat_close_input(inputContext);
+            }
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    /**
+     * Seçilen ses akışı dışındaki akışların paketlerini demuxer seviyesinde atlatır.
+     */
+    private void discardOtherStreams(AVFormatContext inputContext, int streamIndex) {
+        for (int i = 0; i < inputContext.nb_streams(); i++) {
+            if (i != streamIndex) {
+                inputContext.streams(i).discard(AVDISCARD_ALL);
+            }
+        }
+    }
+
+    private void drainDecoder(AVCodecContext decoderContext, AVFrame frame, SwrContext resampler,
+                              ResampleBuffer buffer, PcmMp3Encoder.Mp3Output output) throws IOException {
+        while (true) {
+            int ret = avcodec_receive_frame(decoderContext, frame);
+            if (ret == AVERROR_EAGAIN() || ret == AVERROR_EOF) {
+                return;
+            }
+            PcmMp3Encoder.check(ret, "receive frame");
+            try {
+                resample(resampler, frame.extended_data(), frame.nb_samples(), buffer, output);
+            } finally {
+                av_frame_unref(frame);
+            }
+        }
+    }
+
+    /**
+     * Decode edilmiş örnekleri hedef formata dönüştürür ve encoder'a yazar.
+     * input null ise resampler'da bekleyen örnekler boşaltılır.
+     */
+    private void resample(SwrContext resampler, PointerPointer<?> input, int inputSamples,
+                          ResampleBuffer buffer, PcmMp3Encoder.Mp3Output output) throws IOException {
+        while (true) {
+            int capacity = swr_get_out_samples(resampler, inputSamples);
+            if (capacity <= 0) {
+                return;
+            }
+            buffer.ensureCapacity(capacity * channels * 2);
+            int converted = swr_convert(resampler, buffer.planes, capacity, input, inputSamples);
+            PcmMp3Encoder.check(converted, "resample");
+            if (converted > 0) {
+                output.write(buffer.toBigEndian(converted * channels * 2), 0, converted * channels * 2);
+            }
+            if (input != null || converted == 0) {
+                return;
+            }
+            // Flush: resampler boşalana kadar tekrar çağrılır
+            inputSamples = 0;
+        }
+    }
+
+    /**
+     * Resampler çıktısı için yeniden kullanılan native ve heap tamponları.
+     * swresample native (little-endian) s16 üretir; encoder s16be beklediği için
+     * bayt sırası heap'e kopyalanırken çevrilir.
+     */
+    private static final class ResampleBuffer {
+        private BytePointer nativeBuffer;
+        private PointerPointer<BytePointer> planes;
+        private byte[] bytes = new byte[0];
+
+        void ensureCapacity(int size) {
+            if (bytes.length >= size) {
+                return;
+            }
+            release();
+            nativeBuffer = new BytePointer(size);
+            planes = new PointerPointer<>(nativeBuffer);
+            bytes = new byte[size];
+        }
+
+        void release() {
+            if (nativeBuffer != null) {
+                nativeBuffer.close();
+                planes.close();
+            }
+        }
+
+        byte[] toBigEndian(int length) {
+            nativeBuffer.position(0).get(bytes, 0, length);
+            for (int i = 0; i + 1 < length; i += 2) {
+                byte low = bytes[i];
+                bytes[i] = bytes[i + 1];
+                bytes[i + 1] = low;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * CaptureFormat - Discord ses yakalama formatı
+ *
+ * OPUS: JDA'nın zaten elinde olan ham Opus frame'leri decode edilmeden
+ *       Ogg/Opus dosyasına yazılır. CPU ve disk kullanımı en düşük moddur.
+ * PCM:  JDA her paketi 48 kHz stereo s16be PCM'e decode eder; segmentler
+ *       MP3'e kodlanır. Varsayılan moddur.
+ * SPEECH: PCM gibi decode edilir, ancak diske yazılmadan önce 16 kHz mono'ya
+ *       indirilir (SpeechResampler). Konuşma tanıma için yeterlidir; disk I/O
+ *       ve depolama ~6 kat azalır, downstream yeniden örnekleme gerekmez.
+ *
+ * Yapılandırma: discord.audio.capture-format (OPUS | PCM | SPEECH, varsayılan PCM).
+ * OPUS ve SPEECH tüketicilerin aldığı dosyayı değiştirir (.ogg / 16 kHz mono MP3);
+ * etkinleştirmeden önce ai_service'in bu formatları kabul ettiği doğrulanmalıdır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public enum CaptureFormat {
+
+    OPUS(".ogg", 1500, 48000, 2, 0) {
+        @Override
+        public AudioPacketWriter openWriter(File file, int bufferSizeBytes) throws IOException {
+            return new OggOpusWriter(file, 2, bufferSizeBytes);
+        }
+    },
+
+    PCM(".pcm", 3840, 48000, 2, 128_000) {
+        @Override
+        public AudioPacketWriter openWriter(File file, int bufferSizeBytes) throws IOException {
+            return new PcmPacketWriter(file, bufferSizeBytes);
+        }
+    },
+
+    SPEECH(".pcm", 3840, SpeechResampler.OUTPUT_SAMPLE_RATE, 1, 32_000) {
+        @Override
+        public AudioPacketWriter openWriter(File file, int bufferSizeBytes) throws IOException {
+            return new SpeechPcmWriter(file, bufferSizeBytes, getMaxPacketBytes());
+        }
+    };
+
+    private final String fileExtension;
+    private final int maxPacketBytes;
+    private final int sampleRate;
+    private final int channels;
+    private final long encodeBitRate;
+
+    CaptureFormat(String fileExtension, int maxPacketBytes, int sampleRate, int channels, long encodeBitRate) {
+        this.fileExtension = fileExtension;
+        this.maxPacketBytes = maxPacketBytes;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.encodeBitRate = encodeBitRate;
+    }
+
+    /**
+     * JDA'dan decode edilmiş PCM mi (true) yoksa ham Opus mu (false) alınacağını belirtir.
+     *
+     * @return Decode edilmiş ses gerekiyorsa true
+     */
+    public boolean isDecoded() {
+        return this != OPUS;
+    }
+
+    /**
+     * Diske yazılan sesin örnekleme hızını döndürür.
+     *
+     * @return Örnekleme hızı (Hz)
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Diske yazılan sesin kanal sayısını döndürür.
+     *
+     * @return Kanal sayısı
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Segment MP3'e kodlanırken kullanılacak bit hızını döndürür (OPUS için kullanılmaz).
+     *
+     * @return Bit hızı (bit/s)
+     */
+    public long getEncodeBitRate() {
+        return encodeBitRate;
+    }
+
+    /**
+     * Geçici kayıt dosyasının uzantısını döndürür.
+     *
+     * @return Dosya uzantısı (nokta dahil)
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Tek bir paketin alabileceği maksimum byte sayısını döndürür.
+     * PCM/SPEECH için 20 ms, 48 kHz, stereo, 16-bit = 3840 byte (giriş); Opus için MTU sınırı.
+     *
+     * @return Maksimum paket boyutu
+     */
+    public int getMaxPacketBytes() {
+        return maxPacketBytes;
+    }
+
+    /**
+     * Bu format için paket yazıcısını açar.
+     *
+     * @param file            Hedef dosya
+     * @param bufferSizeBytes Disk yazma tamponu boyutu
+     * @return Paket yazıcısı
+     * @throws IOException Dosya açılamazsa
+     */
+    public abstract AudioPacketWriter openWriter(File file, int bufferSizeBytes) throws IOException;
+}
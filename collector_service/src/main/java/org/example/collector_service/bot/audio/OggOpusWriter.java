@@ -0,0 +1,260 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OggOpusWriter - Ham Opus frame'lerini Ogg/Opus konteynerine mux eden yazıcı
+ *
+ * Discord'dan gelen Opus paketleri decode edilmeden doğrudan .ogg dosyasına
+ * yazılır (RFC 7845). Böylece PCM decode ve sonrasında MP3 re-encode maliyeti
+ * ortadan kalkar, disk kullanımı PCM'e göre yaklaşık 15 kat azalır.
+ *
+ * Teknik Detaylar:
+ * - İlk sayfa: OpusHead (BOS), ikinci sayfa: OpusTags
+ * - Ses sayfaları: en fazla PACKETS_PER_PAGE paket (~1 saniye) veya 255 segment
+ * - Granule position: 48 kHz örnek sayısı, TOC byte'ından hesaplanır (RFC 6716 §3.1)
+ * - Son sayfa EOS bayrağı ile kapatılır
+ *
+ * Thread-Safety: Thread-safe değildir; yalnızca yazıcı thread tarafından kullanılır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class OggOpusWriter implements AudioPacketWriter {
+
+    private static final int OPUS_SAMPLE_RATE = 48000;
+
+    /** libopus encoder lookahead değeri (48 kHz örnek) */
+    private static final int PRE_SKIP = 312;
+
+    private static final int MAX_SEGMENTS = 255;
+    private static final int PACKETS_PER_PAGE = 50;
+    private static final int HEADER_SIZE = 27;
+
+    private static final int FLAG_BOS = 0x02;
+    private static final int FLAG_EOS = 0x04;
+
+    private static final String VENDOR = "collector_service";
+
+    private static final int[] CRC_TABLE = buildCrcTable();
+
+    /** SILK-only kiplerin (config 0-11) frame boyutları: 10, 20, 40, 60 ms */
+    private static final int[] SILK_FRAME_SIZES = {480, 960, 1920, 2880};
+
+    private final OutputStream outputStream;
+    private final int serialNumber;
+    private final byte[] header = new byte[HEADER_SIZE + MAX_SEGMENTS];
+    private final byte[] body = new byte[MAX_SEGMENTS * 255];
+    private int bodyLength;
+    private int segmentCount;
+    private int packetsInPage;
+    private int pageSequence;
+    private long granulePosition;
+    private long bytesWritten;
+
+    /**
+     * Constructor - Dosyayı oluşturur ve Ogg/Opus başlık sayfalarını yazar.
+     *
+     * @param file            Hedef .ogg dosyası
+     * @param channels        Kanal sayısı (Discord için 2)
+     * @param bufferSizeBytes Disk yazma tamponu boyutu
+     * @throws IOException Dosya açılamaz veya başlıklar yazılamazsa
+     */
+    public OggOpusWriter(File file, int channels, int bufferSizeBytes) throws IOException {
+        this(new BufferedOutputStream(new FileOutputStream(file), bufferSizeBytes), channels);
+    }
+
+    /**
+     * Constructor - Verilen stream'e Ogg/Opus başlık sayfalarını yazar.
+     *
+     * @param outputStream Hedef stream (close() ile kapatılır)
+     * @param channels     Kanal sayısı
+     * @throws IOException Başlıklar yazılamazsa
+     */
+    public OggOpusWriter(OutputStream outputStream, int channels) throws IOException {
+        this.outputStream = outputStream;
+        this.serialNumber = ThreadLocalRandom.current().nextInt();
+        writeIdHeader(channels);
+        writeCommentHeader();
+    }
+
+    /**
+     * Bir Opus paketini mevcut sayfaya ekler; sayfa dolarsa diske yazar.
+     *
+     * @param packet Opus paketi (TOC byte'ı ile başlar)
+     * @param length Paket uzunluğu
+     * @throws IOException Yazma hatası
+     */
+    @Override
+    public void accept(byte[] packet, int length) throws IOException {
+        int needed = length / 255 + 1;
+        if (segmentCount + needed > MAX_SEGMENTS) {
+            flushPage(0);
+        }
+        appendPacket(packet, length);
+        granulePosition += sampleCount(packet, length);
+        packetsInPage++;
+        if (packetsInPage >= PACKETS_PER_PAGE) {
+            flushPage(0);
+        }
+    }
+
+    /**
+     * Yazılan sayfalar ve henüz sayfaya dökülmemiş paket baytları.
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten + bodyLength;
+    }
+
+    /**
+     * Bekleyen paketleri EOS bayrağı ile son sayfa olarak yazar ve stream'i kapatır.
+     *
+     * @throws IOException Yazma veya kapatma hatası
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushPage(FLAG_EOS);
+            outputStream.flush();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Opus paketinin içerdiği 48 kHz örnek sayısını TOC byte'ından hesaplar.
+     *
+     * @param packet Opus paketi
+     * @param length Paket uzunluğu
+     * @return Örnek sayısı; paket boş veya bozuksa 0
+     */
+    public static int sampleCount(byte[] packet, int length) {
+        if (length < 1) {
+            return 0;
+        }
+        int toc = packet[0] & 0xFF;
+        int config = toc >>> 3;
+        int frameSize;
+        if (config < 12) {
+            frameSize = SILK_FRAME_SIZES[config & 0x03];
+        } else if (config < 16) {
+            frameSize = (config & 0x01) == 0 ? 480 : 960;
+        } else {
+            frameSize = 120 << (config & 0x03);
+        }
+        int frameCount = switch (toc & 0x03) {
+            case 0 -> 1;
+            case 1, 2 -> 2;
+            default -> length < 2 ? 0 : packet[1] & 0x3F;
+        };
+        return frameSize * frameCount;
+    }
+
+    private void writeIdHeader(int channels) throws IOException {
+        byte[] id = new byte[19];
+        System.arraycopy("OpusHead".getBytes(StandardCharsets.US_ASCII), 0, id, 0, 8);
+        id[8] = 1;
+        id[9] = (byte) channels;
+        putShortLE(id, 10, PRE_SKIP);
+        putIntLE(id, 12, OPUS_SAMPLE_RATE);
+        putShortLE(id, 16, 0);
+        id[18] = 0;
+        appendPacket(id, id.length);
+        flushPage(FLAG_BOS);
+    }
+
+    private void writeCommentHeader() throws IOException {
+        byte[] vendor = VENDOR.getBytes(StandardCharsets.UTF_8);
+        byte[] tags = new byte[8 + 4 + vendor.length + 4];
+        System.arraycopy("OpusTags".getBytes(StandardCharsets.US_ASCII), 0, tags, 0, 8);
+        putIntLE(tags, 8, vendor.length);
+        System.arraycopy(vendor, 0, tags, 12, vendor.length);
+        putIntLE(tags, 12 + vendor.length, 0);
+        appendPacket(tags, tags.length);
+        flushPage(0);
+    }
+
+    private void appendPacket(byte[] packet, int length) {
+        System.arraycopy(packet, 0, body, bodyLength, length);
+        bodyLength += length;
+        int remaining = length;
+        while (remaining >= 255) {
+            header[HEADER_SIZE + segmentCount++] = (byte) 255;
+            remaining -= 255;
+        }
+        header[HEADER_SIZE + segmentCount++] = (byte) remaining;
+    }
+
+    private void flushPage(int flags) throws IOException {
+        if (segmentCount == 0 && (flags & FLAG_EOS) == 0) {
+            return;
+        }
+        header[0] = 'O';
+        header[1] = 'g';
+        header[2] = 'g';
+        header[3] = 'S';
+        header[4] = 0;
+        header[5] = (byte) flags;
+        putLongLE(header, 6, pageSequence < 2 ? 0 : granulePosition);
+        putIntLE(header, 14, serialNumber);
+        putIntLE(header, 18, pageSequence++);
+        putIntLE(header, 22, 0);
+        header[26] = (byte) segmentCount;
+
+        int headerLength = HEADER_SIZE + segmentCount;
+        int crc = updateCrc(0, header, headerLength);
+        crc = updateCrc(crc, body, bodyLength);
+        putIntLE(header, 22, crc);
+
+        outputStream.write(header, 0, headerLength);
+        outputStream.write(body, 0, bodyLength);
+        bytesWritten += headerLength + bodyLength;
+
+        bodyLength = 0;
+        segmentCount = 0;
+        packetsInPage = 0;
+    }
+
+    private static int updateCrc(int crc, byte[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ data[i]) & 0xFF];
+        }
+        return crc;
+    }
+
+    private static int[] buildCrcTable() {
+        int[] table = new int[256];
+        for (int i = 0; i < 256; i++) {
+            int r = i << 24;
+            for (int j = 0; j < 8; j++) {
+                r = (r & 0x80000000) != 0 ? (r << 1) ^ 0x04C11DB7 : r << 1;
+            }
+            table[i] = r;
+        }
+        return table;
+    }
+
+    private static void putShortLE(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putIntLE(byte[] target, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static void putLongLE(byte[] target, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            target[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
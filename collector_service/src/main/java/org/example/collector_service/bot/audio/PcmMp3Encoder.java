@@ -0,0 +1,342 @@
+package org.example.collector_service.bot.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.avcodec.AVCodec;
+import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avformat.AVFormatContext;
+import org.bytedeco.ffmpeg.avformat.AVIOContext;
+import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.ffmpeg.avutil.AVDictionary;
+import org.bytedeco.ffmpeg.avutil.AVFrame;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacpp.ShortPointer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.bytedeco.ffmpeg.global.avcodec.*;
+import static org.bytedeco.ffmpeg.global.avformat.*;
+import static org.bytedeco.ffmpeg.global.avutil.*;
+
+/**
+ * PcmMp3Encoder - Ham PCM verisini süreç içinde (in-process) MP3'e kodlayan encoder
+ *
+ * Harici ffmpeg süreci başlatmak yerine collector'ın zaten bağımlı olduğu
+ * bytedeco ffmpeg (libavcodec / libavformat / libmp3lame) kütüphanesini
+ * doğrudan kullanır. Fork/exec ve süreç bekleme maliyeti ortadan kalkar.
+ *
+ * Girdi Formatı: 16-bit signed big-endian interleaved PCM
+ * Çıktı: MP3 (libmp3lame, planar float veya planar 16-bit giriş)
+ *
+ * Kullanım:
+ * - encode(): PCM dosyasını tek seferde kodlar
+ * - open(): PCM'i parça parça alan akış (ör. video'dan çıkarılan ses) için Mp3Output döndürür
+ *
+ * Thread-Safety: Her kodlama kendi libav context'lerini oluşturur;
+ * aynı instance farklı thread'lerden eşzamanlı kullanılabilir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class PcmMp3Encoder {
+
+    private static final int BYTES_PER_SAMPLE = 2;
+
+    /**
+     * PCM dosyasını MP3'e kodlar.
+     *
+     * @param pcmFile    Kaynak PCM dosyası (s16be, interleaved)
+     * @param mp3File    Hedef MP3 dosyası
+     * @param sampleRate Örnekleme hızı (Hz)
+     * @param channels   Kanal sayısı
+     * @param bitRate    Hedef bit hızı (bit/s)
+     * @return Oluşturulan MP3 dosyası
+     * @throws IOException Okuma, kodlama veya yazma hatası
+     */
+    public File encode(File pcmFile, File mp3File, int sampleRate, int channels, long bitRate) throws IOException {
+        try (Mp3Output output = open(mp3File, sampleRate, channels, bitRate);
+             InputStream input = new BufferedInputStream(new FileInputStream(pcmFile), 256 * 1024)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            output.finish();
+        }
+        return mp3File;
+    }
+
+    /**
+     * Parça parça PCM alan bir MP3 çıktısı açar.
+     * Başarılı bitiş için finish(), ardından close() çağrılmalıdır;
+     * finish() çağrılmadan kapatılan çıktı yarım kalır.
+     *
+     * @param mp3File    Hedef MP3 dosyası
+     * @param sampleRate Örnekleme hızı (Hz)
+     * @param channels   Kanal sayısı
+     * @param bitRate    Hedef bit hızı (bit/s)
+     * @return MP3 çıktısı
+     * @throws IOException Encoder veya dosya açılamazsa
+     */
+    public Mp3Output open(File mp3File, int sampleRate, int channels, long bitRate) throws IOException {
+        return new Mp3Output(mp3File, sampleRate, channels, bitRate);
+    }
+
+    /**
+     * Mp3Output - Tek bir MP3 dosyasına kodlama oturumu
+     *
+     * Gelen PCM baytları frame_size örneklik bloklar halinde toplanır ve kodlanır;
+     * son eksik blok finish() sırasında sessizlikle doldurulur.
+     *
+     * Kanal düzlemleri (plane) oturum başında bir kez native bellekte ayrılır ve frame'e
+     * bağlanır; her frame'de yalnızca içerikleri yazılır, yeni Pointer nesnesi oluşturulmaz.
+     */
+    public static final class Mp3Output implements Closeable {
+
+        private final AVFormatContext formatContext = new AVFormatContext(null);
+        private AVCodecContext codecContext;
+        private AVStream stream;
+        private AVFrame frame;
+        private AVPacket packet;
+        private boolean ioOpened;
+
+        private final int channels;
+        private int frameSize;
+        private boolean planarFloat;
+        private byte[] pending;
+        private int pendingLength;
+        private float[] floatPlane;
+        private short[] shortPlane;
+        private Pointer[] planes;
+        private long pts;
+
+        private Mp3Output(File mp3File, int sampleRate, int channels, long bitRate) throws IOException {
+            this.channels = channels;
+            try {
+                init(mp3File.getAbsolutePath(), sampleRate, channels, bitRate);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void init(String outputPath, int sampleRate, int channels, long bitRate) throws IOException {
+            check(avformat_alloc_output_context2(formatContext, null, "mp3", outputPath), "alloc output context");
+
+            AVCodec codec = avcodec_find_encoder(AV_CODEC_ID_MP3);
+            if (codec == null || codec.isNull()) {
+                throw new IOException("MP3 encoder not available in bundled ffmpeg");
+            }
+
+            stream = avformat_new_stream(formatContext, null);
+            codecContext = avcodec_alloc_context3(codec);
+            codecContext.sample_fmt(selectSampleFormat(codec));
+            codecContext.bit_rate(bitRate);
+            codecContext.sample_rate(sampleRate);
+            av_channel_layout_default(codecContext.ch_layout(), channels);
+            codecContext.time_base().num(1).den(sampleRate);
+            if ((formatContext.oformat().flags() & AVFMT_GLOBALHEADER) != 0) {
+                codecContext.flags(codecContext.flags() | AV_CODEC_FLAG_GLOBAL_HEADER);
+            }
+
+            check(avcodec_open2(codecContext, codec, (AVDictionary) null), "open encoder");
+            check(avcodec_parameters_from_context(stream.codecpar(), codecContext), "copy codec parameters");
+            stream.time_base(codecContext.time_base());
+
+            AVIOContext ioContext = new AVIOContext(null);
+            check(avio_open(ioContext, outputPath, AVIO_FLAG_WRITE), "open output file");
+            formatContext.pb(ioContext);
+            ioOpened = true;
+            check(avformat_write_header(formatContext, (AVDictionary) null), "write header");
+
+            frameSize = codecContext.frame_size() > 0 ? codecContext.frame_size() : 1152;
+            frame = av_frame_alloc();
+            frame.nb_samples(frameSize);
+            frame.format(codecContext.sample_fmt());
+            check(av_channel_layout_copy(frame.ch_layout(), codecContext.ch_layout()), "copy channel layout");
+            packet = av_packet_alloc();
+
+            planarFloat = codecContext.sample_fmt() == AV_SAMPLE_FMT_FLTP;
+            pending = new byte[frameSize * channels * BYTES_PER_SAMPLE];
+            floatPlane = planarFloat ? new float[frameSize] : null;
+            shortPlane = planarFloat ? null : new short[frameSize];
+            allocatePlanes();
+        }
+
+        /**
+         * Kanal düzlemlerini bir kez ayırıp frame'e bağlar. Frame referans sayımlı olmadığı için
+         * avcodec_send_frame() veriyi kendi tamponuna kopyalar; düzlemler her frame'de yeniden kullanılabilir.
+         */
+        private void allocatePlanes() throws IOException {
+            if (channels > AVFrame.AV_NUM_DATA_POINTERS) {
+                throw new IOException("Unsupported channel count for MP3: " + channels);
+            }
+            planes = new Pointer[channels];
+            for (int channel = 0; channel < channels; channel++) {
+                planes[channel] = planarFloat ? new FloatPointer(frameSize) : new ShortPointer(frameSize);
+                frame.data(channel, new BytePointer(planes[channel]));
+            }
+            frame.linesize(0, frameSize * (planarFloat ? Float.BYTES : Short.BYTES));
+        }
+
+        /**
+         * PCM baytlarını (s16be, interleaved) kodlamaya ekler.
+         *
+         * @param data   Kaynak tampon
+         * @param offset Başlangıç ofseti
+         * @param length Bayt sayısı
+         * @throws IOException Kodlama veya yazma hatası
+         */
+        public void write(byte[] data, int offset, int length) throws IOException {
+            while (length > 0) {
+                int copy = Math.min(length, pending.length - pendingLength);
+                System.arraycopy(data, offset, pending, pendingLength, copy);
+                pendingLength += copy;
+                offset += copy;
+                length -= copy;
+                if (pendingLength == pending.length) {
+                    encodePending();
+                }
+            }
+        }
+
+        /**
+         * Kalan veriyi kodlar, encoder'ı boşaltır ve dosyayı sonlandırır.
+         *
+         * @throws IOException Kodlama veya yazma hatası
+         */
+        public void finish() throws IOException {
+            if (pendingLength > 0) {
+                Arrays.fill(pending, pendingLength, pending.length, (byte) 0);
+                encodePending();
+            }
+            check(avcodec_send_frame(codecContext, null), "flush encoder");
+            writePackets();
+            check(av_write_trailer(formatContext), "write trailer");
+        }
+
+        private void encodePending() throws IOException {
+            for (int channel = 0; channel < channels; channel++) {
+                for (int i = 0; i < frameSize; i++) {
+                    int offset = (i * channels + channel) * BYTES_PER_SAMPLE;
+                    short sample = (short) ((pending[offset] << 8) | (pending[offset + 1] & 0xFF));
+                    if (planarFloat) {
+                        floatPlane[i] = sample / 32768f;
+                    } else {
+                        shortPlane[i] = sample;
+                    }
+                }
+                if (planarFloat) {
+                    ((FloatPointer) planes[channel]).put(floatPlane, 0, frameSize);
+                } else {
+                    ((ShortPointer) planes[channel]).put(shortPlane, 0, frameSize);
+                }
+            }
+
+            frame.pts(pts);
+            pts += frameSize;
+            pendingLength = 0;
+            check(avcodec_send_frame(codecContext, frame), "send frame");
+            writePackets();
+        }
+
+        private void writePackets() throws IOException {
+            while (true) {
+                int ret = avcodec_receive_packet(codecContext, packet);
+                if (ret == AVERROR_EAGAIN() || ret == AVERROR_EOF) {
+                    return;
+                }
+                check(ret, "receive packet");
+                av_packet_rescale_ts(packet, codecContext.time_base(), stream.time_base());
+                packet.stream_index(stream.index());
+                check(av_interleaved_write_frame(formatContext, packet), "write packet");
+            }
+        }
+
+        /**
+         * Tüm libav kaynaklarını serbest bırakır.
+         */
+        @Override
+        public void close() {
+            if (packet != null) {
+                av_packet_free(packet);
+                packet = null;
+            }
+            if (frame != null) {
+                av_frame_free(frame);
+                frame = null;
+            }
+            if (planes != null) {
+                for (Pointer plane : planes) {
+                    if (plane != null) {
+                        plane.close();
+                    }
+                }
+                planes = null;
+            }
+            if (codecContext != null) {
+                avcodec_free_context(codecContext);
+                codecContext = null;
+            }
+            if (ioOpened) {
+                avio_close(formatContext.pb());
+                ioOpened = false;
+            }
+            if (!formatContext.isNull()) {
+                avformat_free_context(formatContext);
+                formatContext.setNull();
+            }
+        }
+
+        /**
+         * Encoder'ın desteklediği formatlar arasından planar float'ı, yoksa planar 16-bit'i seçer.
+         * Liste, kullanımdan kaldırılan AVCodec.sample_fmts yerine avcodec_get_supported_config ile okunur;
+         * dönen dizi codec'e aittir ve serbest bırakılmaz.
+         */
+        private static int selectSampleFormat(AVCodec codec) throws IOException {
+            try (PointerPointer<Pointer> configs = new PointerPointer<>(1);
+                 IntPointer count = new IntPointer(1)) {
+                check(avcodec_get_supported_config(null, codec, AV_CODEC_CONFIG_SAMPLE_FORMAT, 0, configs, count),
+                        "query supported sample formats");
+                Pointer formatList = configs.get(0);
+                if (formatList == null || formatList.isNull()) {
+                    return AV_SAMPLE_FMT_FLTP;
+                }
+                IntPointer formats = new IntPointer(formatList);
+                for (int i = 0; i < count.get(); i++) {
+                    if (formats.get(i) == AV_SAMPLE_FMT_FLTP) {
+                        return AV_SAMPLE_FMT_FLTP;
+                    }
+                }
+                return AV_SAMPLE_FMT_S16P;
+            }
+        }
+    }
+
+    /**
+     * libav dönüş kodunu kontrol eder; negatifse açıklamalı IOException fırlatır.
+     *
+     * @param ret       libav dönüş kodu
+     * @param operation Hata mesajında kullanılacak işlem adı
+     * @throws IOException ret negatifse
+     */
+    public static void check(int ret, String operation) throws IOException {
+        if (ret < 0) {
+            byte[] buffer = new byte[256];
+            av_strerror(ret, buffer, buffer.length);
+            String message = new String(buffer).trim();
+            throw new IOException("ffmpeg " + operation + " failed: " + message + " (" + ret + ")");
+        }
+    }
+}
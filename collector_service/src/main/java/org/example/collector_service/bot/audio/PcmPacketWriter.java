@@ -0,0 +1,55 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * PcmPacketWriter - Ham PCM paketlerini dosyaya yazan AudioPacketWriter
+ *
+ * Paketler büyük bir BufferedOutputStream üzerinden yazılır; gerçek disk
+ * yazması yalnızca tampon dolduğunda gerçekleşir.
+ *
+ * Dosya Formatı: PCM (48000 Hz, 16-bit, stereo, big-endian)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class PcmPacketWriter implements AudioPacketWriter {
+
+    private final OutputStream outputStream;
+    private long bytesWritten;
+
+    /**
+     * Constructor - Dosyayı append modunda açar.
+     *
+     * @param file            Hedef PCM dosyası
+     * @param bufferSizeBytes Disk yazma tamponu boyutu
+     * @throws IOException Dosya açılamazsa
+     */
+    public PcmPacketWriter(File file, int bufferSizeBytes) throws IOException {
+        this.outputStream = new BufferedOutputStream(new FileOutputStream(file, true), bufferSizeBytes);
+    }
+
+    @Override
+    public void accept(byte[] buffer, int length) throws IOException {
+        outputStream.write(buffer, 0, length);
+        bytesWritten += length;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            outputStream.flush();
+        } finally {
+            outputStream.close();
+        }
+    }
+}
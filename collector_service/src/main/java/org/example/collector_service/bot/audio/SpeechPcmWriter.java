@@ -0,0 +1,53 @@
+package org.example.collector_service.bot.audio;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * SpeechPcmWriter - PCM paketlerini 16 kHz mono'ya indirerek yazan AudioPacketWriter
+ *
+ * Her 48 kHz stereo paketi SpeechResampler ile dönüştürür ve sonucu
+ * PcmPacketWriter'a aktarır. Çıkış tamponu bir kez ayrılır ve yeniden kullanılır.
+ *
+ * Dosya Formatı: PCM (16000 Hz, 16-bit, mono, big-endian)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class SpeechPcmWriter implements AudioPacketWriter {
+
+    private final SpeechResampler resampler = new SpeechResampler();
+    private final PcmPacketWriter delegate;
+    private final byte[] outputBuffer;
+
+    /**
+     * Constructor - Dosyayı append modunda açar.
+     *
+     * @param file            Hedef PCM dosyası
+     * @param bufferSizeBytes Disk yazma tamponu boyutu
+     * @param maxPacketBytes  Tek bir giriş paketinin maksimum boyutu
+     * @throws IOException Dosya açılamazsa
+     */
+    public SpeechPcmWriter(File file, int bufferSizeBytes, int maxPacketBytes) throws IOException {
+        this.delegate = new PcmPacketWriter(file, bufferSizeBytes);
+        this.outputBuffer = new byte[SpeechResampler.maxOutputBytes(maxPacketBytes)];
+    }
+
+    @Override
+    public void accept(byte[] buffer, int length) throws IOException {
+        int written = resampler.process(buffer, 0, length, outputBuffer, 0);
+        if (written > 0) {
+            delegate.accept(outputBuffer, written);
+        }
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return delegate.getBytesWritten();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.collector_service.bot.audio;
+
+import java.util.Arrays;
+
+/**
+ * SpeechResampler - 48 kHz stereo PCM'i 16 kHz mono'ya indiren polyphase decimator
+ *
+ * Discord'un decode ettiği 48 kHz stereo s16be PCM'i konuşma tanıma için
+ * yeterli olan 16 kHz mono s16be PCM'e dönüştürür. Yazıcı thread'inde,
+ * veri diske yazılmadan önce çalışır; disk I/O ve depolama ~6 kat azalır.
+ *
+ * Teknik Detaylar:
+ * - Downmix: (L + R) / 2
+ * - Alçak geçiren FIR: 60 tap, Blackman pencereli sinc, kesim 7.2 kHz
+ * - Decimation oranı 3; polyphase yapı sayesinde yalnızca tutulacak
+ *   örnekler için FIR hesaplanır (atılacak örneklerde çarpma yapılmaz)
+ * - Geçmiş tamponu 2x uzunlukta tutulur (her örnek iki yere yazılır),
+ *   böylece FIR penceresi her zaman bitişik olur ve modulo gerekmez
+ * - Paketler arası durum korunur; parça parça işlemek tek seferde işlemekle aynı sonucu verir
+ * - İşleme sırasında hiç nesne/dizi ayırmaz (allocation-free)
+ *
+ * Thread-Safety: Durumludur; her ses akışı kendi instance'ını kullanmalıdır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class SpeechResampler {
+
+    /** Giriş örnekleme hızı (Hz) */
+    public static final int INPUT_SAMPLE_RATE = 48000;
+
+    /** Çıkış örnekleme hızı (Hz) */
+    public static final int OUTPUT_SAMPLE_RATE = 16000;
+
+    private static final int DECIMATION = INPUT_SAMPLE_RATE / OUTPUT_SAMPLE_RATE;
+    private static final int TAPS = 60;
+    private static final double CUTOFF_HZ = 7200.0;
+    private static final int INPUT_FRAME_BYTES = 4;
+
+    /** Ters sırada saklanan katsayılar; pencere ile doğrudan nokta çarpımı yapılır */
+    private static final float[] COEFFICIENTS = designLowPass();
+
+    private final float[] history = new float[TAPS * 2];
+    private int historyPos = 0;
+    private int phase = 0;
+
+    /**
+     * Verilen giriş uzunluğu için üretilebilecek maksimum çıkış bayt sayısını döndürür.
+     *
+     * @param inputBytes Giriş bayt sayısı (48 kHz stereo s16be)
+     * @return Maksimum çıkış bayt sayısı (16 kHz mono s16be)
+     */
+    public static int maxOutputBytes(int inputBytes) {
+        return (inputBytes / INPUT_FRAME_BYTES / DECIMATION + 1) * 2;
+    }
+
+    /**
+     * 48 kHz stereo s16be PCM'i 16 kHz mono s16be PCM'e dönüştürür.
+     *
+     * Tam olmayan son frame (4 bayttan az) yok sayılır.
+     *
+     * @param input       Giriş tamponu
+     * @param inputOffset Giriş başlangıç ofseti
+     * @param inputLength Giriş uzunluğu (bayt)
+     * @param output      Çıkış tamponu; en az maxOutputBytes(inputLength) yer olmalı
+     * @param outputOffset Çıkış başlangıç ofseti
+     * @return Yazılan çıkış bayt sayısı
+     */
+    public int process(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+        float[] h = history;
+        float[] c = COEFFICIENTS;
+        int pos = historyPos;
+        int ph = phase;
+        int out = outputOffset;
+        int end = inputOffset + inputLength - (INPUT_FRAME_BYTES - 1);
+
+        for (int i = inputOffset; i < end; i += INPUT_FRAME_BYTES) {
+            int left = (short) ((input[i] << 8) | (input[i + 1] & 0xFF));
+            int right = (short) ((input[i + 2] << 8) | (input[i + 3] & 0xFF));
+            float mono = (left + right) * 0.5f;
+
+            h[pos] = mono;
+            h[pos + TAPS] = mono;
+            pos++;
+            if (pos == TAPS) {
+                pos = 0;
+            }
+
+            if (++ph == DECIMATION) {
+                ph = 0;
+                float acc = 0f;
+                for (int k = 0; k < TAPS; k++) {
+                    acc += c[k] * h[pos + k];
+                }
+                int sample = Math.round(acc);
+                if (sample > Short.MAX_VALUE) {
+                    sample = Short.MAX_VALUE;
+                } else if (sample < Short.MIN_VALUE) {
+                    sample = Short.MIN_VALUE;
+                }
+                output[out++] = (byte) (sample >> 8);
+                output[out++] = (byte) sample;
+            }
+        }
+
+        historyPos = pos;
+        phase = ph;
+        return out - outputOffset;
+    }
+
+    /**
+     * Filtre durumunu sıfırlar (yeni, bağımsız bir akışa geçerken).
+     */
+    public void reset() {
+        Arrays.fill(history, 0f);
+        historyPos = 0;
+        phase = 0;
+    }
+
+    /**
+     * Blackman pencereli sinc alçak geçiren filtre tasarlar; DC kazancı 1'e normalize edilir.
+     * Pencere h[pos..pos+TAPS) en eski örnekten en yeniye sıralı olduğu için katsayılar ters çevrilir.
+     */
+    private static float[] designLowPass() {
+        double fc = CUTOFF_HZ / INPUT_SAMPLE_RATE;
+        double[] taps = new double[TAPS];
+        double sum = 0;
+        double center = (TAPS - 1) / 2.0;
+        for (int n = 0; n < TAPS; n++) {
+            double x = n - center;
+            double sinc = x == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * x) / (Math.PI * x);
+            double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * n / (TAPS - 1))
+                    + 0.08 * Math.cos(4 * Math.PI * n / (TAPS - 1));
+            taps[n] = sinc * window;
+            sum += taps[n];
+        }
+        float[] reversed = new float[TAPS];
+        for (int n = 0; n < TAPS; n++) {
+            reversed[n] = (float) (taps[TAPS - 1 - n] / sum);
+        }
+        return reversed;
+    }
+}
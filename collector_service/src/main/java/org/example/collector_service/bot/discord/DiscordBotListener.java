@@ -2,14 +2,14 @@ package org.example.collector_service.bot.discord;
 
 import org.example.collector_service.bot.DiscordAudioReceiver;
 import org.example.collector_service.domain.model.Message;
-import org.example.collector_service.service.AudioMessageService;
-import org.example.collector_service.service.MessageService;
+import org.example.collector_service.service.MessageIngestionQueue;
 import org.example.collector_service.service.VoiceSessionService;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.springframework.stereotype.Component;
@@ -21,7 +21,9 @@ import java.time.LocalDateTime;
  * DiscordBotListener - Discord bot olay dinleyicisi
  * 
  * Discord sunucusundaki mesajları ve ses kanalı olaylarını dinler.
- * Bot komutlarını işler (!join, !leave) ve mesajları veritabanına kaydeder.
+ * Bot komutlarını işler (!join, !leave) ve mesajları MessageIngestionQueue üzerinden
+ * asenkron olarak veritabanına kaydeder.
+ * Her sunucunun ses kaydı DiscordRecordingSessionRegistry üzerinden ayrı bir oturumda tutulur.
  * 
  * Desteklenen Komutlar:
  * - !join  : Botun ses kanalına katılmasını sağlar
@@ -42,24 +44,23 @@ public class DiscordBotListener extends ListenerAdapter {
     @Value("${discord.bot.token}")
     private String token;
 
-    private final MessageService messageService;
+    private final MessageIngestionQueue messageIngestionQueue;
     private final VoiceSessionService voiceSessionService;
-    private final AudioMessageService audioMessageService;
-    private final DiscordAudioReceiver discordAudioReceiver;
+    private final DiscordRecordingSessionRegistry recordingSessions;
 
     /**
      * DiscordBotListener constructor.
-     * Gerekli servisleri inject eder ve audio receiver'ı başlatır.
+     * Gerekli servisleri inject eder.
      *
-     * @param messageService      Mesaj kaydetme servisi
+     * @param messageIngestionQueue Mesajları toplu kaydeden asenkron kuyruk
      * @param voiceSessionService Ses oturumu yönetim servisi
-     * @param audioMessageService Ses mesajı kaydetme servisi
+     * @param recordingSessions   Guild başına kayıt oturumu kayıt defteri
      */
-    public DiscordBotListener(MessageService messageService, VoiceSessionService voiceSessionService, AudioMessageService audioMessageService) {
-        this.messageService = messageService;
+    public DiscordBotListener(MessageIngestionQueue messageIngestionQueue, VoiceSessionService voiceSessionService,
+                              DiscordRecordingSessionRegistry recordingSessions) {
+        this.messageIngestionQueue = messageIngestionQueue;
         this.voiceSessionService = voiceSessionService;
-        this.audioMessageService = audioMessageService;
-        this.discordAudioReceiver = new DiscordAudioReceiver(audioMessageService);
+        this.recordingSessions = recordingSessions;
     }
 
     /**
@@ -110,8 +111,16 @@ public class DiscordBotListener extends ListenerAdapter {
         message.setTimestamp(LocalDateTime.now());
         message.setChannelId(channelId);
         message.setChannelName(channelName);
+        // Kayıt sürerken yazılan mesaj o toplantıya aittir; outbox'ta ses event'leriyle aynı anahtarı alır
+        if(event.isFromGuild()){
+            DiscordAudioReceiver recording = recordingSessions.getSession(event.getGuild().getId());
+            if(recording != null){
+                message.setMeetingId(recording.getChannleId());
+            }
+        }
 
-        messageService.processAndSaveMessage(message);
+        // JDA event thread'i bloklanmaz; mesaj writer thread'inde toplu kaydedilir
+        messageIngestionQueue.submit(message);
 
         System.out.printf("Message received in channel %s (%s) from %s: %s%n", channelName, channelId, author, content);
     }
@@ -129,9 +138,17 @@ public class DiscordBotListener extends ListenerAdapter {
         var audioChannel = voiceState.getChannel();
         var audioManager = event.getGuild().getAudioManager();
 
-        this.discordAudioReceiver.setChannleId(audioChannel.getId());
+        var jda = event.getJDA();
+        if(recordingSessions.getSession(event.getGuild().getId()) != null){
+            event.getChannel().sendMessage("I'm already recording in this server!").queue();
+            return;
+        }
+        DiscordAudioReceiver receiver = recordingSessions.startSession(event.getGuild().getId(), audioChannel.getId(), userId -> {
+            User user = jda.getUserById(userId);
+            return user != null ? user.getName() : String.valueOf(userId);
+        });
         audioManager.openAudioConnection(audioChannel);
-        audioManager.setReceivingHandler(this.discordAudioReceiver);
+        audioManager.setReceivingHandler(receiver);
 
         event.getChannel().sendMessage("I joined the voice channel! Conversations are being recorded!!!" + audioChannel.getId()).queue();
         System.out.println("Joined voice channel: " + audioChannel.getName() + " ID: " + audioChannel.getId());
@@ -140,10 +157,22 @@ public class DiscordBotListener extends ListenerAdapter {
     private void leftVoiceChannel(MessageReceivedEvent event) {
         var audioManager = event.getGuild().getAudioManager();
         if(audioManager.isConnected()){
-            this.discordAudioReceiver.cleanUp();
+            audioManager.setReceivingHandler(null);
             audioManager.closeAudioConnection();
+            var recordings = recordingSessions.stopSession(event.getGuild().getId());
             event.getChannel().sendMessage("I left the voice channel!").queue();
             System.out.println("Left voice channel");
+            if(recordings == null){
+                return;
+            }
+            var channel = event.getChannel();
+            recordings.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    channel.sendMessage("Recordings saved.").queue();
+                } else {
+                    channel.sendMessage("Some recordings could not be saved.").queue();
+                }
+            });
         } else {
             event.getChannel().sendMessage("I'm not in a voice channel!").queue();
         }
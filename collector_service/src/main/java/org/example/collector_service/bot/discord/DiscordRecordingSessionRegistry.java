@@ -0,0 +1,166 @@
+package org.example.collector_service.bot.discord;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.bot.DiscordAudioReceiver;
+import org.example.collector_service.bot.audio.AudioEncoderPool;
+import org.example.collector_service.bot.audio.CaptureFormat;
+import org.example.collector_service.service.AudioMessageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * DiscordRecordingSessionRegistry - Eşzamanlı Discord kayıt oturumları kayıt defteri
+ *
+ * Her ses bağlantısı için ayrı bir DiscordAudioReceiver oluşturur ve yönetir.
+ * Böylece tek bir collector instance'ı farklı sunuculardaki onlarca kanalı
+ * aynı anda, birbirinin durumunu ve dosyalarını bozmadan kaydedebilir.
+ *
+ * Oturum Anahtarı:
+ * - Guild ID. Discord bir bot için guild başına tek ses bağlantısına izin verir;
+ *   oturum kanal ID'sini de taşır ve kayıt klasörü guild + kanal ile ayrılır.
+ *
+ * Özellikler:
+ * - Oturum başına ayrı receiver, yazıcı thread ve kayıt klasörü
+ *   (audio_storage/{guildId}/{channelId})
+ * - Oturum başına kaynak muhasebesi: aktif kullanıcı, segment, düşen/geç paket
+ * - Uygulama kapanırken açık oturumlar sonlandırılır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class DiscordRecordingSessionRegistry {
+
+    private final AudioMessageService audioMessageService;
+    private final AudioEncoderPool audioEncoderPool;
+    private final CaptureFormat captureFormat;
+    private final long segmentMillis;
+    private final long segmentMaxBytes;
+    private final File storageRoot;
+
+    /** Guild ID -> aktif kayıt oturumu */
+    private final Map<String, DiscordAudioReceiver> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * DiscordRecordingSessionRegistry constructor.
+     *
+     * @param audioMessageService Ses mesajı kaydetme servisi
+     * @param audioEncoderPool    PCM -> MP3 kodlama havuzu
+     * @param captureFormat       Ses kayıt formatı (PCM varsayılan; OPUS .ogg üretir)
+     * @param segmentSeconds      Canlı kayıt segment süresi (saniye, 0 = sınırsız)
+     * @param segmentMaxMb        Canlı kayıt segment boyutu (MB, 0 = sınırsız)
+     * @param storageRoot         Oturum klasörlerinin kök dizini
+     */
+    public DiscordRecordingSessionRegistry(AudioMessageService audioMessageService,
+                                           AudioEncoderPool audioEncoderPool,
+                                           @Value("${discord.audio.capture-format:PCM}") CaptureFormat captureFormat,
+                                           @Value("${discord.audio.segment-seconds:60}") long segmentSeconds,
+                                           @Value("${discord.audio.segment-max-mb:8}") long segmentMaxMb,
+                                           @Value("${discord.audio.storage-root:audio_storage}") String storageRoot) {
+        this.audioMessageService = audioMessageService;
+        this.audioEncoderPool = audioEncoderPool;
+        this.captureFormat = captureFormat;
+        this.segmentMillis = segmentSeconds * 1000;
+        this.segmentMaxBytes = segmentMaxMb * 1024 * 1024;
+        this.storageRoot = new File(storageRoot);
+    }
+
+    /**
+     * Guild için kayıt oturumu başlatır; zaten varsa mevcut oturumu döndürür.
+     *
+     * @param guildId          Discord sunucu ID'si
+     * @param channelId        Kaydedilecek ses kanalı ID'si
+     * @param userNameResolver Kullanıcı ID -> görünen ad fonksiyonu
+     * @return Oturumun receiver'ı
+     */
+    public DiscordAudioReceiver startSession(String guildId, String channelId, LongFunction<String> userNameResolver) {
+        return sessions.computeIfAbsent(guildId, id -> {
+            File storageDirectory = new File(new File(storageRoot, guildId), channelId);
+            storageDirectory.mkdirs();
+
+            DiscordAudioReceiver receiver = new DiscordAudioReceiver(audioMessageService, captureFormat, audioEncoderPool,
+                    segmentMillis, segmentMaxBytes, storageDirectory, "discord-audio-" + guildId);
+            receiver.setChannleId(channelId);
+            receiver.setUserNameResolver(userNameResolver);
+
+            log.info("Recording session started: guildId={}, channelId={}, activeSessions={}",
+                    guildId, channelId, sessions.size() + 1);
+            return receiver;
+        });
+    }
+
+    /**
+     * Guild'in kayıt oturumunu sonlandırır.
+     * Receiver ses bağlantısından ayrıldıktan sonra çağrılmalıdır.
+     *
+     * @param guildId Discord sunucu ID'si
+     * @return Son segmentler kaydedildiğinde tamamlanan future; oturum yoksa null
+     */
+    public CompletableFuture<Void> stopSession(String guildId) {
+        DiscordAudioReceiver receiver = sessions.remove(guildId);
+        if (receiver == null) {
+            return null;
+        }
+
+        CompletableFuture<Void> recordings;
+        try {
+            recordings = receiver.cleanUp();
+        } finally {
+            receiver.shutdown();
+        }
+
+        log.info("Recording session stopped: guildId={}, channelId={}, startedAt={}, publishedSegments={}, droppedPackets={}, latePackets={}",
+                guildId, receiver.getChannleId(), receiver.getStartedAt(), receiver.getPublishedSegmentCount(),
+                receiver.getDroppedPacketCount(), receiver.getLatePacketCount());
+        return recordings;
+    }
+
+    /**
+     * Guild'in aktif oturumunu döndürür.
+     *
+     * @param guildId Discord sunucu ID'si
+     * @return Receiver veya oturum yoksa null
+     */
+    public DiscordAudioReceiver getSession(String guildId) {
+        return sessions.get(guildId);
+    }
+
+    /**
+     * Aktif oturumların salt okunur görünümünü döndürür.
+     *
+     * @return Guild ID -> receiver
+     */
+    public Map<String, DiscordAudioReceiver> getSessions() {
+        return Collections.unmodifiableMap(sessions);
+    }
+
+    /**
+     * @return Aktif oturum sayısı
+     */
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Uygulama kapanırken açık oturumların son segmentlerini kaydeder.
+     */
+    @PreDestroy
+    public void stopAll() {
+        for (String guildId : sessions.keySet()) {
+            try {
+                stopSession(guildId);
+            } catch (Exception e) {
+                log.error("Could not stop recording session: guildId={}", guildId, e);
+            }
+        }
+    }
+}
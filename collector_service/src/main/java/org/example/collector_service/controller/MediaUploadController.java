@@ -3,12 +3,18 @@ package org.example.collector_service.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.validation.Valid;
+import org.example.collector_service.domain.dto.MediaDedupeChallenge;
+import org.example.collector_service.domain.dto.MediaDedupeCheckRequest;
+import org.example.collector_service.domain.dto.MediaDedupeProofRequest;
 import org.example.collector_service.domain.dto.MediaUploadRequest;
 import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.service.MediaDedupeService;
 import org.example.collector_service.service.MediaIngestService;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
@@ -31,6 +37,8 @@ import org.springframework.web.multipart.MultipartFile;
  * - POST /api/v1/media/upload - Genel yükleme (metadata ile)
  * - POST /api/v1/media/upload/zoom - Zoom için özelleştirilmiş
  * - POST /api/v1/media/upload/teams - Teams için özelleştirilmiş
+ * - POST /api/v1/media/upload/check - Yükleme öncesi dedupe: sahiplik kanıtı sorusu al
+ * - POST /api/v1/media/upload/check/proof - Kanıtı gönder; doğruysa dosya yüklenmeden bağlanır
  * 
  * @author Ahmet
  * @version 1.0
@@ -41,6 +49,7 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class MediaUploadController {
     private final MediaIngestService mediaIngestService;
+    private final MediaDedupeService mediaDedupeService;
     private final ObjectMapper objectMapper;
 
     /**
@@ -168,4 +177,36 @@ public class MediaUploadController {
 
         return ResponseEntity.ok(mediaIngestService.uploadMedia(file, request));
     }
+
+    /**
+     * Yükleme öncesi dedupe kontrolü, 1. adım.
+     * 
+     * İstemci dosyayı göndermeden önce SHA-256 checksum'ını ve boyutunu gönderir.
+     * Dosya bilinsin ya da bilinmesin sunucu bir sahiplik kanıtı sorusu döndürür
+     * (status: PROOF_REQUIRED); yanıt içeriğin sunucuda olup olmadığını açığa çıkarmaz.
+     * 
+     * @param request Checksum, dosya boyutu ve toplantı metadata'sı
+     * @return MediaDedupeChallenge (nonce, offset, length)
+     */
+    @PostMapping(value = "/upload/check", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MediaDedupeChallenge> checkDuplicate(@Valid @RequestBody MediaDedupeCheckRequest request) {
+        log.info("Dedupe check received - Size: {} bytes", request.getFileSize());
+
+        return ResponseEntity.ok(mediaDedupeService.issueChallenge(request));
+    }
+
+    /**
+     * Yükleme öncesi dedupe kontrolü, 2. adım.
+     * 
+     * Kanıt kayıtlı dosyadan hesaplananla eşleşirse toplantı bağlantısı ve outbox
+     * event'i hemen oluşturulur (status: SUCCESS); aksi halde istemcinin dosyayı
+     * yüklemesi gerekir (status: UPLOAD_REQUIRED).
+     * 
+     * @param request Soru ID'si ve kanıt
+     * @return MediaUploadResponse (SUCCESS veya UPLOAD_REQUIRED)
+     */
+    @PostMapping(value = "/upload/check/proof", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MediaUploadResponse> proveDuplicate(@Valid @RequestBody MediaDedupeProofRequest request) {
+        return ResponseEntity.ok(mediaDedupeService.verifyProof(request));
+    }
 }
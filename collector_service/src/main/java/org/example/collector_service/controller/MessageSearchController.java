@@ -0,0 +1,119 @@
+package org.example.collector_service.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.dto.MessageSearchResponse;
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.repository.MessageRepository;
+import org.example.collector_service.search.MessageSearchIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * MessageSearchController - Toplanan mesajlarda tam metin arama REST API kontrolcüsü
+ *
+ * Arama MessageSearchIndex üzerinden yapılır; sonuçlar BM25 puanına göre sıralanır
+ * ve sadece istenen sayfadaki mesajlar veritabanından ID ile okunur.
+ *
+ * Endpoint'ler:
+ * - GET  /api/v1/messages/search?q=&channelId=&page=&size= - Sıralı, sayfalı arama
+ * - POST /api/v1/messages/search/rebuild                   - İndeksi veritabanından yeniden kur
+ *
+ * Sorgu örnekleri: "sprint planlama", "toplanti*" (önek araması)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/messages/search")
+@RequiredArgsConstructor
+@Slf4j
+public class MessageSearchController {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final MessageSearchIndex messageSearchIndex;
+    private final MessageRepository messageRepository;
+
+    /**
+     * Mesajlarda arama yapar.
+     *
+     * @param q         Arama sorgusu
+     * @param channelId Opsiyonel kanal filtresi
+     * @param page      Sayfa numarası (0'dan başlar)
+     * @param size      Sayfa boyutu (en fazla 100)
+     * @return Sıralı sonuç sayfası
+     */
+    @GetMapping
+    public ResponseEntity<MessageSearchResponse> search(
+            @RequestParam("q") String q,
+            @RequestParam(value = "channelId", required = false) String channelId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (q == null || q.isBlank() || page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        long start = System.nanoTime();
+        MessageSearchIndex.SearchResult result = messageSearchIndex.search(q, channelId, page, size);
+
+        List<Long> ids = result.hits().stream().map(MessageSearchIndex.Hit::messageId).toList();
+        Map<Long, Message> messages = messageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Message::getId, Function.identity()));
+
+        List<MessageSearchResponse.Hit> hits = new ArrayList<>(ids.size());
+        for (MessageSearchIndex.Hit hit : result.hits()) {
+            Message message = messages.get(hit.messageId());
+            if (message == null) {
+                continue;
+            }
+            hits.add(MessageSearchResponse.Hit.builder()
+                    .id(message.getId())
+                    .score(hit.score())
+                    .platform(message.getPlatform())
+                    .author(message.getAuthor())
+                    .channelId(message.getChannelId())
+                    .channelName(message.getChannelName())
+                    .content(message.getContent())
+                    .timestamp(message.getTimestamp())
+                    .build());
+        }
+
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.debug("Message search: q='{}', hits={}, took={} ms", q, result.totalHits(), tookMillis);
+
+        return ResponseEntity.ok(MessageSearchResponse.builder()
+                .query(q)
+                .page(page)
+                .size(size)
+                .totalHits(result.totalHits())
+                .tookMillis(tookMillis)
+                .hits(hits)
+                .build());
+    }
+
+    /**
+     * İndeksi veritabanındaki tüm mesajlardan yeniden kurar.
+     *
+     * @return İndekslenen mesaj sayısı ve süre
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        int indexed = messageSearchIndex.rebuild();
+        return ResponseEntity.ok(Map.of(
+                "indexedMessages", indexed,
+                "terms", messageSearchIndex.getTermCount(),
+                "tookMillis", messageSearchIndex.getLastRebuildMillis()));
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.collector_service.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.dto.UploadSessionRequest;
+import org.example.collector_service.domain.dto.UploadSessionStatus;
+import org.example.collector_service.exception.StorageException;
+import org.example.collector_service.service.ResumableUploadService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ResumableUploadController - Devam ettirilebilir parçalı yükleme REST API kontrolcüsü
+ *
+ * Büyük kayıtlar parçalar halinde yüklenir; bağlantı koparsa istemci
+ * eksik aralıkları sorgulayıp yalnızca onları tekrar gönderir.
+ * Parçalar paralel gönderilebilir.
+ *
+ * Endpoint'ler:
+ * - POST   /api/v1/media/uploads                          - Oturum oluştur
+ * - PUT    /api/v1/media/uploads/{uploadId}/chunks?offset= - Parça yükle (application/octet-stream)
+ * - GET    /api/v1/media/uploads/{uploadId}                - Durum sorgula (eksik aralıklar)
+ * - POST   /api/v1/media/uploads/{uploadId}/complete       - Yüklemeyi tamamla
+ * - DELETE /api/v1/media/uploads/{uploadId}                - Oturumu iptal et
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/media/uploads")
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadController {
+    private final ResumableUploadService resumableUploadService;
+
+    /**
+     * Yeni bir yükleme oturumu oluşturur.
+     *
+     * @param request Dosya adı, MIME tipi, boyut, opsiyonel checksum ve toplantı metadata'sı
+     * @return Oturum durumu (uploadId dahil)
+     */
+    @PostMapping
+    public ResponseEntity<UploadSessionStatus> createSession(@Valid @RequestBody UploadSessionRequest request) {
+        log.info("Upload session requested - File: {}, Size: {} bytes", request.getFileName(), request.getFileSize());
+        return ResponseEntity.status(HttpStatus.CREATED).body(resumableUploadService.createSession(request));
+    }
+
+    /**
+     * Parça yükler. İstek gövdesi belleğe alınmadan doğrudan dosyaya akıtılır.
+     *
+     * @param uploadId Oturum ID'si
+     * @param offset   Parçanın dosya içindeki başlangıç ofseti
+     * @param request  Ham HTTP isteği (gövde akışı için)
+     * @return Güncel oturum durumu
+     */
+    @PutMapping(value = "/{uploadId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionStatus> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) {
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(resumableUploadService.writeChunk(uploadId, offset, body));
+        } catch (IOException e) {
+            throw new StorageException("Failed to read chunk body", e);
+        }
+    }
+
+    /**
+     * Oturum durumunu döndürür.
+     *
+     * @param uploadId Oturum ID'si
+     * @return Alınan bayt sayısı ve eksik aralıklar
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionStatus> getStatus(@PathVariable String uploadId) {
+        return ResponseEntity.ok(resumableUploadService.getStatus(uploadId));
+    }
+
+    /**
+     * Yüklemeyi tamamlar; dosya MediaAsset olarak kaydedilir ve outbox event'i oluşturulur.
+     *
+     * @param uploadId Oturum ID'si
+     * @return MediaUploadResponse (fileKey, status, uploadedAt)
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<MediaUploadResponse> complete(@PathVariable String uploadId) {
+        return ResponseEntity.ok(resumableUploadService.complete(uploadId));
+    }
+
+    /**
+     * Oturumu iptal eder ve geçici dosyayı siler.
+     *
+     * @param uploadId Oturum ID'si
+     * @return 204 No Content
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> cancel(@PathVariable String uploadId) {
+        resumableUploadService.cancel(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
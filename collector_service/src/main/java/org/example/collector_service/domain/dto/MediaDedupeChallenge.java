@@ -0,0 +1,27 @@
+package org.example.collector_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * MediaDedupeChallenge - Dedupe kontrolünde sunucunun seçtiği sahiplik kanıtı sorusu
+ *
+ * İstemci kanıtı şöyle hesaplar: hex(SHA-256(hex-decode(nonce) || dosya[offset, offset + length))).
+ * Dosyanın bilinip bilinmediğinden bağımsız olarak her kontrol bir soru alır.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaDedupeChallenge {
+    private String challengeId;
+    private String status;
+    private String nonce;
+    private long offset;
+    private long length;
+    private LocalDateTime expiresAt;
+}
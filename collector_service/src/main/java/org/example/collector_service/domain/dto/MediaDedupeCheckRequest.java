@@ -0,0 +1,28 @@
+package org.example.collector_service.domain.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaDedupeCheckRequest {
+
+    @NotBlank(message = "Checksum is required")
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Checksum must be a hex encoded SHA-256")
+    private String checksum;
+
+    @NotNull(message = "File size is required")
+    private Long fileSize;
+
+    @Valid
+    @NotNull(message = "Metadata is required")
+    private MediaUploadRequest metadata;
+}
@@ -0,0 +1,22 @@
+package org.example.collector_service.domain.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaDedupeProofRequest {
+
+    @NotBlank(message = "Challenge id is required")
+    private String challengeId;
+
+    @NotBlank(message = "Proof is required")
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Proof must be a hex encoded SHA-256")
+    private String proof;
+}
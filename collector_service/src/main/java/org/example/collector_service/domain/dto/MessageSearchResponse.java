@@ -0,0 +1,40 @@
+package org.example.collector_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResponse {
+    private String query;
+    private int page;
+    private int size;
+    /** Sorguyla eşleşen toplam mesaj sayısı */
+    private int totalHits;
+    /** İndeks araması + sayfa okuma süresi */
+    private long tookMillis;
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private Long id;
+        /** BM25 puanı; büyük olan daha alakalı */
+        private double score;
+        private String platform;
+        private String author;
+        private String channelId;
+        private String channelName;
+        private String content;
+        private LocalDateTime timestamp;
+    }
+}
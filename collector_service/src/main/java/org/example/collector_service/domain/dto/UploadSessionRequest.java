@@ -0,0 +1,30 @@
+package org.example.collector_service.domain.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    private Long fileSize;
+
+    /** İstemcinin hesapladığı SHA-256 (opsiyonel); tamamlanırken doğrulanır */
+    private String checksum;
+
+    @NotNull(message = "Metadata is required")
+    private MediaUploadRequest metadata;
+}
@@ -0,0 +1,34 @@
+package org.example.collector_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionStatus {
+    private String uploadId;
+    private long fileSize;
+    private long receivedBytes;
+    private long hashedBytes;
+    private List<ByteRange> missingRanges;
+    private boolean complete;
+    private LocalDateTime expiresAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ByteRange {
+        /** Başlangıç (dahil) */
+        private long start;
+        /** Bitiş (hariç) */
+        private long end;
+    }
+}
@@ -18,6 +18,7 @@ import java.time.LocalDateTime;
  * - Ses dosyası URL'i (audio_storage klasöründe)
  * - AI tarafından oluşturulan transkript metni
  * - Katılımcı bilgisi
+ * - Canlı kayıt segment bilgisi (sıra numarası, başlangıç/bitiş ofseti)
  *
  * Veritabanı: audio_messages tablosu
  * İlişki: VoiceSession'a many-to-one (voiceSessionId)
@@ -63,4 +64,16 @@ public class AudioMessage {
     /** Mesajın toplantı IDsi **/
     private Long meetingId;
 
+    /** Canlı kayıtta segmentin kullanıcı kaydı içindeki sıra numarası (0'dan başlar) */
+    private Integer segmentSequence;
+
+    /** Segmentin kayıt başlangıcına göre başlangıç ofseti (ms) */
+    private Long segmentStartOffsetMs;
+
+    /** Segmentin kayıt başlangıcına göre bitiş ofseti (ms) */
+    private Long segmentEndOffsetMs;
+
+    /** Kullanıcı kaydının son segmenti mi? */
+    private Boolean lastSegment;
+
 }
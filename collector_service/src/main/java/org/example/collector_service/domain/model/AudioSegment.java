@@ -0,0 +1,52 @@
+package org.example.collector_service.domain.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.collector_service.bot.audio.CaptureFormat;
+
+import java.io.File;
+
+/**
+ * AudioSegment - Canlı kayıttan kesilmiş, tamamlanmış ses parçası
+ *
+ * UserAudioData kaydı belirli süre veya boyut sınırına ulaştığında
+ * geçici dosyayı kapatıp bir segment olarak devreder. Segment dosyası
+ * kendi başına geçerlidir (Ogg/Opus segmentleri kendi header'larını taşır)
+ * ve toplantı bitmeden kodlanıp yayınlanabilir.
+ *
+ * Ofsetler kullanıcının kaydının başladığı andan itibaren milisaniye cinsindendir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Getter
+@Builder
+public class AudioSegment {
+
+    /** Konuşan kullanıcının ID'si */
+    private final String userId;
+
+    /** Konuşan kullanıcının görünen adı */
+    private final String userName;
+
+    /** Segment dosyasının formatı */
+    private final CaptureFormat captureFormat;
+
+    /** Kapatılmış segment dosyası */
+    private final File file;
+
+    /** Kullanıcının kaydı içindeki sıra numarası (0'dan başlar) */
+    private final int sequence;
+
+    /** Kaydın başladığı an (epoch ms) */
+    private final long recordingStartMillis;
+
+    /** Segmentin kayıt başlangıcına göre başlangıç ofseti (ms) */
+    private final long startOffsetMillis;
+
+    /** Segmentin kayıt başlangıcına göre bitiş ofseti (ms) */
+    private final long endOffsetMillis;
+
+    /** Kaydın son segmenti mi? */
+    private final boolean last;
+}
@@ -37,6 +37,13 @@ public class MediaAsset {
     @Column(nullable = false)
     private String storagePath;
 
+    /** Video yüklemelerinde ingest sırasında çıkarılan ses dosyasının yolu */
+    private String audioStoragePath;
+
+    private String audioMimeType;
+
+    private Long audioFileSize;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MediaStatus status;
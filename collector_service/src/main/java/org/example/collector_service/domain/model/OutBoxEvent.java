@@ -17,16 +17,25 @@ import java.time.LocalDateTime;
  * Çalışma Prensibi:
  * 1. Aggregate (Meeting, Message vb.) ile aynı transaction'da kaydedilir
  * 2. OutboxEventRelayer scheduled job ile işlenir
- * 3. Kafka'ya başarıyla gönderildikten sonra processed=true olarak işaretlenir
+ * 3. Relayer event'i lease ile sahiplenir (leaseOwner / leaseExpiresAt)
+ * 4. Kafka'ya başarıyla gönderildikten sonra processed=true olarak işaretlenir
+ *
+ * Büyük payload'lar OutboxPayloadCodec ile sıkıştırılıp compressedPayload sütununda
+ * saklanır; payloadCodec hangi codec'in kullanıldığını belirtir.
  * 
  * Veritabanı: outbox tablosu
+ * İndeks: (is_processed, created_at) - relay taraması ve retention silmesi için
+ * İndeks: (partition_key, is_processed, created_at) - claim sırasında anahtarın önceki event'lerini bulmak için
  * Pattern: Transactional Outbox (Microservices Pattern)
  * 
  * @author Ahmet
  * @version 1.0
  */
 @Entity
-@Table(name = "outbox")
+@Table(name = "outbox", indexes = {
+        @Index(name = "idx_outbox_processed_created", columnList = "is_processed, created_at"),
+        @Index(name = "idx_outbox_key_processed_created", columnList = "partition_key, is_processed, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,9 +56,30 @@ public class OutBoxEvent {
     /** Event tipi (Created, Updated, Deleted, Started, Ended) */
     private String eventType;
     
-    /** JSON formatında event payload */
+    /** JSON formatında event payload; sıkıştırılmış event'lerde boştur */
     @Column(columnDefinition = "TEXT")
     private String payload;
+
+    /** Payload sıkıştırma codec'i (ör. "zstd"); null ise payload düz JSON olarak saklanır */
+    @Column(name = "payload_codec", length = 16)
+    private String payloadCodec;
+
+    /** Sıkıştırılmış JSON payload; sadece payloadCodec dolu ise kullanılır */
+    @Lob
+    @Column(name = "compressed_payload", length = 16777215)
+    private byte[] compressedPayload;
+    
+    /** Kafka partition key'i; yazma anında belirlenir. Relay'ler aynı anahtarın event'lerini sırayla gönderir */
+    @Column(name = "partition_key")
+    private String partitionKey;
+
+    /** Hedef Kafka topic'i; yazma anında belirlenir */
+    @Column(name = "topic", length = 100)
+    private String topic;
+
+    /** Kafka header'ları (JSON obje, string → string) */
+    @Column(name = "headers", length = 1000)
+    private String headers;
     
     /** Event oluşturulma zamanı */
     private LocalDateTime createdAt;
@@ -58,5 +88,13 @@ public class OutBoxEvent {
     @Column(name = "is_processed")
     @Builder.Default
     private boolean processed = false;
+
+    /** Event'i relay için sahiplenen claim kimliği (instance + claim) */
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    /** Lease bitiş zamanı; geçmişse event başka bir relayer tarafından tekrar sahiplenilebilir */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
 }
 
@@ -0,0 +1,399 @@
+package org.example.collector_service.domain.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.collector_service.domain.dto.MediaUploadRequest;
+import org.example.collector_service.exception.InvalidChunkException;
+import org.example.collector_service.exception.UploadIncompleteException;
+import org.example.collector_service.exception.UploadSessionClosedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * UploadSession - Devam ettirilebilir (resumable) parçalı yükleme oturumu
+ *
+ * İstemci dosyayı herhangi bir sırada, paralel olarak ve kopma sonrasında
+ * kaldığı yerden parçalar halinde gönderebilir. Parçalar staging dosyasına
+ * FileChannel positional write ile kendi ofsetlerine yazılır.
+ *
+ * Teknik Detaylar:
+ * - Parça yazmaları kilitsizdir; farklı ofsetlere eşzamanlı yazılabilir
+ * - Hash'lenmiş önekle çakışan parçalar yazılmaz, içerikleri doğrulanır
+ * - Devam eden yazmalar kaydedilir; hash onların başlangıcını geçmez ve
+ *   süresi dolan oturum temizliği yazma sürerken oturumu kapatmaz
+ * - Alınan aralıklar birleştirilerek TreeMap'te tutulur (başlangıç -> bitiş)
+ * - SHA-256 artımlı hesaplanır: 0'dan başlayan kesintisiz önek büyüdükçe
+ *   yeni kısım dosyadan sabit 64 KB tampon ile okunup digest'e eklenir
+ * - Hash'lenecek aralık kilit altında seçilir, dosya kilit dışında okunur; uzun bir önek
+ *   hash'lenirken diğer parçaların yazmaları ve durum sorguları beklemez. Aynı anda tek
+ *   thread hash'ler, o çalışırken biten yazmaların aralıklarını da o ekler
+ * - Tamamlanırken ayrıca tüm dosyayı tekrar okumak gerekmez
+ * - finish() oturumu bir kez sahiplenir; tekrar veya eşzamanlı çağrılar reddedilir
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Getter
+public class UploadSession {
+
+    private static final int IO_BUFFER_BYTES = 64 * 1024;
+
+    private final String uploadId;
+    private final Path stagingFile;
+    private final long fileSize;
+    private final String contentType;
+    private final String originalFileName;
+    private final String expectedChecksum;
+    private final MediaUploadRequest metadata;
+
+    @Getter(AccessLevel.NONE)
+    private final FileChannel channel;
+
+    @Getter(AccessLevel.NONE)
+    private final MessageDigest digest;
+
+    @Getter(AccessLevel.NONE)
+    private final ByteBuffer hashBuffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+
+    /** Alınmış, birleştirilmiş bayt aralıkları: başlangıç (dahil) -> bitiş (hariç) */
+    @Getter(AccessLevel.NONE)
+    private final TreeMap<Long, Long> receivedRanges = new TreeMap<>();
+
+    /** Devam eden parça yazmaları: başlangıç ofseti -> yazma sayısı */
+    @Getter(AccessLevel.NONE)
+    private final TreeMap<Long, Integer> inFlightWrites = new TreeMap<>();
+
+    private long receivedBytes;
+    private long hashedBytes;
+
+    /** Checksum'a eklenmiş veya şu an eklenmekte olan önek uzunluğu; bu aralığa yazılmaz, doğrulanır */
+    @Getter(AccessLevel.NONE)
+    private long hashTargetBytes;
+
+    /** Bir thread checksum'ı ilerletiyor mu? */
+    @Getter(AccessLevel.NONE)
+    private boolean hashing;
+    private volatile long lastActivityMillis;
+    private volatile boolean closed;
+
+    /**
+     * Constructor - Staging dosyasını yazma/okuma için açar.
+     *
+     * @param uploadId         Oturum ID'si
+     * @param stagingFile      Parçaların yazılacağı geçici dosya
+     * @param fileSize         Toplam dosya boyutu (bayt)
+     * @param contentType      MIME tipi
+     * @param originalFileName İstemcinin gönderdiği dosya adı
+     * @param expectedChecksum İstemcinin bildirdiği SHA-256 (opsiyonel)
+     * @param metadata         Toplantı metadata'sı
+     * @throws IOException Dosya açılamazsa
+     */
+    public UploadSession(String uploadId, Path stagingFile, long fileSize, String contentType, String originalFileName,
+                         String expectedChecksum, MediaUploadRequest metadata) throws IOException {
+        this.uploadId = uploadId;
+        this.stagingFile = stagingFile;
+        this.fileSize = fileSize;
+        this.contentType = contentType;
+        this.originalFileName = originalFileName;
+        this.expectedChecksum = expectedChecksum;
+        this.metadata = metadata;
+        this.channel = FileChannel.open(stagingFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            channel.close();
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        this.lastActivityMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Parçayı verilen ofsetten itibaren staging dosyasına yazar.
+     *
+     * Birden fazla thread farklı parçaları aynı anda yazabilir. Yazma bittikten
+     * sonra aralık kaydedilir ve checksum kesintisiz önek kadar ilerletilir.
+     *
+     * Checksum'a zaten eklenmiş önekle çakışan kısım (yeniden gönderilen parça)
+     * dosyaya yazılmaz, mevcut içerikle karşılaştırılır; farklıysa parça reddedilir.
+     * Devam eden bir yazmanın başladığı ofsetin ötesi, yazma bitene kadar hash'lenmez.
+     *
+     * @param offset Parçanın dosya içindeki başlangıç ofseti
+     * @param body   Parça içeriği
+     * @return Yazılan bayt sayısı
+     * @throws InvalidChunkException Ofset geçersizse veya parça doğrulanmış baytlarla uyuşmazsa
+     * @throws IOException           Okuma veya yazma hatası
+     */
+    public long writeChunk(long offset, InputStream body) throws IOException {
+        if (offset < 0 || offset >= fileSize) {
+            throw new InvalidChunkException("Chunk offset " + offset + " is outside file size " + fileSize);
+        }
+        long verifiedEnd = beginWrite(offset);
+
+        boolean success = false;
+        long position = offset;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_BYTES);
+            ByteBuffer existing = null;
+            int read;
+            while ((read = body.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                if (position + read > fileSize) {
+                    throw new InvalidChunkException("Chunk at offset " + offset + " exceeds file size " + fileSize);
+                }
+                int verified = (int) Math.max(0, Math.min(read, verifiedEnd - position));
+                if (verified > 0) {
+                    if (existing == null) {
+                        existing = ByteBuffer.allocate(IO_BUFFER_BYTES);
+                    }
+                    verifyUnchanged(buffer.array(), verified, position, existing);
+                }
+
+                buffer.clear().limit(read).position(verified);
+                long writePosition = position + verified;
+                while (buffer.hasRemaining()) {
+                    writePosition += channel.write(buffer, writePosition);
+                }
+                position += read;
+            }
+            success = true;
+        } finally {
+            endWrite(offset, success ? position : offset);
+        }
+        return position - offset;
+    }
+
+    /**
+     * Yazmayı devam eden yazmalar arasına kaydeder.
+     *
+     * @return Yazma başladığında checksum'a eklenmiş veya eklenmekte olan önek uzunluğu
+     */
+    private synchronized long beginWrite(long offset) {
+        if (closed) {
+            throw new InvalidChunkException("Upload session is already finished: " + uploadId);
+        }
+        inFlightWrites.merge(offset, 1, Integer::sum);
+        lastActivityMillis = System.currentTimeMillis();
+        return hashTargetBytes;
+    }
+
+    private void endWrite(long offset, long end) throws IOException {
+        synchronized (this) {
+            inFlightWrites.computeIfPresent(offset, (key, count) -> count == 1 ? null : count - 1);
+            lastActivityMillis = System.currentTimeMillis();
+            if (end > offset) {
+                markReceived(offset, end);
+            }
+            if (hashing) {
+                // Çalışan hash turu bir sonraki aralığı seçerken bu yazmayı da görür
+                return;
+            }
+            hashing = true;
+        }
+        advanceHash();
+    }
+
+    private void verifyUnchanged(byte[] chunk, int length, long position, ByteBuffer existing) throws IOException {
+        existing.clear().limit(length);
+        while (existing.hasRemaining()) {
+            if (channel.read(existing, position + existing.position()) <= 0) {
+                throw new IOException("Unexpected end of staging file at " + (position + existing.position()));
+            }
+        }
+        if (!Arrays.equals(chunk, 0, length, existing.array(), 0, length)) {
+            throw new InvalidChunkException("Chunk at offset " + position + " differs from bytes already received");
+        }
+    }
+
+    private void markReceived(long start, long end) {
+        Map.Entry<Long, Long> previous = receivedRanges.floorEntry(start);
+        if (previous != null && previous.getValue() >= start) {
+            start = previous.getKey();
+            end = Math.max(end, previous.getValue());
+            receivedRanges.remove(previous.getKey());
+        }
+        Map.Entry<Long, Long> next;
+        while ((next = receivedRanges.ceilingEntry(start)) != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            receivedRanges.remove(next.getKey());
+        }
+        receivedRanges.put(start, end);
+
+        long total = 0;
+        for (Map.Entry<Long, Long> range : receivedRanges.entrySet()) {
+            total += range.getValue() - range.getKey();
+        }
+        receivedBytes = total;
+    }
+
+    /**
+     * Checksum'ı hash'lenecek aralık kalmayana kadar ilerletir. Çağıran thread hashing
+     * bayrağını almış olmalıdır; bayrak aralık kalmadığında kilit altında bırakılır.
+     */
+    private void advanceHash() throws IOException {
+        try {
+            long end;
+            while ((end = nextHashTarget()) > 0) {
+                hashUpTo(end);
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                hashing = false;
+                hashTargetBytes = hashedBytes;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Bir sonraki hash hedefini seçer: kesintisiz önek, ancak devam eden hiçbir yazmanın
+     * başlangıcını geçmeyecek kadar.
+     *
+     * @return Hedef önek uzunluğu; hash'lenecek aralık yoksa -1 (hashing bayrağı bırakılır)
+     */
+    private synchronized long nextHashTarget() {
+        Map.Entry<Long, Long> prefix = receivedRanges.firstEntry();
+        long limit = prefix == null || prefix.getKey() != 0 ? 0 : prefix.getValue();
+        if (!inFlightWrites.isEmpty()) {
+            limit = Math.min(limit, inFlightWrites.firstKey());
+        }
+        if (closed || limit <= hashedBytes) {
+            hashing = false;
+            return -1;
+        }
+        hashTargetBytes = limit;
+        return limit;
+    }
+
+    /**
+     * Önekin [hashedBytes, end) kısmını kilit dışında okuyup digest'e ekler. Digest ve tampon
+     * sadece hashing bayrağını tutan thread tarafından kullanılır; ilerleme her okumada
+     * kilit altında yayınlanır, böylece hashedBytes digest ile her zaman tutarlıdır.
+     */
+    private void hashUpTo(long end) throws IOException {
+        long position = getHashedBytes();
+        while (position < end) {
+            hashBuffer.clear().limit((int) Math.min(hashBuffer.capacity(), end - position));
+            int read = channel.read(hashBuffer, position);
+            if (read <= 0) {
+                throw new IOException("Unexpected end of staging file at " + position);
+            }
+            digest.update(hashBuffer.array(), 0, read);
+            position += read;
+            synchronized (this) {
+                hashedBytes = position;
+            }
+        }
+    }
+
+    /**
+     * Alınmamış bayt aralıklarını döndürür.
+     *
+     * @return Eksik aralıklar, her biri {başlangıç (dahil), bitiş (hariç)}
+     */
+    public synchronized List<long[]> getMissingRanges() {
+        List<long[]> missing = new ArrayList<>();
+        long cursor = 0;
+        for (Map.Entry<Long, Long> range : receivedRanges.entrySet()) {
+            if (range.getKey() > cursor) {
+                missing.add(new long[]{cursor, range.getKey()});
+            }
+            cursor = range.getValue();
+        }
+        if (cursor < fileSize) {
+            missing.add(new long[]{cursor, fileSize});
+        }
+        return missing;
+    }
+
+    /**
+     * Tüm baytlar alındı mı?
+     *
+     * @return Dosya tamamlandıysa true
+     */
+    public synchronized boolean isComplete() {
+        return hashedBytes == fileSize;
+    }
+
+    public synchronized long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public synchronized long getHashedBytes() {
+        return hashedBytes;
+    }
+
+    /**
+     * Oturumu kapatır ve dosyanın SHA-256 checksum'ını döndürür.
+     *
+     * @return Hex formatında SHA-256
+     * @throws UploadSessionClosedException Oturum zaten tamamlandıysa veya iptal edildiyse
+     * @throws UploadIncompleteException    Eksik parça varsa
+     * @throws InvalidChunkException        İstemcinin bildirdiği checksum uyuşmazsa
+     * @throws IOException                  Dosya kapatılamazsa
+     */
+    public synchronized String finish() throws IOException {
+        if (closed) {
+            // Digest bir kez tüketilir; ikinci çağrı boş girdinin hash'ini döndürürdü
+            throw new UploadSessionClosedException("Upload session is already finished: " + uploadId);
+        }
+        if (hashedBytes != fileSize) {
+            throw new UploadIncompleteException("Upload is incomplete: " + hashedBytes + " of " + fileSize + " bytes received");
+        }
+        if (!inFlightWrites.isEmpty()) {
+            throw new UploadIncompleteException("Upload has chunk writes in progress: " + uploadId);
+        }
+        closed = true;
+        channel.close();
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+            throw new InvalidChunkException("Checksum mismatch: expected " + expectedChecksum + " but was " + checksum);
+        }
+        return checksum;
+    }
+
+    /**
+     * Oturum verilen andan beri hareketsizse, devam eden yazma ve hash yoksa iptal eder.
+     * Kontrol ve iptal aynı kilit altında yapılır; yeni başlayan bir yazma ile yarışmaz.
+     *
+     * @param cutoffMillis Bu andan önceki son aktivite süresi dolmuş sayılır (epoch ms)
+     * @return Oturum iptal edildiyse true
+     */
+    public synchronized boolean discardIfIdle(long cutoffMillis) {
+        if (closed || hashing || !inFlightWrites.isEmpty() || lastActivityMillis >= cutoffMillis) {
+            return false;
+        }
+        discard();
+        return true;
+    }
+
+    /**
+     * Oturumu iptal eder; dosyayı kapatır ve staging dosyasını siler.
+     */
+    public synchronized void discard() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Dosya zaten silinecek
+        }
+        try {
+            Files.deleteIfExists(stagingFile);
+        } catch (IOException ignored) {
+            // Süresi dolan oturum temizliği tekrar dener
+        }
+    }
+}
@@ -1,35 +1,45 @@
 package org.example.collector_service.domain.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.bot.audio.AudioPacketWriter;
+import org.example.collector_service.bot.audio.AudioRingBuffer;
+import org.example.collector_service.bot.audio.CaptureFormat;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * UserAudioData - Kullanıcı ses verisi yönetim sınıfı
  * 
  * Discord ses kanalından gelen her kullanıcının ses verilerini
- * geçici PCM dosyalarına yazar. Stream halinde gelen ses verisini
- * bufferlayarak daha sonra MP3'e dönüştürülmek üzere saklar.
+ * geçici dosyalara yazar. OPUS modunda ham Opus frame'leri doğrudan
+ * Ogg/Opus dosyasına mux edilir; PCM modunda decode edilmiş ses
+ * daha sonra MP3'e dönüştürülmek üzere saklanır.
  * 
  * Kullanım Senaryoları:
  * - Gerçek zamanlı ses akışı yakalama
  * - Kullanıcı bazlı ses ayrıştırma (her kullanıcı için ayrı dosya)
- * - Geçici dosya yönetimi (PCM temp files)
+ * - Geçici dosya yönetimi (temp .ogg / .pcm files)
  * 
  * Teknik Detaylar:
- * - Dosya Formatı: PCM (48000 Hz, 16-bit, stereo, big-endian)
- * - Klasör: audio_storage/temp_{userId}.pcm
- * - Thread-Safe: writeAudioData ve closeOutputStream synchronized
+ * - Dosya Formatı: Ogg/Opus (OPUS) veya PCM 48000 Hz, 16-bit, stereo, big-endian (PCM)
+ * - Klasör: {oturum klasörü}/temp_{userId}.ogg veya .pcm (varsayılan: audio_storage)
+ * - Ses thread'i: offerAudioData() kilitsiz halka tampona yazar, asla bloklamaz
+ * - Yazıcı thread: drainToDisk() tamponu büyük sıralı yazmalarla diske aktarır
+ * - Sayaçlar: tampon dolduğu için düşen ve kapanıştan sonra gelen (geç) paketler
+ * - Segmentler: geçici dosya süre/boyut sınırında kapatılıp sıra numaralı
+ *   segment dosyasına taşınır, yazıcı yeni dosyayla devam eder
  * 
  * İş Akışı:
- * 1. Constructor ile geçici PCM dosyası oluşturulur
- * 2. writeAudioData() ile stream halinde veri yazılır
- * 3. closeOutputStream() ile stream kapatılır
- * 4. FFmpeg ile PCM -> MP3 dönüşümü yapılır
- * 5. Geçici PCM dosyası silinir
+ * 1. Constructor ile geçici kayıt dosyası ve halka tampon oluşturulur
+ * 2. offerAudioData() ile paketler halka tampona bırakılır
+ * 3. AudioCaptureWriter periyodik olarak drainToDisk() ve rollSegmentIfDue() çağırır
+ * 4. sealFinalSegment() ile kalan veri boşaltılır ve son segment oluşturulur
+ * 5. OPUS: .ogg segmentleri doğrudan kullanılır; PCM: segmentler MP3'e kodlanır
  * 
  * @author Ahmet
  * @version 1.0
@@ -37,35 +47,107 @@ import java.io.IOException;
 @Slf4j
 @Getter
 public class UserAudioData {
-    
+
+    /** Halka tampon slot sayısı (20 ms'lik paketlerle ~5 saniyelik pay) */
+    private static final int RING_CAPACITY = 256;
+
+    /** Disk yazma tamponu; her syscall yaklaşık 1.3 saniyelik sesi kapsar */
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+
     private final String userId;
     private final String userName;
-    private final File tempPcmData;
-    private FileOutputStream outputStream;
+    private final CaptureFormat captureFormat;
+    private final File tempAudioFile;
+
+    @Getter(AccessLevel.NONE)
+    private final AudioRingBuffer ringBuffer;
+
+    @Getter(AccessLevel.NONE)
+    private AudioPacketWriter packetWriter;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong droppedPackets = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong latePackets = new AtomicLong();
+
+    /** Ses thread'inde o an devam eden offerAudioData() çağrısı (0 veya 1) */
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger pendingOffers = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final AudioRingBuffer.PacketSink segmentSink = this::writePacket;
+
+    /** Kaydın başladığı an (epoch ms) */
+    private final long recordingStartMillis;
+
+    /** Açık segmentin başladığı an (epoch ms) */
+    @Getter(AccessLevel.NONE)
+    private long segmentStartMillis;
+
+    /** Açık segmentin diske yazılan (dönüşüm sonrası) bayt sayısı */
+    @Getter(AccessLevel.NONE)
+    private long segmentBytes;
+
+    /** Açık segmentin sıra numarası */
+    @Getter(AccessLevel.NONE)
+    private int segmentSequence;
+
     private volatile boolean closed = false;
 
     /**
-     * Constructor - Kullanıcı için geçici ses dosyası oluşturur.
-     * 
-     * Eski PCM dosyası varsa silinir ve yeni bir FileOutputStream açılır.
-     * Append mode kullanılarak stream halinde veri yazılabilir.
+     * Constructor - Kullanıcı için geçici PCM dosyası oluşturur.
      *
      * @param userId   Discord veya Zoom kullanıcı ID'si (snowflake ID)
      * @param userName Kullanıcının görünen adı
-     * @throws RuntimeException FileOutputStream oluşturulamazsa
+     * @throws RuntimeException Dosya yazıcısı oluşturulamazsa
      */
     public UserAudioData(String userId, String userName) {
+        this(userId, userName, CaptureFormat.PCM);
+    }
+
+    /**
+     * Constructor - Kullanıcı için belirtilen formatta geçici ses dosyası oluşturur.
+     * 
+     * Eski geçici dosya varsa silinir ve formatın paket yazıcısı açılır.
+     *
+     * @param userId        Discord veya Zoom kullanıcı ID'si (snowflake ID)
+     * @param userName      Kullanıcının görünen adı
+     * @param captureFormat Kayıt formatı (OPUS veya PCM)
+     * @throws RuntimeException Dosya yazıcısı oluşturulamazsa
+     */
+    public UserAudioData(String userId, String userName, CaptureFormat captureFormat) {
+        this(userId, userName, captureFormat, new File("audio_storage"));
+    }
+
+    /**
+     * Constructor - Kullanıcı için verilen kayıt klasöründe geçici ses dosyası oluşturur.
+     * 
+     * Eşzamanlı oturumlar aynı kullanıcıyı kaydetse bile dosyalar çakışmaz,
+     * çünkü her oturumun kendi klasörü vardır.
+     *
+     * @param userId           Discord veya Zoom kullanıcı ID'si (snowflake ID)
+     * @param userName         Kullanıcının görünen adı
+     * @param captureFormat    Kayıt formatı (OPUS veya PCM)
+     * @param storageDirectory Oturumun kayıt klasörü (mevcut olmalı)
+     * @throws RuntimeException Dosya yazıcısı oluşturulamazsa
+     */
+    public UserAudioData(String userId, String userName, CaptureFormat captureFormat, File storageDirectory) {
         this.userId = userId;
         this.userName = userName;
-        this.tempPcmData = new File("audio_storage/temp_" + userId + ".pcm");
+        this.captureFormat = captureFormat;
+        this.tempAudioFile = new File(storageDirectory, "temp_" + userId + captureFormat.getFileExtension());
+        this.ringBuffer = new AudioRingBuffer(RING_CAPACITY, captureFormat.getMaxPacketBytes());
+        this.recordingStartMillis = System.currentTimeMillis();
+        this.segmentStartMillis = recordingStartMillis;
 
         try {
-            if (tempPcmData.exists()) {
-                if (!tempPcmData.delete()) {
-                    log.warn("Could not delete old PCM file: {}", tempPcmData.getPath());
+            if (tempAudioFile.exists()) {
+                if (!tempAudioFile.delete()) {
+                    log.warn("Could not delete old temp audio file: {}", tempAudioFile.getPath());
                 }
             }
-            this.outputStream = new FileOutputStream(tempPcmData, true);
+            this.packetWriter = captureFormat.openWriter(tempAudioFile, WRITE_BUFFER_BYTES);
         } catch (Exception e) {
             throw new RuntimeException("Could not create output stream for user: " + userName, e);
         }
@@ -75,41 +157,170 @@ public class UserAudioData {
      * Output stream'i güvenli şekilde kapatır.
      * 
      * İdempotent: Birden fazla çağrı güvenlidir, closed flag kontrol edilir.
-     * Thread-Safe: synchronized metod, race condition engellenmiştir.
+     * Thread-Safe: synchronized metod, yazıcı thread ile çakışmaz.
      * 
-     * Kapatma öncesi flush() çağrılarak buffer'daki tüm veri dosyaya yazılır.
+     * Kapatma öncesi halka tamponda kalan paketler diske boşaltılır ve
+     * paket yazıcısı kapatılarak dosya formatı sonlandırılır. closed işaretlendikten
+     * sonra ses thread'inde devam eden offerAudioData() çağrısının
+     * bitmesi beklenir; böylece son boşaltmadan sonra tampona sessizce paket
+     * bırakılamaz, geç gelen her paket latePackets sayacına düşer.
      *
      * @throws IOException Dosya kapatma hatası veya flush hatası
      */
     public synchronized void closeOutputStream() throws IOException {
-        if (outputStream != null && !closed) {
+        if (packetWriter != null && !closed) {
             closed = true;
-            outputStream.flush();
-            outputStream.close();
-            log.debug("Output stream closed: userId={}", userId);
+            while (pendingOffers.get() != 0) {
+                Thread.onSpinWait();
+            }
+            try {
+                ringBuffer.drainTo(segmentSink);
+            } finally {
+                packetWriter.close();
+            }
+            log.debug("Output stream closed: userId={}, dropped={}, late={}",
+                    userId, droppedPackets.get(), latePackets.get());
         }
     }
 
     /**
-     * Ses verilerini dosyaya yazar ve flush eder.
+     * Ses paketini halka tampona bırakır (JDA ses thread'i).
      * 
-     * Thread-Safe: synchronized metod, aynı anda birden fazla thread
-     * çağırsa bile data corruption olmaz.
+     * Kilitsiz ve bloklamayan çağrıdır; disk I/O yapmaz. Tampon doluysa paket
+     * düşürülür, stream kapatıldıysa paket geç gelmiş sayılır. Her iki durumda
+     * da ilgili sayaç artırılır.
+     *
+     * @param data Ses paketi (Discord'dan gelen 20ms'lik Opus frame'i veya PCM chunk'ı)
+     * @return Paket tampona alındıysa true
+     */
+    public boolean offerAudioData(byte[] data) {
+        pendingOffers.incrementAndGet();
+        try {
+            if (closed) {
+                latePackets.incrementAndGet();
+                return false;
+            }
+            if (!ringBuffer.offer(data)) {
+                droppedPackets.incrementAndGet();
+                return false;
+            }
+            return true;
+        } finally {
+            pendingOffers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Halka tampondaki bekleyen paketleri paket yazıcısına aktarır (yazıcı thread).
      * 
-     * Stream kapalıysa IOException fırlatılır. Bu durum, Discord'dan
-     * gelen audio packet'lerin stream kapatıldıktan sonra geldiğini gösterir.
+     * Yazıcılar tamponludur; gerçek disk yazması yalnızca WRITE_BUFFER_BYTES
+     * dolduğunda gerçekleşir.
      *
-     * @param data PCM ses byte array (Discord'dan gelen 20ms'lik ses chunk'ı)
-     * @throws IOException Dosya yazma hatası veya stream kapalı hatası
+     * @return Aktarılan paket sayısı
+     * @throws IOException Dosya yazma hatası
      */
-    public synchronized void writeAudioData(byte[] data) throws IOException {
+    public synchronized int drainToDisk() throws IOException {
         if (closed) {
-            throw new IOException("Output stream already closed: " + userId);
+            return 0;
+        }
+        return ringBuffer.drainTo(segmentSink);
+    }
+
+    private void writePacket(byte[] buffer, int length) throws IOException {
+        packetWriter.accept(buffer, length);
+        segmentBytes = packetWriter.getBytesWritten();
+    }
+
+    /**
+     * Açık segment süre veya boyut sınırına ulaştıysa segmenti kapatır (yazıcı thread).
+     * 
+     * Geçici dosya sonlandırılıp segment dosyasına taşınır ve aynı geçici dosya
+     * yeniden açılarak kayda kesintisiz devam edilir. Stream kapatıldıysa veya
+     * segment boşsa hiçbir şey yapılmaz; son segment sealFinalSegment() ile alınır.
+     *
+     * @param nowMillis   Şu anki zaman (epoch ms)
+     * @param maxMillis   Segment süre sınırı (ms, 0 veya negatif ise süreye bakılmaz)
+     * @param maxBytes    Segment boyut sınırı (bayt, 0 veya negatif ise boyuta bakılmaz)
+     * @return Kapatılan segment veya sınır aşılmadıysa null
+     * @throws IOException Dosya kapatma, taşıma veya yeniden açma hatası
+     */
+    public synchronized AudioSegment rollSegmentIfDue(long nowMillis, long maxMillis, long maxBytes) throws IOException {
+        if (closed || segmentBytes == 0) {
+            return null;
+        }
+        boolean timeDue = maxMillis > 0 && nowMillis - segmentStartMillis >= maxMillis;
+        boolean sizeDue = maxBytes > 0 && segmentBytes >= maxBytes;
+        if (!timeDue && !sizeDue) {
+            return null;
         }
-        if (outputStream != null) {
-            outputStream.write(data);
-            outputStream.flush();
+
+        ringBuffer.drainTo(segmentSink);
+        packetWriter.close();
+        AudioSegment segment = moveSegment(nowMillis, false);
+        try {
+            packetWriter = captureFormat.openWriter(tempAudioFile, WRITE_BUFFER_BYTES);
+        } catch (IOException e) {
+            closed = true;
+            throw e;
         }
+        return segment;
+    }
+
+    /**
+     * Kaydı kapatır ve açık segmenti son segment olarak devreder.
+     *
+     * @return Son segment veya segment boşsa null
+     * @throws IOException Dosya kapatma veya taşıma hatası
+     */
+    public synchronized AudioSegment sealFinalSegment() throws IOException {
+        closeOutputStream();
+        if (segmentBytes == 0) {
+            return null;
+        }
+        return moveSegment(System.currentTimeMillis(), true);
+    }
+
+    private AudioSegment moveSegment(long nowMillis, boolean last) throws IOException {
+        File segmentFile = new File(tempAudioFile.getParentFile(), "segment_" + userId + "_" + recordingStartMillis
+                + "_" + segmentSequence + captureFormat.getFileExtension());
+        if (!tempAudioFile.renameTo(segmentFile)) {
+            throw new IOException("Could not move segment file for user: " + userId);
+        }
+
+        AudioSegment segment = AudioSegment.builder()
+                .userId(userId)
+                .userName(userName)
+                .captureFormat(captureFormat)
+                .file(segmentFile)
+                .sequence(segmentSequence)
+                .recordingStartMillis(recordingStartMillis)
+                .startOffsetMillis(segmentStartMillis - recordingStartMillis)
+                .endOffsetMillis(nowMillis - recordingStartMillis)
+                .last(last)
+                .build();
+
+        segmentSequence++;
+        segmentStartMillis = nowMillis;
+        segmentBytes = 0;
+        log.debug("Audio segment rolled: userId={}, sequence={}, last={}", userId, segment.getSequence(), last);
+        return segment;
+    }
+
+    /**
+     * Tampon dolduğu için düşürülen paket sayısını döndürür.
+     *
+     * @return Düşürülen paket sayısı
+     */
+    public long getDroppedPacketCount() {
+        return droppedPackets.get();
     }
-}
 
+    /**
+     * Stream kapatıldıktan sonra gelen (geç) paket sayısını döndürür.
+     *
+     * @return Geç gelen paket sayısı
+     */
+    public long getLatePacketCount() {
+        return latePackets.get();
+    }
+}
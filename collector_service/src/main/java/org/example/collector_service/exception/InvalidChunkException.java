@@ -0,0 +1,9 @@
+package org.example.collector_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidChunkException extends CollectorServiceException{
+    public InvalidChunkException(String message) {
+        super(message, HttpStatus.BAD_REQUEST, "INVALID_CHUNK");
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.collector_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UploadIncompleteException extends CollectorServiceException{
+    public UploadIncompleteException(String message) {
+        super(message, HttpStatus.CONFLICT, "UPLOAD_INCOMPLETE");
+    }
+}
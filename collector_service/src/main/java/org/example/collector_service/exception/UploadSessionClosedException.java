@@ -0,0 +1,9 @@
+package org.example.collector_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UploadSessionClosedException extends CollectorServiceException{
+    public UploadSessionClosedException(String message) {
+        super(message, HttpStatus.CONFLICT, "UPLOAD_SESSION_CLOSED");
+    }
+}
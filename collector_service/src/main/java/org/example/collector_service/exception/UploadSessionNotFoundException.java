@@ -0,0 +1,9 @@
+package org.example.collector_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UploadSessionNotFoundException extends CollectorServiceException{
+    public UploadSessionNotFoundException(String message) {
+        super(message, HttpStatus.NOT_FOUND, "UPLOAD_SESSION_NOT_FOUND");
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.collector_service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * OutboxBatchWriter - Outbox event'lerini tek bir JDBC batch ile yazar
+ *
+ * OutBoxEvent IDENTITY ID kullandığı için Hibernate saveAll her satırı ayrı INSERT
+ * ile yazar. Toplu ingestion akışlarında (ör. Discord mesaj batch'leri) event'ler
+ * bu sınıf ile tek bir executeBatch çağrısında yazılır.
+ *
+ * Teknik Detaylar:
+ * - Çağıranın transaction'ına katılır (JdbcTemplate aynı bağlantıyı kullanır)
+ * - Sütunlar OutBoxEvent entity eşlemesiyle aynıdır; lease sütunları boş bırakılır
+ * - MySQL'de rewriteBatchedStatements=true ile tek çok satırlı INSERT'e dönüşür
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, payload_codec, compressed_payload, "
+                    + "partition_key, topic, headers, created_at, is_processed) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Event'leri tek batch ile outbox tablosuna ekler.
+     *
+     * @param events Yazılacak event'ler
+     * @return Yazılan event sayısı
+     */
+    public int insertAll(List<OutBoxEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OutBoxEvent event = events.get(i);
+                ps.setString(1, event.getAggregateType());
+                ps.setString(2, event.getAggregateId());
+                ps.setString(3, event.getEventType());
+                ps.setString(4, event.getPayload());
+                ps.setString(5, event.getPayloadCodec());
+                if (event.getCompressedPayload() != null) {
+                    ps.setBytes(6, event.getCompressedPayload());
+                } else {
+                    ps.setNull(6, Types.BLOB);
+                }
+                ps.setString(7, event.getPartitionKey());
+                ps.setString(8, event.getTopic());
+                ps.setString(9, event.getHeaders());
+                ps.setTimestamp(10, event.getCreatedAt() != null ? Timestamp.valueOf(event.getCreatedAt()) : null);
+                ps.setBoolean(11, event.isProcessed());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+
+        log.debug("Outbox batch inserted: {} events", events.size());
+        return events.size();
+    }
+}
@@ -9,6 +9,9 @@ import org.example.collector_service.repository.OutBoxEventRepository;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * OutboxEventPublisher - Merkezi Outbox event yayınlama servisi
@@ -29,8 +32,11 @@ import java.time.LocalDateTime;
  * İş Akışı:
  * 1. Service, aggregate'i veritabanına kaydeder
  * 2. Aynı transaction içinde OutboxEventPublisher çağrılır
- * 3. Event, outbox tablosuna JSON olarak yazılır
- * 4. OutboxEventRelayer bu event'leri Kafka'ya gönderir
+ * 3. Event, outbox tablosuna JSON olarak yazılır; topic, partition key ve header'lar
+ *    OutboxRouting ile belirlenip ayrı sütunlara yazılır. Eşiği aşan payload'lar
+ *    OutboxPayloadCodec ile sıkıştırılarak saklanır
+ * 4. Transaction commit edilince OutboxRelaySignal relayer'ı uyandırır
+ *    ve OutboxEventRelayer bu event'leri Kafka'ya gönderir
  * 5. Başarılı gönderimden sonra processed=true olarak işaretlenir
  * 
  * Kullanım: Service'ler @Transactional metod içinde aggregate kayıtla
@@ -46,6 +52,9 @@ public class OutboxEventPublisher {
     
     private final OutBoxEventRepository outBoxEventRepository;
     private final ObjectMapper objectMapper;
+    private final OutboxRelaySignal outboxRelaySignal;
+    private final OutboxPayloadCodec outboxPayloadCodec;
+    private final OutboxBatchWriter outboxBatchWriter;
 
     /**
      * Aggregate için outbox event oluşturur ve veritabanına kaydeder.
@@ -61,23 +70,67 @@ public class OutboxEventPublisher {
      * @throws OutboxPublicationException JSON serialization hatası durumunda
      */
     public <T> void publishEvent(T aggregate, String aggregateId, String aggregateType, String eventType) {
+        OutBoxEvent event = buildEvent(aggregate, aggregateId, aggregateType, eventType);
+
+        outBoxEventRepository.save(event);
+        outboxRelaySignal.signalAfterCommit();
+
+        log.debug("Outbox event published: type={}, id={}, event={}", 
+                aggregateType, aggregateId, eventType);
+    }
+
+    /**
+     * Birden fazla aggregate için Created event'lerini tek JDBC batch ile yazar.
+     * 
+     * Toplu ingestion akışları (ör. Discord mesaj batch'leri) içindir; aggregate'ler
+     * aynı transaction'da kaydedilmiş ve ID'leri atanmış olmalıdır. Relayer commit
+     * sonrası tek sinyal ile uyandırılır.
+     * 
+     * @param aggregates    Event yayınlanacak aggregate'ler
+     * @param idExtractor   Aggregate'ten ID üreten fonksiyon
+     * @param aggregateType Aggregate tipi
+     * @param <T>           Aggregate generic tipi
+     * @throws OutboxPublicationException JSON serialization hatası durumunda
+     */
+    public <T> void publishCreatedAll(List<T> aggregates, Function<T, String> idExtractor, String aggregateType) {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+
+        List<OutBoxEvent> events = new ArrayList<>(aggregates.size());
+        for (T aggregate : aggregates) {
+            events.add(buildEvent(aggregate, idExtractor.apply(aggregate), aggregateType, "Created"));
+        }
+
+        outboxBatchWriter.insertAll(events);
+        outboxRelaySignal.signalAfterCommit();
+
+        log.debug("Outbox events published in batch: type={}, count={}", aggregateType, events.size());
+    }
+
+    /**
+     * Aggregate için routing sütunları doldurulmuş, payload'ı kodlanmış event oluşturur.
+     * 
+     * @throws OutboxPublicationException JSON serialization hatası durumunda
+     */
+    private <T> OutBoxEvent buildEvent(T aggregate, String aggregateId, String aggregateType, String eventType) {
         try {
             String payload = serializeToJson(aggregate);
-            
+            String headers = serializeToJson(OutboxRouting.headersFor(aggregateType, aggregateId, eventType));
+
             OutBoxEvent event = OutBoxEvent.builder()
                     .aggregateType(aggregateType)
                     .aggregateId(aggregateId)
                     .eventType(eventType)
-                    .payload(payload)
+                    .partitionKey(OutboxRouting.partitionKeyFor(aggregate, aggregateId))
+                    .topic(OutboxRouting.topicFor(aggregateType))
+                    .headers(headers)
                     .createdAt(LocalDateTime.now())
                     .processed(false)
                     .build();
-            
-            outBoxEventRepository.save(event);
-            
-            log.debug("Outbox event published: type={}, id={}, event={}", 
-                    aggregateType, aggregateId, eventType);
-            
+            outboxPayloadCodec.encodeInto(event, payload);
+            return event;
+
         } catch (JsonProcessingException e) {
             String errorMsg = String.format(
                     "Outbox event serialization failed: type=%s, id=%s, event=%s", 
@@ -0,0 +1,119 @@
+package org.example.collector_service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * OutboxPartitionManager - Günlük bölümlenmiş (RANGE partition) outbox tablosunun bakımı
+ *
+ * Opsiyoneldir; outbox.partitioning.enabled=true ile açılır ve tablonun
+ * docker/mysql/optional/outbox_partitioning.sql ile bölümlenmiş olmasını gerektirir.
+ * Eski günlerin satırlarını DELETE ile silmek yerine bölümün tamamı DROP edilir;
+ * bu işlem satır sayısından bağımsız olarak anlık tamamlanır.
+ *
+ * İş Akışı:
+ * 1. Önümüzdeki günler için pYYYYMMDD bölümleri pmax'tan ayrılarak oluşturulur
+ * 2. Retention süresinden eski bölümlerde işlenmemiş event yoksa bölüm DROP edilir
+ *
+ * Teknik Detaylar:
+ * - Bölüm pYYYYMMDD, created_at değeri o güne ait satırları tutar
+ * - İşlenmemiş event içeren bölümler silinmez; relay onları işledikten sonra silinir
+ * - Sadece MySQL desteklenir
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.partitioning.enabled", havingValue = "true", matchIfMissing = false)
+public class OutboxPartitionManager {
+
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final String MAX_PARTITION = "pmax";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long retentionHours;
+    private final int daysAhead;
+
+    public OutboxPartitionManager(JdbcTemplate jdbcTemplate,
+                                  @Value("${outbox.retention.hours:168}") long retentionHours,
+                                  @Value("${outbox.partitioning.days-ahead:3}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionHours = retentionHours;
+        this.daysAhead = daysAhead;
+    }
+
+    @Scheduled(initialDelayString = "${outbox.retention.initial-delay-ms:60000}",
+            fixedDelayString = "${outbox.partitioning.interval-ms:3600000}")
+    public void maintainPartitions() {
+        try {
+            List<String> partitions = listPartitions();
+            if (!partitions.contains(MAX_PARTITION)) {
+                log.warn("Outbox table is not partitioned; run docker/mysql/optional/outbox_partitioning.sql first");
+                return;
+            }
+            createUpcomingPartitions(partitions);
+            dropExpiredPartitions(partitions);
+        } catch (Exception e) {
+            log.error("Outbox partition maintenance failed", e);
+        }
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT partition_name FROM information_schema.partitions " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'outbox' AND partition_name IS NOT NULL " +
+                        "ORDER BY partition_ordinal_position", String.class);
+    }
+
+    private void createUpcomingPartitions(List<String> partitions) {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            String name = day.format(PARTITION_FORMAT);
+            if (partitions.contains(name)) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE outbox REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" +
+                    "PARTITION " + name + " VALUES LESS THAN (TO_DAYS('" + day.plusDays(1) + "')), " +
+                    "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+            partitions.add(name);
+            log.info("Created outbox partition {}", name);
+        }
+    }
+
+    private void dropExpiredPartitions(List<String> partitions) {
+        LocalDate cutoffDay = LocalDateTime.now().minusHours(retentionHours).toLocalDate();
+        for (String name : partitions) {
+            if (MAX_PARTITION.equals(name)) {
+                continue;
+            }
+            LocalDate day;
+            try {
+                day = LocalDate.parse(name, PARTITION_FORMAT);
+            } catch (Exception e) {
+                continue;
+            }
+            if (!day.isBefore(cutoffDay)) {
+                continue;
+            }
+            Integer pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM outbox PARTITION (" + name + ") WHERE is_processed = 0", Integer.class);
+            if (pending != null && pending > 0) {
+                log.warn("Keeping expired outbox partition {} with {} unprocessed events", name, pending);
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE outbox DROP PARTITION " + name);
+            log.info("Dropped expired outbox partition {}", name);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.collector_service.outbox;
+
+import com.github.luben.zstd.Zstd;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OutboxPayloadCodec - Büyük outbox payload'larını şeffaf şekilde sıkıştırır
+ *
+ * AudioMessage gibi transkripsiyon metni taşıyan aggregate'ler outbox satırını ve
+ * Kafka mesajını büyütür. Eşik değerini aşan JSON payload'lar zstd ile sıkıştırılıp
+ * compressedPayload sütununa yazılır; küçük payload'lar eskisi gibi düz metin kalır.
+ *
+ * İş Akışı:
+ * 1. OutboxEventPublisher JSON'ı üretir ve encodeInto ile event'e yazar
+ * 2. Relayer wireBytes ile sıkıştırılmış byte'ları açmadan Kafka'ya iletir
+ * 3. Kafka kaydına content-encoding header'ı eklenir; tüketici sadece bu header
+ *    varsa ve payload'ı okuduğunda açar (ai_service EncodedPayload, streaming serde.OutboxPayloadCodec)
+ *
+ * Teknik Detaylar:
+ * - Sıkıştırma sadece gerçekten yer kazandırıyorsa uygulanır
+ * - payloadCodec null ise satır düz JSON'dur (eski satırlarla geriye uyumlu)
+ * - Ham / saklanan byte sayaçları sıkıştırma oranını izlemek için tutulur
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxPayloadCodec {
+
+    public static final String CODEC_ZSTD = "zstd";
+    public static final String HEADER_CONTENT_ENCODING = "content-encoding";
+
+    private final int thresholdBytes;
+    private final int level;
+
+    private final AtomicLong compressedEvents = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    public OutboxPayloadCodec(@Value("${outbox.compression.threshold-bytes:1024}") int thresholdBytes,
+                              @Value("${outbox.compression.level:3}") int level) {
+        this.thresholdBytes = thresholdBytes;
+        this.level = level;
+    }
+
+    /**
+     * JSON payload'ı event'e yazar; eşik aşılırsa sıkıştırılmış olarak saklar.
+     *
+     * @param event Payload'ı yazılacak outbox event'i
+     * @param json  Aggregate'in JSON gösterimi
+     */
+    public void encodeInto(OutBoxEvent event, String json) {
+        byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+        rawBytes.addAndGet(raw.length);
+
+        if (thresholdBytes > 0 && raw.length >= thresholdBytes) {
+            byte[] compressed = Zstd.compress(raw, level);
+            if (compressed.length < raw.length) {
+                event.setPayload(null);
+                event.setPayloadCodec(CODEC_ZSTD);
+                event.setCompressedPayload(compressed);
+                compressedEvents.incrementAndGet();
+                storedBytes.addAndGet(compressed.length);
+                log.debug("Outbox payload compressed: {} -> {} bytes", raw.length, compressed.length);
+                return;
+            }
+        }
+
+        event.setPayload(json);
+        event.setPayloadCodec(null);
+        event.setCompressedPayload(null);
+        storedBytes.addAndGet(raw.length);
+    }
+
+    /**
+     * Kafka'ya gönderilecek byte'ları döndürür; sıkıştırılmış payload açılmaz.
+     *
+     * @param event Outbox event'i
+     * @return Kayıt değeri olarak gönderilecek byte'lar
+     */
+    public byte[] wireBytes(OutBoxEvent event) {
+        if (event.getPayloadCodec() != null) {
+            return event.getCompressedPayload();
+        }
+        return event.getPayload() != null ? event.getPayload().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    public long getCompressedEventCount() {
+        return compressedEvents.get();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+
+    /** Saklanan / ham byte oranı; 1.0 sıkıştırma yok demektir */
+    public double getCompressionRatio() {
+        long raw = rawBytes.get();
+        return raw == 0 ? 1.0 : (double) storedBytes.get() / raw;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.collector_service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OutboxRelaySignal - Outbox'a yeni event yazıldığını relayer'a bildiren süreç içi sinyal
+ *
+ * Relayer'ı periyodik sorgu beklemeden uyandırarak outbox → Kafka gecikmesini düşürür.
+ * Sinyal transaction commit edildikten sonra verilir; relayer henüz görünmeyen satırları aramaz.
+ *
+ * İş Akışı:
+ * 1. Event kaydeden kod signalAfterCommit() çağırır
+ * 2. Aktif transaction varsa sinyal afterCommit'e ertelenir, yoksa hemen verilir
+ * 3. Relayer await() içinde bekliyorsa hemen uyanır
+ *
+ * Teknik Detaylar:
+ * - Birden fazla sinyal tek bir uyanmaya birleştirilir (en fazla 1 permit)
+ * - Rollback olan transaction'lar sinyal üretmez
+ * - Sadece aynı JVM'deki relayer'ı uyandırır; diğer instance'lar periyodik sorguya güvenir
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxRelaySignal {
+
+    private final Semaphore permits = new Semaphore(0);
+    private final AtomicLong signals = new AtomicLong();
+
+    /**
+     * Mevcut transaction commit edildikten sonra relayer'ı uyandırır.
+     * Transaction yoksa hemen uyandırır.
+     */
+    public void signalAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    signal();
+                }
+            });
+        } else {
+            signal();
+        }
+    }
+
+    /**
+     * Relayer'ı hemen uyandırır.
+     */
+    public void signal() {
+        signals.incrementAndGet();
+        if (permits.availablePermits() == 0) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Sinyal gelene veya süre dolana kadar bekler.
+     *
+     * @param timeoutMillis Maksimum bekleme süresi
+     * @return Sinyal ile uyandıysa true, süre dolduysa false
+     * @throws InterruptedException Bekleyen thread kesilirse
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        boolean signalled = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        permits.drainPermits();
+        return signalled;
+    }
+
+    public long getSignalCount() {
+        return signals.get();
+    }
+}
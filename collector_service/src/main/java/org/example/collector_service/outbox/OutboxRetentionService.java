@@ -0,0 +1,184 @@
+package org.example.collector_service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.repository.OutBoxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OutboxRetentionService - Outbox tablosunun büyümesini sınırlayan retention görevi
+ *
+ * İşlenmiş event'ler retention süresi dolduktan sonra küçük parçalar halinde silinir.
+ * Tek bir büyük DELETE yerine parça parça silme, uzun süreli satır kilitlerini ve
+ * replikasyon gecikmesini önler; relay ve yazma trafiği etkilenmez.
+ *
+ * İş Akışı:
+ * 1. Retention süresinden eski işlenmiş event ID'leri chunk-size kadar okunur
+ * 2. Bu ID'ler kendi transaction'ında silinir
+ * 3. Parçalar arasında kısa bir ara verilir; tur başına parça sayısı sınırlıdır
+ * 4. Tablo boyutu, backlog ve relay tarama süresi raporlanır
+ *
+ * Teknik Detaylar:
+ * - İşlenmemiş event'ler hiçbir zaman silinmez
+ * - Silme ve relay sorguları (is_processed, created_at) indeksini kullanır
+ * - Tablo bölümlenmişse (OutboxPartitionManager) eski bölümler ayrıca DROP edilir
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxRetentionService {
+
+    private final OutBoxEventRepository outBoxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMillis;
+
+    private final AtomicLong purgedEvents = new AtomicLong();
+    private volatile long lastPurgeMillis;
+    private volatile long lastTotalRows = -1;
+    private volatile long lastUnprocessedRows = -1;
+    private volatile long lastTableBytes = -1;
+    private volatile long lastScanMicros = -1;
+
+    public OutboxRetentionService(OutBoxEventRepository outBoxEventRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${outbox.retention.hours:168}") long retentionHours,
+                                  @Value("${outbox.retention.chunk-size:1000}") int chunkSize,
+                                  @Value("${outbox.retention.max-chunks-per-run:500}") int maxChunksPerRun,
+                                  @Value("${outbox.retention.pause-ms:50}") long pauseMillis) {
+        this.outBoxEventRepository = outBoxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = Duration.ofHours(retentionHours);
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * Periyodik retention turu: eski işlenmiş event'leri siler ve tablo istatistiklerini raporlar.
+     */
+    @Scheduled(initialDelayString = "${outbox.retention.initial-delay-ms:60000}",
+            fixedDelayString = "${outbox.retention.interval-ms:600000}")
+    public void runRetention() {
+        try {
+            purgeProcessedBefore(LocalDateTime.now().minus(retention));
+        } catch (Exception e) {
+            log.error("Outbox retention purge failed", e);
+        }
+        reportStats();
+    }
+
+    /**
+     * Verilen tarihten önce işlenmiş event'leri parça parça siler.
+     *
+     * @param cutoff Bu tarihten önceki işlenmiş event'ler silinir
+     * @return Silinen kayıt sayısı
+     */
+    public int purgeProcessedBefore(LocalDateTime cutoff) {
+        long startNanos = System.nanoTime();
+        int deleted = 0;
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<Long> ids = outBoxEventRepository.findProcessedIdsBefore(cutoff, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += outBoxEventRepository.deleteByIds(ids);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (pauseMillis > 0 && !pause()) {
+                break;
+            }
+        }
+
+        lastPurgeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        purgedEvents.addAndGet(deleted);
+        if (deleted > 0) {
+            log.info("Purged {} processed outbox events older than {} in {} ms", deleted, cutoff, lastPurgeMillis);
+        }
+        return deleted;
+    }
+
+    /**
+     * Tablo satır sayısını, backlog'u, tablo boyutunu ve relay tarama süresini ölçer.
+     */
+    public void reportStats() {
+        try {
+            lastTotalRows = outBoxEventRepository.count();
+            lastUnprocessedRows = outBoxEventRepository.countUnprocessed();
+
+            long scanStart = System.nanoTime();
+            outBoxEventRepository.findClaimableIds(LocalDateTime.now(), PageRequest.of(0, 1));
+            lastScanMicros = (System.nanoTime() - scanStart) / 1_000;
+
+            lastTableBytes = queryTableBytes();
+            log.info("Outbox stats: rows={}, unprocessed={}, tableBytes={}, relayScan={} us, purgedTotal={}",
+                    lastTotalRows, lastUnprocessedRows, lastTableBytes, lastScanMicros, purgedEvents.get());
+        } catch (Exception e) {
+            log.warn("Could not collect outbox stats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * MySQL'de tablonun veri + indeks boyutunu döndürür; desteklenmiyorsa -1.
+     */
+    private long queryTableBytes() {
+        try {
+            Long bytes = jdbcTemplate.queryForObject(
+                    "SELECT data_length + index_length FROM information_schema.tables " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'outbox'", Long.class);
+            return bytes != null ? bytes : -1;
+        } catch (Exception e) {
+            log.debug("Table size is not available: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long getPurgedEventCount() {
+        return purgedEvents.get();
+    }
+
+    public long getLastPurgeMillis() {
+        return lastPurgeMillis;
+    }
+
+    public long getLastTotalRows() {
+        return lastTotalRows;
+    }
+
+    public long getLastUnprocessedRows() {
+        return lastUnprocessedRows;
+    }
+
+    public long getLastTableBytes() {
+        return lastTableBytes;
+    }
+
+    public long getLastScanMicros() {
+        return lastScanMicros;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.collector_service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.AudioMessage;
+import org.example.collector_service.domain.model.Meeting;
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.domain.model.VoiceSession;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OutboxRouting - Outbox event'lerinin Kafka yönlendirme bilgisini yazma anında belirler
+ *
+ * Hedef topic, partition key ve header'lar event outbox'a yazılırken hesaplanıp ayrı
+ * sütunlarda saklanır. Relay bu sütunları okur; payload JSON'ını hiç parse etmez.
+ *
+ * Partition Key Kuralları (anahtar her aggregate için toplantının platform ID'sidir; Discord'da
+ * ses kanalı ID'si, Zoom'da meeting ID):
+ * - Meeting: meetingId
+ * - AudioMessage, VoiceSession: channelId (kaydın yapıldığı ses kanalı)
+ * - Message: meetingId; mesaj bir toplantıya bağlı değilse yazıldığı metin kanalının ID'si
+ *   (DiscordBotListener, kayıt sürerken yazılan mesajlara kaydedilen ses kanalını meetingId olarak verir)
+ * - Diğerleri / boş değerler: aggregateId
+ * Böylece bir toplantının tüm event'leri aynı partition'a düşer ve outbox'a yazıldıkları sırayla
+ * yayınlanır: relay'ler (collector OutBoxEventRelayer, streaming OutboxPoller) bir anahtarın
+ * sonraki event'ini önceki event'i onaylanmadan sahiplenmez ve göndermez (bkz. OutboxEventClaimer).
+ * Teslimat at-least-once'tır; tüketiciler tekrar gelen event'leri tolere etmelidir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public final class OutboxRouting {
+
+    public static final String RAW_AUDIO_TOPIC = "raw-audio-events";
+    public static final String MEETING_TOPIC = "meeting-events";
+    public static final String VOICE_SESSION_TOPIC = "voice-session-events";
+    public static final String TEXT_MESSAGE_TOPIC = "text-message-events";
+    public static final String MEDIA_UPLOADED_TOPIC = "media-uploaded-events";
+
+    public static final String HEADER_EVENT_TYPE = "eventType";
+    public static final String HEADER_AGGREGATE_TYPE = "aggregateType";
+    public static final String HEADER_AGGREGATE_ID = "aggregateId";
+
+    private OutboxRouting() {
+    }
+
+    /**
+     * Aggregate tipine göre hedef topic'i döndürür.
+     *
+     * @param aggregateType Aggregate tipi
+     * @return Kafka topic adı
+     */
+    public static String topicFor(String aggregateType) {
+        if (aggregateType == null) return RAW_AUDIO_TOPIC;
+
+        return switch (aggregateType) {
+            case "AudioMessage" -> RAW_AUDIO_TOPIC;
+            case "Meeting" -> MEETING_TOPIC;
+            case "VoiceSession" -> VOICE_SESSION_TOPIC;
+            case "Message" -> TEXT_MESSAGE_TOPIC;
+            case "MeetingMedia" -> MEDIA_UPLOADED_TOPIC;
+            default -> {
+                log.warn("Unknown aggregate type: {}, using default topic", aggregateType);
+                yield RAW_AUDIO_TOPIC;
+            }
+        };
+    }
+
+    /**
+     * Aggregate'in ait olduğu toplantıya göre partition key üretir.
+     *
+     * @param aggregate   Aggregate nesnesi
+     * @param aggregateId Aggregate ID'si (fallback)
+     * @return Partition key
+     */
+    public static String partitionKeyFor(Object aggregate, String aggregateId) {
+        String key = null;
+        if (aggregate instanceof Meeting meeting) {
+            key = meeting.getMeetingId();
+        } else if (aggregate instanceof Message message) {
+            key = firstNonBlank(message.getMeetingId(), message.getChannelId());
+        } else if (aggregate instanceof AudioMessage audioMessage) {
+            key = audioMessage.getChannelId();
+        } else if (aggregate instanceof VoiceSession voiceSession) {
+            key = voiceSession.getChannelId();
+        }
+        return firstNonBlank(key, aggregateId);
+    }
+
+    /**
+     * Kafka kaydına eklenecek standart header'ları oluşturur.
+     *
+     * @param aggregateType Aggregate tipi
+     * @param aggregateId   Aggregate ID'si
+     * @param eventType     Event tipi
+     * @return Header adı → değer
+     */
+    public static Map<String, String> headersFor(String aggregateType, String aggregateId, String eventType) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        putIfPresent(headers, HEADER_EVENT_TYPE, eventType);
+        putIfPresent(headers, HEADER_AGGREGATE_TYPE, aggregateType);
+        putIfPresent(headers, HEADER_AGGREGATE_ID, aggregateId);
+        return headers;
+    }
+
+    private static void putIfPresent(Map<String, String> headers, String name, String value) {
+        if (value != null) {
+            headers.put(name, value);
+        }
+    }
+
+    private static String firstNonBlank(String first, String second) {
+        return first != null && !first.isBlank() ? first : second;
+    }
+}
@@ -1,71 +1,404 @@
 package org.example.collector_service.relayer;
 
-import jakarta.transaction.Transactional;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.outbox.OutboxPayloadCodec;
+import org.example.collector_service.outbox.OutboxRelaySignal;
+import org.example.collector_service.outbox.OutboxRouting;
 import org.example.collector_service.repository.OutBoxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * OutBoxEventRelayer - Outbox tablosundaki event'leri Kafka'ya aktaran relay
+ *
+ * İş Akışı:
+ * 1. OutboxEventClaimer ile en eski işlenmemiş event'lerden bir batch lease ile sahiplenilir
+ * 2. Batch partition key'e göre gruplanır; her dalgada her anahtarın sıradaki tek event'i
+ *    gönderilir (farklı anahtarlar pipeline halinde)
+ * 3. Dalganın sonuçları beklenir; onaylanan anahtarlar bir sonraki event'leriyle devam eder
+ * 4. Sadece broker'ın onayladığı event'ler tek bir markAsProcessed(ids) ile işaretlenir
+ * 5. Batch dolu geldiyse (backlog var) bekleme yapılmadan bir sonraki batch'e geçilir
+ *
+ * Tetikleme:
+ * - Relay kendi thread'inde ("outbox-relay") çalışır
+ * - Outbox'a yazan transaction commit edilince OutboxRelaySignal relayer'ı hemen uyandırır
+ * - Sinyal gelmezse periyodik sorgu güvenlik ağı olarak çalışır; boş geçen her turda
+ *   bekleme süresi min-poll-ms'den max-poll-ms'ye kadar ikiye katlanır (adaptive backoff)
+ *
+ * Teknik Detaylar:
+ * - Topic, partition key ve header'lar outbox sütunlarından okunur; payload parse edilmez
+ * - Sıkıştırılmış payload'lar açılmadan iletilir; kayda content-encoding header'ı eklenir
+ * - Gönderimi başarısız olan event'ler işaretlenmez ve lease'leri hemen bırakılır; sonraki turda
+ *   tekrar denenir (at-least-once). Zaman aşımına uğrayanlar geç onaylanabileceği için lease süresini bekler
+ * - Toplantı bazlı sıra: bir anahtarın event'i ancak önceki event'i onaylandıktan sonra gönderilir.
+ *   Bir event reddedilir veya zaman aşımına uğrarsa anahtarın kalan event'leri gönderilmez ve
+ *   lease'leri bırakılır; OutboxEventClaimer önceki event lease altındayken onları kimseye vermez
+ * - Producer idempotent çalışır (OutboxKafkaConfig); broker'a yeniden denenen kayıtlar sırayı bozmaz
+ * - Kafka beklenirken veritabanı transaction'ı açık tutulmaz
+ * - Bir turdaki batch sayısı sınırlıdır; scheduler thread'i sonsuza kadar meşgul edilmez
+ * - Lease sayesinde birden fazla instance aynı backlog'u çakışmadan paylaşır
+ *
+ * Metrikler:
+ * - Relay edilen / başarısız event sayısı
+ * - Relay gecikmesi: batch'teki en eski event'in oluşturulmasından gönderime kadar geçen süre
+ * - Son turun throughput'u (event/s)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
 @Slf4j
 @Component
 @ConditionalOnProperty(name = "kafka.enabled", havingValue = "true", matchIfMissing = false)
 public class OutBoxEventRelayer {
 
     private final OutBoxEventRepository outBoxEventRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxEventClaimer outboxEventClaimer;
+    private final OutboxRelaySignal outboxRelaySignal;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxPayloadCodec outboxPayloadCodec;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final int maxBatchesPerRun;
+    private final long minPollMillis;
+    private final long maxPollMillis;
 
-    private static final String RAW_AUDIO_TOPIC = "raw-audio-events";
-    private static final String MEETING_TOPIC = "meeting-events";
-    private static final String VOICE_SESSION_TOPIC = "voice-session-events";
-    private static final String TEXT_MESSAGE_TOPIC = "text-message-events";
-    private static final String MEDIA_UPLOADED_TOPIC = "media-uploaded-events";
+    private volatile boolean running;
+    private Thread relayThread;
 
-    public OutBoxEventRelayer(OutBoxEventRepository outBoxEventRepository, KafkaTemplate<String, String> kafkaTemplate) {
+    private final AtomicLong relayedEvents = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong malformedHeaderEvents = new AtomicLong();
+    private final AtomicLong lastRelayLagMillis = new AtomicLong();
+    private final AtomicLong maxRelayLagMillis = new AtomicLong();
+    private volatile double lastThroughputPerSecond;
+    private volatile long currentPollMillis;
+
+    public OutBoxEventRelayer(OutBoxEventRepository outBoxEventRepository,
+                              OutboxEventClaimer outboxEventClaimer,
+                              OutboxRelaySignal outboxRelaySignal,
+                              KafkaTemplate<String, byte[]> outboxKafkaTemplate,
+                              ObjectMapper objectMapper,
+                              OutboxPayloadCodec outboxPayloadCodec,
+                              @Value("${outbox.relay.batch-size:500}") int batchSize,
+                              @Value("${outbox.relay.send-timeout-ms:30000}") long sendTimeoutMillis,
+                              @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+                              @Value("${outbox.relay.min-poll-ms:100}") long minPollMillis,
+                              @Value("${outbox.relay.max-poll-ms:10000}") long maxPollMillis) {
         this.outBoxEventRepository = outBoxEventRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxEventClaimer = outboxEventClaimer;
+        this.outboxRelaySignal = outboxRelaySignal;
+        this.kafkaTemplate = outboxKafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxPayloadCodec = outboxPayloadCodec;
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.minPollMillis = minPollMillis;
+        this.maxPollMillis = Math.max(minPollMillis, maxPollMillis);
+        this.currentPollMillis = minPollMillis;
     }
 
-    @Scheduled(fixedDelay = 10000)
-    @Transactional
-    public void relayEvents(){
-        List<OutBoxEvent> outBoxEvents = outBoxEventRepository.find100Unprocessed(PageRequest.of(0,100));
+    /**
+     * Uygulama hazır olduğunda relay thread'ini başlatır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::runLoop, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+        log.info("Outbox relay started. Poll interval: {}-{} ms", minPollMillis, maxPollMillis);
+    }
 
-        for(OutBoxEvent event : outBoxEvents){
+    /**
+     * Relay thread'ini durdurur; devam eden batch'in bitmesi beklenir.
+     */
+    @PreDestroy
+    public synchronized void stop(){
+        running = false;
+        if(relayThread == null){
+            return;
+        }
+        relayThread.interrupt();
+        try{
+            relayThread.join(sendTimeoutMillis + 5000);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        relayThread = null;
+        log.info("Outbox relay stopped. Relayed: {}, Failed: {}", relayedEvents.get(), failedEvents.get());
+    }
+
+    private void runLoop(){
+        while(running && !Thread.currentThread().isInterrupted()){
+            int relayed = 0;
             try{
-                String topic = determineTopicByAggregateType(event.getAggregateType());
+                relayed = relayEvents();
+            }catch (Exception e){
+                log.error("Outbox relay run failed", e);
+            }
+
+            currentPollMillis = relayed > 0 ? minPollMillis : Math.min(maxPollMillis, currentPollMillis * 2);
+            try{
+                outboxRelaySignal.await(currentPollMillis);
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Backlog boşalana kadar (veya tur limiti dolana kadar) batch'leri relay eder.
+     *
+     * @return Bu turda Kafka'ya onaylı olarak aktarılan event sayısı
+     */
+    public int relayEvents(){
+        long startNanos = System.nanoTime();
+        int relayed = 0;
+
+        for(int batch = 0; batch < maxBatchesPerRun; batch++){
+            List<OutBoxEvent> outBoxEvents = outboxEventClaimer.claim(batchSize);
+            if(outBoxEvents.isEmpty()){
+                break;
+            }
 
-                kafkaTemplate.send(topic, event.getAggregateId(), event.getPayload());
-                event.setProcessed(true);
-                outBoxEventRepository.save(event);
+            int acknowledged = relayBatch(outBoxEvents);
+            relayed += acknowledged;
 
-                log.debug("Event relayed: type={}, id={}, topic={}",
-                    event.getAggregateType(), event.getAggregateId(), topic);
+            // Hiçbiri onaylanmadıysa broker sorunludur; aynı batch'i hemen tekrar denemeyiz
+            if(acknowledged == 0 || outBoxEvents.size() < batchSize){
+                break;
+            }
+        }
 
+        if(relayed > 0){
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            lastThroughputPerSecond = relayed * 1_000_000_000d / elapsedNanos;
+            log.info("Relayed {} outbox events in {} ms ({} events/s, lag {} ms)",
+                    relayed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    Math.round(lastThroughputPerSecond), lastRelayLagMillis.get());
+        }
+        return relayed;
+    }
+
+    /**
+     * Batch'i anahtar sırasını koruyarak gönderir, onayları bekler ve onaylanan ID'leri tek seferde işaretler.
+     *
+     * Gönderim dalgalar halinde yapılır: her dalgada her anahtarın sıradaki event'i gönderilir ve
+     * dalganın onayları beklenir. Reddedilen anahtarın kalan event'leri reddedilenle birlikte bırakılır.
+     * Yeni dalga yalnızca gönderim süresinin ilk yarısında başlatılır; kalan event'ler bırakılıp
+     * bir sonraki claim'de aynı sırayla devam edilir, böylece bekleme lease süresini aşmaz.
+     */
+    private int relayBatch(List<OutBoxEvent> outBoxEvents){
+        recordLag(outBoxEvents.get(0).getCreatedAt());
+
+        Map<String, Deque<OutBoxEvent>> pendingByKey = new LinkedHashMap<>();
+        for(OutBoxEvent event : outBoxEvents){
+            pendingByKey.computeIfAbsent(keyOf(event), key -> new ArrayDeque<>()).add(event);
+        }
+
+        List<Long> acknowledgedIds = new ArrayList<>(outBoxEvents.size());
+        List<OutBoxEvent> releasedEvents = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+
+        while(!pendingByKey.isEmpty()){
+            if(Thread.currentThread().isInterrupted() || System.nanoTime() - startNanos > timeoutNanos / 2){
+                pendingByKey.values().forEach(releasedEvents::addAll);
+                break;
+            }
+
+            List<OutBoxEvent> wave = new ArrayList<>(pendingByKey.size());
+            List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(pendingByKey.size());
+            Iterator<Deque<OutBoxEvent>> queues = pendingByKey.values().iterator();
+            while(queues.hasNext()){
+                Deque<OutBoxEvent> queue = queues.next();
+                OutBoxEvent event = queue.pollFirst();
+                try{
+                    futures.add(kafkaTemplate.send(toRecord(event)));
+                    wave.add(event);
+                }catch (Exception e){
+                    failedEvents.incrementAndGet();
+                    log.error("Could not relay event: {}", event.getId(), e);
+                    releasedEvents.add(event);
+                    releasedEvents.addAll(queue);
+                    queues.remove();
+                }
+            }
+
+            for(int i = 0; i < futures.size(); i++){
+                OutBoxEvent event = wave.get(i);
+                String key = keyOf(event);
+                try{
+                    futures.get(i).get(Math.max(0, startNanos + timeoutNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    acknowledgedIds.add(event.getId());
+                    if(pendingByKey.get(key).isEmpty()){
+                        pendingByKey.remove(key);
+                    }
+                }catch (InterruptedException e){
+                    // Onayı beklenmeyen event'ler lease altında kalır; anahtarların kalanı döngü başında bırakılır
+                    Thread.currentThread().interrupt();
+                    log.warn("Relay interrupted while waiting for Kafka acknowledgements");
+                    break;
+                }catch (ExecutionException e){
+                    failedEvents.incrementAndGet();
+                    log.error("Kafka did not acknowledge event: {}", event.getId(), e);
+                    releasedEvents.add(event);
+                    releasedEvents.addAll(pendingByKey.remove(key));
+                }catch (TimeoutException e){
+                    // Geç onaylanabileceği için event lease'ini korur; anahtarın kalanı o dolana kadar sahiplenilmez
+                    failedEvents.incrementAndGet();
+                    log.error("Kafka did not acknowledge event in time: {}", event.getId(), e);
+                    releasedEvents.addAll(pendingByKey.remove(key));
+                }
+            }
+        }
+
+        if(!acknowledgedIds.isEmpty()){
+            outBoxEventRepository.markAsProcessed(acknowledgedIds);
+            relayedEvents.addAndGet(acknowledgedIds.size());
+        }
+        releaseLeases(releasedEvents);
+
+        log.debug("Relayed outbox batch: fetched={}, acknowledged={}", outBoxEvents.size(), acknowledgedIds.size());
+        return acknowledgedIds.size();
+    }
+
+    /**
+     * Kesin olarak başarısız olan event'lerin ve anahtarlarının gönderilmemiş event'lerinin lease'ini
+     * tek UPDATE ile bırakır; böylece 60 sn'lik lease süresi beklenmeden bir sonraki turda aynı
+     * sırayla tekrar sahiplenilirler. Bırakma başarısız olursa lease süresinin dolması yeterlidir.
+     */
+    private void releaseLeases(List<OutBoxEvent> releasedEvents){
+        Map<String, List<Long>> idsByOwner = new HashMap<>();
+        for(OutBoxEvent event : releasedEvents){
+            if(event.getLeaseOwner() != null){
+                idsByOwner.computeIfAbsent(event.getLeaseOwner(), owner -> new ArrayList<>()).add(event.getId());
+            }
+        }
+        idsByOwner.forEach((owner, ids) -> {
+            try{
+                outBoxEventRepository.releaseLeases(ids, owner);
             }catch (Exception e){
-                log.error("Could not relay event: {}", event.getId(), e);
+                log.warn("Could not release outbox leases: {}", ids, e);
             }
+        });
+    }
+
+    private void recordLag(LocalDateTime oldestCreatedAt){
+        if(oldestCreatedAt == null){
+            return;
+        }
+        long lag = Math.max(0, Duration.between(oldestCreatedAt, LocalDateTime.now()).toMillis());
+        lastRelayLagMillis.set(lag);
+        maxRelayLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    /**
+     * Outbox satırını yazma anında belirlenmiş topic, key ve header'larla Kafka kaydına çevirir.
+     * Sütunlar boşsa (eski satırlar) aggregate tipi ve ID'sinden türetilir.
+     * Düz payload'lar UTF-8 byte olarak gönderilir; StringDeserializer ile okunmaya devam eder.
+     */
+    private ProducerRecord<String, byte[]> toRecord(OutBoxEvent event) throws Exception {
+        String topic = event.getTopic() != null ? event.getTopic() : OutboxRouting.topicFor(event.getAggregateType());
+        String key = keyOf(event);
+
+        Map<String, String> headerValues = headerValuesOf(event);
+        List<Header> headers = new ArrayList<>(headerValues.size());
+        headerValues.forEach((name, value) -> headers.add(new RecordHeader(name, value.getBytes(StandardCharsets.UTF_8))));
+        if (event.getPayloadCodec() != null) {
+            headers.add(new RecordHeader(OutboxPayloadCodec.HEADER_CONTENT_ENCODING,
+                    event.getPayloadCodec().getBytes(StandardCharsets.UTF_8)));
         }
+
+        return new ProducerRecord<>(topic, null, key, outboxPayloadCodec.wireBytes(event), headers);
     }
 
-    private String determineTopicByAggregateType(String aggregateType) {
-        if (aggregateType == null) return RAW_AUDIO_TOPIC;
+    /**
+     * Kayıt anahtarı: yazma anında belirlenen partition key, yoksa (eski satırlar) aggregate ID'si.
+     */
+    private static String keyOf(OutBoxEvent event){
+        return event.getPartitionKey() != null ? event.getPartitionKey() : event.getAggregateId();
+    }
 
-        return switch (aggregateType) {
-            case "AudioMessage" -> RAW_AUDIO_TOPIC;
-            case "Meeting" -> MEETING_TOPIC;
-            case "VoiceSession" -> VOICE_SESSION_TOPIC;
-            case "Message" -> TEXT_MESSAGE_TOPIC;
-            case "MeetingMedia" -> MEDIA_UPLOADED_TOPIC;
-            default -> {
-                log.warn("Unknown aggregate type: {}, using default topic", aggregateType);
-                yield RAW_AUDIO_TOPIC;
+    /**
+     * Satırın header sütununu okur. Sütun boşsa veya JSON bozuksa header'lar aggregate
+     * bilgisinden türetilir; bozuk bir header sütunu event'i zehirli hale getirip her turda
+     * yeniden denenmesine yol açmaz.
+     */
+    private Map<String, String> headerValuesOf(OutBoxEvent event){
+        if(event.getHeaders() != null){
+            try{
+                return objectMapper.readValue(event.getHeaders(), new TypeReference<Map<String, String>>() {});
+            }catch (Exception e){
+                malformedHeaderEvents.incrementAndGet();
+                log.warn("Malformed outbox headers, publishing with derived headers. EventId: {}, Error: {}",
+                        event.getId(), e.getMessage());
             }
-        };
+        }
+        return OutboxRouting.headersFor(event.getAggregateType(), event.getAggregateId(), event.getEventType());
+    }
+
+    public long getRelayedEventCount(){
+        return relayedEvents.get();
+    }
+
+    public long getFailedEventCount(){
+        return failedEvents.get();
+    }
+
+    /** Header sütunu bozuk olduğu için türetilmiş header'larla gönderilen event sayısı */
+    public long getMalformedHeaderEventCount(){
+        return malformedHeaderEvents.get();
+    }
+
+    public long getLastRelayLagMillis(){
+        return lastRelayLagMillis.get();
+    }
+
+    public long getMaxRelayLagMillis(){
+        return maxRelayLagMillis.get();
+    }
+
+    public double getLastThroughputPerSecond(){
+        return lastThroughputPerSecond;
+    }
+
+    /** Sinyal gelmezse bir sonraki sorguya kadar beklenecek süre */
+    public long getCurrentPollMillis(){
+        return currentPollMillis;
     }
 }
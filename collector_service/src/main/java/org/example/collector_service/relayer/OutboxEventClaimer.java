@@ -0,0 +1,138 @@
+package org.example.collector_service.relayer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.repository.OutBoxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OutboxEventClaimer - Outbox event'lerini lease ile sahiplenen bileşen
+ *
+ * Birden fazla collector instance'ı (veya relayer thread'i) aynı outbox tablosunu
+ * işlerken her event'in yalnızca bir relayer tarafından gönderilmesini sağlar.
+ *
+ * İş Akışı:
+ * 1. Lease'i olmayan veya süresi dolmuş en eski event ID'leri okunur; partition key'inin daha
+ *    önceki bir event'i lease altında olan event'ler aday olmaz
+ * 2. Koşullu UPDATE ile bu satırlara benzersiz bir claim kimliği ve lease bitişi yazılır
+ * 3. Aynı anahtarın bu claim dışındaki önceki bir event'inin arkasında kalan satırların
+ *    lease'i hemen bırakılır (eşzamanlı claim yarışı)
+ * 4. Claim kimliğine ait satırlar okunup relayer'a verilir
+ *
+ * Teknik Detaylar:
+ * - Lease sütunları MySQL ve H2'de aynı şekilde çalışır (SKIP LOCKED gerektirmez)
+ * - Claim transaction'ı kısa tutulur; Kafka gönderimi transaction dışında yapılır
+ * - Relayer çökerse lease süresi dolduğunda event'ler otomatik olarak tekrar sahiplenilir
+ * - Lease süresi Kafka gönderim timeout'undan uzun olmalıdır (OutboxKafkaConfig başlangıçta doğrular)
+ * - Bir partition key'in event'leri aynı anda yalnızca tek bir claim'e ait olabilir ve bir claim
+ *   anahtarın en eski işlenmemiş event'inden başlar; streaming OutboxPoller aynı kuralı uygular
+ * - partition_key sütunu boş eski satırlar sıralamaya katılmaz
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxEventClaimer {
+
+    private final OutBoxEventRepository outBoxEventRepository;
+    private final String instanceId;
+    private final Duration leaseDuration;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final AtomicLong contendedClaims = new AtomicLong();
+    private final AtomicLong deferredEvents = new AtomicLong();
+    private final AtomicLong lastScanMicros = new AtomicLong();
+    private final AtomicLong maxScanMicros = new AtomicLong();
+
+    public OutboxEventClaimer(OutBoxEventRepository outBoxEventRepository,
+                              @Value("${outbox.relay.instance-id:}") String instanceId,
+                              @Value("${outbox.relay.lease-seconds:60}") long leaseSeconds) {
+        this.outBoxEventRepository = outBoxEventRepository;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        log.info("Outbox claimer initialized. Instance: {}, Lease: {}s", this.instanceId, leaseSeconds);
+    }
+
+    /**
+     * En fazla limit kadar event'i bu instance adına sahiplenir.
+     *
+     * @param limit Maksimum event sayısı
+     * @return Sahiplenilen event'ler (createdAt sırasıyla); boş olabilir
+     */
+    @Transactional
+    public List<OutBoxEvent> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        long scanStart = System.nanoTime();
+        List<Long> candidateIds = outBoxEventRepository.findClaimableIds(now, PageRequest.of(0, limit));
+        long scanMicros = (System.nanoTime() - scanStart) / 1_000;
+        lastScanMicros.set(scanMicros);
+        maxScanMicros.accumulateAndGet(scanMicros, Math::max);
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String owner = instanceId + ":" + claimSequence.incrementAndGet();
+        int claimed = outBoxEventRepository.claim(candidateIds, owner, now.plus(leaseDuration), now);
+        if (claimed < candidateIds.size()) {
+            contendedClaims.incrementAndGet();
+            log.debug("Outbox claim contended: candidates={}, claimed={}", candidateIds.size(), claimed);
+        }
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Long> outOfOrderIds = outBoxEventRepository.findOutOfOrderClaimedIds(owner);
+        if (!outOfOrderIds.isEmpty()) {
+            outBoxEventRepository.releaseLeases(outOfOrderIds, owner);
+            deferredEvents.addAndGet(outOfOrderIds.size());
+            log.debug("Outbox claim deferred {} events behind earlier events of the same key", outOfOrderIds.size());
+        }
+        return outBoxEventRepository.findClaimedBy(owner);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /** Adayların bir kısmının başka bir relayer tarafından alındığı claim sayısı */
+    public long getContendedClaimCount() {
+        return contendedClaims.get();
+    }
+
+    /** Anahtarın önceki event'i başka bir claim'de olduğu için sahiplenildikten sonra bırakılan event sayısı */
+    public long getDeferredEventCount() {
+        return deferredEvents.get();
+    }
+
+    /** Son aday taramasının (findClaimableIds) süresi, mikrosaniye */
+    public long getLastScanMicros() {
+        return lastScanMicros.get();
+    }
+
+    /** En uzun aday taraması süresi, mikrosaniye */
+    public long getMaxScanMicros() {
+        return maxScanMicros.get();
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "collector";
+        }
+        String id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return id.length() > 80 ? id.substring(id.length() - 80) : id;
+    }
+}
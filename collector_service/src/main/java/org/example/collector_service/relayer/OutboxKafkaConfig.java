@@ -0,0 +1,83 @@
+package org.example.collector_service.relayer;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+
+/**
+ * OutboxKafkaConfig - Outbox relay'i için byte[] değerli KafkaTemplate yapılandırması
+ *
+ * Sıkıştırılmış outbox payload'ları byte olarak iletilmelidir; StringSerializer bu
+ * byte'ları bozar. Spring Boot'un oluşturduğu ProducerFactory ayarları (bootstrap,
+ * acks vb.) korunur; serializer'lar ve gönderim süreleri override edilir.
+ *
+ * Gönderim Süreleri:
+ * - delivery.timeout.ms, relayer'ın onay bekleme süresine (send-timeout-ms) eşitlenir;
+ *   relayer vazgeçtikten sonra kayıt broker'a geç ulaşamaz
+ * - send-timeout-ms, claim lease süresinden kısa olmalıdır; aksi halde lease'i dolan satır
+ *   başka bir relayer tarafından tekrar sahiplenilip ikinci kez gönderilir. Başlangıçta doğrulanır
+ *
+ * Sıra:
+ * - Producer idempotent çalışır (acks=all, en fazla 5 uçuştaki istek); producer'ın kendi yeniden
+ *   denemeleri partition içindeki sırayı bozmaz ve kaydı çoğaltmaz. Anahtar bazlı sıranın geri
+ *   kalanı relayer'da sağlanır (bkz. OutBoxEventRelayer)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class OutboxKafkaConfig {
+
+    private static final int LINGER_MS = 10;
+
+    @Value("${outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMillis;
+
+    @Value("${outbox.relay.lease-seconds:60}")
+    private long leaseSeconds;
+
+    /**
+     * Outbox relay'inin kullandığı KafkaTemplate.
+     *
+     * @param producerFactory Spring Boot'un yapılandırdığı producer factory
+     * @return String key / byte[] value gönderen KafkaTemplate
+     * @throws IllegalStateException send-timeout-ms lease süresinden kısa değilse
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        validateTimeouts();
+        // delivery.timeout.ms >= linger.ms + request.timeout.ms olmalıdır
+        int deliveryTimeoutMs = (int) sendTimeoutMillis;
+        int requestTimeoutMs = (deliveryTimeoutMs - LINGER_MS) / 2;
+        return new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, LINGER_MS,
+                ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs,
+                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs,
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5));
+    }
+
+    private void validateTimeouts() {
+        long leaseMillis = leaseSeconds * 1000;
+        if (sendTimeoutMillis < 1000 || sendTimeoutMillis > Integer.MAX_VALUE) {
+            throw new IllegalStateException("outbox.relay.send-timeout-ms must be between 1000 and "
+                    + Integer.MAX_VALUE + ", was " + sendTimeoutMillis);
+        }
+        if (sendTimeoutMillis >= leaseMillis) {
+            throw new IllegalStateException("outbox.relay.send-timeout-ms (" + sendTimeoutMillis
+                    + ") must be shorter than outbox.relay.lease-seconds (" + leaseMillis + " ms)");
+        }
+    }
+}
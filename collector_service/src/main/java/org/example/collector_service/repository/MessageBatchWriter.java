@@ -0,0 +1,79 @@
+package org.example.collector_service.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.collector_service.domain.model.Message;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * MessageBatchWriter - Mesajları tek bir JDBC batch ile kaydeder
+ *
+ * Message IDENTITY ID kullandığı için Hibernate toplu INSERT yapamaz. Bu sınıf
+ * mesajları tek executeBatch ile yazar ve üretilen ID'leri mesajlara geri atar;
+ * ID'ler aynı transaction'da yazılan outbox event'leri için gereklidir.
+ *
+ * Teknik Detaylar:
+ * - Çağıranın transaction'ına katılır
+ * - Üretilen anahtarlar batch sırasıyla döner (MySQL Connector/J ve H2 bunu garanti eder)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (platform, author, content, timestamp, meeting_id, channel_id, channel_name) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mesajları tek batch ile ekler ve üretilen ID'leri mesajlara atar.
+     *
+     * @param messages Kaydedilecek mesajlar
+     * @return ID'leri atanmış aynı mesaj listesi
+     */
+    public List<Message> insertAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Message>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Message message : messages) {
+                    ps.setString(1, message.getPlatform());
+                    ps.setString(2, message.getAuthor());
+                    ps.setString(3, message.getContent());
+                    ps.setTimestamp(4, message.getTimestamp() != null ? Timestamp.valueOf(message.getTimestamp()) : null);
+                    ps.setString(5, message.getMeetingId());
+                    ps.setString(6, message.getChannelId());
+                    ps.setString(7, message.getChannelName());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                int index = 0;
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next() && index < messages.size()) {
+                        messages.get(index++).setId(keys.getLong(1));
+                    }
+                }
+                if (index != messages.size()) {
+                    throw new IncorrectResultSizeDataAccessException(
+                            "Generated key count does not match batch size", messages.size(), index);
+                }
+                return messages;
+            }
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.collector_service.repository;
 
 import org.example.collector_service.domain.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -71,9 +72,20 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      */
     List<Message> findTop10ByPlatformOrderByTimestampDesc(String platform);
 
+    /**
+     * Verilen ID'den büyük mesajları ID sırasıyla getirir (keyset sayfalama).
+     * Arama indeksinin veritabanından yeniden kurulması için kullanılır.
+     *
+     * @param id       Son okunan mesaj ID'si
+     * @param pageable Sayfa boyutu
+     * @return Sonraki mesaj sayfası
+     */
+    List<Message> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     /**
      * Mesaj içeriğinde anahtar kelime araması yapar.
-     * LIKE operatörü ile kısmi eşleşme sağlar.
+     * LIKE operatörü ile kısmi eşleşme sağlar; her çağrıda tablonun tamamını tarar.
+     * Sıralı ve sayfalı arama için MessageSearchIndex kullanılmalıdır.
      *
      * @param keyword Aranacak anahtar kelime
      * @return Eşleşen mesajların listesi
@@ -2,11 +2,13 @@ package org.example.collector_service.repository;
 
 import org.example.collector_service.domain.model.OutBoxEvent;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -46,6 +48,79 @@ public interface OutBoxEventRepository extends JpaRepository<OutBoxEvent, Long>
     @Query("SELECT e FROM OutBoxEvent e WHERE e.processed = false ORDER BY e.createdAt ASC")
     List<OutBoxEvent> find100Unprocessed(PageRequest pageRequest);
 
+    /**
+     * Sahiplenilebilir (işlenmemiş ve lease'i olmayan veya süresi dolmuş) en eski event ID'lerini getirir.
+     * Aynı partition key'in daha önceki bir event'i geçerli bir lease altındaysa (gönderimde veya
+     * onay bekliyor) sonraki event'leri aday olmaz; anahtarın sırası bozulmaz.
+     *
+     * @param now      Lease karşılaştırması için şimdiki zaman
+     * @param pageable Maksimum aday sayısı
+     * @return Aday event ID'leri (createdAt sırasıyla)
+     */
+    @Query("SELECT e.id FROM OutBoxEvent e WHERE e.processed = false " +
+            "AND (e.leaseExpiresAt IS NULL OR e.leaseExpiresAt < :now) " +
+            "AND NOT EXISTS (SELECT p.id FROM OutBoxEvent p WHERE p.partitionKey = e.partitionKey " +
+            "AND p.processed = false AND p.leaseExpiresAt >= :now " +
+            "AND (p.createdAt < e.createdAt OR (p.createdAt = e.createdAt AND p.id < e.id))) " +
+            "ORDER BY e.createdAt ASC, e.id ASC")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Aday event'leri koşullu UPDATE ile sahiplenir.
+     * Koşul satır kilidi altında yeniden değerlendirildiği için aynı satırı iki relayer sahiplenemez;
+     * başka bir relayer'ın az önce aldığı satırlar sessizce atlanır.
+     *
+     * @param ids        Aday event ID'leri
+     * @param owner      Claim kimliği
+     * @param leaseUntil Lease bitiş zamanı
+     * @param now        Şimdiki zaman
+     * @return Sahiplenilen kayıt sayısı
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutBoxEvent e SET e.leaseOwner = :owner, e.leaseExpiresAt = :leaseUntil " +
+            "WHERE e.id IN :ids AND e.processed = false AND (e.leaseExpiresAt IS NULL OR e.leaseExpiresAt < :now)")
+    int claim(@Param("ids") List<Long> ids, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Gönderimi başarısız olan event'lerin lease'ini bırakır; event'ler lease süresinin
+     * dolması beklenmeden tekrar sahiplenilebilir. Lease bu arada başka bir relayer'a
+     * geçtiyse satıra dokunulmaz.
+     *
+     * @param ids   Event ID'leri
+     * @param owner Event'leri sahiplenen claim kimliği
+     * @return Lease'i bırakılan kayıt sayısı
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutBoxEvent e SET e.leaseOwner = NULL, e.leaseExpiresAt = NULL " +
+            "WHERE e.id IN :ids AND e.leaseOwner = :owner AND e.processed = false")
+    int releaseLeases(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    /**
+     * Claim kimliğinin sahiplendiği event'lerden, aynı partition key'in bu claim'e ait olmayan
+     * daha önceki bir işlenmemiş event'inin arkasında kalanları getirir. Aday okuması ile claim
+     * arasında başka bir relay anahtarın önceki event'ini almışsa bu event'ler gönderilmeden
+     * bırakılmalıdır.
+     *
+     * @param owner Claim kimliği
+     * @return Sırası henüz gelmemiş event ID'leri
+     */
+    @Query("SELECT e.id FROM OutBoxEvent e WHERE e.leaseOwner = :owner AND e.processed = false " +
+            "AND EXISTS (SELECT p.id FROM OutBoxEvent p WHERE p.partitionKey = e.partitionKey " +
+            "AND p.processed = false AND (p.leaseOwner IS NULL OR p.leaseOwner <> :owner) " +
+            "AND (p.createdAt < e.createdAt OR (p.createdAt = e.createdAt AND p.id < e.id)))")
+    List<Long> findOutOfOrderClaimedIds(@Param("owner") String owner);
+
+    /**
+     * Verilen claim kimliğine ait işlenmemiş event'leri getirir.
+     *
+     * @param owner Claim kimliği
+     * @return Sahiplenilen event listesi (createdAt sırasıyla)
+     */
+    @Query("SELECT e FROM OutBoxEvent e WHERE e.leaseOwner = :owner AND e.processed = false ORDER BY e.createdAt ASC, e.id ASC")
+    List<OutBoxEvent> findClaimedBy(@Param("owner") String owner);
+
     /**
      * Belirli bir event tipine göre işlenmemiş event'leri getirir.
      *
@@ -73,9 +148,40 @@ public interface OutBoxEventRepository extends JpaRepository<OutBoxEvent, Long>
      * @return Güncellenen kayıt sayısı
      */
     @Modifying
+    @Transactional
     @Query("UPDATE OutBoxEvent e SET e.processed = true WHERE e.id IN :ids")
     int markAsProcessed(@Param("ids") List<Long> ids);
 
+    /**
+     * Belirli bir tarihten önce işlenmiş event'lerin ID'lerini sayfa sayfa getirir.
+     * Retention silmesini küçük parçalara bölmek için kullanılır.
+     *
+     * @param beforeDate Bu tarihten önceki event'ler
+     * @param pageable   Parça boyutu
+     * @return Silinecek event ID'leri
+     */
+    @Query("SELECT e.id FROM OutBoxEvent e WHERE e.processed = true AND e.createdAt < :beforeDate ORDER BY e.createdAt ASC")
+    List<Long> findProcessedIdsBefore(@Param("beforeDate") LocalDateTime beforeDate, Pageable pageable);
+
+    /**
+     * Verilen ID'lere sahip event'leri siler.
+     *
+     * @param ids Silinecek event ID'leri
+     * @return Silinen kayıt sayısı
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutBoxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * İşlenmemiş event sayısını döndürür (relay backlog'u).
+     *
+     * @return İşlenmemiş event sayısı
+     */
+    @Query("SELECT COUNT(e) FROM OutBoxEvent e WHERE e.processed = false")
+    long countUnprocessed();
+
     /**
      * Belirli bir tarihten önce işlenmiş event'leri siler.
      * Veritabanı temizliği için periyodik olarak çalıştırılır.
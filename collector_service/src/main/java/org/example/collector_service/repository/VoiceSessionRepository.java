@@ -2,8 +2,12 @@ package org.example.collector_service.repository;
 
 import org.example.collector_service.domain.model.VoiceSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +40,16 @@ public interface VoiceSessionRepository extends JpaRepository<VoiceSession, Long
      * @return Bulunan sesli oturumların listesi
      */
     List<VoiceSession> findByChannelId(String channelId);
+
+    /**
+     * Oturumu tek bir UPDATE ile sonlandırır (entity okunmaz).
+     * Zaten sonlanmış oturumlar değiştirilmez.
+     *
+     * @param id      Oturum ID'si
+     * @param endTime Bitiş zamanı
+     * @return Güncellenen kayıt sayısı (0 ise oturum zaten sonlanmış)
+     */
+    @Modifying
+    @Query("UPDATE VoiceSession s SET s.participantCount = 0, s.endTime = :endTime WHERE s.id = :id AND s.endTime IS NULL")
+    int markEnded(@Param("id") Long id, @Param("endTime") LocalDateTime endTime);
 }
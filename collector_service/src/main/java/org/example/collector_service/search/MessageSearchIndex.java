@@ -0,0 +1,495 @@
+package org.example.collector_service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MessageSearchIndex - Discord mesajları için bellek içi ters indeks (inverted index)
+ *
+ * MessageRepository.SearchbyContent LIKE '%kelime%' ile her aramada tüm messages
+ * tablosunu tarar. Bu indeks her terim için mesaj listesini (posting list) tutar;
+ * arama sadece sorgudaki terimlerin listelerini dolaşır ve sonuçları BM25 ile sıralar.
+ *
+ * İş Akışı:
+ * 1. Uygulama açılınca indeks veritabanından ID sırasıyla sayfa sayfa yeniden kurulur
+ * 2. MessageService yeni mesajları transaction commit edildikten sonra indekse ekler
+ * 3. Rebuild sürerken gelen mesajlar hem eski indekse hem bekleme kuyruğuna yazılır;
+ *    yeni indeks devreye alınırken kuyruktakiler eksikse eklenir
+ *
+ * Sorgu Dili:
+ * - Boşlukla ayrılmış terimler (OR); daha çok terim eşleşen mesaj daha yüksek puan alır
+ * - "toplanti*" gibi sonu yıldızlı terimler önek araması yapar (Türkçe ekler için:
+ *   toplantida, toplantiya, toplantisi...)
+ *
+ * Teknik Detaylar:
+ * - Terimler MessageTokenizer ile katlanır (Türkçe karakter / büyük-küçük harf farkı yok)
+ * - Posting list'ler ilkel int dizileridir; doküman başına sadece ID, uzunluk ve kanal tutulur
+ * - Sorgu puanları seyrek biriktirilir; sorgu başına doküman sayısı kadar dizi ayrılmaz
+ * - Mesaj içeriği indekste saklanmaz; sonuç sayfası veritabanından ID ile okunur
+ * - Okumalar paralel, yazmalar tek tek (ReentrantReadWriteLock)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class MessageSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final MessageRepository messageRepository;
+    private final int rebuildPageSize;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private boolean rebuilding;
+    private final List<Message> pendingDuringRebuild = new ArrayList<>();
+
+    private final AtomicLong searches = new AtomicLong();
+    private volatile long lastSearchMicros;
+    private volatile long lastRebuildMillis;
+
+    public MessageSearchIndex(MessageRepository messageRepository,
+                              @Value("${search.index.rebuild-page-size:5000}") int rebuildPageSize,
+                              @Value("${search.index.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.messageRepository = messageRepository;
+        this.rebuildPageSize = rebuildPageSize;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Uygulama hazır olduğunda indeksi arka planda veritabanından kurar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Message search index rebuild failed", e);
+            }
+        }, "message-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * İndeksi veritabanındaki tüm mesajlardan yeniden kurar ve hazır olunca devreye alır.
+     * Kurulum sırasında aramalar eski indeksten cevaplanır.
+     *
+     * @return İndekslenen mesaj sayısı
+     */
+    public synchronized int rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            long lastId = 0;
+            while (true) {
+                List<Message> page = messageRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildPageSize));
+                for (Message message : page) {
+                    fresh.add(message.getId(), message.getChannelId(), MessageTokenizer.tokenize(message.getContent()));
+                }
+                if (page.size() < rebuildPageSize) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+            }
+            fresh.markScanned();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pendingDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Message message : pendingDuringRebuild) {
+                if (!fresh.contains(message.getId())) {
+                    fresh.add(message.getId(), message.getChannelId(), MessageTokenizer.tokenize(message.getContent()));
+                }
+            }
+            pendingDuringRebuild.clear();
+            rebuilding = false;
+            segment = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Message search index rebuilt: {} messages, {} terms in {} ms",
+                fresh.docCount, fresh.terms.size(), lastRebuildMillis);
+        return fresh.docCount;
+    }
+
+    /**
+     * Mesajı indeksler. Mesajın ID'si atanmış ve kaydı commit edilmiş olmalıdır.
+     *
+     * @param message İndekslenecek mesaj
+     */
+    public void add(Message message) {
+        if (message.getId() == null) {
+            return;
+        }
+        List<String> tokens = MessageTokenizer.tokenize(message.getContent());
+        lock.writeLock().lock();
+        try {
+            segment.add(message.getId(), message.getChannelId(), tokens);
+            if (rebuilding) {
+                pendingDuringRebuild.add(message);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mesajları aktif transaction commit edildikten sonra indeksler; transaction yoksa hemen.
+     * Geri alınan (rollback) kayıtlar indekse hiç girmez.
+     *
+     * @param messages İndekslenecek mesajlar
+     */
+    public void addAfterCommit(List<Message> messages) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Message> snapshot = List.copyOf(messages);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot.forEach(MessageSearchIndex.this::add);
+                }
+            });
+        } else {
+            messages.forEach(this::add);
+        }
+    }
+
+    /**
+     * Sorguyu BM25 ile sıralayıp istenen sayfadaki mesaj ID'lerini döndürür.
+     *
+     * @param query     Arama sorgusu
+     * @param channelId Opsiyonel kanal filtresi (null ise tüm kanallar)
+     * @param page      Sayfa numarası (0'dan başlar)
+     * @param size      Sayfa boyutu
+     * @return Sayfadaki sonuçlar ve toplam eşleşme sayısı
+     */
+    public SearchResult search(String query, String channelId, int page, int size) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            SearchResult result = segment.search(parseQuery(query), channelId, page, size);
+            searches.incrementAndGet();
+            return result;
+        } finally {
+            lock.readLock().unlock();
+            lastSearchMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sorguyu normalize edilmiş terimlere ayırır; sonu '*' olan parçalar önek terimidir.
+     */
+    static List<QueryTerm> parseQuery(String query) {
+        Set<QueryTerm> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return List.of();
+        }
+        for (String part : query.trim().split("\\s+")) {
+            if (part.endsWith("*")) {
+                String prefix = MessageTokenizer.normalize(part.substring(0, part.length() - 1));
+                if (prefix.length() >= MessageTokenizer.MIN_TOKEN_LENGTH) {
+                    terms.add(new QueryTerm(prefix, true));
+                }
+            } else {
+                MessageTokenizer.tokenize(part).forEach(token -> terms.add(new QueryTerm(token, false)));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    public int getIndexedMessageCount() {
+        lock.readLock().lock();
+        try {
+            return segment.docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return segment.terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSearchCount() {
+        return searches.get();
+    }
+
+    public long getLastSearchMicros() {
+        return lastSearchMicros;
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /** Sorgu terimi; prefix ise önek ile başlayan tüm terimler eşleşir */
+    record QueryTerm(String term, boolean prefix) {
+    }
+
+    /** Sıralanmış tek sonuç */
+    public record Hit(long messageId, double score) {
+    }
+
+    /** Arama sonucu sayfası */
+    public record SearchResult(List<Hit> hits, int totalHits) {
+    }
+
+    /**
+     * Tek bir terimin posting list'i: doküman sırası ve terim frekansı.
+     */
+    static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    /**
+     * Sorgu puanlarının seyrek toplamı: sadece eşleşen dokümanlar için yer ayrılır.
+     * Doküman → giriş indeksi eşlemesi open-addressing (linear probing) tablosunda tutulur;
+     * sorgu maliyeti indeks boyutuyla değil, posting list uzunluklarıyla büyür.
+     */
+    static final class ScoreAccumulator {
+        /** Giriş indeksi + 1; 0 boş slot */
+        private int[] table = new int[128];
+        int[] docs = new int[64];
+        float[] scores = new float[64];
+        int size;
+
+        void add(int doc, float score) {
+            int mask = table.length - 1;
+            int slot = hash(doc) & mask;
+            while (table[slot] != 0) {
+                int entry = table[slot] - 1;
+                if (docs[entry] == doc) {
+                    scores[entry] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            docs[size] = doc;
+            scores[size] = score;
+            table[slot] = ++size;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = hash(docs[entry]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            }
+        }
+
+        private static int hash(int doc) {
+            int h = doc * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * İndeks verisi. Lock ile korunur; rebuild sırasında yenisi lock dışında kurulur.
+     */
+    static final class Segment {
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<String, Integer> channelOrdinals = new HashMap<>();
+        long[] docIds = new long[1024];
+        int[] docLengths = new int[1024];
+        int[] docChannels = new int[1024];
+        int docCount;
+        long totalLength;
+        /** Rebuild taramasından gelen (ID'ye göre sıralı) doküman sayısı */
+        int scannedCount;
+
+        void add(long id, String channelId, List<String> tokens) {
+            if (docCount == docIds.length) {
+                int capacity = docCount * 2;
+                docIds = Arrays.copyOf(docIds, capacity);
+                docLengths = Arrays.copyOf(docLengths, capacity);
+                docChannels = Arrays.copyOf(docChannels, capacity);
+            }
+            int doc = docCount++;
+            docIds[doc] = id;
+            docLengths[doc] = tokens.size();
+            docChannels[doc] = channelId == null ? -1
+                    : channelOrdinals.computeIfAbsent(channelId, key -> channelOrdinals.size());
+            totalLength += tokens.size();
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((term, freq) -> terms.computeIfAbsent(term, key -> new Postings()).add(doc, freq));
+        }
+
+        void markScanned() {
+            scannedCount = docCount;
+        }
+
+        boolean contains(long id) {
+            if (Arrays.binarySearch(docIds, 0, scannedCount, id) >= 0) {
+                return true;
+            }
+            for (int doc = scannedCount; doc < docCount; doc++) {
+                if (docIds[doc] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        SearchResult search(List<QueryTerm> queryTerms, String channelId, int page, int size) {
+            if (queryTerms.isEmpty() || docCount == 0 || size <= 0 || page < 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            int channel = -1;
+            if (channelId != null) {
+                Integer ordinal = channelOrdinals.get(channelId);
+                if (ordinal == null) {
+                    return new SearchResult(List.of(), 0);
+                }
+                channel = ordinal;
+            }
+
+            ScoreAccumulator scores = new ScoreAccumulator();
+            double averageLength = Math.max(1.0, (double) totalLength / docCount);
+
+            for (Postings postings : expand(queryTerms)) {
+                double idf = Math.log(1 + (docCount - postings.size + 0.5) / (postings.size + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    if (channel >= 0 && docChannels[doc] != channel) {
+                        continue;
+                    }
+                    int freq = postings.freqs[i];
+                    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    scores.add(doc, (float) (idf * freq * (K1 + 1) / (freq + norm)));
+                }
+            }
+            int touchedCount = scores.size;
+
+            long wanted = (long) (page + 1) * size;
+            if (touchedCount == 0 || wanted > Integer.MAX_VALUE) {
+                return new SearchResult(List.of(), touchedCount);
+            }
+            int k = (int) Math.min(wanted, touchedCount);
+
+            // Sıralama accumulator'daki giriş indeksleri üzerinden yapılır; eşit puanda yeni mesaj önce gelir
+            Comparator<Integer> order = (a, b) -> {
+                int byScore = Float.compare(scores.scores[a], scores.scores[b]);
+                return byScore != 0 ? byScore : Integer.compare(scores.docs[a], scores.docs[b]);
+            };
+            PriorityQueue<Integer> top = new PriorityQueue<>(k, order);
+            for (int entry = 0; entry < touchedCount; entry++) {
+                if (top.size() < k) {
+                    top.add(entry);
+                } else if (order.compare(entry, top.peek()) > 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>(top);
+            ranked.sort(order.reversed());
+            int from = page * size;
+            if (from >= ranked.size()) {
+                return new SearchResult(List.of(), touchedCount);
+            }
+            List<Hit> hits = new ArrayList<>(Math.min(size, ranked.size() - from));
+            for (int entry : ranked.subList(from, Math.min(ranked.size(), from + size))) {
+                hits.add(new Hit(docIds[scores.docs[entry]], scores.scores[entry]));
+            }
+            return new SearchResult(hits, touchedCount);
+        }
+
+        private Set<Postings> expand(List<QueryTerm> queryTerms) {
+            // Aynı terim hem tam hem önek olarak eşleşirse bir kez puanlanır
+            Set<Postings> result = new LinkedHashSet<>();
+            for (QueryTerm queryTerm : queryTerms) {
+                if (queryTerm.prefix()) {
+                    SortedMap<String, Postings> matches = terms.subMap(queryTerm.term(), queryTerm.term() + Character.MAX_VALUE);
+                    result.addAll(matches.values());
+                } else {
+                    Postings postings = terms.get(queryTerm.term());
+                    if (postings != null) {
+                        result.add(postings);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
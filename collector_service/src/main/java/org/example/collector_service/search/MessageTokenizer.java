@@ -0,0 +1,117 @@
+package org.example.collector_service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MessageTokenizer - Türkçe / İngilizce mesaj metnini arama terimlerine ayırır
+ *
+ * Discord mesajları Türkçe ve İngilizce karışık, çoğu zaman Türkçe karaktersiz
+ * ("toplanti", "gorusme") yazılır. Bu yüzden terimler ASCII'ye katlanır:
+ * - I, İ, ı, i → i (Türkçe / İngilizce büyük-küçük harf farkı ortadan kalkar)
+ * - ç → c, ğ → g, ö → o, ş → s, ü → u, â → a, î → i, û → u
+ *
+ * Kurallar:
+ * - Harf ve rakam dışındaki karakterler ayırıcıdır
+ * - 2 karakterden kısa terimler ve yaygın Türkçe / İngilizce stop-word'ler atlanır
+ * - Terimler en fazla 64 karakterdir
+ *
+ * İndeks ve sorgu aynı tokenizer'ı kullanır; böylece "Toplantı" sorgusu
+ * "toplanti" yazılmış mesajı da bulur.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public final class MessageTokenizer {
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            // Türkçe (katlanmış hali)
+            "ve", "veya", "ile", "bir", "bu", "su", "da", "de", "mi", "mu", "ne", "icin", "gibi", "ama",
+            "ki", "o", "ben", "sen", "biz", "siz", "daha", "cok", "en", "her",
+            // İngilizce
+            "the", "and", "or", "an", "of", "to", "is", "are", "was", "in", "on", "at", "for", "it",
+            "be", "this", "that", "with", "as", "by"
+    );
+
+    private MessageTokenizer() {
+    }
+
+    /**
+     * Metni katlanmış arama terimlerine ayırır.
+     *
+     * @param text Mesaj içeriği veya sorgu
+     * @return Terimler (tekrarlar dahil, metindeki sırayla)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder(16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (current.length() < MAX_TOKEN_LENGTH) {
+                    current.append(c);
+                }
+            } else {
+                emit(current, tokens);
+            }
+        }
+        emit(current, tokens);
+        return tokens;
+    }
+
+    /**
+     * Tek bir sorgu terimini indeksle aynı şekilde normalize eder (prefix sorguları için).
+     *
+     * @param term Ham terim
+     * @return Katlanmış terim; ayırıcı karakterler atılır
+     */
+    public static String normalize(String term) {
+        StringBuilder sb = new StringBuilder(term.length());
+        for (int i = 0; i < term.length() && sb.length() < MAX_TOKEN_LENGTH; i++) {
+            char c = fold(term.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void emit(StringBuilder current, List<String> tokens) {
+        if (current.length() >= MIN_TOKEN_LENGTH) {
+            String token = current.toString();
+            if (!STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        current.setLength(0);
+    }
+
+    static char fold(char c) {
+        switch (c) {
+            case 'I': case 'İ': case 'ı': case 'î': case 'Î':
+                return 'i';
+            case 'ç': case 'Ç':
+                return 'c';
+            case 'ğ': case 'Ğ':
+                return 'g';
+            case 'ö': case 'Ö':
+                return 'o';
+            case 'ş': case 'Ş':
+                return 's';
+            case 'ü': case 'Ü': case 'û': case 'Û':
+                return 'u';
+            case 'â': case 'Â':
+                return 'a';
+            default:
+                return Character.toLowerCase(c);
+        }
+    }
+}
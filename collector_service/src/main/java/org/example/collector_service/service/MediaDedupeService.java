@@ -0,0 +1,189 @@
+package org.example.collector_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.dto.MediaDedupeChallenge;
+import org.example.collector_service.domain.dto.MediaDedupeCheckRequest;
+import org.example.collector_service.domain.dto.MediaDedupeProofRequest;
+import org.example.collector_service.domain.dto.MediaUploadRequest;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.model.MediaAsset;
+import org.example.collector_service.exception.InvalidFileException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MediaDedupeService - Sahiplik kanıtlı yükleme öncesi dedupe
+ *
+ * Yalnızca checksum'a bakan bir dedupe kontrolü, checksum'ı bilen herkese
+ * "bu içerik sunucuda var mı" sorusunun cevabını verir ve dosyayı göndermeden
+ * toplantıya bağlamasına izin verir. Bu servis dosyanın kendisine sahip olmayı şart koşar.
+ *
+ * İş Akışı:
+ * 1. issueChallenge(): istemci checksum, boyut ve metadata'yı bildirir; sunucu dosya
+ *    bilinsin ya da bilinmesin rastgele bir nonce ve bayt aralığı seçer (PROOF_REQUIRED)
+ * 2. İstemci kanıtı hesaplar: SHA-256(nonce || dosya[offset, offset + length))
+ * 3. verifyProof(): sunucu aynı aralığı kayıtlı dosyadan okuyup kanıtı karşılaştırır;
+ *    eşleşirse medya toplantıya bağlanır (SUCCESS), aksi halde UPLOAD_REQUIRED döner
+ *
+ * Teknik Detaylar:
+ * - Bilinmeyen dosya ile yanlış kanıt aynı yanıtı alır; sonuç içerik varlığını sızdırmaz
+ * - Sorular tek kullanımlıktır ve media.dedupe.challenge-ttl-seconds sonra geçersizdir
+ * - Kanıt aralığı en fazla MAX_PROOF_BYTES; sunucu tarafında küçük bir okuma yapılır
+ * - Bekleyen soru sayısı media.dedupe.max-pending-challenges ile sınırlıdır; dolduğunda
+ *   önce süresi dolanlar temizlenir, yine doluysa soru üretilmez ve UPLOAD_REQUIRED döner
+ *   (istemci dosyayı normal yoldan yükler, bellek sınırsız büyümez)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class MediaDedupeService {
+
+    private static final int MAX_PROOF_BYTES = 64 * 1024;
+    private static final int NONCE_BYTES = 16;
+
+    private final MediaIngestService mediaIngestService;
+    private final long challengeTtlMillis;
+    private final int maxPendingChallenges;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, PendingChallenge> challenges = new ConcurrentHashMap<>();
+
+    public MediaDedupeService(MediaIngestService mediaIngestService,
+                              @Value("${media.dedupe.challenge-ttl-seconds:300}") long challengeTtlSeconds,
+                              @Value("${media.dedupe.max-pending-challenges:10000}") int maxPendingChallenges) {
+        this.mediaIngestService = mediaIngestService;
+        this.challengeTtlMillis = TimeUnit.SECONDS.toMillis(challengeTtlSeconds);
+        this.maxPendingChallenges = maxPendingChallenges;
+    }
+
+    /**
+     * Dedupe kontrolü için sahiplik kanıtı sorusu üretir.
+     *
+     * @param request Checksum, dosya boyutu ve toplantı metadata'sı
+     * @return Soru (nonce, ofset, uzunluk); bekleyen soru sınırı doluysa UPLOAD_REQUIRED
+     */
+    public MediaDedupeChallenge issueChallenge(MediaDedupeCheckRequest request) {
+        long fileSize = request.getFileSize();
+        if (fileSize <= 0) {
+            throw new InvalidFileException("File is empty");
+        }
+        if (request.getMetadata() == null || request.getMetadata().getPlatform() == null) {
+            throw new InvalidFileException("Platform is required");
+        }
+        if (!hasChallengeCapacity()) {
+            log.warn("Pending dedupe challenge limit reached ({}); upload is required", maxPendingChallenges);
+            return MediaDedupeChallenge.builder().status("UPLOAD_REQUIRED").build();
+        }
+
+        int length = (int) Math.min(fileSize, MAX_PROOF_BYTES);
+        long offset = fileSize == length ? 0 : random.nextLong(fileSize - length + 1);
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        long expiresAtMillis = System.currentTimeMillis() + challengeTtlMillis;
+
+        String challengeId = UUID.randomUUID().toString();
+        challenges.put(challengeId, new PendingChallenge(request.getChecksum().toLowerCase(), fileSize,
+                request.getMetadata(), nonce, offset, length, expiresAtMillis));
+
+        return MediaDedupeChallenge.builder()
+                .challengeId(challengeId)
+                .status("PROOF_REQUIRED")
+                .nonce(HexFormat.of().formatHex(nonce))
+                .offset(offset)
+                .length(length)
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault()))
+                .build();
+    }
+
+    /**
+     * Kanıtı doğrular; geçerliyse kayıtlı medyayı toplantıya bağlar.
+     *
+     * @param request Soru ID'si ve kanıt
+     * @return SUCCESS (bağlandı) veya UPLOAD_REQUIRED (dosya bilinmiyor, kanıt yanlış veya soru geçersiz)
+     */
+    public MediaUploadResponse verifyProof(MediaDedupeProofRequest request) {
+        PendingChallenge challenge = challenges.remove(request.getChallengeId());
+        if (challenge == null || challenge.expiresAtMillis() < System.currentTimeMillis()) {
+            return uploadRequired();
+        }
+
+        Optional<MediaAsset> existingAsset = mediaIngestService.findExistingAsset(challenge.checksum(), challenge.fileSize());
+        if (existingAsset.isEmpty() || !proofMatches(existingAsset.get(), challenge, request.getProof())) {
+            return uploadRequired();
+        }
+        return mediaIngestService.linkExistingAsset(existingAsset.get(), challenge.metadata());
+    }
+
+    /**
+     * Süresi dolan soruları temizler.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredChallenges() {
+        long now = System.currentTimeMillis();
+        challenges.values().removeIf(challenge -> challenge.expiresAtMillis() < now);
+    }
+
+    /**
+     * Yeni soru için yer var mı? Sınır doluysa önce süresi dolan sorular temizlenir.
+     * Eşzamanlı isteklerde sınır en fazla istek sayısı kadar aşılabilir; büyüme yine sınırlıdır.
+     */
+    private boolean hasChallengeCapacity() {
+        if (challenges.size() < maxPendingChallenges) {
+            return true;
+        }
+        purgeExpiredChallenges();
+        return challenges.size() < maxPendingChallenges;
+    }
+
+    private boolean proofMatches(MediaAsset mediaAsset, PendingChallenge challenge, String proof) {
+        try (FileChannel channel = FileChannel.open(Paths.get(mediaAsset.getStoragePath()), StandardOpenOption.READ)) {
+            ByteBuffer range = ByteBuffer.allocate(challenge.length());
+            while (range.hasRemaining()) {
+                if (channel.read(range, challenge.offset() + range.position()) < 0) {
+                    return false;
+                }
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(challenge.nonce());
+            digest.update(range.array());
+            return MessageDigest.isEqual(digest.digest(), HexFormat.of().parseHex(proof));
+        } catch (IOException e) {
+            log.warn("Could not read stored media for dedupe proof. FileKey: {}", mediaAsset.getFileKey(), e);
+            return false;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private MediaUploadResponse uploadRequired() {
+        return MediaUploadResponse.builder()
+                .status("UPLOAD_REQUIRED")
+                .message("File is not known yet. Upload is required.")
+                .build();
+    }
+
+    private record PendingChallenge(String checksum, long fileSize, MediaUploadRequest metadata,
+                                    byte[] nonce, long offset, int length, long expiresAtMillis) {
+    }
+}
@@ -2,12 +2,15 @@ package org.example.collector_service.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.bot.audio.AudioTrackExtractor;
 import org.example.collector_service.domain.dto.MediaUploadRequest;
 import org.example.collector_service.domain.dto.MediaUploadResponse;
 import org.example.collector_service.domain.model.MediaAsset;
 import org.example.collector_service.domain.model.MeetingMedia;
 import org.example.collector_service.domain.model.OutBoxEvent;
 import org.example.collector_service.exception.*;
+import org.example.collector_service.outbox.OutboxRelaySignal;
+import org.example.collector_service.outbox.OutboxRouting;
 import org.example.collector_service.repository.MediaAssetRepository;
 import org.example.collector_service.repository.MeetingMediaRepository;
 import org.example.collector_service.repository.OutBoxEventRepository;
@@ -15,9 +18,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
@@ -30,6 +37,7 @@ import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -40,6 +48,9 @@ public class MediaIngestService {
     private final MediaAssetRepository mediaAssetRepository;
     private final MeetingMediaRepository meetingMediaRepository;
     private final ObjectMapper objectMapper;
+    private final AudioTrackExtractor audioTrackExtractor;
+    private final OutboxRelaySignal outboxRelaySignal;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${media.storage.path}")
     private String mediaStoragePath;
@@ -51,120 +62,286 @@ public class MediaIngestService {
 
     private static final long MAX_FILE_SIZE_BYTES = 500 * 1024 * 1024;
 
-    @Transactional
+    /** Yükleme akışını diske kopyalarken kullanılan sabit tampon boyutu */
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
     public MediaUploadResponse uploadMedia(MultipartFile file, MediaUploadRequest request){
             validateFile(file);
 
+            Path stagedFile = null;
             try{
-                String checksum = calculateCheckSum(file.getBytes());
+                stagedFile = createStagingFile(request.getPlatform());
+
+                MessageDigest digest = newChecksumDigest();
+                long fileSize;
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    fileSize = copyStream(in, stagedFile);
+                }
+                String checksum = HexFormat.of().formatHex(digest.digest());
+
+                return ingestStagedFile(stagedFile, checksum, fileSize, file.getContentType(), file.getOriginalFilename(), request);
 
-                
+            }catch (IOException e){
+                log.error("File storage failed", e);
+                throw new StorageException("Failed to store file", e);
+            } finally {
+                deleteQuietly(stagedFile);
+            }
+    }
+
+    /**
+     * Tamamen diske yazılmış ve checksum'ı hesaplanmış bir yüklemeyi kaydeder.
+     *
+     * Aynı checksum'a sahip asset varsa staged dosya silinir ve mevcut asset bağlanır;
+     * yoksa dosya platform klasöründeki nihai adına atomik olarak taşınır. Video dosyalarında
+     * ses izi ayrı bir MP3'e çıkarılır; orijinal video depolamada kalır. Ardından
+     * MeetingMedia ve MEDIA_UPLOADED outbox event'i oluşturulur.
+     *
+     * Dosya taşıma ve ses çıkarma (ffmpeg, dakikalar sürebilir) transaction dışında yapılır;
+     * yalnızca MediaAsset / MeetingMedia / outbox kayıtları kısa bir transaction'da yazılır.
+     * Böylece uzun bir kodlama süresince DB bağlantısı ve kilitler tutulmaz.
+     *
+     * @param stagedFile       createStagingFile() ile oluşturulmuş geçici dosya
+     * @param checksum         Dosyanın SHA-256 checksum'ı (hex)
+     * @param fileSize         Dosya boyutu (bayt)
+     * @param contentType      MIME tipi
+     * @param originalFileName İstemcinin gönderdiği dosya adı
+     * @param request          Toplantı metadata'sı
+     * @return Yükleme sonucu
+     */
+    public MediaUploadResponse ingestStagedFile(Path stagedFile, String checksum, long fileSize, String contentType,
+                                                String originalFileName, MediaUploadRequest request){
+            Path storedFile = null;
+            Path extractedAudio = null;
+            try{
                 Optional<MediaAsset> existingAssetOpt = mediaAssetRepository.findByChecksum(checksum);
-                MediaAsset mediaAsset;
-                boolean isDuplicate = false;
-                
+
                 if(existingAssetOpt.isPresent()){
+                    MediaAsset existingAsset = existingAssetOpt.get();
                     log.info("Duplicate file detected. Using existing media asset. Checksum: {}, FileKey: {}", 
-                            checksum, existingAssetOpt.get().getFileKey());
-                    mediaAsset = existingAssetOpt.get();
-                    isDuplicate = true;
-                } else {
-                    
-                    String fileKey = generateFileKey(request.getPlatform());
-                    String savedPath = saveFile(file, fileKey, request.getPlatform());
-
-                    mediaAsset = MediaAsset.builder()
-                            .fileKey(fileKey)
-                            .mimeType(file.getContentType())
-                            .originalFileName(file.getOriginalFilename())
-                            .fileSize(file.getSize())
-                            .checksum(checksum)
-                            .storagePath(savedPath)
-                            .status(MediaAsset.MediaStatus.PENDING)
-                            .build();
-
-                    mediaAsset = mediaAssetRepository.save(mediaAsset);
-                    log.info("New media asset created. FileKey: {}", fileKey);
+                            checksum, existingAsset.getFileKey());
+                    Files.deleteIfExists(stagedFile);
+                    return transactionTemplate.execute(status -> linkToMeeting(existingAsset, request, true));
                 }
 
-                MeetingMedia meetingMedia = MeetingMedia.builder()
-                        .meetingId(request.getMeetingId())
-                        .platform(request.getPlatform().toUpperCase())
-                        .mediaAsset(mediaAsset)
-                        .meetingTitle(request.getMeetingTitle())
-                        .hostname(request.getHostName())
-                        .meetingStartTime(request.getMeetingStartTime())
-                        .meetingEndTime(request.getMeetingEndTime())
-                        .participantCount(request.getParticipantCount())
-                        .uploadedBy(request.getUploadedBy())
-                        .uploadedAt(LocalDateTime.now())
-                        .build();
+                String fileKey = generateFileKey(request.getPlatform());
+                storedFile = stagedFile.resolveSibling(fileKey + getFileExtension(originalFileName));
+                Files.move(stagedFile, storedFile, StandardCopyOption.ATOMIC_MOVE);
 
-                meetingMedia = meetingMediaRepository.save(meetingMedia);
-
-                saveToOutbox(mediaAsset,meetingMedia,request);
-                
-                String responseMessage = isDuplicate 
-                        ? "File already exists. Using existing media asset."
-                        : "File uploaded successfully.";
-                
-                log.info("Media processed successfully. FileKey: {}, Duplicate: {}", 
-                        mediaAsset.getFileKey(), isDuplicate);
-                
-                return MediaUploadResponse.builder()
-                        .mediaStatusId(mediaAsset.getId())
-                        .fileKey(mediaAsset.getFileKey())
-                        .status("SUCCESS")
-                        .message(responseMessage)
-                        .uploadedAt(LocalDateTime.now())
+                MediaAsset mediaAsset = MediaAsset.builder()
+                        .fileKey(fileKey)
+                        .mimeType(contentType)
+                        .originalFileName(originalFileName)
+                        .fileSize(fileSize)
+                        .checksum(checksum)
+                        .storagePath(storedFile.toAbsolutePath().toString())
+                        .status(MediaAsset.MediaStatus.PENDING)
                         .build();
 
+                if(isVideo(contentType)){
+                    extractedAudio = extractAudioTrack(storedFile, fileKey);
+                    if(extractedAudio != null){
+                        mediaAsset.setAudioStoragePath(extractedAudio.toAbsolutePath().toString());
+                        mediaAsset.setAudioMimeType(AudioTrackExtractor.OUTPUT_MIME_TYPE);
+                        mediaAsset.setAudioFileSize(Files.size(extractedAudio));
+                    }
+                }
+
+                return transactionTemplate.execute(status -> {
+                    MediaAsset savedAsset = mediaAssetRepository.save(mediaAsset);
+                    log.info("New media asset created. FileKey: {}", fileKey);
+                    return linkToMeeting(savedAsset, request, false);
+                });
+
             }catch (IOException e){
                 log.error("File storage failed", e);
+                deleteQuietly(storedFile);
+                deleteQuietly(extractedAudio);
                 throw new StorageException("Failed to store file", e);
             } catch (Exception e) {
                 log.error("File upload failed", e);
+                deleteQuietly(storedFile);
+                deleteQuietly(extractedAudio);
                 throw new FileUploadException("File upload failed", e);
             }
     }
 
-    private void validateFile(MultipartFile file){
-        if(file.isEmpty()){
+    /**
+     * Video dosyasının ses izini aynı klasörde {fileKey}_audio.mp3 olarak çıkarır.
+     * Çıkarma başarısız olursa veya ses izi yoksa null döner ve event orijinal dosyayı işaret eder.
+     */
+    private Path extractAudioTrack(Path videoFile, String fileKey){
+        Path target = videoFile.resolveSibling(fileKey + "_audio" + AudioTrackExtractor.OUTPUT_EXTENSION);
+        try{
+            return audioTrackExtractor.extractAudio(videoFile, target).orElse(null);
+        }catch (IOException | RuntimeException e){
+            log.warn("Audio extraction failed, falling back to original file. FileKey: {}", fileKey, e);
+            deleteQuietly(target);
+            return null;
+        }
+    }
+
+    private boolean isVideo(String contentType){
+        return contentType != null && contentType.startsWith("video/");
+    }
+
+    /**
+     * Aynı checksum ve boyuta sahip kayıtlı medyayı arar (dedupe).
+     *
+     * Sonuç istemciye doğrudan gösterilmemelidir; aksi halde herhangi bir çağıran
+     * için içerik varlığı sorgusuna dönüşür. Bkz. MediaDedupeService.
+     *
+     * @param checksum Dosyanın SHA-256 checksum'ı (hex)
+     * @param fileSize Dosya boyutu (bayt)
+     * @return Eşleşen medya veya boş
+     */
+    public Optional<MediaAsset> findExistingAsset(String checksum, long fileSize){
+        if(checksum == null || checksum.isBlank()){
+            return Optional.empty();
+        }
+        return mediaAssetRepository.findByChecksum(checksum.toLowerCase())
+                .filter(asset -> asset.getFileSize() != null && asset.getFileSize() == fileSize);
+    }
+
+    /**
+     * Kayıtlı medyayı dosya yüklenmeden toplantıya bağlar.
+     *
+     * MeetingMedia bağlantısı ve outbox event'i hemen oluşturulur. Yalnızca istemci
+     * dosyaya sahip olduğunu kanıtladıktan sonra çağrılmalıdır (MediaDedupeService).
+     *
+     * @param mediaAsset Kayıtlı medya
+     * @param request    Toplantı metadata'sı
+     * @return Yükleme sonucu
+     */
+    @Transactional
+    public MediaUploadResponse linkExistingAsset(MediaAsset mediaAsset, MediaUploadRequest request){
+        if(request == null || request.getPlatform() == null){
+            throw new IllegalArgumentException("Metadata with platform is required");
+        }
+
+        log.info("Pre-upload dedupe hit. FileKey: {}", mediaAsset.getFileKey());
+        try{
+            return linkToMeeting(mediaAsset, request, true);
+        } catch (CollectorServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Linking existing media asset failed", e);
+            throw new FileUploadException("Linking existing media asset failed", e);
+        }
+    }
+
+    private MediaUploadResponse linkToMeeting(MediaAsset mediaAsset, MediaUploadRequest request, boolean isDuplicate){
+        MeetingMedia meetingMedia = MeetingMedia.builder()
+                .meetingId(request.getMeetingId())
+                .platform(request.getPlatform().toUpperCase())
+                .mediaAsset(mediaAsset)
+                .meetingTitle(request.getMeetingTitle())
+                .hostname(request.getHostName())
+                .meetingStartTime(request.getMeetingStartTime())
+                .meetingEndTime(request.getMeetingEndTime())
+                .participantCount(request.getParticipantCount())
+                .uploadedBy(request.getUploadedBy())
+                .uploadedAt(LocalDateTime.now())
+                .build();
+
+        meetingMedia = meetingMediaRepository.save(meetingMedia);
+
+        saveToOutbox(mediaAsset,meetingMedia,request);
+        
+        String responseMessage = isDuplicate 
+                ? "File already exists. Using existing media asset."
+                : "File uploaded successfully.";
+        
+        log.info("Media processed successfully. FileKey: {}, Duplicate: {}", 
+                mediaAsset.getFileKey(), isDuplicate);
+        
+        return MediaUploadResponse.builder()
+                .mediaStatusId(mediaAsset.getId())
+                .fileKey(mediaAsset.getFileKey())
+                .status("SUCCESS")
+                .message(responseMessage)
+                .uploadedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Platform klasöründe geçici (.part) bir yükleme dosyası oluşturur.
+     * Nihai dosya ile aynı klasörde olduğu için taşıma atomik yapılabilir.
+     *
+     * @param platform Platform adı
+     * @return Oluşturulan geçici dosya
+     * @throws IOException Klasör veya dosya oluşturulamazsa
+     */
+    public Path createStagingFile(String platform) throws IOException{
+        Path platformDir = Paths.get(mediaStoragePath, platform.toLowerCase());
+        Files.createDirectories(platformDir);
+        return Files.createTempFile(platformDir, "upload_", ".part");
+    }
+
+    /**
+     * Dosya tipi ve boyutunu yükleme başlamadan doğrular.
+     *
+     * @param contentType MIME tipi
+     * @param fileSize    Dosya boyutu (bayt)
+     */
+    public void validateUpload(String contentType, long fileSize){
+        if(fileSize <= 0){
             throw new InvalidFileException("File is empty");
         }
-        if(file.getSize() > MAX_FILE_SIZE_BYTES){
+        if(fileSize > MAX_FILE_SIZE_BYTES){
             throw new FileSizeExceededException("File size exceeds the maximum limit of 500MB");
         }
-        String contentType = file.getContentType();
         if(contentType == null || !ALLOWED_FILE_TYPES.contains(contentType)){
             throw new InvalidFileException("Unsupported file type: " + contentType);
         }
     }
 
-    private String calculateCheckSum(byte[] data){
+    private void validateFile(MultipartFile file){
+        if(file.isEmpty()){
+            throw new InvalidFileException("File is empty");
+        }
+        validateUpload(file.getContentType(), file.getSize());
+    }
+
+    private MessageDigest newChecksumDigest(){
         try{
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data);
-            return HexFormat.of().formatHex(hash);
+            return MessageDigest.getInstance("SHA-256");
         }catch (NoSuchAlgorithmException e){
             log.error("Error calculating checksum", e);
             throw new StorageException("Error calculating checksum", e);
         }
     }
 
-    private String generateFileKey(String platform){
-        return platform.toLowerCase() + "_" + UUID.randomUUID();
+    /**
+     * Akışı sabit boyutlu bir tampon ile dosyaya kopyalar; dosya boyutundan bağımsız olarak
+     * heap kullanımı COPY_BUFFER_BYTES ile sınırlıdır.
+     */
+    private long copyStream(InputStream in, Path target) throws IOException{
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                total += read;
+            }
+        }
+        return total;
     }
 
-    private String saveFile(MultipartFile file, String fileKey, String platform) throws Exception{
-        Path platformDir = Paths.get(mediaStoragePath, platform.toLowerCase());
-        Files.createDirectories(platformDir);
-
-        String fileExtension = getFileExtension(file.getOriginalFilename());
-        Path filePath = platformDir.resolve(fileKey + fileExtension);
-        Files.write(filePath, file.getBytes());
+    private void deleteQuietly(Path path){
+        if(path == null){
+            return;
+        }
+        try{
+            Files.deleteIfExists(path);
+        }catch (IOException e){
+            log.warn("Could not delete file: {}", path, e);
+        }
+    }
 
-        return filePath.toAbsolutePath().toString();
+    private String generateFileKey(String platform){
+        return platform.toLowerCase() + "_" + UUID.randomUUID();
     }
 
     private String getFileExtension(String filename){
@@ -182,9 +359,18 @@ public class MediaIngestService {
             payload.put("platform", request.getPlatform().toUpperCase());
             payload.put("meetingId", request.getMeetingId());
             payload.put("fileKey", asset.getFileKey());
-            payload.put("audioUrl", asset.getStoragePath());
-            payload.put("mimeType", asset.getMimeType());
-            payload.put("fileSize", asset.getFileSize());
+            if(asset.getAudioStoragePath() != null){
+                payload.put("audioUrl", asset.getAudioStoragePath());
+                payload.put("mimeType", asset.getAudioMimeType());
+                payload.put("fileSize", asset.getAudioFileSize());
+                payload.put("originalUrl", asset.getStoragePath());
+                payload.put("originalMimeType", asset.getMimeType());
+                payload.put("originalFileSize", asset.getFileSize());
+            } else {
+                payload.put("audioUrl", asset.getStoragePath());
+                payload.put("mimeType", asset.getMimeType());
+                payload.put("fileSize", asset.getFileSize());
+            }
             payload.put("meetingTitle", request.getMeetingTitle());
             payload.put("hostName", request.getHostName());
             payload.put("meetingStartTime", request.getMeetingStartTime());
@@ -196,15 +382,22 @@ public class MediaIngestService {
             payload.put("checksum", asset.getChecksum());
 
             String payloadJson = objectMapper.writeValueAsString(payload);
+            String headersJson = objectMapper.writeValueAsString(
+                    OutboxRouting.headersFor("MeetingMedia", asset.getFileKey(), "MEDIA_UPLOADED"));
 
             OutBoxEvent outBoxEvent = OutBoxEvent.builder()
                     .aggregateType("MeetingMedia")
                     .aggregateId(asset.getFileKey())
                     .eventType("MEDIA_UPLOADED")
                     .payload(payloadJson)
+                    .partitionKey(request.getMeetingId() != null ? request.getMeetingId() : asset.getFileKey())
+                    .topic(OutboxRouting.topicFor("MeetingMedia"))
+                    .headers(headersJson)
+                    .createdAt(LocalDateTime.now())
                     .build();
 
             outBoxEventRepository.save(outBoxEvent);
+            outboxRelaySignal.signalAfterCommit();
             log.info("Outbox event saved for media upload: {}", outBoxEvent.getAggregateId());
 
         }catch (Exception e){
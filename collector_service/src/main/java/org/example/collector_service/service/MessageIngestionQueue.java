@@ -0,0 +1,248 @@
+package org.example.collector_service.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.model.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MessageIngestionQueue - Discord metin mesajları için asenkron, toplu kayıt kuyruğu
+ *
+ * JDA event thread'i mesajı kuyruğa bırakır ve hemen döner. Ayrı bir writer thread'i
+ * kuyruktaki mesajları batch-size mesaja veya linger-ms süresine ulaşana kadar toplar
+ * ve MessageService.saveAll ile tek transaction'da kaydeder (group commit).
+ *
+ * İş Akışı:
+ * 1. DiscordBotListener submit() ile mesajı kuyruğa ekler (en fazla offer-timeout-ms bekler)
+ * 2. Writer thread'i ilk mesajı bekler, ardından linger süresi boyunca batch'i doldurur
+ * 3. Batch MessageService.saveAll ile JDBC batch insert olarak yazılır
+ * 4. Batch yazılamazsa mesajlar tek tek kaydedilir; hatalı mesaj diğerlerini kaybettirmez
+ *
+ * Teknik Detaylar:
+ * - Kuyruk sınırlıdır; doluysa çağıran thread en fazla offer-timeout-ms bekler (sınırlı
+ *   backpressure). Yer açılmazsa mesaj düşürülür ve sayılır; JDA gateway thread'inde
+ *   hiçbir zaman DB'ye gidilmez
+ * - Kapanışta kuyrukta kalan mesajlar yazılır
+ *
+ * Metrikler:
+ * - Kuyruk derinliği, son / en büyük / ortalama batch boyutu
+ * - Yazılan, kuyruk dolu olduğu için düşürülen ve başarısız mesaj sayıları
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class MessageIngestionQueue {
+
+    private final MessageService messageService;
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long offerTimeoutMillis;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private final AtomicLong writtenMessages = new AtomicLong();
+    private final AtomicLong writtenBatches = new AtomicLong();
+    private final AtomicLong batchedMessages = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+
+    public MessageIngestionQueue(MessageService messageService,
+                                 @Value("${message.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${message.ingest.batch-size:200}") int batchSize,
+                                 @Value("${message.ingest.linger-ms:50}") long lingerMillis,
+                                 @Value("${message.ingest.offer-timeout-ms:100}") long offerTimeoutMillis) {
+        this.messageService = messageService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    /**
+     * Uygulama hazır olduğunda writer thread'ini başlatır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runLoop, "message-ingest");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Message ingestion started. Batch size: {}, linger: {} ms", batchSize, lingerMillis);
+    }
+
+    /**
+     * Writer thread'ini durdurur ve kuyrukta kalan mesajları yazar.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+        drainRemaining();
+        log.info("Message ingestion stopped. Written: {}, Batches: {}, Dropped: {}, Failed: {}",
+                writtenMessages.get(), writtenBatches.get(), droppedMessages.get(), failedMessages.get());
+    }
+
+    /**
+     * Mesajı kayıt kuyruğuna ekler. Kuyruk doluysa çağıran thread en fazla
+     * offer-timeout-ms bekler; yer açılmazsa mesaj düşürülür ve sayılır.
+     *
+     * @param message Kaydedilecek mesaj
+     * @return Mesaj kuyruğa alındıysa true, düşürüldüyse false
+     */
+    public boolean submit(Message message) {
+        try {
+            if (queue.offer(message) || queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long dropped = droppedMessages.incrementAndGet();
+        // Aşırı yükte log taşmasın diye ilk düşüş ve her 1000'incisi loglanır
+        if (dropped == 1 || dropped % 1000 == 0) {
+            log.warn("Message ingestion queue full ({}), dropped message: channel={}, totalDropped={}",
+                    queue.size(), message.getChannelId(), dropped);
+        }
+        return false;
+    }
+
+    private void runLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Message first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Batch'i batch-size'a veya linger süresinin sonuna kadar doldurur.
+     */
+    private void fill(List<Message> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+            // Kuyrukta bekleyenler beklemeden alınır
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Message next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Batch'i tek transaction'da yazar; başarısız olursa mesajları tek tek dener.
+     */
+    void writeBatch(List<Message> batch) {
+        try {
+            messageService.saveAll(batch);
+            writtenMessages.addAndGet(batch.size());
+            writtenBatches.incrementAndGet();
+            batchedMessages.addAndGet(batch.size());
+            lastBatchSize = batch.size();
+            maxBatchSize = Math.max(maxBatchSize, batch.size());
+            log.debug("Message batch written: size={}, queue depth={}", batch.size(), queue.size());
+        } catch (Exception e) {
+            log.error("Message batch of {} failed, retrying one by one", batch.size(), e);
+            for (Message message : batch) {
+                // Batch insert ID atamış olabilir; transaction geri alındığı için sıfırlanır
+                message.setId(null);
+                saveSingle(message);
+            }
+        }
+    }
+
+    private void saveSingle(Message message) {
+        try {
+            messageService.processAndSaveMessage(message);
+            writtenMessages.incrementAndGet();
+        } catch (Exception e) {
+            failedMessages.incrementAndGet();
+            log.error("Message could not be saved: channel={}, author={}",
+                    message.getChannelId(), message.getAuthor(), e);
+        }
+    }
+
+    private void drainRemaining() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        long batches = writtenBatches.get();
+        return batches == 0 ? 0 : (double) batchedMessages.get() / batches;
+    }
+
+    public long getWrittenMessageCount() {
+        return writtenMessages.get();
+    }
+
+    /** Kuyruk dolu olduğu için düşürülen mesaj sayısı */
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    public long getFailedMessageCount() {
+        return failedMessages.get();
+    }
+}
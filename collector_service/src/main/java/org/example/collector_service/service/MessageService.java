@@ -2,12 +2,16 @@ package org.example.collector_service.service;
 
 import org.example.collector_service.domain.model.Message;
 import org.example.collector_service.outbox.OutboxEventPublisher;
+import org.example.collector_service.repository.MessageBatchWriter;
 import org.example.collector_service.repository.MessageRepository;
+import org.example.collector_service.search.MessageSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * MessageService - Mesaj yönetim servisi
  * 
@@ -18,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
  * - Mesaj persistance (veritabanına kalıcı kayıt)
  * - Outbox event yayınlama (OutboxEventPublisher aracılığıyla Kafka'ya)
  * - Transaction yönetimi (@Transactional ile ACID garantisi)
+ * - Arama indeksini güncel tutma (commit sonrası MessageSearchIndex'e ekleme)
  * 
  * Mimari Pattern: Transactional Service + Outbox Pattern
  * 
@@ -29,7 +34,8 @@ import org.springframework.transaction.annotation.Transactional;
  * İş Akışı:
  * 1. Discord/Zoom bot mesaj alır
  * 2. Message entity oluşturulur
- * 3. processAndSaveMessage() çağrılır
+ * 3. Discord mesajları MessageIngestionQueue üzerinden saveAll() ile toplu,
+ *    diğer kaynaklar processAndSaveMessage() ile tek tek kaydedilir
  * 4. Transaction içinde mesaj ve event kaydedilir
  * 5. OutboxEventRelayer Kafka'ya gönderir
  * 6. AI servisi mesajı alır ve analiz eder
@@ -44,6 +50,8 @@ public class MessageService {
     
     private final MessageRepository messageRepository;
     private final OutboxEventPublisher outboxEventPublisher;
+    private final MessageBatchWriter messageBatchWriter;
+    private final MessageSearchIndex messageSearchIndex;
 
     /**
      * Mesajı işler, veritabanına kaydeder ve MessageCreated event'i oluşturur.
@@ -66,8 +74,31 @@ public class MessageService {
                 savedMessage.getId().toString(),
                 "Message"
         );
+        messageSearchIndex.addAfterCommit(List.of(savedMessage));
         
         log.debug("Message saved: id={}, author={}, platform={}", 
                 savedMessage.getId(), savedMessage.getAuthor(), savedMessage.getPlatform());
     }
+
+    /**
+     * Mesaj batch'ini tek transaction'da kaydeder (group commit).
+     * 
+     * Mesajlar ve MessageCreated event'leri JDBC batch insert ile yazılır; böylece
+     * N mesaj için 2N ayrı INSERT ve N commit yerine iki batch ve tek commit yapılır.
+     *
+     * @param messages Kaydedilecek mesajlar
+     * @throws org.springframework.dao.DataAccessException Veritabanı hatası durumunda
+     */
+    @Transactional
+    public void saveAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<Message> savedMessages = messageBatchWriter.insertAll(messages);
+        outboxEventPublisher.publishCreatedAll(savedMessages, message -> message.getId().toString(), "Message");
+        messageSearchIndex.addAfterCommit(savedMessages);
+
+        log.debug("Message batch saved: count={}", savedMessages.size());
+    }
 }
@@ -0,0 +1,207 @@
+package org.example.collector_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.dto.UploadSessionRequest;
+import org.example.collector_service.domain.dto.UploadSessionStatus;
+import org.example.collector_service.domain.model.UploadSession;
+import org.example.collector_service.exception.CollectorServiceException;
+import org.example.collector_service.exception.InvalidFileException;
+import org.example.collector_service.exception.StorageException;
+import org.example.collector_service.exception.UploadSessionClosedException;
+import org.example.collector_service.exception.UploadSessionNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * ResumableUploadService - Devam ettirilebilir parçalı yükleme servisi
+ *
+ * Büyük toplantı kayıtlarının kopma durumunda baştan başlamadan yüklenmesini sağlar.
+ *
+ * İş Akışı:
+ * 1. createSession(): dosya tipi/boyutu doğrulanır, platform klasöründe staging dosyası açılır
+ * 2. writeChunk(): parçalar herhangi bir sırada ve paralel olarak kendi ofsetlerine yazılır
+ * 3. getStatus(): istemci kopma sonrasında eksik aralıkları sorgular
+ * 4. complete(): checksum doğrulanır ve MediaIngestService.ingestStagedFile() ile
+ *    MediaAsset / MeetingMedia / outbox akışına devredilir
+ *
+ * Oturumlar bellekte tutulur; media.upload.session-ttl-minutes boyunca hareketsiz
+ * kalan oturumlar staging dosyalarıyla birlikte silinir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class ResumableUploadService {
+
+    private final MediaIngestService mediaIngestService;
+    private final long sessionTtlMillis;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ResumableUploadService(MediaIngestService mediaIngestService,
+                                  @Value("${media.upload.session-ttl-minutes:60}") long sessionTtlMinutes) {
+        this.mediaIngestService = mediaIngestService;
+        this.sessionTtlMillis = TimeUnit.MINUTES.toMillis(sessionTtlMinutes);
+    }
+
+    /**
+     * Yeni bir yükleme oturumu oluşturur.
+     *
+     * @param request Dosya bilgileri ve toplantı metadata'sı
+     * @return Oturum durumu (uploadId dahil)
+     */
+    public UploadSessionStatus createSession(UploadSessionRequest request) {
+        if (request.getMetadata() == null || request.getMetadata().getPlatform() == null
+                || request.getMetadata().getPlatform().isBlank()) {
+            throw new InvalidFileException("Platform is required");
+        }
+        mediaIngestService.validateUpload(request.getContentType(), request.getFileSize());
+
+        try {
+            Path stagingFile = mediaIngestService.createStagingFile(request.getMetadata().getPlatform());
+            String uploadId = UUID.randomUUID().toString();
+            UploadSession session = new UploadSession(uploadId, stagingFile, request.getFileSize(),
+                    request.getContentType(), request.getFileName(), request.getChecksum(), request.getMetadata());
+            sessions.put(uploadId, session);
+
+            log.info("Upload session created. UploadId: {}, File: {}, Size: {}", uploadId, request.getFileName(), request.getFileSize());
+            return toStatus(session);
+        } catch (IOException e) {
+            log.error("Could not create upload session", e);
+            throw new StorageException("Could not create upload session", e);
+        }
+    }
+
+    /**
+     * Bir parçayı oturumun staging dosyasına yazar.
+     *
+     * @param uploadId Oturum ID'si
+     * @param offset   Parçanın başlangıç ofseti
+     * @param body     Parça içeriği (istek gövdesi, belleğe alınmadan akıtılır)
+     * @return Güncel oturum durumu
+     */
+    public UploadSessionStatus writeChunk(String uploadId, long offset, InputStream body) {
+        UploadSession session = getSession(uploadId);
+        try {
+            long written = session.writeChunk(offset, body);
+            log.debug("Chunk written. UploadId: {}, Offset: {}, Bytes: {}", uploadId, offset, written);
+            return toStatus(session);
+        } catch (IOException e) {
+            log.error("Chunk write failed. UploadId: {}, Offset: {}", uploadId, offset, e);
+            throw new StorageException("Failed to write chunk", e);
+        }
+    }
+
+    /**
+     * Oturumun durumunu (alınan baytlar, eksik aralıklar) döndürür.
+     *
+     * @param uploadId Oturum ID'si
+     * @return Oturum durumu
+     */
+    public UploadSessionStatus getStatus(String uploadId) {
+        return toStatus(getSession(uploadId));
+    }
+
+    /**
+     * Yüklemeyi tamamlar ve standart medya kayıt akışına devreder.
+     * Tekrarlanan veya eşzamanlı complete() çağrılarından yalnızca ilki oturumu sahiplenir;
+     * diğerleri UploadSessionClosedException alır ve staging dosyasına dokunmaz.
+     *
+     * @param uploadId Oturum ID'si
+     * @return Yükleme sonucu
+     */
+    public MediaUploadResponse complete(String uploadId) {
+        UploadSession session = getSession(uploadId);
+        String checksum;
+        try {
+            checksum = session.finish();
+        } catch (IOException e) {
+            throw new StorageException("Failed to finish upload", e);
+        } catch (UploadSessionClosedException e) {
+            // Oturum başka bir çağrıya ait; ingest sürerken dosyası silinmemeli
+            throw e;
+        } catch (CollectorServiceException e) {
+            if (session.isClosed()) {
+                discard(session);
+            }
+            throw e;
+        }
+
+        try {
+            MediaUploadResponse response = mediaIngestService.ingestStagedFile(session.getStagingFile(), checksum,
+                    session.getFileSize(), session.getContentType(), session.getOriginalFileName(), session.getMetadata());
+            log.info("Upload session completed. UploadId: {}, FileKey: {}", uploadId, response.getFileKey());
+            return response;
+        } finally {
+            discard(session);
+        }
+    }
+
+    /**
+     * Oturumu iptal eder ve staging dosyasını siler.
+     *
+     * @param uploadId Oturum ID'si
+     */
+    public void cancel(String uploadId) {
+        discard(getSession(uploadId));
+        log.info("Upload session cancelled. UploadId: {}", uploadId);
+    }
+
+    /**
+     * Süresi dolan (uzun süre parça gelmeyen) oturumları temizler.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+        for (UploadSession session : sessions.values()) {
+            if (session.discardIfIdle(cutoff)) {
+                sessions.remove(session.getUploadId());
+                log.info("Upload session expired. UploadId: {}, Received: {}/{}",
+                        session.getUploadId(), session.getReceivedBytes(), session.getFileSize());
+            }
+        }
+    }
+
+    private UploadSession getSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new UploadSessionNotFoundException("Upload session not found: " + uploadId);
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.getUploadId());
+        session.discard();
+    }
+
+    private UploadSessionStatus toStatus(UploadSession session) {
+        return UploadSessionStatus.builder()
+                .uploadId(session.getUploadId())
+                .fileSize(session.getFileSize())
+                .receivedBytes(session.getReceivedBytes())
+                .hashedBytes(session.getHashedBytes())
+                .missingRanges(session.getMissingRanges().stream()
+                        .map(range -> UploadSessionStatus.ByteRange.builder().start(range[0]).end(range[1]).build())
+                        .collect(Collectors.toList()))
+                .complete(session.isComplete())
+                .expiresAt(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(session.getLastActivityMillis() + sessionTtlMillis), ZoneId.systemDefault()))
+                .build();
+    }
+}
@@ -1,37 +1,60 @@
 package org.example.collector_service.service;
 
+import jakarta.annotation.PreDestroy;
 import org.example.collector_service.domain.model.VoiceSession;
-import org.example.collector_service.exception.MediaAssetNotFoundException;
 import org.example.collector_service.outbox.OutboxEventPublisher;
 import org.example.collector_service.repository.VoiceSessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * VoiceSessionService - Sesli oturum yönetim servisi
- * 
+ *
  * Discord ve Zoom ses kanallarındaki aktif oturumları takip eder.
  * Kullanıcı giriş/çıkış işlemlerini yönetir ve session yaşam döngüsünü kontrol eder.
- * 
+ *
  * Özellikler:
  * - Kanal başına aktif session takibi (in-memory ConcurrentHashMap)
- * - Katılımcı sayısı yönetimi (increment/decrement)
- * - Oturum başlatma/sonlandırma event'leri (Outbox pattern ile)
- * 
+ * - Katılımcı sayısı bellekte atomik sayaçla tutulur; giriş/çıkış veritabanına gitmez
+ * - Katılımcı sayıları periyodik olarak toplu yazılır (write-behind)
+ * - Oturum başlatma/sonlandırma event'leri (Outbox pattern ile), her biri tam bir kez
+ *
  * İş Akışı:
- * 1. İlk kullanıcı kanala katıldığında yeni VoiceSession oluşturulur
- * 2. Sonraki kullanıcılar için sadece participantCount artırılır
- * 3. Kullanıcılar ayrıldıkça participantCount azaltılır
- * 4. Son kullanıcı ayrıldığında session sonlandırılır ve event yayınlanır
- * 
- * Thread-Safety: ConcurrentHashMap kullanarak multi-threaded ortamda güvenli çalışır.
- * 
+ * 1. İlk kullanıcı kanala katıldığında map'e yer tutucu konur, VoiceSession map dışında kaydedilir
+ * 2. Sonraki kullanıcılar için sadece bellekteki sayaç artırılır
+ * 3. Kullanıcılar ayrıldıkça sayaç azaltılır
+ * 4. Son kullanıcı ayrıldığında session kapatılır, tek UPDATE ile sonlandırılır ve event yayınlanır
+ * 5. Değişen sayaçlar flush-interval-ms aralıkla tek JDBC batch ile veritabanına yazılır
+ * 6. Sonlandırma transaction'ı başarısız olursa oturum bekleyen sonlandırmalar kuyruğuna
+ *    alınır ve flush turunda aynı bitiş zamanıyla tekrar denenir
+ *
+ * Thread-Safety:
+ * - Yer tutucu putIfAbsent ile konur; aynı kanal için iki session açılamaz. DB insert'i ve
+ *   outbox yazımı ConcurrentHashMap kilidi dışında, kısa bir TransactionTemplate içinde yapılır;
+ *   aynı kanala o sırada katılanlar sadece kaydın bitmesini bekler, diğer kanallar etkilenmez
+ * - Giriş/çıkış metotları transaction açmaz; yalnızca oturum başlatma ve sonlandırma transaction'dadır
+ * - Sayaç CAS ile güncellenir; son kullanıcının çıkışı sayacı kapalı (-1) duruma çeker,
+ *   böylece Ended event'i sadece bir kez yayınlanır ve kapanan session'a yeni giriş yapılamaz
+ * - Ended event'i, satırı kapatan UPDATE ile aynı transaction'da yazılır; satır zaten kapalıysa
+ *   (önceki deneme commit olmuştu) event tekrar yazılmaz
+ *
  * @author Ahmet
  * @version 1.0
  */
@@ -39,18 +62,29 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 @Slf4j
 public class VoiceSessionService {
-    
+
+    private static final String FLUSH_SQL =
+            "UPDATE voice_sessions SET participant_count = ? WHERE id = ? AND end_time IS NULL";
+
     private final VoiceSessionRepository voiceSessionRepository;
     private final OutboxEventPublisher outboxEventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, ActiveSession> activeSessions = new ConcurrentHashMap<>();
 
-    private final Map<String, Long> activeSessions = new ConcurrentHashMap<>();
+    /** Sonlandırma transaction'ı başarısız olmuş, flush turunda tekrar denenecek oturumlar */
+    private final Queue<PendingEnd> pendingEnds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong flushedUpdates = new AtomicLong();
+    private volatile int lastFlushSize;
 
     /**
      * Kullanıcının ses kanalına katılma işlemini yönetir.
-     * 
+     *
      * İlk kullanıcı ise yeni VoiceSession başlatır ve VoiceSessionStarted event'i oluşturur.
-     * Kanal zaten aktifse sadece katılımcı sayısını 1 artırır.
-     * 
+     * Kanal zaten aktifse sadece bellekteki katılımcı sayacını 1 artırır (veritabanı erişimi yok).
+     *
      * Session key formatı: "{platform}_{channelId}" şeklindedir (örn: "DISCORD_123456789")
      * Bu key ile aynı kanaldaki birden fazla kullanıcı aynı session'a bağlanır.
      *
@@ -60,132 +94,208 @@ public class VoiceSessionService {
      * @param userName    Katılan kullanıcının görünen adı
      * @throws org.springframework.dao.DataAccessException Veritabanı hatası durumunda
      */
-    @Transactional
     public void handleUserJoinedVoiceChannel(String platform, String channelId, String channelName, String userName) {
         String sessionKey = buildSessionKey(platform, channelId);
 
-        if (!activeSessions.containsKey(sessionKey)) {
-            startNewSession(platform, channelId, channelName, sessionKey);
-            log.info("New voice session started: platform={}, channel={}, user={}", 
-                    platform, channelName, userName);
-        } else {
-            incrementParticipantCount(sessionKey);
-            log.debug("User joined voice session: channel={}, user={}", channelName, userName);
+        while (true) {
+            ActiveSession session = activeSessions.get(sessionKey);
+            if (session == null) {
+                ActiveSession placeholder = new ActiveSession(platform, channelId, channelName);
+                session = activeSessions.putIfAbsent(sessionKey, placeholder);
+                if (session == null) {
+                    session = placeholder;
+                    startNewSession(sessionKey, placeholder);
+                }
+            }
+            if (!session.awaitStarted()) {
+                // Oturumu başlatan giriş başarısız oldu; yer tutucu kaldırılınca yeniden denenir
+                activeSessions.remove(sessionKey, session);
+                continue;
+            }
+            int count = session.tryJoin();
+            if (count > 0) {
+                if (count == 1) {
+                    log.info("New voice session started: platform={}, channel={}, user={}",
+                            platform, channelName, userName);
+                } else {
+                    log.debug("User joined voice session: channel={}, user={}, participants={}",
+                            channelName, userName, count);
+                }
+                return;
+            }
+            // Session son kullanıcının çıkışıyla kapandı; map'ten kaldırılınca yenisi açılır
+            activeSessions.remove(sessionKey, session);
         }
     }
 
     /**
      * Kullanıcının ses kanalından ayrılma işlemini yönetir.
-     * 
+     *
      * Son kullanıcı ise session'ı sonlandırır ve VoiceSessionEnded event'i oluşturur.
-     * Kanalda hala kullanıcı varsa sadece katılımcı sayısını 1 azaltır.
-     * 
-     * Katılımcı sayısı 0 veya daha az olduğunda:
-     * - Session endTime'ı set edilir
-     * - Veritabanı güncellenir
-     * - Memory'den kaldırılır (activeSessions Map'ten)
-     * - VoiceSessionEnded event'i Kafka'ya gönderilir
+     * Kanalda hala kullanıcı varsa sadece bellekteki katılımcı sayacını 1 azaltır.
+     *
+     * Katılımcı sayısı 0'a düştüğünde:
+     * - Session kapatılır ve memory'den kaldırılır (activeSessions Map'ten)
+     * - endTime ve participantCount tek UPDATE ile yazılır
+     * - VoiceSessionEnded event'i outbox'a yazılır
+     * - Transaction başarısız olursa oturum kaybolmaz; flush turunda tekrar denenir
      *
      * @param platform  Platform adı (DISCORD veya ZOOM)
      * @param channelId Kanal ID'si
-     * @throws MediaAssetNotFoundException Belirtilen session ID veritabanında bulunamazsa
-     * @throws org.springframework.dao.DataAccessException Veritabanı hatası durumunda
      */
-    @Transactional
     public void handleUserLeftVoiceChannel(String platform, String channelId) {
         String sessionKey = buildSessionKey(platform, channelId);
 
-        if (activeSessions.containsKey(sessionKey)) {
-            Long sessionId = activeSessions.get(sessionKey);
-            
-            VoiceSession session = voiceSessionRepository.findById(sessionId)
-                    .orElseThrow(() -> {
-                        log.warn("Active session not found: key={}", sessionKey);
-                        activeSessions.remove(sessionKey);
-                        return new MediaAssetNotFoundException("Voice session not found with id: " + sessionId);
-                    });
-
-            int newCount = session.getParticipantCount() - 1;
-
-            if (newCount <= 0) {
-                endSession(session, sessionKey);
-                log.info("Voice session ended: platform={}, channel={}",
-                        session.getPlatform(), session.getChannelName());
-            } else {
-                session.setParticipantCount(newCount);
-                voiceSessionRepository.save(session);
-                log.debug("User left voice session: channel={}, remaining={}",
-                        session.getChannelName(), newCount);
+        ActiveSession session = activeSessions.get(sessionKey);
+        if (session == null) {
+            return;
+        }
+
+        int remaining = session.leave();
+        if (remaining == 0) {
+            activeSessions.remove(sessionKey, session);
+            PendingEnd end = new PendingEnd(session, LocalDateTime.now());
+            if (!endSession(end)) {
+                pendingEnds.add(end);
             }
+        } else if (remaining > 0) {
+            log.debug("User left voice session: channel={}, remaining={}", session.channelName, remaining);
         }
     }
 
     /**
-     * Yeni bir sesli oturum başlatır ve VoiceSessionStarted event'i yayınlar.
-     * 
-     * VoiceSession entity oluşturulur, veritabanına kaydedilir ve 
-     * activeSessions Map'ine eklenir. Bu sayede sonraki kullanıcı katılımlarında
-     * aynı session'a bağlanabilir.
-     * 
-     * @param platform Platform adı (DISCORD veya ZOOM)
-     * @param channelId Kanal ID'si
-     * @param channelName Kanal adı
-     * @param sessionKey Benzersiz session anahtarı (platform_channelId formatında)
+     * Başarısız sonlandırmaları tekrar dener, ardından değişen katılımcı sayılarını tek JDBC
+     * batch ile veritabanına yazar (write-behind). Sonlanmış oturumların satırlarına dokunulmaz.
      */
-    private void startNewSession(String platform, String channelId, String channelName, String sessionKey) {
-        VoiceSession session = VoiceSession.builder()
-                .platform(platform)
-                .channelId(channelId)
-                .channelName(channelName)
-                .startTime(LocalDateTime.now())
-                .participantCount(1)
-                .build();
+    @Scheduled(initialDelayString = "${voice.session.flush-interval-ms:5000}",
+            fixedDelayString = "${voice.session.flush-interval-ms:5000}")
+    public void flushParticipantCounts() {
+        retryPendingEnds();
+
+        List<ActiveSession> flushed = new ArrayList<>();
+        List<Object[]> args = new ArrayList<>();
+        for (ActiveSession session : activeSessions.values()) {
+            if (session.dirty.getAndSet(false)) {
+                int count = session.participants.get();
+                if (count > 0) {
+                    flushed.add(session);
+                    args.add(new Object[]{count, session.sessionId});
+                }
+            }
+        }
+        if (args.isEmpty()) {
+            return;
+        }
 
-        VoiceSession saved = voiceSessionRepository.save(session);
-        activeSessions.put(sessionKey, saved.getId());
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, args);
+            flushedUpdates.addAndGet(args.size());
+            lastFlushSize = args.size();
+            log.debug("Voice session participant counts flushed: {} sessions", args.size());
+        } catch (Exception e) {
+            // Bir sonraki turda tekrar denenir
+            flushed.forEach(session -> session.dirty.set(true));
+            log.error("Voice session participant count flush failed: {} sessions", args.size(), e);
+        }
+    }
 
-        outboxEventPublisher.publishStarted(
-                saved,
-                saved.getId().toString(),
-                "VoiceSession"
-        );
+    /**
+     * Bekleyen sonlandırmaları sırayla tekrar dener. Biri yine başarısız olursa veritabanı
+     * hâlâ erişilemez sayılır; kalanlar bir sonraki tura bırakılır.
+     */
+    private void retryPendingEnds() {
+        for (int i = pendingEnds.size(); i > 0; i--) {
+            PendingEnd end = pendingEnds.peek();
+            if (end == null || !endSession(end)) {
+                return;
+            }
+            pendingEnds.poll();
+        }
+    }
+
+    /**
+     * Kapanışta bekleyen sonlandırmaları ve katılımcı sayılarını yazar.
+     */
+    @PreDestroy
+    public void stop() {
+        flushParticipantCounts();
     }
 
     /**
-     * Belirtilen session'ın katılımcı sayısını 1 artırır.
-     * 
-     * Mevcut session veritabanından okunur, participantCount alanı artırılır
-     * ve tekrar kaydedilir.
-     * 
-     * @param sessionKey Güncellenecek session'ın benzersiz anahtarı
-     * @throws MediaAssetNotFoundException Session ID veritabanında bulunamazsa
+     * Yer tutucu oturumu veritabanına kaydeder ve VoiceSessionStarted event'i yayınlar.
+     *
+     * Yer tutucuyu map'e koyan thread tarafından, map kilidi dışında çağrılır; aynı key için
+     * en fazla bir kez çalışır. Insert ve outbox yazımı tek kısa transaction'dadır.
+     * Transaction başarısız olursa yer tutucu map'ten kaldırılır ve bekleyen girişler
+     * uyandırılır, böylece sonraki giriş yeni bir session açar.
+     *
+     * @param sessionKey  Benzersiz session anahtarı (platform_channelId formatında)
+     * @param placeholder Map'e konmuş, henüz kaydedilmemiş oturum (katılımcı sayacı 0)
      */
-    private void incrementParticipantCount(String sessionKey) {
-        Long sessionId = activeSessions.get(sessionKey);
-        
-        VoiceSession session = voiceSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new MediaAssetNotFoundException("Voice session not found with id: " + sessionId));
+    private void startNewSession(String sessionKey, ActiveSession placeholder) {
+        VoiceSession session = VoiceSession.builder()
+                .platform(placeholder.platform)
+                .channelId(placeholder.channelId)
+                .channelName(placeholder.channelName)
+                .startTime(LocalDateTime.now())
+                .participantCount(1)
+                .build();
 
-        session.setParticipantCount(session.getParticipantCount() + 1);
-        voiceSessionRepository.save(session);
+        try {
+            VoiceSession saved = transactionTemplate.execute(status -> {
+                VoiceSession inserted = voiceSessionRepository.save(session);
+                outboxEventPublisher.publishStarted(
+                        inserted,
+                        inserted.getId().toString(),
+                        "VoiceSession"
+                );
+                return inserted;
+            });
+            placeholder.markStarted(saved.getId(), saved.getStartTime());
+        } catch (RuntimeException e) {
+            activeSessions.remove(sessionKey, placeholder);
+            placeholder.markFailed(e);
+            throw e;
+        }
     }
 
     /**
      * Sesli oturumu sonlandırır ve VoiceSessionEnded event'i yayınlar.
-     * 
-     * Session'ın endTime'ı set edilir, participantCount 0'a çekilir ve
-     * activeSessions Map'inden kaldırılır. Son olarak VoiceSessionEnded 
-     * event'i outbox'a yazılarak Kafka'ya gönderilir.
-     * 
-     * @param session Sonlandırılacak VoiceSession entity'si
-     * @param sessionKey Memory'den kaldırılacak session'ın key'i
+     *
+     * endTime ve participantCount entity okunmadan tek UPDATE ile yazılır;
+     * event payload'ı bellekteki oturum bilgisinden oluşturulur.
+     *
+     * @param end Sonlandırılacak oturum ve bitiş zamanı
+     * @return Transaction commit olduysa true; false ise çağıran tekrar denemek üzere saklar
      */
-    private void endSession(VoiceSession session, String sessionKey) {
-        session.setParticipantCount(0);
-        session.setEndTime(LocalDateTime.now());
-        
-        VoiceSession ended = voiceSessionRepository.save(session);
-        activeSessions.remove(sessionKey);
+    private boolean endSession(PendingEnd end) {
+        ActiveSession active = end.session();
+        try {
+            transactionTemplate.executeWithoutResult(status -> publishEnded(active, end.endTime()));
+            log.info("Voice session ended: platform={}, channel={}", active.platform, active.channelName);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Voice session end failed, will retry: id={}, channel={}", active.sessionId, active.channelName, e);
+            return false;
+        }
+    }
+
+    private void publishEnded(ActiveSession active, LocalDateTime endTime) {
+        if (voiceSessionRepository.markEnded(active.sessionId, endTime) == 0) {
+            // Satırı kapatan transaction Ended event'ini de yazmıştır
+            log.warn("Voice session already ended or missing: id={}", active.sessionId);
+            return;
+        }
+
+        VoiceSession ended = VoiceSession.builder()
+                .id(active.sessionId)
+                .platform(active.platform)
+                .channelId(active.channelId)
+                .channelName(active.channelName)
+                .startTime(active.startTime)
+                .endTime(endTime)
+                .participantCount(0)
+                .build();
 
         outboxEventPublisher.publishEnded(
                 ended,
@@ -196,13 +306,13 @@ public class VoiceSessionService {
 
     /**
      * Platform ve kanal ID'sinden benzersiz (unique) session key oluşturur.
-     * 
+     *
      * Format: "{platform}_{channelId}"
      * Örnek: "DISCORD_123456789" veya "ZOOM_987654321"
-     * 
+     *
      * Bu key, aynı kanaldaki tüm kullanıcıların aynı VoiceSession'a
      * bağlanmasını sağlar.
-     * 
+     *
      * @param platform Platform adı (DISCORD veya ZOOM)
      * @param channelId Kanal ID'si
      * @return Benzersiz session anahtarı
@@ -210,4 +320,117 @@ public class VoiceSessionService {
     private String buildSessionKey(String platform, String channelId) {
         return platform + "_" + channelId;
     }
+
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+
+    public int getParticipantCount(String platform, String channelId) {
+        ActiveSession session = activeSessions.get(buildSessionKey(platform, channelId));
+        return session == null ? 0 : Math.max(0, session.participants.get());
+    }
+
+    public long getFlushedUpdateCount() {
+        return flushedUpdates.get();
+    }
+
+    public int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    /** Sonlandırma transaction'ı başarısız olmuş, tekrar denenecek oturum sayısı */
+    public int getPendingEndCount() {
+        return pendingEnds.size();
+    }
+
+    /**
+     * Kapanmış, sonlandırma transaction'ı bekleyen oturum.
+     */
+    private record PendingEnd(ActiveSession session, LocalDateTime endTime) {
+    }
+
+    /**
+     * Aktif oturumun bellekteki durumu.
+     * Sayaç -1 olduğunda oturum kapanmıştır ve yeni giriş kabul etmez.
+     * Oturum kaydedilene kadar yer tutucudur; sessionId ve startTime markStarted ile dolar.
+     */
+    static final class ActiveSession {
+        private static final int CLOSED = -1;
+
+        volatile Long sessionId;
+        volatile LocalDateTime startTime;
+        final String platform;
+        final String channelId;
+        final String channelName;
+        final AtomicInteger participants = new AtomicInteger();
+        final AtomicBoolean dirty = new AtomicBoolean();
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+
+        ActiveSession(String platform, String channelId, String channelName) {
+            this.platform = platform;
+            this.channelId = channelId;
+            this.channelName = channelName;
+        }
+
+        void markStarted(Long sessionId, LocalDateTime startTime) {
+            this.sessionId = sessionId;
+            this.startTime = startTime;
+            started.complete(null);
+        }
+
+        void markFailed(Throwable cause) {
+            started.completeExceptionally(cause);
+        }
+
+        /**
+         * Oturum kaydı bitene kadar bekler.
+         *
+         * @return Oturum kaydedildiyse true, kayıt başarısız olduysa false
+         */
+        boolean awaitStarted() {
+            try {
+                started.join();
+                return true;
+            } catch (CompletionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * @return Girişten sonraki katılımcı sayısı; oturum kapandıysa -1
+         */
+        int tryJoin() {
+            while (true) {
+                int current = participants.get();
+                if (current == CLOSED) {
+                    return CLOSED;
+                }
+                if (participants.compareAndSet(current, current + 1)) {
+                    dirty.set(true);
+                    return current + 1;
+                }
+            }
+        }
+
+        /**
+         * @return Çıkıştan sonraki katılımcı sayısı; 0 ise oturumu bu çağrı kapattı,
+         *         -1 ise oturum zaten kapalı veya boştu
+         */
+        int leave() {
+            while (true) {
+                int current = participants.get();
+                if (current <= 0) {
+                    return CLOSED;
+                }
+                int next = current == 1 ? CLOSED : current - 1;
+                if (participants.compareAndSet(current, next)) {
+                    if (next == CLOSED) {
+                        return 0;
+                    }
+                    dirty.set(true);
+                    return next;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,87 @@
+import org.example.collector_service.bot.audio.AudioEncoderPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AudioEncoderPool Unit Tests")
+public class AudioEncoderPoolTest {
+
+    private AudioEncoderPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Jobs should complete asynchronously and be counted")
+    void submit_ShouldCompleteAllJobs() throws Exception {
+        pool = new AudioEncoderPool(2, 16);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int value = i;
+            futures.add(pool.submit(() -> value * 2));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertThat(futures).extracting(CompletableFuture::join).containsExactly(0, 2, 4, 6, 8, 10, 12, 14);
+        assertThat(pool.getCompletedJobs()).isEqualTo(8);
+        assertThat(pool.getFailedJobs()).isZero();
+        assertThat(pool.getMaxEncodeMillis()).isGreaterThanOrEqualTo(pool.getAverageEncodeMillis());
+    }
+
+    @Test
+    @DisplayName("Failing job should complete the future exceptionally")
+    void submit_WhenJobFails_ShouldCompleteExceptionally() {
+        pool = new AudioEncoderPool(1, 4);
+
+        CompletableFuture<Object> future = pool.submit(() -> {
+            throw new IOException("encode failed");
+        });
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(pool.getFailedJobs()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Full queue should reject jobs without blocking the caller")
+    void submit_WhenQueueFull_ShouldReject() throws Exception {
+        pool = new AudioEncoderPool(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = pool.submit(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = pool.submit(() -> "queued");
+        CompletableFuture<String> rejected = pool.submit(() -> "rejected");
+
+        assertThat(pool.getQueueDepth()).isEqualTo(1);
+        assertThat(pool.getActiveJobs()).isEqualTo(1);
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(pool.getRejectedJobs()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+}
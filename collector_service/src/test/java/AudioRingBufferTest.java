@@ -0,0 +1,109 @@
+import org.example.collector_service.bot.audio.AudioRingBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AudioRingBuffer Unit Tests")
+public class AudioRingBufferTest {
+
+    @Test
+    @DisplayName("Capacity that is not a power of two should be rejected")
+    void constructor_WithNonPowerOfTwoCapacity_ShouldThrow() {
+        assertThatThrownBy(() -> new AudioRingBuffer(100, 16))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("power of two");
+    }
+
+    @Test
+    @DisplayName("Packets should be drained in FIFO order")
+    void drainTo_ShouldPreserveOrder() throws Exception {
+        AudioRingBuffer buffer = new AudioRingBuffer(4, 8);
+        buffer.offer(new byte[]{1, 2});
+        buffer.offer(new byte[]{3});
+        buffer.offer(new byte[]{4, 5, 6});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int drained = buffer.drainTo((data, length) -> out.write(data, 0, length));
+
+        assertThat(drained).isEqualTo(3);
+        assertThat(out.toByteArray()).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Full buffer should reject packets without blocking")
+    void offer_WhenFull_ShouldReturnFalse() {
+        AudioRingBuffer buffer = new AudioRingBuffer(2, 4);
+
+        assertThat(buffer.offer(new byte[]{1})).isTrue();
+        assertThat(buffer.offer(new byte[]{2})).isTrue();
+        assertThat(buffer.offer(new byte[]{3})).isFalse();
+        assertThat(buffer.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Oversized packet should be rejected")
+    void offer_WithOversizedPacket_ShouldReturnFalse() {
+        AudioRingBuffer buffer = new AudioRingBuffer(2, 4);
+
+        assertThat(buffer.offer(new byte[5])).isFalse();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Slots should be reused after wrap-around")
+    void offer_AfterDrain_ShouldReuseSlots() throws Exception {
+        AudioRingBuffer buffer = new AudioRingBuffer(2, 4);
+        List<Byte> received = new ArrayList<>();
+
+        for (byte i = 0; i < 10; i++) {
+            assertThat(buffer.offer(new byte[]{i})).isTrue();
+            buffer.drainTo((data, length) -> received.add(data[0]));
+        }
+
+        assertThat(received).containsExactly((byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4,
+                (byte) 5, (byte) 6, (byte) 7, (byte) 8, (byte) 9);
+    }
+
+    @Test
+    @DisplayName("Concurrent producer and consumer should not lose or reorder packets")
+    void concurrentProducerConsumer_ShouldKeepOrder() throws Exception {
+        AudioRingBuffer buffer = new AudioRingBuffer(64, 4);
+        int packetCount = 10_000;
+        int[] expected = {0};
+
+        Thread producer = new Thread(() -> {
+            byte[] packet = new byte[4];
+            for (int i = 0; i < packetCount; i++) {
+                packet[0] = (byte) (i >>> 24);
+                packet[1] = (byte) (i >>> 16);
+                packet[2] = (byte) (i >>> 8);
+                packet[3] = (byte) i;
+                while (!buffer.offer(packet)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        while (expected[0] < packetCount) {
+            int drained = buffer.drainTo((data, length) -> {
+                int value = ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16)
+                        | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+                assertThat(value).isEqualTo(expected[0]);
+                expected[0]++;
+            });
+            if (drained == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+
+        assertThat(buffer.size()).isZero();
+    }
+}
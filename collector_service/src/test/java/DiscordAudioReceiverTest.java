@@ -0,0 +1,152 @@
+import net.dv8tion.jda.api.audio.UserAudio;
+import net.dv8tion.jda.api.entities.User;
+import org.example.collector_service.bot.DiscordAudioReceiver;
+import org.example.collector_service.bot.audio.AudioEncoderPool;
+import org.example.collector_service.bot.audio.CaptureFormat;
+import org.example.collector_service.domain.model.AudioMessage;
+import org.example.collector_service.service.AudioMessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DiscordAudioReceiver Unit Tests")
+public class DiscordAudioReceiverTest {
+
+    @TempDir
+    Path storageDirectory;
+
+    @Mock
+    private AudioMessageService messageService;
+
+    @Mock
+    private AudioEncoderPool encoderPool;
+
+    private DiscordAudioReceiver receiver;
+
+    @BeforeEach
+    void setUp() {
+        receiver = new DiscordAudioReceiver(messageService, CaptureFormat.PCM, encoderPool, 0, 0,
+                storageDirectory.toFile(), "receiver-test");
+        receiver.setChannleId("channel-1");
+    }
+
+    @Test
+    @DisplayName("Failed segment should be counted and its PCM file removed")
+    void cleanUp_WhenEncodeFails_ShouldDeleteCaptureFile() {
+        when(encoderPool.encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("encode failed")));
+        receiver.handleUserAudio(userAudio("42", new byte[3840]));
+
+        CompletableFuture<Void> recordings = receiver.cleanUp();
+
+        assertThatThrownBy(() -> recordings.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IOException.class);
+        assertThat(receiver.getFailedSegmentCount()).isEqualTo(1);
+        assertThat(storageDirectory.toFile().list()).isEmpty();
+        verify(encoderPool, times(1)).encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong());
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    @DisplayName("Segment whose audio message cannot be saved should fail and leave no orphan file")
+    void cleanUp_WhenSaveFails_ShouldFailSegmentAndDeleteFiles() {
+        when(encoderPool.encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong()))
+                .thenAnswer(invocation -> {
+                    File target = invocation.getArgument(1, File.class);
+                    assertThat(target.createNewFile()).isTrue();
+                    return CompletableFuture.completedFuture(target);
+                });
+        doThrow(new IllegalStateException("database down"))
+                .when(messageService).processAndSaveAudioMessage(any(AudioMessage.class));
+        receiver.handleUserAudio(userAudio("42", new byte[3840]));
+
+        CompletableFuture<Void> recordings = receiver.cleanUp();
+
+        assertThatThrownBy(() -> recordings.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(receiver.getPublishedSegmentCount()).isZero();
+        assertThat(receiver.getFailedSegmentCount()).isEqualTo(1);
+        assertThat(storageDirectory.toFile().list()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Segment rejected by a full encoder queue should be retried and published")
+    void cleanUp_WhenEncoderQueueIsFull_ShouldRetrySegment() throws Exception {
+        when(encoderPool.encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(1, File.class)));
+        receiver.handleUserAudio(userAudio("42", new byte[3840]));
+
+        receiver.cleanUp().get(5, TimeUnit.SECONDS);
+
+        assertThat(receiver.getPublishedSegmentCount()).isEqualTo(1);
+        assertThat(receiver.getFailedSegmentCount()).isZero();
+        verify(encoderPool, times(2)).encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong());
+        verify(messageService).processAndSaveAudioMessage(any(AudioMessage.class));
+    }
+
+    @Test
+    @DisplayName("A user whose final segment cannot be sealed should not drop the other users' segments")
+    void cleanUp_WhenOneUserFailsToSeal_ShouldPublishOthers() {
+        when(encoderPool.encodePcmToMp3(any(File.class), any(File.class), anyInt(), anyInt(), anyLong()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(1, File.class)));
+        receiver.handleUserAudio(userAudio("42", new byte[3840]));
+        receiver.handleUserAudio(userAudio("43", new byte[3840]));
+
+        // Yakalama dosyası silinince son segment taşınamaz
+        assertThat(storageDirectory.resolve("temp_43.pcm").toFile().delete()).isTrue();
+
+        CompletableFuture<Void> recordings = receiver.cleanUp();
+
+        assertThatThrownBy(() -> recordings.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IOException.class);
+        assertThat(receiver.getPublishedSegmentCount()).isEqualTo(1);
+        assertThat(receiver.getFailedSegmentCount()).isEqualTo(1);
+        assertThat(receiver.getActiveUserCount()).isZero();
+        verify(messageService, times(1)).processAndSaveAudioMessage(any(AudioMessage.class));
+    }
+
+    @Test
+    @DisplayName("Packets arriving after cleanUp should be counted as late")
+    void handleUserAudio_AfterCleanUp_ShouldCountLatePacket() {
+        receiver.cleanUp();
+
+        UserAudio latePacket = mock(UserAudio.class);
+
+        receiver.handleUserAudio(latePacket);
+
+        assertThat(receiver.getLatePacketCount()).isEqualTo(1);
+        assertThat(receiver.getActiveUserCount()).isZero();
+        verifyNoInteractions(latePacket);
+    }
+
+    private UserAudio userAudio(String userId, byte[] pcm) {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(userId);
+        when(user.getName()).thenReturn("user-" + userId);
+        UserAudio userAudio = mock(UserAudio.class);
+        when(userAudio.getUser()).thenReturn(user);
+        when(userAudio.getAudioData(1.0)).thenReturn(pcm);
+        return userAudio;
+    }
+}
@@ -0,0 +1,216 @@
+import org.example.collector_service.bot.DiscordAudioReceiver;
+import org.example.collector_service.bot.audio.AudioEncoderPool;
+import org.example.collector_service.bot.audio.CaptureFormat;
+import org.example.collector_service.bot.discord.DiscordRecordingSessionRegistry;
+import org.example.collector_service.service.AudioMessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DiscordRecordingSessionRegistry Unit Tests")
+public class DiscordRecordingSessionRegistryTest {
+
+    @TempDir
+    Path storageRoot;
+
+    @Mock
+    private AudioMessageService audioMessageService;
+
+    @Mock
+    private AudioEncoderPool audioEncoderPool;
+
+    private DiscordRecordingSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new DiscordRecordingSessionRegistry(audioMessageService, audioEncoderPool,
+                CaptureFormat.PCM, 60, 8, storageRoot.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.stopAll();
+    }
+
+    @Nested
+    @DisplayName("startSession() / getSession() tests")
+    class StartTests {
+
+        @Test
+        @DisplayName("Should create a receiver with its own guild/channel directory")
+        void startSession_ShouldCreateReceiverAndDirectory() {
+            DiscordAudioReceiver receiver = registry.startSession("guild-1", "channel-1", String::valueOf);
+
+            assertThat(receiver.getChannleId()).isEqualTo("channel-1");
+            assertThat(registry.getSession("guild-1")).isSameAs(receiver);
+            assertThat(registry.getActiveSessionCount()).isEqualTo(1);
+            assertThat(storageRoot.resolve("guild-1").resolve("channel-1")).isDirectory();
+        }
+
+        @Test
+        @DisplayName("Starting an existing guild should return the running session")
+        void startSession_WhenAlreadyStarted_ShouldReturnSameReceiver() {
+            DiscordAudioReceiver first = registry.startSession("guild-1", "channel-1", String::valueOf);
+            DiscordAudioReceiver second = registry.startSession("guild-1", "channel-2", String::valueOf);
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.getChannleId()).isEqualTo("channel-1");
+            assertThat(registry.getActiveSessionCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Different guilds should get separate receivers")
+        void startSession_DifferentGuilds_ShouldBeIsolated() {
+            DiscordAudioReceiver first = registry.startSession("guild-1", "channel-1", String::valueOf);
+            DiscordAudioReceiver second = registry.startSession("guild-2", "channel-1", String::valueOf);
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(registry.getSessions()).containsOnlyKeys("guild-1", "guild-2");
+            assertThat(registry.getSession("guild-3")).isNull();
+        }
+
+        @Test
+        @DisplayName("Sessions view should be read-only")
+        void getSessions_ShouldBeUnmodifiable() {
+            registry.startSession("guild-1", "channel-1", String::valueOf);
+
+            assertThatThrownBy(() -> registry.getSessions().clear())
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("stopSession() / stopAll() tests")
+    class StopTests {
+
+        @Test
+        @DisplayName("Should remove the session and complete when nothing was recorded")
+        void stopSession_ShouldRemoveSession() throws Exception {
+            registry.startSession("guild-1", "channel-1", String::valueOf);
+
+            CompletableFuture<Void> recordings = registry.stopSession("guild-1");
+
+            assertThat(recordings).isNotNull();
+            recordings.get(5, TimeUnit.SECONDS);
+            assertThat(registry.getSession("guild-1")).isNull();
+            assertThat(registry.getActiveSessionCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Unknown guild should return null")
+        void stopSession_WhenUnknown_ShouldReturnNull() {
+            assertThat(registry.stopSession("missing")).isNull();
+        }
+
+        @Test
+        @DisplayName("Stopped guild should be able to start a new session")
+        void startSession_AfterStop_ShouldCreateNewReceiver() {
+            DiscordAudioReceiver first = registry.startSession("guild-1", "channel-1", String::valueOf);
+            registry.stopSession("guild-1");
+
+            DiscordAudioReceiver second = registry.startSession("guild-1", "channel-2", String::valueOf);
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second.getChannleId()).isEqualTo("channel-2");
+        }
+
+        @Test
+        @DisplayName("stopAll should stop every open session")
+        void stopAll_ShouldStopEverySession() {
+            registry.startSession("guild-1", "channel-1", String::valueOf);
+            registry.startSession("guild-2", "channel-1", String::valueOf);
+
+            registry.stopAll();
+
+            assertThat(registry.getActiveSessionCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent access tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Concurrent starts should create exactly one receiver per guild")
+        void startSession_Concurrently_ShouldCreateOneReceiverPerGuild() throws Exception {
+            int threads = 8;
+            int guilds = 4;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch ready = new CountDownLatch(1);
+            Set<DiscordAudioReceiver> receivers = ConcurrentHashMap.newKeySet();
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int i = 0; i < threads * guilds; i++) {
+                    String guildId = "guild-" + (i % guilds);
+                    futures.add(executor.submit(() -> {
+                        ready.await();
+                        receivers.add(registry.startSession(guildId, "channel-1", String::valueOf));
+                        return null;
+                    }));
+                }
+                ready.countDown();
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(receivers).hasSize(guilds);
+            assertThat(registry.getActiveSessionCount()).isEqualTo(guilds);
+        }
+
+        @Test
+        @DisplayName("Concurrent start and stop of the same guild should leave at most one session")
+        void startAndStop_Concurrently_ShouldStayConsistent() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int i = 0; i < 40; i++) {
+                    boolean start = i % 2 == 0;
+                    futures.add(executor.submit(() -> {
+                        ready.await();
+                        if (start) {
+                            registry.startSession("guild-1", "channel-1", String::valueOf);
+                        } else {
+                            registry.stopSession("guild-1");
+                        }
+                        return null;
+                    }));
+                }
+                ready.countDown();
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(registry.getActiveSessionCount()).isLessThanOrEqualTo(1);
+            registry.stopSession("guild-1");
+            assertThat(registry.getActiveSessionCount()).isZero();
+        }
+    }
+}
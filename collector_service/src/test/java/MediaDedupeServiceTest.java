@@ -0,0 +1,148 @@
+import org.example.collector_service.domain.dto.MediaDedupeChallenge;
+import org.example.collector_service.domain.dto.MediaDedupeCheckRequest;
+import org.example.collector_service.domain.dto.MediaDedupeProofRequest;
+import org.example.collector_service.domain.dto.MediaUploadRequest;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.model.MediaAsset;
+import org.example.collector_service.service.MediaDedupeService;
+import org.example.collector_service.service.MediaIngestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MediaDedupeService Unit Tests")
+public class MediaDedupeServiceTest {
+
+    private static final String CHECKSUM = "b".repeat(64);
+
+    @TempDir
+    Path storageDirectory;
+
+    @Mock
+    private MediaIngestService mediaIngestService;
+
+    private MediaDedupeService mediaDedupeService;
+    private byte[] content;
+    private MediaAsset storedAsset;
+    private MediaUploadRequest metadata;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaDedupeService = new MediaDedupeService(mediaIngestService, 300, 100);
+        content = new byte[200_000];
+        new Random(3).nextBytes(content);
+        Path storedFile = Files.write(storageDirectory.resolve("zoom_known.mp3"), content);
+        storedAsset = MediaAsset.builder().fileKey("zoom_known").fileSize((long) content.length)
+                .checksum(CHECKSUM).storagePath(storedFile.toString()).build();
+        metadata = MediaUploadRequest.builder().meetingId("meeting-1").platform("ZOOM").build();
+    }
+
+    @Test
+    @DisplayName("Known and unknown files should get the same kind of challenge")
+    void issueChallenge_ShouldNotRevealWhetherFileExists() {
+        MediaDedupeChallenge challenge = mediaDedupeService.issueChallenge(checkRequest(content.length));
+
+        assertThat(challenge.getStatus()).isEqualTo("PROOF_REQUIRED");
+        assertThat(challenge.getLength()).isEqualTo(64 * 1024);
+        assertThat(challenge.getOffset()).isBetween(0L, (long) content.length - challenge.getLength());
+        assertThat(challenge.getNonce()).hasSize(32);
+        verifyNoInteractions(mediaIngestService);
+    }
+
+    @Test
+    @DisplayName("Correct proof for a stored file should link it")
+    void verifyProof_WithCorrectProof_ShouldLinkAsset() throws Exception {
+        when(mediaIngestService.findExistingAsset(CHECKSUM, content.length)).thenReturn(Optional.of(storedAsset));
+        MediaUploadResponse linked = MediaUploadResponse.builder().fileKey("zoom_known").status("SUCCESS").build();
+        when(mediaIngestService.linkExistingAsset(storedAsset, metadata)).thenReturn(linked);
+        MediaDedupeChallenge challenge = mediaDedupeService.issueChallenge(checkRequest(content.length));
+
+        MediaUploadResponse response = mediaDedupeService.verifyProof(proofRequest(challenge, proof(challenge)));
+
+        assertThat(response.getStatus()).isEqualTo("SUCCESS");
+        assertThat(response.getFileKey()).isEqualTo("zoom_known");
+    }
+
+    @Test
+    @DisplayName("Wrong proof should require an upload exactly like an unknown file")
+    void verifyProof_WithWrongProof_ShouldRequireUpload() {
+        when(mediaIngestService.findExistingAsset(CHECKSUM, content.length)).thenReturn(Optional.of(storedAsset));
+        MediaDedupeChallenge known = mediaDedupeService.issueChallenge(checkRequest(content.length));
+        MediaDedupeChallenge unknown = mediaDedupeService.issueChallenge(checkRequest(content.length + 1));
+
+        MediaUploadResponse wrongProof = mediaDedupeService.verifyProof(proofRequest(known, "0".repeat(64)));
+        MediaUploadResponse unknownFile = mediaDedupeService.verifyProof(proofRequest(unknown, "0".repeat(64)));
+
+        assertThat(wrongProof).isEqualTo(unknownFile);
+        assertThat(wrongProof.getStatus()).isEqualTo("UPLOAD_REQUIRED");
+        verify(mediaIngestService, never()).linkExistingAsset(any(), any());
+    }
+
+    @Test
+    @DisplayName("Challenge should be single use")
+    void verifyProof_ReusedChallenge_ShouldRequireUpload() throws Exception {
+        when(mediaIngestService.findExistingAsset(CHECKSUM, content.length)).thenReturn(Optional.of(storedAsset));
+        when(mediaIngestService.linkExistingAsset(storedAsset, metadata))
+                .thenReturn(MediaUploadResponse.builder().status("SUCCESS").build());
+        MediaDedupeChallenge challenge = mediaDedupeService.issueChallenge(checkRequest(content.length));
+        String proof = proof(challenge);
+
+        assertThat(mediaDedupeService.verifyProof(proofRequest(challenge, proof)).getStatus()).isEqualTo("SUCCESS");
+        assertThat(mediaDedupeService.verifyProof(proofRequest(challenge, proof)).getStatus()).isEqualTo("UPLOAD_REQUIRED");
+        verify(mediaIngestService, times(1)).linkExistingAsset(storedAsset, metadata);
+    }
+
+    @Test
+    @DisplayName("Pending challenges should be capped and fall back to a normal upload when full")
+    void issueChallenge_WhenPendingLimitReached_ShouldRequireUpload() {
+        MediaDedupeService limited = new MediaDedupeService(mediaIngestService, 300, 2);
+        limited.issueChallenge(checkRequest(content.length));
+        limited.issueChallenge(checkRequest(content.length));
+
+        MediaDedupeChallenge rejected = limited.issueChallenge(checkRequest(content.length));
+
+        assertThat(rejected.getStatus()).isEqualTo("UPLOAD_REQUIRED");
+        assertThat(rejected.getChallengeId()).isNull();
+        assertThat(rejected.getNonce()).isNull();
+    }
+
+    @Test
+    @DisplayName("Expired challenges should be evicted to make room when the limit is reached")
+    void issueChallenge_WhenLimitReachedByExpiredChallenges_ShouldEvictThem() {
+        MediaDedupeService expiring = new MediaDedupeService(mediaIngestService, -1, 1);
+        expiring.issueChallenge(checkRequest(content.length));
+
+        assertThat(expiring.issueChallenge(checkRequest(content.length)).getStatus()).isEqualTo("PROOF_REQUIRED");
+    }
+
+    private MediaDedupeCheckRequest checkRequest(long fileSize) {
+        return MediaDedupeCheckRequest.builder().checksum(CHECKSUM).fileSize(fileSize).metadata(metadata).build();
+    }
+
+    private MediaDedupeProofRequest proofRequest(MediaDedupeChallenge challenge, String proof) {
+        return MediaDedupeProofRequest.builder().challengeId(challenge.getChallengeId()).proof(proof).build();
+    }
+
+    private String proof(MediaDedupeChallenge challenge) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(HexFormat.of().parseHex(challenge.getNonce()));
+        digest.update(content, (int) challenge.getOffset(), (int) challenge.getLength());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,31 +1,40 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.collector_service.bot.audio.AudioTrackExtractor;
 import org.example.collector_service.domain.dto.MediaUploadRequest;
 import org.example.collector_service.domain.dto.MediaUploadResponse;
 import org.example.collector_service.domain.model.MediaAsset;
 import org.example.collector_service.domain.model.MeetingMedia;
 import org.example.collector_service.domain.model.OutBoxEvent;
 import org.example.collector_service.exception.*;
+import org.example.collector_service.outbox.OutboxRelaySignal;
 import org.example.collector_service.repository.MediaAssetRepository;
 import org.example.collector_service.repository.MeetingMediaRepository;
 import org.example.collector_service.repository.OutBoxEventRepository;
 import org.example.collector_service.service.MediaIngestService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +53,18 @@ public class MediaIngestServiceTest {
     @Mock
     private OutBoxEventRepository outBoxEventRepository;
 
+    @Mock
+    private AudioTrackExtractor audioTrackExtractor;
+
+    @Mock
+    private OutboxRelaySignal outboxRelaySignal;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate();
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
@@ -59,6 +80,7 @@ public class MediaIngestServiceTest {
     void setUp() throws IOException {
         tempDir = Files.createTempDirectory("test-media");
         ReflectionTestUtils.setField(mediaIngestService, "mediaStoragePath", tempDir.toString());
+        transactionTemplate.setTransactionManager(transactionManager);
 
         validRequest = MediaUploadRequest.builder()
                 .meetingId("meeting-123")
@@ -328,4 +350,190 @@ public class MediaIngestServiceTest {
             assertThat(response.getFileKey()).startsWith("teams_");
         }
     }
+
+    @Nested
+    @DisplayName("Streaming ingest tests")
+    class StreamingIngestTests {
+
+        @Test
+        @DisplayName("Stored file should match uploaded bytes and carry their SHA-256")
+        void uploadMedia_ShouldStreamFileToStorageWithChecksum() throws Exception {
+            byte[] content = new byte[300 * 1024];
+            new Random(7).nextBytes(content);
+            MockMultipartFile file = new MockMultipartFile("file", "large.mp3", "audio/mpeg", content);
+            String expectedChecksum = HexFormat.of()
+                    .formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+            when(mediaAssetRepository.findByChecksum(expectedChecksum)).thenReturn(Optional.empty());
+            when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            mediaIngestService.uploadMedia(file, validRequest);
+
+            ArgumentCaptor<MediaAsset> captor = ArgumentCaptor.forClass(MediaAsset.class);
+            verify(mediaAssetRepository).save(captor.capture());
+            MediaAsset saved = captor.getValue();
+            assertThat(saved.getChecksum()).isEqualTo(expectedChecksum);
+            assertThat(saved.getFileSize()).isEqualTo(content.length);
+            assertThat(Files.readAllBytes(Path.of(saved.getStoragePath()))).isEqualTo(content);
+            try (var files = Files.list(tempDir.resolve("zoom"))) {
+                assertThat(files.map(Path::getFileName).map(Path::toString)).noneMatch(name -> name.endsWith(".part"));
+            }
+        }
+
+        @Test
+        @DisplayName("Duplicate upload should discard the staged file and reuse the existing asset")
+        void uploadMedia_WithExistingChecksum_ShouldNotKeepFile() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "again.mp3", "audio/mpeg", "same bytes".getBytes());
+            MediaAsset existing = MediaAsset.builder()
+                    .id(42L)
+                    .fileKey("zoom_existing")
+                    .storagePath("/storage/zoom/zoom_existing.mp3")
+                    .build();
+
+            when(mediaAssetRepository.findByChecksum(anyString())).thenReturn(Optional.of(existing));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            MediaUploadResponse response = mediaIngestService.uploadMedia(file, validRequest);
+
+            assertThat(response.getFileKey()).isEqualTo("zoom_existing");
+            verify(mediaAssetRepository, never()).save(any(MediaAsset.class));
+            try (var files = Files.list(tempDir.resolve("zoom"))) {
+                assertThat(files).isEmpty();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("findExistingAsset() / linkExistingAsset() tests")
+    class LinkExistingAssetTests {
+
+        private final String checksum = "a".repeat(64);
+
+        @Test
+        @DisplayName("Existing asset should be linked without an upload")
+        void linkExistingAsset_ShouldCreateMeetingLinkAndOutboxEvent() {
+            MediaAsset existing = MediaAsset.builder()
+                    .id(7L)
+                    .fileKey("zoom_known")
+                    .fileSize(1024L)
+                    .checksum(checksum)
+                    .storagePath("/storage/zoom/zoom_known.mp3")
+                    .build();
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            MediaUploadResponse response = mediaIngestService.linkExistingAsset(existing, validRequest);
+
+            assertThat(response.getFileKey()).isEqualTo("zoom_known");
+            assertThat(response.getStatus()).isEqualTo("SUCCESS");
+            verify(meetingMediaRepository).save(any(MeetingMedia.class));
+            verify(outBoxEventRepository).save(any(OutBoxEvent.class));
+            verify(mediaAssetRepository, never()).save(any(MediaAsset.class));
+        }
+
+        @Test
+        @DisplayName("Lookup should match checksum and size")
+        void findExistingAsset_ShouldMatchChecksumAndSize() {
+            MediaAsset existing = MediaAsset.builder().fileKey("zoom_known").fileSize(2048L).build();
+            when(mediaAssetRepository.findByChecksum(checksum)).thenReturn(Optional.of(existing));
+
+            assertThat(mediaIngestService.findExistingAsset(checksum.toUpperCase(), 2048L)).contains(existing);
+            assertThat(mediaIngestService.findExistingAsset(checksum, 1024L)).isEmpty();
+            verifyNoInteractions(meetingMediaRepository, outBoxEventRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Video audio extraction tests")
+    class AudioExtractionTests {
+
+        @Test
+        @DisplayName("Video upload should point MEDIA_UPLOADED at the extracted audio and keep the original")
+        void uploadMedia_WithVideo_ShouldPublishExtractedAudio() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "meeting.mp4", "video/mp4", "video bytes".getBytes());
+            when(mediaAssetRepository.findByChecksum(anyString())).thenReturn(Optional.empty());
+            when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(audioTrackExtractor.extractAudio(any(Path.class), any(Path.class))).thenAnswer(inv -> {
+                Path target = inv.getArgument(1);
+                Files.write(target, "mp3".getBytes());
+                return Optional.of(target);
+            });
+
+            mediaIngestService.uploadMedia(file, validRequest);
+
+            ArgumentCaptor<MediaAsset> assetCaptor = ArgumentCaptor.forClass(MediaAsset.class);
+            verify(mediaAssetRepository).save(assetCaptor.capture());
+            MediaAsset saved = assetCaptor.getValue();
+            assertThat(saved.getAudioStoragePath()).endsWith("_audio.mp3");
+            assertThat(saved.getAudioMimeType()).isEqualTo("audio/mpeg");
+            assertThat(saved.getAudioFileSize()).isEqualTo(3L);
+            assertThat(Path.of(saved.getStoragePath())).exists();
+
+            ArgumentCaptor<OutBoxEvent> eventCaptor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(eventCaptor.capture());
+            var payload = objectMapper.readTree(eventCaptor.getValue().getPayload());
+            assertThat(payload.get("audioUrl").asText()).isEqualTo(saved.getAudioStoragePath());
+            assertThat(payload.get("mimeType").asText()).isEqualTo("audio/mpeg");
+            assertThat(payload.get("originalUrl").asText()).isEqualTo(saved.getStoragePath());
+        }
+
+        @Test
+        @DisplayName("Extraction should finish before the database transaction starts")
+        void uploadMedia_WithVideo_ShouldExtractOutsideTransaction() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "meeting.mp4", "video/mp4", "video bytes".getBytes());
+            when(mediaAssetRepository.findByChecksum(anyString())).thenReturn(Optional.empty());
+            when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(audioTrackExtractor.extractAudio(any(Path.class), any(Path.class))).thenReturn(Optional.empty());
+
+            mediaIngestService.uploadMedia(file, validRequest);
+
+            InOrder inOrder = inOrder(audioTrackExtractor, transactionManager, mediaAssetRepository);
+            inOrder.verify(audioTrackExtractor).extractAudio(any(Path.class), any(Path.class));
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(mediaAssetRepository).save(any(MediaAsset.class));
+            verify(transactionManager, times(1)).getTransaction(any());
+        }
+
+        @Test
+        @DisplayName("Failed extraction should fall back to the original video")
+        void uploadMedia_WhenExtractionFails_ShouldPublishOriginal() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "meeting.mp4", "video/mp4", "video bytes".getBytes());
+            when(mediaAssetRepository.findByChecksum(anyString())).thenReturn(Optional.empty());
+            when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(audioTrackExtractor.extractAudio(any(Path.class), any(Path.class)))
+                    .thenThrow(new IOException("ffmpeg open input failed"));
+
+            MediaUploadResponse response = mediaIngestService.uploadMedia(file, validRequest);
+
+            assertThat(response.getStatus()).isEqualTo("SUCCESS");
+            ArgumentCaptor<OutBoxEvent> eventCaptor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(eventCaptor.capture());
+            var payload = objectMapper.readTree(eventCaptor.getValue().getPayload());
+            assertThat(payload.get("audioUrl").asText()).endsWith(".mp4");
+            assertThat(payload.has("originalUrl")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Audio uploads should not run extraction")
+        void uploadMedia_WithAudio_ShouldSkipExtraction() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "call.mp3", "audio/mpeg", "audio bytes".getBytes());
+            when(mediaAssetRepository.findByChecksum(anyString())).thenReturn(Optional.empty());
+            when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(meetingMediaRepository.save(any(MeetingMedia.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            mediaIngestService.uploadMedia(file, validRequest);
+
+            verifyNoInteractions(audioTrackExtractor);
+        }
+    }
 }
@@ -0,0 +1,95 @@
+import org.example.collector_service.MainApp;
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.outbox.OutboxBatchWriter;
+import org.example.collector_service.repository.MessageBatchWriter;
+import org.example.collector_service.repository.MessageRepository;
+import org.example.collector_service.repository.OutBoxEventRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ContextConfiguration(classes = MainApp.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("Message / Outbox batch writer Integration Tests")
+class MessageBatchWriterTest {
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private OutBoxEventRepository outBoxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository.deleteAll();
+        outBoxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should insert messages in one batch and assign generated ids in order")
+    void insertAll_ShouldAssignGeneratedIds() {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            messages.add(Message.builder()
+                    .platform("Discord")
+                    .author("user-" + i)
+                    .content("message " + i)
+                    .timestamp(LocalDateTime.now())
+                    .channelId("channel-1")
+                    .channelName("general")
+                    .build());
+        }
+
+        new MessageBatchWriter(jdbcTemplate).insertAll(messages);
+
+        assertThat(messages).allMatch(m -> m.getId() != null);
+        for (Message message : messages) {
+            assertThat(messageRepository.findById(message.getId()))
+                    .get()
+                    .extracting(Message::getContent)
+                    .isEqualTo(message.getContent());
+        }
+    }
+
+    @Test
+    @DisplayName("Should insert outbox events readable through the JPA mapping")
+    void outboxInsertAll_ShouldMatchEntityMapping() {
+        OutBoxEvent plain = OutBoxEvent.builder()
+                .aggregateType("Message").aggregateId("1").eventType("Created")
+                .payload("{\"id\":1}").partitionKey("channel-1").topic("text-message-events")
+                .headers("{\"eventType\":\"Created\"}").createdAt(LocalDateTime.now())
+                .build();
+        OutBoxEvent compressed = OutBoxEvent.builder()
+                .aggregateType("Message").aggregateId("2").eventType("Created")
+                .payloadCodec("zstd").compressedPayload(new byte[]{1, 2, 3})
+                .partitionKey("channel-1").topic("text-message-events").createdAt(LocalDateTime.now())
+                .build();
+
+        new OutboxBatchWriter(jdbcTemplate).insertAll(List.of(plain, compressed));
+
+        List<OutBoxEvent> saved = outBoxEventRepository.findAll();
+        assertThat(saved).hasSize(2);
+        assertThat(saved).extracting(OutBoxEvent::getAggregateId).containsExactlyInAnyOrder("1", "2");
+        assertThat(saved).allMatch(e -> !e.isProcessed() && e.getLeaseOwner() == null);
+        assertThat(saved).filteredOn(e -> "2".equals(e.getAggregateId()))
+                .singleElement()
+                .satisfies(e -> assertThat(e.getCompressedPayload()).containsExactly(1, 2, 3));
+        assertThat(outBoxEventRepository.countUnprocessed()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,147 @@
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.service.MessageIngestionQueue;
+import org.example.collector_service.service.MessageService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MessageIngestionQueue Unit Tests")
+public class MessageIngestionQueueTest {
+
+    @Mock
+    private MessageService messageService;
+
+    private static Message message(String content) {
+        return Message.builder()
+                .platform("Discord")
+                .author("user")
+                .content(content)
+                .channelId("channel-1")
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Batching tests")
+    class BatchingTests {
+
+        @Test
+        @DisplayName("submit() should not save on the calling thread")
+        void submit_ShouldNotBlockCaller() {
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 10, 5, 50, 10);
+
+            queue.submit(message("hello"));
+
+            verifyNoInteractions(messageService);
+            assertThat(queue.getQueueDepth()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Queued messages should be written in batches of at most batch-size")
+        void writer_ShouldGroupMessagesIntoBatches() {
+            List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+            doAnswer(inv -> {
+                batchSizes.add(inv.<List<Message>>getArgument(0).size());
+                return null;
+            }).when(messageService).saveAll(anyList());
+
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 100, 4, 200, 10);
+            for (int i = 0; i < 10; i++) {
+                queue.submit(message("m" + i));
+            }
+
+            queue.start();
+            try {
+                verify(messageService, timeout(2000).times(3)).saveAll(anyList());
+            } finally {
+                queue.stop();
+            }
+
+            assertThat(batchSizes).containsExactly(4, 4, 2);
+            assertThat(queue.getWrittenMessageCount()).isEqualTo(10);
+            assertThat(queue.getMaxBatchSize()).isEqualTo(4);
+            assertThat(queue.getQueueDepth()).isZero();
+            verify(messageService, never()).processAndSaveMessage(any());
+        }
+
+        @Test
+        @DisplayName("stop() should write messages still in the queue")
+        void stop_ShouldDrainQueue() {
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 100, 50, 50, 10);
+            queue.submit(message("a"));
+            queue.submit(message("b"));
+
+            queue.stop();
+
+            verify(messageService).saveAll(argThat(batch -> batch.size() == 2));
+            assertThat(queue.getQueueDepth()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure handling tests")
+    class FailureHandlingTests {
+
+        @Test
+        @DisplayName("Full queue should drop the message without touching the database on the caller")
+        void submit_QueueFull_ShouldDropAfterTimeout() {
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 1, 10, 50, 10);
+
+            assertThat(queue.submit(message("queued"))).isTrue();
+            assertThat(queue.submit(message("overflow"))).isFalse();
+
+            verifyNoInteractions(messageService);
+            assertThat(queue.getDroppedMessageCount()).isEqualTo(1);
+            assertThat(queue.getQueueDepth()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Full queue should accept the message once the writer frees a slot within the timeout")
+        void submit_QueueFull_ShouldWaitForFreeSlot() throws Exception {
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 1, 10, 0, 5000);
+            queue.submit(message("queued"));
+
+            queue.start();
+            try {
+                assertThat(queue.submit(message("waiting"))).isTrue();
+                verify(messageService, timeout(2000).atLeastOnce()).saveAll(anyList());
+            } finally {
+                queue.stop();
+            }
+
+            assertThat(queue.getDroppedMessageCount()).isZero();
+            assertThat(queue.getWrittenMessageCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Failed batch should be retried message by message")
+        void writeBatch_Failure_ShouldRetryIndividually() {
+            doThrow(new RuntimeException("deadlock")).when(messageService).saveAll(anyList());
+            doThrow(new RuntimeException("too long")).doNothing()
+                    .when(messageService).processAndSaveMessage(any(Message.class));
+
+            MessageIngestionQueue queue = new MessageIngestionQueue(messageService, 100, 10, 50, 10);
+            Message bad = message("bad");
+            Message good = message("good");
+            bad.setId(41L);
+            queue.submit(bad);
+            queue.submit(good);
+
+            queue.stop();
+
+            verify(messageService, times(2)).processAndSaveMessage(any(Message.class));
+            assertThat(bad.getId()).isNull();
+            assertThat(queue.getFailedMessageCount()).isEqualTo(1);
+            assertThat(queue.getWrittenMessageCount()).isEqualTo(1);
+        }
+    }
+}
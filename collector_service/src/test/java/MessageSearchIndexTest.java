@@ -0,0 +1,227 @@
+import org.example.collector_service.domain.model.Message;
+import org.example.collector_service.repository.MessageRepository;
+import org.example.collector_service.search.MessageSearchIndex;
+import org.example.collector_service.search.MessageTokenizer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MessageSearchIndex Unit Tests")
+public class MessageSearchIndexTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    private MessageSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MessageSearchIndex(messageRepository, 2, false);
+    }
+
+    private static Message message(long id, String channelId, String content) {
+        return Message.builder()
+                .id(id)
+                .platform("Discord")
+                .author("user")
+                .channelId(channelId)
+                .content(content)
+                .build();
+    }
+
+    private static List<Long> ids(MessageSearchIndex.SearchResult result) {
+        return result.hits().stream().map(MessageSearchIndex.Hit::messageId).toList();
+    }
+
+    @Nested
+    @DisplayName("MessageTokenizer tests")
+    class TokenizerTests {
+
+        @Test
+        @DisplayName("Turkish characters and I/İ/ı should fold to ASCII")
+        void tokenize_ShouldFoldTurkishCharacters() {
+            assertThat(MessageTokenizer.tokenize("Yarınki TOPLANTI İstanbul'da, görüşme ŞUBAT"))
+                    .containsExactly("yarinki", "toplanti", "istanbul", "gorusme", "subat");
+        }
+
+        @Test
+        @DisplayName("Stop words and single characters should be dropped")
+        void tokenize_ShouldDropStopWordsAndShortTokens() {
+            assertThat(MessageTokenizer.tokenize("the meeting ve bir a b sprint")).containsExactly("meeting", "sprint");
+        }
+
+        @Test
+        @DisplayName("Null or empty text should produce no tokens")
+        void tokenize_NullOrEmpty_ShouldReturnEmpty() {
+            assertThat(MessageTokenizer.tokenize(null)).isEmpty();
+            assertThat(MessageTokenizer.tokenize("  ,.!")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("search() tests")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Query with Turkish characters should match ASCII-typed messages")
+        void search_ShouldMatchAcrossTurkishFolding() {
+            index.add(message(1, "c1", "toplanti saat 10"));
+            index.add(message(2, "c1", "lunch?"));
+
+            assertThat(ids(index.search("Toplantı", null, 0, 10))).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Scores should accumulate per message across many matches and terms")
+        void search_WithManyMatches_ShouldAccumulateScoresPerMessage() {
+            for (long id = 1; id <= 500; id++) {
+                index.add(message(id, "c1", id % 2 == 0 ? "deploy rollback" : "deploy"));
+            }
+
+            MessageSearchIndex.SearchResult result = index.search("deploy rollback", null, 0, 250);
+
+            assertThat(result.totalHits()).isEqualTo(500);
+            assertThat(ids(result)).hasSize(250).allMatch(id -> id % 2 == 0);
+            assertThat(ids(result).get(0)).isEqualTo(500L);
+        }
+
+        @Test
+        @DisplayName("Messages matching more and rarer terms should rank higher")
+        void search_ShouldRankByBm25() {
+            index.add(message(1, "c1", "deploy tomorrow"));
+            index.add(message(2, "c1", "deploy rollback plan for deploy"));
+            index.add(message(3, "c1", "rollback"));
+            index.add(message(4, "c1", "deploy"));
+
+            MessageSearchIndex.SearchResult result = index.search("deploy rollback", null, 0, 10);
+
+            assertThat(result.totalHits()).isEqualTo(4);
+            assertThat(ids(result).get(0)).isEqualTo(2L);
+            assertThat(result.hits()).isSortedAccordingTo(
+                    (a, b) -> Double.compare(b.score(), a.score()));
+        }
+
+        @Test
+        @DisplayName("Pages should not overlap and should report the total hit count")
+        void search_ShouldPage() {
+            for (long id = 1; id <= 5; id++) {
+                index.add(message(id, "c1", "sprint review " + id));
+            }
+
+            MessageSearchIndex.SearchResult first = index.search("sprint", null, 0, 2);
+            MessageSearchIndex.SearchResult second = index.search("sprint", null, 1, 2);
+            MessageSearchIndex.SearchResult third = index.search("sprint", null, 2, 2);
+            MessageSearchIndex.SearchResult beyond = index.search("sprint", null, 3, 2);
+
+            assertThat(first.totalHits()).isEqualTo(5);
+            assertThat(first.hits()).hasSize(2);
+            assertThat(second.hits()).hasSize(2);
+            assertThat(third.hits()).hasSize(1);
+            assertThat(beyond.hits()).isEmpty();
+            assertThat(ids(first)).doesNotContainAnyElementsOf(ids(second));
+            assertThat(ids(second)).doesNotContainAnyElementsOf(ids(third));
+        }
+
+        @Test
+        @DisplayName("Channel filter should restrict hits to that channel")
+        void search_ShouldFilterByChannel() {
+            index.add(message(1, "c1", "standup notes"));
+            index.add(message(2, "c2", "standup notes"));
+
+            assertThat(ids(index.search("standup", "c2", 0, 10))).containsExactly(2L);
+            assertThat(index.search("standup", "unknown", 0, 10).totalHits()).isZero();
+        }
+
+        @Test
+        @DisplayName("Trailing '*' should match terms by prefix")
+        void search_PrefixQuery_ShouldMatchSuffixes() {
+            index.add(message(1, "c1", "toplantida konustuk"));
+            index.add(message(2, "c1", "toplantiya geliyorum"));
+            index.add(message(3, "c1", "toplam 5"));
+
+            assertThat(ids(index.search("toplantı*", null, 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+            assertThat(ids(index.search("toplanti", null, 0, 10))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Blank or stop-word-only queries should return no hits")
+        void search_BlankQuery_ShouldReturnEmpty() {
+            index.add(message(1, "c1", "the meeting"));
+
+            assertThat(index.search("   ", null, 0, 10).totalHits()).isZero();
+            assertThat(index.search("the and", null, 0, 10).totalHits()).isZero();
+            assertThat(index.search(null, null, 0, 10).totalHits()).isZero();
+        }
+
+        @Test
+        @DisplayName("Messages without an id should not be indexed")
+        void add_WithoutId_ShouldBeIgnored() {
+            index.add(Message.builder().content("sprint").channelId("c1").build());
+
+            assertThat(index.getIndexedMessageCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("rebuild() tests")
+    class RebuildTests {
+
+        @Test
+        @DisplayName("Should page through the repository by id and replace the index")
+        void rebuild_ShouldLoadAllPages() {
+            index.add(message(99, "c1", "stale message"));
+            when(messageRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                    .thenReturn(List.of(message(1, "c1", "alpha"), message(2, "c1", "beta")));
+            when(messageRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                    .thenReturn(List.of(message(3, "c2", "alpha beta")));
+
+            int indexed = index.rebuild();
+
+            assertThat(indexed).isEqualTo(3);
+            assertThat(index.getIndexedMessageCount()).isEqualTo(3);
+            assertThat(ids(index.search("alpha", null, 0, 10))).containsExactlyInAnyOrder(1L, 3L);
+            assertThat(index.search("stale", null, 0, 10).totalHits()).isZero();
+        }
+
+        @Test
+        @DisplayName("Messages added during a rebuild should survive it exactly once")
+        void rebuild_ShouldReplayMessagesAddedDuringScan() {
+            when(messageRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                    .thenAnswer(inv -> {
+                        // Tarama sırasında commit edilen iki mesaj: biri taramaya da yakalanmış, biri değil
+                        index.add(message(2, "c1", "incident report"));
+                        index.add(message(3, "c1", "incident resolved"));
+                        return List.of(message(1, "c1", "incident opened"), message(2, "c1", "incident report"));
+                    });
+            when(messageRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                    .thenReturn(List.of());
+
+            index.rebuild();
+
+            MessageSearchIndex.SearchResult result = index.search("incident", null, 0, 10);
+            assertThat(result.totalHits()).isEqualTo(3);
+            assertThat(ids(result)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        }
+
+        @Test
+        @DisplayName("A failed rebuild should keep serving the old index")
+        void rebuild_Failure_ShouldKeepOldIndex() {
+            index.add(message(1, "c1", "kept"));
+            when(messageRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                    .thenThrow(new IllegalStateException("db down"));
+
+            assertThatThrownBy(() -> index.rebuild()).isInstanceOf(IllegalStateException.class);
+
+            assertThat(ids(index.search("kept", null, 0, 10))).containsExactly(1L);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 import org.example.collector_service.domain.model.Message;
 import org.example.collector_service.outbox.OutboxEventPublisher;
+import org.example.collector_service.repository.MessageBatchWriter;
 import org.example.collector_service.repository.MessageRepository;
+import org.example.collector_service.search.MessageSearchIndex;
 import org.example.collector_service.service.MessageService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +11,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +27,12 @@ public class MessageServiceTest {
     @Mock
     private OutboxEventPublisher outboxEventPublisher;
 
+    @Mock
+    private MessageBatchWriter messageBatchWriter;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
     @InjectMocks
     private MessageService messageService;
 
@@ -52,6 +62,7 @@ public class MessageServiceTest {
 
             verify(messageRepository).save(message);
             verify(outboxEventPublisher).publishCreated(eq(savedMessage), eq("1"), eq("Message"));
+            verify(messageSearchIndex).addAfterCommit(List.of(savedMessage));
         }
 
         @Test
@@ -153,5 +164,33 @@ public class MessageServiceTest {
             verify(outboxEventPublisher).publishCreated(any(), anyString(), anyString());
         }
     }
-}
 
+    @Nested
+    @DisplayName("saveAll() tests")
+    class SaveAllTests {
+
+        @Test
+        @DisplayName("Should batch insert messages and publish their events in one batch")
+        void saveAll_ShouldBatchInsertAndPublish() {
+            List<Message> messages = List.of(
+                    Message.builder().id(1L).content("first").channelId("c").build(),
+                    Message.builder().id(2L).content("second").channelId("c").build());
+            when(messageBatchWriter.insertAll(messages)).thenReturn(messages);
+
+            messageService.saveAll(messages);
+
+            verify(messageBatchWriter).insertAll(messages);
+            verify(outboxEventPublisher).publishCreatedAll(eq(messages), any(), eq("Message"));
+            verify(messageSearchIndex).addAfterCommit(messages);
+            verify(messageRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should do nothing for an empty batch")
+        void saveAll_Empty_ShouldDoNothing() {
+            messageService.saveAll(List.of());
+
+            verifyNoInteractions(messageBatchWriter, outboxEventPublisher, messageSearchIndex);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import org.example.collector_service.bot.audio.OggOpusWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("OggOpusWriter Unit Tests")
+public class OggOpusWriterTest {
+
+    /** CELT, 20 ms, stereo, tek frame (Discord'un gönderdiği tipik TOC) */
+    private static final byte TOC_CELT_20MS = (byte) 0xFC;
+
+    @Nested
+    @DisplayName("sampleCount() tests")
+    class SampleCountTests {
+
+        @Test
+        @DisplayName("20 ms CELT frame should be 960 samples")
+        void sampleCount_Celt20ms_ShouldBe960() {
+            assertThat(OggOpusWriter.sampleCount(new byte[]{TOC_CELT_20MS, 0}, 2)).isEqualTo(960);
+        }
+
+        @Test
+        @DisplayName("Two-frame SILK 60 ms packet should be 5760 samples")
+        void sampleCount_TwoFrameSilk60ms_ShouldBe5760() {
+            byte toc = (byte) ((3 << 3) | 0x01);
+            assertThat(OggOpusWriter.sampleCount(new byte[]{toc, 0}, 2)).isEqualTo(5760);
+        }
+
+        @Test
+        @DisplayName("Code 3 packet should read frame count from second byte")
+        void sampleCount_Code3_ShouldReadFrameCount() {
+            byte toc = (byte) ((31 << 3) | 0x03);
+            assertThat(OggOpusWriter.sampleCount(new byte[]{toc, 4}, 2)).isEqualTo(3840);
+        }
+
+        @Test
+        @DisplayName("Empty packet should be 0 samples")
+        void sampleCount_Empty_ShouldBeZero() {
+            assertThat(OggOpusWriter.sampleCount(new byte[0], 0)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Byte count should include pending packets and match the stream size after close")
+    void getBytesWritten_ShouldMatchStreamSize() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OggOpusWriter writer = new OggOpusWriter(out, 2);
+        long headerBytes = writer.getBytesWritten();
+        byte[] packet = new byte[100];
+        packet[0] = TOC_CELT_20MS;
+        for (int i = 0; i < 10; i++) {
+            writer.accept(packet, packet.length);
+        }
+
+        assertThat(writer.getBytesWritten()).isEqualTo(headerBytes + 1000);
+
+        writer.close();
+        assertThat(writer.getBytesWritten()).isEqualTo(out.size());
+    }
+
+    @Test
+    @DisplayName("Stream should contain header pages, audio pages and an EOS page with valid CRCs")
+    void write_ShouldProduceValidOggPages() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OggOpusWriter writer = new OggOpusWriter(out, 2);
+        byte[] packet = new byte[100];
+        packet[0] = TOC_CELT_20MS;
+        for (int i = 0; i < 120; i++) {
+            writer.accept(packet, packet.length);
+        }
+        writer.close();
+
+        List<Page> pages = parsePages(out.toByteArray());
+
+        assertThat(pages).hasSize(5);
+        assertThat(pages).allMatch(page -> page.crcValid);
+        assertThat(new String(pages.get(0).body, 0, 8, StandardCharsets.US_ASCII)).isEqualTo("OpusHead");
+        assertThat(pages.get(0).flags).isEqualTo(0x02);
+        assertThat(new String(pages.get(1).body, 0, 8, StandardCharsets.US_ASCII)).isEqualTo("OpusTags");
+        assertThat(pages.get(2).granule).isEqualTo(48000);
+        assertThat(pages.get(4).flags).isEqualTo(0x04);
+        assertThat(pages.get(4).granule).isEqualTo(120 * 960);
+    }
+
+    @Test
+    @DisplayName("Large packets should never exceed 255 lacing segments per page")
+    void write_LargePackets_ShouldRespectSegmentLimit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OggOpusWriter writer = new OggOpusWriter(out, 2);
+        byte[] packet = new byte[1275];
+        packet[0] = TOC_CELT_20MS;
+        for (int i = 0; i < 100; i++) {
+            writer.accept(packet, packet.length);
+        }
+        writer.close();
+
+        List<Page> pages = parsePages(out.toByteArray());
+
+        assertThat(pages).allMatch(page -> page.crcValid);
+        assertThat(pages.get(pages.size() - 1).granule).isEqualTo(100 * 960);
+        int audioBytes = pages.stream().skip(2).mapToInt(page -> page.body.length).sum();
+        assertThat(audioBytes).isEqualTo(100 * 1275);
+    }
+
+    private static List<Page> parsePages(byte[] data) {
+        List<Page> pages = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            assertThat(new String(data, offset, 4, StandardCharsets.US_ASCII)).isEqualTo("OggS");
+            int segments = data[offset + 26] & 0xFF;
+            int bodyLength = 0;
+            for (int i = 0; i < segments; i++) {
+                bodyLength += data[offset + 27 + i] & 0xFF;
+            }
+            int pageLength = 27 + segments + bodyLength;
+
+            long granule = 0;
+            for (int i = 7; i >= 0; i--) {
+                granule = (granule << 8) | (data[offset + 6 + i] & 0xFF);
+            }
+            int storedCrc = (data[offset + 22] & 0xFF) | ((data[offset + 23] & 0xFF) << 8)
+                    | ((data[offset + 24] & 0xFF) << 16) | ((data[offset + 25] & 0xFF) << 24);
+            byte[] page = Arrays.copyOfRange(data, offset, offset + pageLength);
+            page[22] = page[23] = page[24] = page[25] = 0;
+
+            Page parsed = new Page();
+            parsed.flags = data[offset + 5];
+            parsed.granule = granule;
+            parsed.body = Arrays.copyOfRange(data, offset + 27 + segments, offset + pageLength);
+            parsed.crcValid = crc(page) == storedCrc;
+            pages.add(parsed);
+            offset += pageLength;
+        }
+        return pages;
+    }
+
+    private static int crc(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= (b & 0xFF) << 24;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ 0x04C11DB7 : crc << 1;
+            }
+        }
+        return crc;
+    }
+
+    private static class Page {
+        int flags;
+        long granule;
+        byte[] body;
+        boolean crcValid;
+    }
+}
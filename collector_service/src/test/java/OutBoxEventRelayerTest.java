@@ -1,18 +1,27 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.outbox.OutboxPayloadCodec;
+import org.example.collector_service.outbox.OutboxRelaySignal;
 import org.example.collector_service.relayer.OutBoxEventRelayer;
+import org.example.collector_service.relayer.OutboxEventClaimer;
 import org.example.collector_service.repository.OutBoxEventRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,148 +31,342 @@ import static org.mockito.Mockito.*;
 @DisplayName("OutBoxEventRelayer Unit Tests")
 public class OutBoxEventRelayerTest {
 
+    private static final int BATCH_SIZE = 3;
+
     @Mock
     private OutBoxEventRepository outBoxEventRepository;
 
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventClaimer outboxEventClaimer;
+
+    private final OutboxRelaySignal outboxRelaySignal = new OutboxRelaySignal();
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final OutboxPayloadCodec outboxPayloadCodec = new OutboxPayloadCodec(64, 3);
 
-    @InjectMocks
     private OutBoxEventRelayer outBoxEventRelayer;
 
+    @BeforeEach
+    void setUp() {
+        outBoxEventRelayer = new OutBoxEventRelayer(outBoxEventRepository, outboxEventClaimer, outboxRelaySignal, kafkaTemplate, new ObjectMapper(), outboxPayloadCodec,
+                BATCH_SIZE, 1000, 10, 10, 60_000);
+    }
+
+    private OutBoxEvent event(long id, String aggregateType, String payload) {
+        return OutBoxEvent.builder()
+                .id(id)
+                .aggregateType(aggregateType)
+                .aggregateId(String.valueOf(id))
+                .eventType("Created")
+                .payload(payload)
+                .processed(false)
+                .leaseOwner("relay-test:1")
+                .createdAt(LocalDateTime.now().minusSeconds(2))
+                .build();
+    }
+
+    private static OutBoxEvent keyed(OutBoxEvent event, String partitionKey) {
+        event.setPartitionKey(partitionKey);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, byte[]>> sentRecords(int count) {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(count)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static String text(ProducerRecord<String, byte[]> record) {
+        return new String(record.value(), StandardCharsets.UTF_8);
+    }
+
+    private static CompletableFuture<SendResult<String, byte[]>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<SendResult<String, byte[]>> failed() {
+        return CompletableFuture.failedFuture(new RuntimeException("Kafka connection failed"));
+    }
+
     @Nested
     @DisplayName("relayEvents() tests")
     class RelayEventsTests {
 
         @Test
-        @DisplayName("Should relay unprocessed events to Kafka")
-        void relayEvents_WithUnprocessedEvents_ShouldSendToKafka() {
-            OutBoxEvent event1 = OutBoxEvent.builder()
-                    .id(1L)
-                    .aggregateType("Meeting")
-                    .aggregateId("1")
-                    .eventType("Created")
-                    .payload("{\"id\":1,\"title\":\"Test Meeting\"}")
-                    .processed(false)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            OutBoxEvent event2 = OutBoxEvent.builder()
-                    .id(2L)
-                    .aggregateType("Message")
-                    .aggregateId("2")
-                    .eventType("Created")
-                    .payload("{\"id\":2,\"content\":\"Hello\"}")
-                    .processed(false)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            when(outBoxEventRepository.find100Unprocessed(any(PageRequest.class)))
+        @DisplayName("Should send a batch to the aggregate topics and mark all ids in one call")
+        void relayEvents_WithUnprocessedEvents_ShouldSendAndMarkInBatch() {
+            OutBoxEvent event1 = event(1L, "Meeting", "{\"id\":1,\"title\":\"Test Meeting\"}");
+            OutBoxEvent event2 = event(2L, "Message", "{\"id\":2,\"content\":\"Hello\"}");
+
+            when(outboxEventClaimer.claim(BATCH_SIZE))
                     .thenReturn(List.of(event1, event2));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+            int relayed = outBoxEventRelayer.relayEvents();
+
+            assertThat(relayed).isEqualTo(2);
+            List<ProducerRecord<String, byte[]>> records = sentRecords(2);
+            assertThat(records.get(0).topic()).isEqualTo("meeting-events");
+            assertThat(records.get(0).key()).isEqualTo("1");
+            assertThat(text(records.get(0))).isEqualTo("{\"id\":1,\"title\":\"Test Meeting\"}");
+            assertThat(records.get(1).topic()).isEqualTo("text-message-events");
+            assertThat(new String(records.get(1).headers().lastHeader("eventType").value())).isEqualTo("Created");
+            verify(outBoxEventRepository).markAsProcessed(List.of(1L, 2L));
+            verify(outBoxEventRepository, never()).save(any(OutBoxEvent.class));
+            assertThat(outBoxEventRelayer.getRelayedEventCount()).isEqualTo(2);
+            assertThat(outBoxEventRelayer.getLastRelayLagMillis()).isGreaterThanOrEqualTo(2000);
+        }
+
+        @Test
+        @DisplayName("Should do nothing when no unprocessed events")
+        void relayEvents_NoEvents_ShouldDoNothing() {
+            when(outboxEventClaimer.claim(BATCH_SIZE))
+                    .thenReturn(Collections.emptyList());
+
+            assertThat(outBoxEventRelayer.relayEvents()).isZero();
+
+            verifyNoInteractions(kafkaTemplate);
+            verify(outBoxEventRepository, never()).markAsProcessed(anyList());
+        }
+
+        @Test
+        @DisplayName("Should mark only acknowledged events")
+        void relayEvents_PartialFailure_ShouldMarkOnlyAcknowledged() {
+            OutBoxEvent ok = event(1L, "AudioMessage", "{\"id\":1}");
+            OutBoxEvent rejected = event(2L, "AudioMessage", "{\"id\":2}");
+
+            when(outboxEventClaimer.claim(BATCH_SIZE))
+                    .thenReturn(List.of(ok, rejected));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv ->
+                    "1".equals(inv.<ProducerRecord<String, byte[]>>getArgument(0).key()) ? acked() : failed());
 
             outBoxEventRelayer.relayEvents();
 
-            verify(kafkaTemplate).send(eq("team-messages"), eq("{\"id\":1,\"title\":\"Test Meeting\"}"));
-            verify(kafkaTemplate).send(eq("team-messages"), eq("{\"id\":2,\"content\":\"Hello\"}"));
+            verify(outBoxEventRepository).markAsProcessed(List.of(1L));
+            verify(outBoxEventRepository).releaseLeases(List.of(2L), "relay-test:1");
+            assertThat(outBoxEventRelayer.getFailedEventCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not mark anything when Kafka send fails")
+        void relayEvents_KafkaFailure_ShouldNotMarkProcessed() {
+            OutBoxEvent event = event(1L, "Meeting", "{\"id\":1}");
+
+            when(outboxEventClaimer.claim(BATCH_SIZE))
+                    .thenReturn(List.of(event));
+            when(kafkaTemplate.send(any(ProducerRecord.class)))
+                    .thenThrow(new RuntimeException("Kafka connection failed"));
 
-            assertThat(event1.isProcessed()).isTrue();
-            assertThat(event2.isProcessed()).isTrue();
+            assertThat(outBoxEventRelayer.relayEvents()).isZero();
 
-            verify(outBoxEventRepository, times(2)).save(any(OutBoxEvent.class));
+            verify(outBoxEventRepository, never()).markAsProcessed(anyList());
+            verify(outBoxEventRepository).releaseLeases(List.of(1L), "relay-test:1");
+            assertThat(event.isProcessed()).isFalse();
         }
 
         @Test
-        @DisplayName("Should do nothing when no unprocessed events")
-        void relayEvents_NoEvents_ShouldDoNothing() {
-            when(outBoxEventRepository.find100Unprocessed(any(PageRequest.class)))
-                    .thenReturn(Collections.emptyList());
+        @DisplayName("Should keep relaying while full batches are returned")
+        void relayEvents_WithBacklog_ShouldLoopUntilDrained() {
+            List<OutBoxEvent> first = new ArrayList<>();
+            List<OutBoxEvent> second = new ArrayList<>();
+            for (long id = 1; id <= BATCH_SIZE; id++) {
+                first.add(event(id, "Meeting", "m" + id));
+            }
+            second.add(event(BATCH_SIZE + 1, "Meeting", "last"));
+
+            when(outboxEventClaimer.claim(BATCH_SIZE))
+                    .thenReturn(first, second);
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+            int relayed = outBoxEventRelayer.relayEvents();
+
+            assertThat(relayed).isEqualTo(BATCH_SIZE + 1);
+            verify(outboxEventClaimer, times(2)).claim(BATCH_SIZE);
+            verify(outBoxEventRepository, times(2)).markAsProcessed(anyList());
+            assertThat(outBoxEventRelayer.getLastThroughputPerSecond()).isPositive();
+        }
+
+        @Test
+        @DisplayName("Should stop looping when a full batch gets no acknowledgements")
+        void relayEvents_BrokerDown_ShouldNotSpin() {
+            List<OutBoxEvent> batch = new ArrayList<>();
+            for (long id = 1; id <= BATCH_SIZE; id++) {
+                batch.add(event(id, "Meeting", "m" + id));
+            }
+
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(batch);
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failed());
 
             outBoxEventRelayer.relayEvents();
 
-            verify(kafkaTemplate, never()).send(anyString(), anyString());
-            verify(outBoxEventRepository, never()).save(any(OutBoxEvent.class));
+            verify(outboxEventClaimer, times(1)).claim(BATCH_SIZE);
+            verify(outBoxEventRepository, never()).markAsProcessed(anyList());
         }
 
         @Test
-        @DisplayName("Should mark event as processed after successful send")
-        void relayEvents_SuccessfulSend_ShouldMarkAsProcessed() {
-            OutBoxEvent event = OutBoxEvent.builder()
-                    .id(1L)
-                    .aggregateType("AudioMessage")
-                    .aggregateId("100")
-                    .eventType("Created")
-                    .payload("{\"id\":100}")
-                    .processed(false)
-                    .build();
-
-            when(outBoxEventRepository.find100Unprocessed(any(PageRequest.class)))
-                    .thenReturn(List.of(event));
+        @DisplayName("Should send events in order")
+        void relayEvents_MultipleEvents_ShouldSendInOrder() {
+            when(outboxEventClaimer.claim(BATCH_SIZE))
+                    .thenReturn(List.of(event(1L, "Meeting", "first"), event(2L, "Meeting", "second")));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
 
             outBoxEventRelayer.relayEvents();
 
-            ArgumentCaptor<OutBoxEvent> captor = ArgumentCaptor.forClass(OutBoxEvent.class);
-            verify(outBoxEventRepository).save(captor.capture());
+            assertThat(sentRecords(2)).extracting(OutBoxEventRelayerTest::text).containsExactly("first", "second");
+        }
 
-            assertThat(captor.getValue().isProcessed()).isTrue();
-            assertThat(captor.getValue().getId()).isEqualTo(1L);
+        @Test
+        @DisplayName("Should send a key's next event only after the previous one is acknowledged")
+        void relayEvents_SameKey_ShouldSendSequentially() {
+            List<OutBoxEvent> events = List.of(
+                    keyed(event(1L, "Meeting", "started"), "meeting-1"),
+                    keyed(event(2L, "AudioMessage", "audio"), "meeting-1"),
+                    keyed(event(3L, "Meeting", "ended"), "meeting-1"));
+            List<CompletableFuture<SendResult<String, byte[]>>> issued = new ArrayList<>();
+
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(events, Collections.emptyList());
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+                assertThat(issued).allMatch(CompletableFuture::isDone);
+                CompletableFuture<SendResult<String, byte[]>> future = CompletableFuture.supplyAsync(() -> null,
+                        CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+                issued.add(future);
+                return future;
+            });
+
+            assertThat(outBoxEventRelayer.relayEvents()).isEqualTo(3);
+
+            assertThat(sentRecords(3)).extracting(OutBoxEventRelayerTest::text).containsExactly("started", "audio", "ended");
+            verify(outBoxEventRepository).markAsProcessed(List.of(1L, 2L, 3L));
         }
 
         @Test
-        @DisplayName("Should throw exception when Kafka send fails")
-        void relayEvents_KafkaFailure_ShouldThrowException() {
-            OutBoxEvent event = OutBoxEvent.builder()
-                    .id(1L)
-                    .aggregateType("Meeting")
-                    .aggregateId("1")
-                    .payload("{\"id\":1}")
-                    .processed(false)
-                    .build();
-
-            when(outBoxEventRepository.find100Unprocessed(any(PageRequest.class)))
-                    .thenReturn(List.of(event));
-            when(kafkaTemplate.send(anyString(), anyString()))
-                    .thenThrow(new RuntimeException("Kafka connection failed"));
+        @DisplayName("Should hold back a key's later events together with a rejected one")
+        void relayEvents_RejectedEvent_ShouldStopRestOfKey() {
+            OutBoxEvent rejected = keyed(event(1L, "Meeting", "m1"), "meeting-1");
+            OutBoxEvent later = keyed(event(2L, "AudioMessage", "a2"), "meeting-1");
+            OutBoxEvent otherKey = keyed(event(3L, "Meeting", "m3"), "meeting-2");
 
-            assertThatThrownBy(() -> outBoxEventRelayer.relayEvents())
-                    .isInstanceOf(RuntimeException.class)
-                    .hasMessageContaining("Could not relay event");
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(List.of(rejected, later, otherKey));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(inv ->
+                    "meeting-1".equals(inv.<ProducerRecord<String, byte[]>>getArgument(0).key()) ? failed() : acked());
 
-            
-            assertThat(event.isProcessed()).isFalse();
+            outBoxEventRelayer.relayEvents();
+
+            assertThat(sentRecords(2)).extracting(OutBoxEventRelayerTest::text).containsExactly("m1", "m3");
+            verify(outBoxEventRepository).markAsProcessed(List.of(3L));
+            verify(outBoxEventRepository).releaseLeases(List.of(1L, 2L), "relay-test:1");
+            assertThat(outBoxEventRelayer.getFailedEventCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should use write-time routing columns without reading the payload")
+        void relayEvents_WithRoutingColumns_ShouldUseThem() {
+            OutBoxEvent routed = event(1L, "AudioMessage", "{not json");
+            routed.setTopic("custom-topic");
+            routed.setPartitionKey("channel-42");
+            routed.setHeaders("{\"eventType\":\"Created\",\"meetingId\":\"m-1\"}");
+
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(List.of(routed));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+            outBoxEventRelayer.relayEvents();
+
+            ProducerRecord<String, byte[]> record = sentRecords(1).get(0);
+            assertThat(record.topic()).isEqualTo("custom-topic");
+            assertThat(record.key()).isEqualTo("channel-42");
+            assertThat(new String(record.headers().lastHeader("meetingId").value())).isEqualTo("m-1");
+            verify(outBoxEventRepository).markAsProcessed(List.of(1L));
+        }
+
+        @Test
+        @DisplayName("Should publish with derived headers when the headers column is malformed")
+        void relayEvents_WithMalformedHeaders_ShouldNotPoisonEvent() {
+            OutBoxEvent broken = event(1L, "Meeting", "{\"id\":1}");
+            broken.setHeaders("{\"eventType\":");
+
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(List.of(broken));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+            assertThat(outBoxEventRelayer.relayEvents()).isEqualTo(1);
+
+            ProducerRecord<String, byte[]> record = sentRecords(1).get(0);
+            assertThat(new String(record.headers().lastHeader("eventType").value())).isEqualTo("Created");
+            verify(outBoxEventRepository).markAsProcessed(List.of(1L));
+            assertThat(outBoxEventRelayer.getMalformedHeaderEventCount()).isEqualTo(1);
+            assertThat(outBoxEventRelayer.getFailedEventCount()).isZero();
         }
 
         @Test
-        @DisplayName("Should process events in order")
-        void relayEvents_MultipleEvents_ShouldProcessInOrder() {
-            OutBoxEvent event1 = OutBoxEvent.builder()
-                    .id(1L)
-                    .payload("first")
-                    .processed(false)
-                    .build();
-
-            OutBoxEvent event2 = OutBoxEvent.builder()
-                    .id(2L)
-                    .payload("second")
-                    .processed(false)
-                    .build();
-
-            OutBoxEvent event3 = OutBoxEvent.builder()
-                    .id(3L)
-                    .payload("third")
-                    .processed(false)
-                    .build();
-
-            when(outBoxEventRepository.find100Unprocessed(any(PageRequest.class)))
-                    .thenReturn(List.of(event1, event2, event3));
+        @DisplayName("Should forward compressed payloads as-is with a content-encoding header")
+        void relayEvents_WithCompressedPayload_ShouldForwardBytes() {
+            String json = "{\"transcription\":\"" + "merhaba dunya ".repeat(50) + "\"}";
+            OutBoxEvent compressed = event(1L, "AudioMessage", null);
+            outboxPayloadCodec.encodeInto(compressed, json);
+
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(List.of(compressed));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
 
             outBoxEventRelayer.relayEvents();
 
-            ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-            verify(kafkaTemplate, times(3)).send(eq("team-messages"), payloadCaptor.capture());
+            ProducerRecord<String, byte[]> record = sentRecords(1).get(0);
+            assertThat(record.value()).isSameAs(compressed.getCompressedPayload());
+            assertThat(record.value().length).isLessThan(json.length());
+            assertThat(new String(record.headers().lastHeader(OutboxPayloadCodec.HEADER_CONTENT_ENCODING).value()))
+                    .isEqualTo(OutboxPayloadCodec.CODEC_ZSTD);
+            assertThat(new String(Zstd.decompress(record.value(), json.length()), StandardCharsets.UTF_8)).isEqualTo(json);
+        }
+
+        @Test
+        @DisplayName("Should not add a content-encoding header to plain payloads")
+        void relayEvents_WithPlainPayload_ShouldNotAddEncodingHeader() {
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(List.of(event(1L, "Meeting", "{\"id\":1}")));
+            when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(acked());
+
+            outBoxEventRelayer.relayEvents();
 
-            List<String> sentPayloads = payloadCaptor.getAllValues();
-            assertThat(sentPayloads).containsExactly("first", "second", "third");
+            assertThat(sentRecords(1).get(0).headers().lastHeader(OutboxPayloadCodec.HEADER_CONTENT_ENCODING)).isNull();
         }
     }
-}
 
+    @Nested
+    @DisplayName("Relay loop tests")
+    class RelayLoopTests {
+
+        @Test
+        @DisplayName("Commit signal should wake an idle relayer immediately")
+        void signal_ShouldWakeIdleRelayer() {
+            // Poll aralığı en az 5 s; ikinci tur ancak sinyal ile bu kadar erken gelebilir
+            OutBoxEventRelayer slowRelayer = new OutBoxEventRelayer(outBoxEventRepository, outboxEventClaimer,
+                    outboxRelaySignal, kafkaTemplate, new ObjectMapper(), outboxPayloadCodec, BATCH_SIZE, 1000, 10, 5_000, 60_000);
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(Collections.emptyList());
+
+            slowRelayer.start();
+            try {
+                verify(outboxEventClaimer, timeout(1000).times(1)).claim(BATCH_SIZE);
+                outboxRelaySignal.signal();
+                verify(outboxEventClaimer, timeout(1000).times(2)).claim(BATCH_SIZE);
+            } finally {
+                slowRelayer.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Idle polls should back off up to the maximum interval")
+        void idlePolls_ShouldBackOff() throws Exception {
+            OutBoxEventRelayer fastRelayer = new OutBoxEventRelayer(outBoxEventRepository, outboxEventClaimer,
+                    outboxRelaySignal, kafkaTemplate, new ObjectMapper(), outboxPayloadCodec, BATCH_SIZE, 1000, 10, 1, 8);
+            when(outboxEventClaimer.claim(BATCH_SIZE)).thenReturn(Collections.emptyList());
+
+            fastRelayer.start();
+            try {
+                verify(outboxEventClaimer, timeout(1000).atLeast(6)).claim(BATCH_SIZE);
+                assertThat(fastRelayer.getCurrentPollMillis()).isEqualTo(8);
+            } finally {
+                fastRelayer.stop();
+            }
+        }
+    }
+}
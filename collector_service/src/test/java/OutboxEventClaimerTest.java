@@ -0,0 +1,173 @@
+import org.example.collector_service.MainApp;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.relayer.OutboxEventClaimer;
+import org.example.collector_service.repository.OutBoxEventRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ContextConfiguration(classes = MainApp.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("OutboxEventClaimer Integration Tests")
+class OutboxEventClaimerTest {
+
+    @Autowired
+    private OutBoxEventRepository outBoxEventRepository;
+
+    @BeforeEach
+    void setUp() {
+        outBoxEventRepository.deleteAll();
+    }
+
+    private void saveEvents(int count) {
+        LocalDateTime base = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < count; i++) {
+            outBoxEventRepository.save(OutBoxEvent.builder()
+                    .aggregateType("Meeting")
+                    .aggregateId(String.valueOf(i))
+                    .eventType("Created")
+                    .payload("{\"id\":" + i + "}")
+                    .createdAt(base.plusSeconds(i))
+                    .build());
+        }
+    }
+
+    private OutBoxEvent saveKeyed(String partitionKey, LocalDateTime createdAt) {
+        return outBoxEventRepository.save(OutBoxEvent.builder()
+                .aggregateType("Meeting")
+                .aggregateId(partitionKey)
+                .eventType("Created")
+                .payload("{}")
+                .partitionKey(partitionKey)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    private static Set<Long> ids(List<OutBoxEvent> events) {
+        Set<Long> ids = new HashSet<>();
+        events.forEach(event -> ids.add(event.getId()));
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Two relayers should split the backlog without overlap")
+    void claim_WithTwoRelayers_ShouldNotOverlap() {
+        saveEvents(5);
+        OutboxEventClaimer relayA = new OutboxEventClaimer(outBoxEventRepository, "relay-a", 60);
+        OutboxEventClaimer relayB = new OutboxEventClaimer(outBoxEventRepository, "relay-b", 60);
+
+        List<OutBoxEvent> claimedByA = relayA.claim(3);
+        List<OutBoxEvent> claimedByB = relayB.claim(3);
+
+        assertThat(claimedByA).hasSize(3);
+        assertThat(claimedByB).hasSize(2);
+        assertThat(ids(claimedByA)).doesNotContainAnyElementsOf(ids(claimedByB));
+        assertThat(claimedByA).extracting(OutBoxEvent::getAggregateId).containsExactly("0", "1", "2");
+        assertThat(relayA.claim(3)).isEmpty();
+        assertThat(relayB.claim(3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Expired leases should be claimed again")
+    void claim_WithExpiredLease_ShouldReclaim() {
+        saveEvents(2);
+        OutboxEventClaimer crashed = new OutboxEventClaimer(outBoxEventRepository, "crashed", -1);
+        OutboxEventClaimer survivor = new OutboxEventClaimer(outBoxEventRepository, "survivor", 60);
+
+        assertThat(crashed.claim(10)).hasSize(2);
+        List<OutBoxEvent> reclaimed = survivor.claim(10);
+
+        assertThat(reclaimed).hasSize(2);
+        assertThat(reclaimed).allSatisfy(event -> assertThat(event.getLeaseOwner()).startsWith("survivor:"));
+    }
+
+    @Test
+    @DisplayName("Processed events should never be claimed")
+    void claim_WithProcessedEvents_ShouldSkipThem() {
+        saveEvents(3);
+        OutboxEventClaimer claimer = new OutboxEventClaimer(outBoxEventRepository, "relay", 60);
+        List<Long> allIds = outBoxEventRepository.findAll().stream().map(OutBoxEvent::getId).sorted().toList();
+        outBoxEventRepository.markAsProcessed(allIds.subList(0, 2));
+
+        List<OutBoxEvent> claimed = claimer.claim(10);
+
+        assertThat(claimed).extracting(OutBoxEvent::getId).containsExactly(allIds.get(2));
+    }
+
+    @Test
+    @DisplayName("Released leases should be claimable again right away")
+    void releaseLeases_ShouldMakeEventsClaimableBeforeExpiry() {
+        saveEvents(2);
+        OutboxEventClaimer relayA = new OutboxEventClaimer(outBoxEventRepository, "relay-a", 60);
+        OutboxEventClaimer relayB = new OutboxEventClaimer(outBoxEventRepository, "relay-b", 60);
+        List<OutBoxEvent> claimed = relayA.claim(10);
+
+        outBoxEventRepository.releaseLeases(List.of(claimed.get(0).getId()), "relay-b:1");
+        assertThat(relayB.claim(10)).isEmpty();
+
+        outBoxEventRepository.releaseLeases(List.of(claimed.get(0).getId()), claimed.get(0).getLeaseOwner());
+        assertThat(relayB.claim(10)).extracting(OutBoxEvent::getId).containsExactly(claimed.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Later events of a key should not be claimed while an earlier one is leased")
+    void claim_WithEarlierEventLeased_ShouldSkipRestOfKey() {
+        LocalDateTime base = LocalDateTime.now().minusMinutes(1);
+        OutBoxEvent first = saveKeyed("meeting-1", base);
+        OutBoxEvent second = saveKeyed("meeting-1", base.plusSeconds(1));
+        OutBoxEvent third = saveKeyed("meeting-1", base.plusSeconds(2));
+        OutBoxEvent other = saveKeyed("meeting-2", base.plusSeconds(3));
+        OutboxEventClaimer relayA = new OutboxEventClaimer(outBoxEventRepository, "relay-a", 60);
+        OutboxEventClaimer relayB = new OutboxEventClaimer(outBoxEventRepository, "relay-b", 60);
+
+        assertThat(relayA.claim(1)).extracting(OutBoxEvent::getId).containsExactly(first.getId());
+        assertThat(relayB.claim(10)).extracting(OutBoxEvent::getId).containsExactly(other.getId());
+
+        outBoxEventRepository.markAsProcessed(List.of(first.getId()));
+        assertThat(relayB.claim(10)).extracting(OutBoxEvent::getId).containsExactly(second.getId(), third.getId());
+    }
+
+    @Test
+    @DisplayName("A released event should be claimed again before the later events of its key")
+    void claim_AfterRelease_ShouldRestartFromEarliestEvent() {
+        LocalDateTime base = LocalDateTime.now().minusMinutes(1);
+        OutBoxEvent first = saveKeyed("meeting-1", base);
+        OutBoxEvent second = saveKeyed("meeting-1", base.plusSeconds(1));
+        OutboxEventClaimer relayA = new OutboxEventClaimer(outBoxEventRepository, "relay-a", 60);
+        OutboxEventClaimer relayB = new OutboxEventClaimer(outBoxEventRepository, "relay-b", 60);
+        String owner = relayA.claim(10).get(0).getLeaseOwner();
+
+        outBoxEventRepository.releaseLeases(List.of(first.getId(), second.getId()), owner);
+
+        assertThat(relayB.claim(10)).extracting(OutBoxEvent::getId).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("Claimed events behind another claim's earlier event of the same key should be found")
+    void findOutOfOrderClaimedIds_ShouldReturnEventsBehindForeignEarlierEvent() {
+        LocalDateTime base = LocalDateTime.now().minusMinutes(1);
+        LocalDateTime now = LocalDateTime.now();
+        OutBoxEvent first = saveKeyed("meeting-1", base);
+        OutBoxEvent second = saveKeyed("meeting-1", base.plusSeconds(1));
+        OutBoxEvent other = saveKeyed("meeting-2", base.plusSeconds(2));
+
+        // Aday okumasından sonra başka bir relay anahtarın ilk event'ini almış gibi
+        outBoxEventRepository.claim(List.of(first.getId()), "relay-a:1", now.plusMinutes(1), now);
+        outBoxEventRepository.claim(List.of(second.getId(), other.getId()), "relay-b:1", now.plusMinutes(1), now);
+
+        assertThat(outBoxEventRepository.findOutOfOrderClaimedIds("relay-b:1")).containsExactly(second.getId());
+        assertThat(outBoxEventRepository.findOutOfOrderClaimedIds("relay-a:1")).isEmpty();
+    }
+}
@@ -1,9 +1,14 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.luben.zstd.Zstd;
 import org.example.collector_service.domain.model.Meeting;
+import org.example.collector_service.domain.model.Message;
 import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.outbox.OutboxBatchWriter;
 import org.example.collector_service.outbox.OutboxEventPublisher;
+import org.example.collector_service.outbox.OutboxPayloadCodec;
+import org.example.collector_service.outbox.OutboxRelaySignal;
 import org.example.collector_service.repository.OutBoxEventRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +18,9 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -24,11 +32,20 @@ public class OutboxEventPubliserEvent {
     @Mock
     private OutBoxEventRepository outBoxEventRepository;
 
+    @Mock
+    private OutboxRelaySignal outboxRelaySignal;
+
+    @Mock
+    private OutboxBatchWriter outboxBatchWriter;
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+    @Spy
+    private OutboxPayloadCodec outboxPayloadCodec = new OutboxPayloadCodec(1024, 3);
+
     @InjectMocks
     private OutboxEventPublisher outboxEventPublisher;
 
@@ -58,6 +75,78 @@ public class OutboxEventPubliserEvent {
             assertThat(savedEvent.getEventType()).isEqualTo("Created");
             assertThat(savedEvent.getPayload()).contains("ZOOM");
             assertThat(savedEvent.isProcessed()).isFalse();
+            assertThat(savedEvent.getTopic()).isEqualTo("meeting-events");
+            assertThat(savedEvent.getPartitionKey()).isEqualTo("1");
+            assertThat(savedEvent.getHeaders()).contains("\"eventType\":\"Created\"");
+            verify(outboxRelaySignal).signalAfterCommit();
+        }
+
+        @Test
+        @DisplayName("Should key channel-scoped aggregates by channel")
+        void publishEvent_WithMessage_ShouldUseChannelAsPartitionKey(){
+            Message message = Message.builder()
+                    .id(5L)
+                    .channelId("channel-9")
+                    .build();
+
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(e -> e.getArgument(0));
+
+            outboxEventPublisher.publishCreated(message, "5", "Message");
+
+            ArgumentCaptor<OutBoxEvent> eventCaptor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(eventCaptor.capture());
+            assertThat(eventCaptor.getValue().getPartitionKey()).isEqualTo("channel-9");
+            assertThat(eventCaptor.getValue().getTopic()).isEqualTo("text-message-events");
+        }
+
+        @Test
+        @DisplayName("Should key meeting messages by the meeting like the voice aggregates")
+        void publishEvent_WithMeetingMessage_ShouldUseMeetingAsPartitionKey(){
+            Message message = Message.builder()
+                    .id(6L)
+                    .meetingId("voice-channel-1")
+                    .channelId("text-channel-9")
+                    .build();
+
+            when(outBoxEventRepository.save(any(OutBoxEvent.class))).thenAnswer(e -> e.getArgument(0));
+
+            outboxEventPublisher.publishCreated(message, "6", "Message");
+
+            ArgumentCaptor<OutBoxEvent> eventCaptor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(eventCaptor.capture());
+            assertThat(eventCaptor.getValue().getPartitionKey()).isEqualTo("voice-channel-1");
+        }
+    }
+
+    @Nested
+    @DisplayName("publishCreatedAll() tests")
+    class PublishCreatedAllTests {
+
+        @Test
+        @DisplayName("Should write all events in one batch and signal once")
+        @SuppressWarnings("unchecked")
+        void publishCreatedAll_ShouldInsertBatchAndSignalOnce() {
+            List<Message> messages = List.of(
+                    Message.builder().id(1L).channelId("c-1").content("a").build(),
+                    Message.builder().id(2L).channelId("c-2").content("b").build());
+
+            outboxEventPublisher.publishCreatedAll(messages, m -> m.getId().toString(), "Message");
+
+            ArgumentCaptor<List<OutBoxEvent>> captor = ArgumentCaptor.forClass(List.class);
+            verify(outboxBatchWriter).insertAll(captor.capture());
+            assertThat(captor.getValue()).extracting(OutBoxEvent::getAggregateId).containsExactly("1", "2");
+            assertThat(captor.getValue()).extracting(OutBoxEvent::getPartitionKey).containsExactly("c-1", "c-2");
+            assertThat(captor.getValue()).allMatch(e -> "Created".equals(e.getEventType()));
+            verify(outBoxEventRepository, never()).save(any());
+            verify(outboxRelaySignal, times(1)).signalAfterCommit();
+        }
+
+        @Test
+        @DisplayName("Should do nothing for an empty list")
+        void publishCreatedAll_Empty_ShouldDoNothing() {
+            outboxEventPublisher.publishCreatedAll(List.<Meeting>of(), m -> "x", "Meeting");
+
+            verifyNoInteractions(outboxBatchWriter, outboxRelaySignal);
         }
     }
 
@@ -157,5 +246,42 @@ public class OutboxEventPubliserEvent {
 
             assertThat(captor.getValue().getCreatedAt()).isNotNull();
         }
+
+        @Test
+        @DisplayName("Small payloads should be stored as plain JSON")
+        void publishEvent_SmallPayload_ShouldNotCompress() {
+            Meeting meeting = Meeting.builder().id(1L).title("Daily").build();
+            when(outBoxEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+            outboxEventPublisher.publishCreated(meeting, "1", "Meeting");
+
+            ArgumentCaptor<OutBoxEvent> captor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(captor.capture());
+
+            assertThat(captor.getValue().getPayloadCodec()).isNull();
+            assertThat(captor.getValue().getCompressedPayload()).isNull();
+            assertThat(captor.getValue().getPayload()).contains("Daily");
+        }
+
+        @Test
+        @DisplayName("Large payloads should be stored compressed")
+        void publishEvent_LargePayload_ShouldCompress() {
+            String longTitle = "Sprint planlama toplantisi ".repeat(200);
+            Meeting meeting = Meeting.builder().id(1L).title(longTitle).build();
+            when(outBoxEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+            outboxEventPublisher.publishCreated(meeting, "1", "Meeting");
+
+            ArgumentCaptor<OutBoxEvent> captor = ArgumentCaptor.forClass(OutBoxEvent.class);
+            verify(outBoxEventRepository).save(captor.capture());
+
+            OutBoxEvent saved = captor.getValue();
+            assertThat(saved.getPayload()).isNull();
+            assertThat(saved.getPayloadCodec()).isEqualTo(OutboxPayloadCodec.CODEC_ZSTD);
+            assertThat(saved.getCompressedPayload().length).isLessThan(longTitle.length() / 10);
+            byte[] compressedPayload = saved.getCompressedPayload();
+            assertThat(new String(Zstd.decompress(compressedPayload, (int) Zstd.getFrameContentSize(compressedPayload)),
+                    StandardCharsets.UTF_8)).contains(longTitle);
+        }
     }
 }
@@ -0,0 +1,80 @@
+import org.example.collector_service.MainApp;
+import org.example.collector_service.domain.model.OutBoxEvent;
+import org.example.collector_service.outbox.OutboxRetentionService;
+import org.example.collector_service.repository.OutBoxEventRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ContextConfiguration(classes = MainApp.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("OutboxRetentionService Integration Tests")
+class OutboxRetentionServiceTest {
+
+    @Autowired
+    private OutBoxEventRepository outBoxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OutboxRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        outBoxEventRepository.deleteAll();
+        retentionService = new OutboxRetentionService(outBoxEventRepository, jdbcTemplate, 24, 2, 100, 0);
+    }
+
+    private void saveEvent(String aggregateId, boolean processed, LocalDateTime createdAt) {
+        outBoxEventRepository.save(OutBoxEvent.builder()
+                .aggregateType("Meeting")
+                .aggregateId(aggregateId)
+                .eventType("Created")
+                .payload("{}")
+                .processed(processed)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should purge only old processed events, in chunks")
+    void purgeProcessedBefore_ShouldDeleteOldProcessedEventsOnly() {
+        LocalDateTime old = LocalDateTime.now().minusDays(3);
+        for (int i = 0; i < 5; i++) {
+            saveEvent("old-" + i, true, old.plusMinutes(i));
+        }
+        saveEvent("old-pending", false, old);
+        saveEvent("recent", true, LocalDateTime.now());
+
+        int deleted = retentionService.purgeProcessedBefore(LocalDateTime.now().minusDays(1));
+
+        assertThat(deleted).isEqualTo(5);
+        assertThat(outBoxEventRepository.findAll())
+                .extracting(OutBoxEvent::getAggregateId)
+                .containsExactlyInAnyOrder("old-pending", "recent");
+        assertThat(retentionService.getPurgedEventCount()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should report row counts and relay scan latency")
+    void reportStats_ShouldCollectTableMetrics() {
+        saveEvent("a", false, LocalDateTime.now());
+        saveEvent("b", true, LocalDateTime.now());
+
+        retentionService.reportStats();
+
+        assertThat(retentionService.getLastTotalRows()).isEqualTo(2);
+        assertThat(retentionService.getLastUnprocessedRows()).isEqualTo(1);
+        assertThat(retentionService.getLastScanMicros()).isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,127 @@
+import org.example.collector_service.controller.ResumableUploadController;
+import org.example.collector_service.domain.dto.MediaUploadRequest;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.dto.UploadSessionRequest;
+import org.example.collector_service.domain.dto.UploadSessionStatus;
+import org.example.collector_service.exception.InvalidChunkException;
+import org.example.collector_service.service.MediaIngestService;
+import org.example.collector_service.service.ResumableUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResumableUploadController Unit Tests")
+public class ResumableUploadControllerTest {
+
+    private static final int CHUNK = 1024;
+
+    @TempDir
+    Path stagingDirectory;
+
+    @Mock
+    private MediaIngestService mediaIngestService;
+
+    private ResumableUploadController resumableUploadController;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resumableUploadController = new ResumableUploadController(new ResumableUploadService(mediaIngestService, 60));
+        data = new byte[3 * CHUNK + 10];
+        new Random(5).nextBytes(data);
+        when(mediaIngestService.createStagingFile(anyString()))
+                .thenAnswer(invocation -> Files.createTempFile(stagingDirectory, "upload_", ".part"));
+    }
+
+    @Test
+    @DisplayName("Chunks sent out of order through the API should complete the upload")
+    void uploadChunk_OutOfOrder_ShouldComplete() throws Exception {
+        String uploadId = createSession();
+
+        for (int offset : new int[]{2 * CHUNK, 0, 3 * CHUNK, CHUNK}) {
+            ResponseEntity<UploadSessionStatus> response = uploadChunk(uploadId, offset,
+                    Arrays.copyOfRange(data, offset, Math.min(offset + CHUNK, data.length)));
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        when(mediaIngestService.ingestStagedFile(any(Path.class), anyString(), anyLong(), anyString(), anyString(),
+                any(MediaUploadRequest.class))).thenReturn(MediaUploadResponse.builder().fileKey("zoom_abc").build());
+
+        ResponseEntity<MediaUploadResponse> completed = resumableUploadController.complete(uploadId);
+
+        assertThat(completed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(mediaIngestService).ingestStagedFile(any(Path.class), eq(sha256(data)), eq((long) data.length),
+                anyString(), anyString(), any(MediaUploadRequest.class));
+    }
+
+    @Test
+    @DisplayName("Overlapping chunk that conflicts with received bytes should be rejected")
+    void uploadChunk_OverlappingConflict_ShouldThrow() throws Exception {
+        String uploadId = createSession();
+        uploadChunk(uploadId, 0, Arrays.copyOfRange(data, 0, CHUNK));
+        byte[] conflicting = Arrays.copyOfRange(data, 10, 10 + CHUNK);
+        conflicting[0] ^= 1;
+
+        assertThatThrownBy(() -> uploadChunk(uploadId, 10, conflicting))
+                .isInstanceOf(InvalidChunkException.class);
+        assertThat(resumableUploadController.getStatus(uploadId).getBody().getHashedBytes()).isEqualTo(CHUNK);
+    }
+
+    @Test
+    @DisplayName("Resumed upload should resend the missing range reported by status")
+    void uploadChunk_Resumed_ShouldFillMissingRange() throws Exception {
+        String uploadId = createSession();
+        uploadChunk(uploadId, 0, Arrays.copyOfRange(data, 0, CHUNK));
+        uploadChunk(uploadId, 2 * CHUNK, Arrays.copyOfRange(data, 2 * CHUNK, data.length));
+
+        UploadSessionStatus status = resumableUploadController.getStatus(uploadId).getBody();
+        assertThat(status.getMissingRanges()).hasSize(1);
+        UploadSessionStatus.ByteRange missing = status.getMissingRanges().get(0);
+
+        UploadSessionStatus resumed = uploadChunk(uploadId, missing.getStart(),
+                Arrays.copyOfRange(data, (int) missing.getStart(), (int) missing.getEnd())).getBody();
+
+        assertThat(resumed.isComplete()).isTrue();
+        assertThat(resumed.getHashedBytes()).isEqualTo(data.length);
+    }
+
+    private String createSession() {
+        UploadSessionRequest request = UploadSessionRequest.builder()
+                .fileName("meeting.mp3")
+                .contentType("audio/mpeg")
+                .fileSize((long) data.length)
+                .metadata(MediaUploadRequest.builder().platform("ZOOM").meetingId("meeting-1").build())
+                .build();
+        ResponseEntity<UploadSessionStatus> response = resumableUploadController.createSession(request);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody().getUploadId();
+    }
+
+    private ResponseEntity<UploadSessionStatus> uploadChunk(String uploadId, long offset, byte[] chunk) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/media/uploads/" + uploadId + "/chunks");
+        request.setContent(chunk);
+        return resumableUploadController.uploadChunk(uploadId, offset, request);
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
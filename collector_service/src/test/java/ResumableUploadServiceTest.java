@@ -0,0 +1,201 @@
+import org.example.collector_service.domain.dto.MediaUploadRequest;
+import org.example.collector_service.domain.dto.MediaUploadResponse;
+import org.example.collector_service.domain.dto.UploadSessionRequest;
+import org.example.collector_service.domain.dto.UploadSessionStatus;
+import org.example.collector_service.exception.InvalidChunkException;
+import org.example.collector_service.exception.UploadIncompleteException;
+import org.example.collector_service.exception.UploadSessionClosedException;
+import org.example.collector_service.exception.UploadSessionNotFoundException;
+import org.example.collector_service.service.MediaIngestService;
+import org.example.collector_service.service.ResumableUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResumableUploadService Unit Tests")
+public class ResumableUploadServiceTest {
+
+    private static final int CHUNK = 1024;
+
+    @TempDir
+    Path stagingDirectory;
+
+    @Mock
+    private MediaIngestService mediaIngestService;
+
+    private ResumableUploadService resumableUploadService;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resumableUploadService = new ResumableUploadService(mediaIngestService, 60);
+        data = new byte[4 * CHUNK + 100];
+        new Random(11).nextBytes(data);
+        lenient().when(mediaIngestService.createStagingFile(anyString()))
+                .thenAnswer(invocation -> Files.createTempFile(stagingDirectory, "upload_", ".part"));
+    }
+
+    @Nested
+    @DisplayName("writeChunk() tests")
+    class WriteChunkTests {
+
+        @Test
+        @DisplayName("Out-of-order chunks should complete with the file's checksum")
+        void writeChunk_OutOfOrder_ShouldCompleteWithChecksum() throws Exception {
+            String uploadId = createSession();
+
+            for (int offset : new int[]{3 * CHUNK, CHUNK, 4 * CHUNK, 0, 2 * CHUNK}) {
+                writeChunk(uploadId, offset);
+            }
+            when(mediaIngestService.ingestStagedFile(any(Path.class), anyString(), anyLong(), anyString(), anyString(),
+                    any(MediaUploadRequest.class))).thenReturn(MediaUploadResponse.builder().fileKey("zoom_abc").build());
+
+            MediaUploadResponse response = resumableUploadService.complete(uploadId);
+
+            assertThat(response.getFileKey()).isEqualTo("zoom_abc");
+            verify(mediaIngestService).ingestStagedFile(any(Path.class), eq(sha256(data)), eq((long) data.length),
+                    eq("audio/mpeg"), eq("meeting.mp3"), any(MediaUploadRequest.class));
+            assertThatThrownBy(() -> resumableUploadService.getStatus(uploadId))
+                    .isInstanceOf(UploadSessionNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Overlapping chunk that changes verified bytes should be rejected and the upload still complete")
+        void writeChunk_OverlappingConflict_ShouldBeRejected() throws Exception {
+            String uploadId = createSession();
+            writeChunk(uploadId, 0);
+            byte[] conflicting = Arrays.copyOfRange(data, CHUNK / 2, CHUNK / 2 + CHUNK);
+            conflicting[1] ^= 1;
+
+            assertThatThrownBy(() -> resumableUploadService.writeChunk(uploadId, CHUNK / 2, new ByteArrayInputStream(conflicting)))
+                    .isInstanceOf(InvalidChunkException.class);
+
+            for (int offset = CHUNK; offset < data.length; offset += CHUNK) {
+                writeChunk(uploadId, offset);
+            }
+            when(mediaIngestService.ingestStagedFile(any(Path.class), anyString(), anyLong(), anyString(), anyString(),
+                    any(MediaUploadRequest.class))).thenReturn(MediaUploadResponse.builder().build());
+            resumableUploadService.complete(uploadId);
+
+            verify(mediaIngestService).ingestStagedFile(any(Path.class), eq(sha256(data)), anyLong(), anyString(),
+                    anyString(), any(MediaUploadRequest.class));
+        }
+
+        @Test
+        @DisplayName("Resumed upload should report missing ranges and accept resent chunks")
+        void writeChunk_Resumed_ShouldReportMissingRangesAndComplete() throws Exception {
+            String uploadId = createSession();
+            writeChunk(uploadId, 0);
+            writeChunk(uploadId, 2 * CHUNK);
+
+            UploadSessionStatus status = resumableUploadService.getStatus(uploadId);
+
+            assertThat(status.getReceivedBytes()).isEqualTo(2L * CHUNK);
+            assertThat(status.getHashedBytes()).isEqualTo(CHUNK);
+            assertThat(status.isComplete()).isFalse();
+            assertThat(status.getMissingRanges())
+                    .extracting(range -> range.getStart() + "-" + range.getEnd())
+                    .containsExactly(CHUNK + "-" + 2 * CHUNK, 3 * CHUNK + "-" + data.length);
+            assertThatThrownBy(() -> resumableUploadService.complete(uploadId))
+                    .isInstanceOf(UploadIncompleteException.class);
+
+            writeChunk(uploadId, CHUNK);
+            writeChunk(uploadId, 2 * CHUNK);
+            writeChunk(uploadId, 3 * CHUNK);
+            writeChunk(uploadId, 4 * CHUNK);
+
+            UploadSessionStatus finished = resumableUploadService.getStatus(uploadId);
+            assertThat(finished.isComplete()).isTrue();
+            assertThat(finished.getMissingRanges()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("complete() tests")
+    class CompleteTests {
+
+        @Test
+        @DisplayName("Repeated /complete during ingest should be rejected and leave the staging file alone")
+        void complete_Twice_ShouldIngestOnceAndKeepStagingFile() throws Exception {
+            UploadSessionRequest request = sessionRequest();
+            request.setChecksum(sha256(data));
+            String uploadId = resumableUploadService.createSession(request).getUploadId();
+            for (int offset = 0; offset < data.length; offset += CHUNK) {
+                writeChunk(uploadId, offset);
+            }
+            when(mediaIngestService.ingestStagedFile(any(Path.class), anyString(), anyLong(), anyString(), anyString(),
+                    any(MediaUploadRequest.class))).thenAnswer(invocation -> {
+                        assertThatThrownBy(() -> resumableUploadService.complete(uploadId))
+                                .isInstanceOf(UploadSessionClosedException.class);
+                        assertThat(invocation.getArgument(0, Path.class)).exists();
+                        return MediaUploadResponse.builder().fileKey("zoom_abc").build();
+                    });
+
+            assertThat(resumableUploadService.complete(uploadId).getFileKey()).isEqualTo("zoom_abc");
+
+            verify(mediaIngestService, times(1)).ingestStagedFile(any(Path.class), eq(sha256(data)), anyLong(),
+                    anyString(), anyString(), any(MediaUploadRequest.class));
+            assertThatThrownBy(() -> resumableUploadService.complete(uploadId))
+                    .isInstanceOf(UploadSessionNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("purgeExpiredSessions() tests")
+    class PurgeTests {
+
+        @Test
+        @DisplayName("Active session should survive the purge and expired session should be removed")
+        void purgeExpiredSessions_ShouldOnlyRemoveIdleSessions() throws Exception {
+            String active = createSession();
+            ResumableUploadService expiring = new ResumableUploadService(mediaIngestService, -1);
+            String expired = expiring.createSession(sessionRequest()).getUploadId();
+
+            resumableUploadService.purgeExpiredSessions();
+            expiring.purgeExpiredSessions();
+
+            assertThat(resumableUploadService.getStatus(active).getUploadId()).isEqualTo(active);
+            assertThatThrownBy(() -> expiring.getStatus(expired)).isInstanceOf(UploadSessionNotFoundException.class);
+        }
+    }
+
+    private String createSession() {
+        return resumableUploadService.createSession(sessionRequest()).getUploadId();
+    }
+
+    private UploadSessionRequest sessionRequest() {
+        return UploadSessionRequest.builder()
+                .fileName("meeting.mp3")
+                .contentType("audio/mpeg")
+                .fileSize((long) data.length)
+                .metadata(MediaUploadRequest.builder().platform("ZOOM").meetingId("meeting-1").build())
+                .build();
+    }
+
+    private void writeChunk(String uploadId, int offset) {
+        resumableUploadService.writeChunk(uploadId, offset,
+                new ByteArrayInputStream(data, offset, Math.min(CHUNK, data.length - offset)));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
@@ -0,0 +1,106 @@
+import org.example.collector_service.bot.audio.SpeechResampler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SpeechResampler Unit Tests")
+public class SpeechResamplerTest {
+
+    private static final int FRAMES = 4800;
+
+    @Test
+    @DisplayName("20 ms stereo packet should produce 20 ms of 16 kHz mono")
+    void process_ShouldReduceSizeBySix() {
+        SpeechResampler resampler = new SpeechResampler();
+        byte[] input = new byte[3840];
+        byte[] output = new byte[SpeechResampler.maxOutputBytes(input.length)];
+
+        int written = resampler.process(input, 0, input.length, output, 0);
+
+        assertThat(written).isEqualTo(640);
+    }
+
+    @Test
+    @DisplayName("Stereo channels should be averaged to mono")
+    void process_ShouldDownmixAndKeepDcLevel() {
+        SpeechResampler resampler = new SpeechResampler();
+        byte[] input = stereo(i -> 1000, i -> 3000);
+        byte[] output = new byte[SpeechResampler.maxOutputBytes(input.length)];
+
+        int written = resampler.process(input, 0, input.length, output, 0);
+        short[] samples = toShorts(output, written);
+
+        assertThat(samples[samples.length - 1]).isBetween((short) 1995, (short) 2005);
+    }
+
+    @Test
+    @DisplayName("Speech-band tone should pass and tones above 8 kHz should be attenuated")
+    void process_ShouldLowPassBeforeDecimation() {
+        double passRms = rmsAfterResampling(1000);
+        double stopRms = rmsAfterResampling(20000);
+
+        assertThat(passRms).isBetween(10000 * 0.707 * 0.95, 10000 * 0.707 * 1.05);
+        assertThat(20 * Math.log10(stopRms / passRms)).isLessThan(-40);
+    }
+
+    @Test
+    @DisplayName("Processing in odd-sized chunks should match processing in one call")
+    void process_InChunks_ShouldKeepFilterState() {
+        byte[] input = stereo(i -> (int) (8000 * Math.sin(i * 0.05)), i -> (int) (4000 * Math.cos(i * 0.02)));
+
+        SpeechResampler whole = new SpeechResampler();
+        byte[] expected = new byte[SpeechResampler.maxOutputBytes(input.length)];
+        int expectedLength = whole.process(input, 0, input.length, expected, 0);
+
+        SpeechResampler chunked = new SpeechResampler();
+        byte[] actual = new byte[expected.length];
+        int actualLength = 0;
+        for (int offset = 0; offset < input.length; offset += 28) {
+            int length = Math.min(28, input.length - offset);
+            actualLength += chunked.process(input, offset, length, actual, actualLength);
+        }
+
+        assertThat(actualLength).isEqualTo(expectedLength);
+        assertThat(Arrays.copyOf(actual, actualLength)).isEqualTo(Arrays.copyOf(expected, expectedLength));
+    }
+
+    private double rmsAfterResampling(double frequency) {
+        SpeechResampler resampler = new SpeechResampler();
+        byte[] input = stereo(i -> (int) (10000 * Math.sin(2 * Math.PI * frequency * i / 48000)),
+                i -> (int) (10000 * Math.sin(2 * Math.PI * frequency * i / 48000)));
+        byte[] output = new byte[SpeechResampler.maxOutputBytes(input.length)];
+        short[] samples = toShorts(output, resampler.process(input, 0, input.length, output, 0));
+
+        double sum = 0;
+        int start = 100;
+        for (int i = start; i < samples.length; i++) {
+            sum += (double) samples[i] * samples[i];
+        }
+        return Math.sqrt(sum / (samples.length - start));
+    }
+
+    private static byte[] stereo(IntUnaryOperator left, IntUnaryOperator right) {
+        byte[] data = new byte[FRAMES * 4];
+        for (int i = 0; i < FRAMES; i++) {
+            int l = left.applyAsInt(i);
+            int r = right.applyAsInt(i);
+            data[i * 4] = (byte) (l >> 8);
+            data[i * 4 + 1] = (byte) l;
+            data[i * 4 + 2] = (byte) (r >> 8);
+            data[i * 4 + 3] = (byte) r;
+        }
+        return data;
+    }
+
+    private static short[] toShorts(byte[] data, int length) {
+        short[] samples = new short[length / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((data[i * 2] << 8) | (data[i * 2 + 1] & 0xFF));
+        }
+        return samples;
+    }
+}
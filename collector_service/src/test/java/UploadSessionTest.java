@@ -0,0 +1,231 @@
+import org.example.collector_service.domain.model.UploadSession;
+import org.example.collector_service.exception.InvalidChunkException;
+import org.example.collector_service.exception.UploadIncompleteException;
+import org.example.collector_service.exception.UploadSessionClosedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("UploadSession Unit Tests")
+public class UploadSessionTest {
+
+    private static final int CHUNK = 64 * 1024;
+
+    private Path stagingFile;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stagingFile = Files.createTempFile("upload_", ".part");
+        data = new byte[10 * CHUNK + 123];
+        new Random(42).nextBytes(data);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(stagingFile);
+    }
+
+    @Test
+    @DisplayName("Chunks uploaded in parallel and out of order should produce the file's SHA-256")
+    void writeChunk_InParallel_ShouldComputeChecksumIncrementally() throws Exception {
+        UploadSession session = newSession(null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int offset = (data.length / CHUNK) * CHUNK; offset >= 0; offset -= CHUNK) {
+                int chunkOffset = offset;
+                futures.add(CompletableFuture.runAsync(() -> write(session, chunkOffset), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(session.isComplete()).isTrue();
+        assertThat(session.getMissingRanges()).isEmpty();
+        assertThat(session.finish()).isEqualTo(sha256(data));
+        assertThat(Files.readAllBytes(stagingFile)).isEqualTo(data);
+    }
+
+    @Test
+    @DisplayName("Status should report missing ranges and hash only the contiguous prefix")
+    void getMissingRanges_WithGap_ShouldReportIt() throws Exception {
+        UploadSession session = newSession(null);
+        write(session, 0);
+        write(session, 2 * CHUNK);
+
+        assertThat(session.getReceivedBytes()).isEqualTo(2L * CHUNK);
+        assertThat(session.getHashedBytes()).isEqualTo(CHUNK);
+        assertThat(session.getMissingRanges())
+                .extracting(range -> range[0] + "-" + range[1])
+                .containsExactly(CHUNK + "-" + 2 * CHUNK, 3 * CHUNK + "-" + data.length);
+        assertThatThrownBy(session::finish).isInstanceOf(UploadIncompleteException.class);
+    }
+
+    @Test
+    @DisplayName("Chunk outside the declared file size should be rejected")
+    void writeChunk_BeyondFileSize_ShouldThrow() throws Exception {
+        UploadSession session = newSession(null);
+
+        assertThatThrownBy(() -> session.writeChunk(data.length, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(InvalidChunkException.class);
+        assertThatThrownBy(() -> session.writeChunk(data.length - 1, new ByteArrayInputStream(new byte[2])))
+                .isInstanceOf(InvalidChunkException.class);
+    }
+
+    @Test
+    @DisplayName("Second finish should be rejected instead of returning the digest of empty input")
+    void finish_Twice_ShouldThrow() throws Exception {
+        UploadSession session = newSession(null);
+        for (int offset = 0; offset < data.length; offset += CHUNK) {
+            write(session, offset);
+        }
+
+        assertThat(session.finish()).isEqualTo(sha256(data));
+        assertThatThrownBy(session::finish).isInstanceOf(UploadSessionClosedException.class);
+    }
+
+    @Test
+    @DisplayName("Checksum declared by the client should be verified on finish")
+    void finish_WithWrongExpectedChecksum_ShouldThrow() throws Exception {
+        UploadSession session = newSession("00".repeat(32));
+        for (int offset = 0; offset < data.length; offset += CHUNK) {
+            write(session, offset);
+        }
+
+        assertThatThrownBy(session::finish)
+                .isInstanceOf(InvalidChunkException.class)
+                .hasMessageContaining("Checksum mismatch");
+    }
+
+    @Test
+    @DisplayName("Resent chunk inside the hashed prefix should be verified, not rewritten")
+    void writeChunk_ResentAfterHashing_ShouldBeAccepted() throws Exception {
+        UploadSession session = newSession(null);
+        write(session, 0);
+        write(session, CHUNK);
+        write(session, 0);
+
+        assertThat(session.getHashedBytes()).isEqualTo(2L * CHUNK);
+        assertThat(session.getReceivedBytes()).isEqualTo(2L * CHUNK);
+
+        for (int offset = 2 * CHUNK; offset < data.length; offset += CHUNK) {
+            write(session, offset);
+        }
+        assertThat(session.finish()).isEqualTo(sha256(data));
+    }
+
+    @Test
+    @DisplayName("Overlapping chunk that changes already hashed bytes should be rejected")
+    void writeChunk_OverlappingHashedPrefixWithDifferentBytes_ShouldThrow() throws Exception {
+        UploadSession session = newSession(null);
+        write(session, 0);
+        byte[] conflicting = Arrays.copyOfRange(data, CHUNK / 2, CHUNK / 2 + CHUNK);
+        conflicting[0] ^= 1;
+
+        assertThatThrownBy(() -> session.writeChunk(CHUNK / 2, new ByteArrayInputStream(conflicting)))
+                .isInstanceOf(InvalidChunkException.class)
+                .hasMessageContaining("differs");
+        assertThat(session.getReceivedBytes()).isEqualTo(CHUNK);
+
+        for (int offset = CHUNK; offset < data.length; offset += CHUNK) {
+            write(session, offset);
+        }
+        assertThat(session.finish()).isEqualTo(sha256(data));
+        assertThat(Files.readAllBytes(stagingFile)).isEqualTo(data);
+    }
+
+    @Test
+    @DisplayName("Chunk straddling the hashed prefix should verify the old part and write the new part")
+    void writeChunk_StraddlingHashedPrefix_ShouldExtendPrefix() throws Exception {
+        UploadSession session = newSession(null);
+        write(session, 0);
+
+        session.writeChunk(CHUNK / 2, new ByteArrayInputStream(data, CHUNK / 2, CHUNK));
+
+        assertThat(session.getHashedBytes()).isEqualTo(CHUNK + CHUNK / 2);
+        for (int offset = CHUNK; offset < data.length; offset += CHUNK) {
+            write(session, offset);
+        }
+        assertThat(session.finish()).isEqualTo(sha256(data));
+    }
+
+    @Test
+    @DisplayName("Idle purge should not discard a session while a chunk is being written")
+    void discardIfIdle_WhileWriteInFlight_ShouldKeepSession() throws Exception {
+        UploadSession session = newSession(null);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 0) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return position < CHUNK ? data[position++] & 0xFF : -1;
+            }
+        };
+
+        CompletableFuture<Long> write = CompletableFuture.supplyAsync(() -> {
+            try {
+                return session.writeChunk(0, slowBody);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        reading.await();
+
+        assertThat(session.discardIfIdle(Long.MAX_VALUE)).isFalse();
+        release.countDown();
+        assertThat(write.get(5, TimeUnit.SECONDS)).isEqualTo(CHUNK);
+
+        assertThat(session.discardIfIdle(0)).isFalse();
+        assertThat(session.discardIfIdle(Long.MAX_VALUE)).isTrue();
+        assertThat(stagingFile).doesNotExist();
+    }
+
+    private UploadSession newSession(String expectedChecksum) throws Exception {
+        return new UploadSession("upload-1", stagingFile, data.length, "audio/mpeg", "meeting.mp3", expectedChecksum, null);
+    }
+
+    private void write(UploadSession session, int offset) {
+        try {
+            session.writeChunk(offset, new ByteArrayInputStream(data, offset, Math.min(CHUNK, data.length - offset)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
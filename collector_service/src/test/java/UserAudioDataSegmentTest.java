@@ -0,0 +1,124 @@
+import org.example.collector_service.bot.audio.CaptureFormat;
+import org.example.collector_service.domain.model.AudioSegment;
+import org.example.collector_service.domain.model.UserAudioData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("UserAudioData Segment Tests")
+public class UserAudioDataSegmentTest {
+
+    private static final String USER_ID = "segment-test-user";
+
+    @TempDir
+    Path storageDirectory;
+
+    private UserAudioData newUserAudioData() {
+        return new UserAudioData(USER_ID, "tester", CaptureFormat.PCM, storageDirectory.toFile());
+    }
+
+    @Test
+    @DisplayName("Segment should not roll before any limit is reached")
+    void rollSegmentIfDue_BelowLimits_ShouldReturnNull() throws Exception {
+        UserAudioData userData = newUserAudioData();
+        userData.offerAudioData(new byte[100]);
+        userData.drainToDisk();
+
+        assertThat(userData.rollSegmentIfDue(System.currentTimeMillis(), 60_000, 1024)).isNull();
+
+        userData.sealFinalSegment();
+    }
+
+    @Test
+    @DisplayName("Size limit should roll a numbered segment and keep recording")
+    void rollSegmentIfDue_WhenSizeReached_ShouldRollAndContinue() throws Exception {
+        UserAudioData userData = newUserAudioData();
+        userData.offerAudioData(new byte[600]);
+        userData.offerAudioData(new byte[600]);
+        userData.drainToDisk();
+
+        AudioSegment first = userData.rollSegmentIfDue(System.currentTimeMillis(), 0, 1024);
+
+        assertThat(first).isNotNull();
+        assertThat(first.getSequence()).isZero();
+        assertThat(first.isLast()).isFalse();
+        assertThat(first.getStartOffsetMillis()).isZero();
+        assertThat(Files.size(first.getFile().toPath())).isEqualTo(1200);
+
+        userData.offerAudioData(new byte[300]);
+        AudioSegment last = userData.sealFinalSegment();
+
+        assertThat(last.getSequence()).isEqualTo(1);
+        assertThat(last.isLast()).isTrue();
+        assertThat(last.getStartOffsetMillis()).isEqualTo(first.getEndOffsetMillis());
+        assertThat(last.getEndOffsetMillis()).isGreaterThanOrEqualTo(last.getStartOffsetMillis());
+        assertThat(Files.size(last.getFile().toPath())).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("Closed recording should not roll and empty final segment should be skipped")
+    void sealFinalSegment_WhenEmpty_ShouldReturnNull() throws Exception {
+        UserAudioData userData = newUserAudioData();
+
+        assertThat(userData.sealFinalSegment()).isNull();
+        assertThat(userData.rollSegmentIfDue(Long.MAX_VALUE, 1, 1)).isNull();
+    }
+
+    @Test
+    @DisplayName("SPEECH size limit should apply to downmixed bytes on disk, not captured input")
+    void rollSegmentIfDue_InSpeechMode_ShouldCountWrittenBytes() throws Exception {
+        UserAudioData userData = new UserAudioData(USER_ID, "tester", CaptureFormat.SPEECH, storageDirectory.toFile());
+        for (int i = 0; i < 3; i++) {
+            userData.offerAudioData(new byte[3840]);
+        }
+        userData.drainToDisk();
+
+        assertThat(userData.rollSegmentIfDue(System.currentTimeMillis(), 0, 3840)).isNull();
+
+        for (int i = 0; i < 4; i++) {
+            userData.offerAudioData(new byte[3840]);
+        }
+        userData.drainToDisk();
+        AudioSegment segment = userData.rollSegmentIfDue(System.currentTimeMillis(), 0, 3840);
+
+        assertThat(segment).isNotNull();
+        assertThat(Files.size(segment.getFile().toPath())).isGreaterThanOrEqualTo(3840).isLessThan(7 * 3840);
+    }
+
+    @Test
+    @DisplayName("Packets racing with close should be written or counted, never lost silently")
+    void offerAudioData_RacingWithClose_ShouldAccountForEveryPacket() throws Exception {
+        UserAudioData userData = newUserAudioData();
+        int total = 20_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+
+        Thread audioThread = new Thread(() -> {
+            byte[] packet = new byte[10];
+            for (int i = 0; i < total; i++) {
+                if (i == 100) {
+                    started.countDown();
+                }
+                if (userData.offerAudioData(packet)) {
+                    accepted.incrementAndGet();
+                }
+            }
+        });
+        audioThread.start();
+        started.await();
+        AudioSegment last = userData.sealFinalSegment();
+        audioThread.join();
+
+        long written = last == null ? 0 : Files.size(last.getFile().toPath());
+        assertThat(written).isEqualTo(accepted.get() * 10L);
+        assertThat(accepted.get() + userData.getDroppedPacketCount() + userData.getLatePacketCount())
+                .isEqualTo(total);
+    }
+}
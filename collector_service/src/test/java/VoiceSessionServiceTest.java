@@ -1,5 +1,4 @@
 import org.example.collector_service.domain.model.VoiceSession;
-import org.example.collector_service.exception.MediaAssetNotFoundException;
 import org.example.collector_service.outbox.OutboxEventPublisher;
 import org.example.collector_service.repository.VoiceSessionRepository;
 import org.example.collector_service.service.VoiceSessionService;
@@ -8,13 +7,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,6 +37,15 @@ public class VoiceSessionServiceTest {
     @Mock
     private OutboxEventPublisher outboxEventPublisher;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate();
+
     @InjectMocks
     private VoiceSessionService voiceSessionService;
 
@@ -38,11 +54,19 @@ public class VoiceSessionServiceTest {
     private static final String CHANNEL_NAME = "General Voice";
     private static final String USER_NAME = "TestUser";
 
+    private final AtomicLong ids = new AtomicLong();
+
     @BeforeEach
     void setUp() {
-        
-        Map<String, Long> activeSessions = new ConcurrentHashMap<>();
-        ReflectionTestUtils.setField(voiceSessionService, "activeSessions", activeSessions);
+        transactionTemplate.setTransactionManager(transactionManager);
+    }
+
+    private void stubSave() {
+        when(voiceSessionRepository.save(any(VoiceSession.class))).thenAnswer(inv -> {
+            VoiceSession session = inv.getArgument(0);
+            session.setId(ids.incrementAndGet());
+            return session;
+        });
     }
 
     @Nested
@@ -52,16 +76,7 @@ public class VoiceSessionServiceTest {
         @Test
         @DisplayName("First user joining should start new session")
         void handleUserJoined_FirstUser_ShouldStartNewSession() {
-            VoiceSession savedSession = VoiceSession.builder()
-                    .id(1L)
-                    .platform(PLATFORM)
-                    .channelId(CHANNEL_ID)
-                    .channelName(CHANNEL_NAME)
-                    .startTime(LocalDateTime.now())
-                    .participantCount(1)
-                    .build();
-
-            when(voiceSessionRepository.save(any(VoiceSession.class))).thenReturn(savedSession);
+            stubSave();
 
             voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
 
@@ -73,55 +88,114 @@ public class VoiceSessionServiceTest {
             assertThat(captured.getChannelId()).isEqualTo(CHANNEL_ID);
             assertThat(captured.getParticipantCount()).isEqualTo(1);
 
-            verify(outboxEventPublisher).publishStarted(eq(savedSession), eq("1"), eq("VoiceSession"));
+            verify(outboxEventPublisher).publishStarted(eq(captured), eq("1"), eq("VoiceSession"));
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(1);
         }
 
         @Test
-        @DisplayName("Second user joining should increment participant count")
-        void handleUserJoined_SecondUser_ShouldIncrementCount() {
-            
-            VoiceSession existingSession = VoiceSession.builder()
-                    .id(1L)
-                    .platform(PLATFORM)
-                    .channelId(CHANNEL_ID)
-                    .channelName(CHANNEL_NAME)
-                    .participantCount(1)
-                    .build();
-
-            when(voiceSessionRepository.save(any(VoiceSession.class))).thenReturn(existingSession);
-            when(voiceSessionRepository.findById(1L)).thenReturn(Optional.of(existingSession));
-
-            
-            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+        @DisplayName("Further joins should only increment the in-memory counter")
+        void handleUserJoined_SecondUser_ShouldNotTouchDatabase() {
+            stubSave();
 
-            
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
             voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "SecondUser");
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "ThirdUser");
 
-            assertThat(existingSession.getParticipantCount()).isEqualTo(2);
-            verify(voiceSessionRepository, times(2)).save(any(VoiceSession.class));
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(3);
+            verify(voiceSessionRepository, times(1)).save(any(VoiceSession.class));
+            verify(voiceSessionRepository, never()).findById(anyLong());
+            verify(outboxEventPublisher, times(1)).publishStarted(any(), anyString(), anyString());
         }
 
         @Test
-        @DisplayName("Session increment should throw exception for non-existent session")
-        void handleUserJoined_NonExistentSession_ShouldThrowException() {
-            VoiceSession savedSession = VoiceSession.builder()
-                    .id(1L)
-                    .platform(PLATFORM)
-                    .channelId(CHANNEL_ID)
-                    .channelName(CHANNEL_NAME)
-                    .participantCount(1)
-                    .build();
-
-            when(voiceSessionRepository.save(any(VoiceSession.class))).thenReturn(savedSession);
-            when(voiceSessionRepository.findById(1L)).thenReturn(Optional.empty());
-
-            
+        @DisplayName("Concurrent first joins should start exactly one session")
+        void handleUserJoined_Concurrent_ShouldStartOneSession() throws Exception {
+            stubSave();
+            int threads = 16;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                for (int i = 0; i < threads; i++) {
+                    String user = "user-" + i;
+                    executor.submit(() -> {
+                        start.await();
+                        voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, user);
+                        return null;
+                    });
+                }
+                start.countDown();
+                executor.shutdown();
+                assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            } finally {
+                executor.shutdownNow();
+            }
+
+            verify(voiceSessionRepository, times(1)).save(any(VoiceSession.class));
+            verify(outboxEventPublisher, times(1)).publishStarted(any(), anyString(), anyString());
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(threads);
+        }
+    }
+
+    @Nested
+    @DisplayName("Session start transaction tests")
+    class SessionStartTransactionTests {
+
+        @Test
+        @DisplayName("Failed session insert should roll back and let the next join retry")
+        void handleUserJoined_InsertFails_ShouldAllowRetry() {
+            when(voiceSessionRepository.save(any(VoiceSession.class)))
+                    .thenThrow(new RuntimeException("db down"))
+                    .thenAnswer(inv -> {
+                        VoiceSession session = inv.getArgument(0);
+                        session.setId(ids.incrementAndGet());
+                        return session;
+                    });
+
+            assertThatThrownBy(() -> voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME))
+                    .hasMessage("db down");
+            assertThat(voiceSessionService.getActiveSessionCount()).isZero();
+            verify(transactionManager).rollback(any());
+
             voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
 
-            
-            assertThatThrownBy(() ->
-                voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "SecondUser"))
-                .isInstanceOf(MediaAssetNotFoundException.class);
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(1);
+            verify(transactionManager).commit(any());
+            verify(outboxEventPublisher, times(1)).publishStarted(any(), eq("1"), eq("VoiceSession"));
+        }
+
+        @Test
+        @DisplayName("A slow session insert should not block joins on other channels")
+        void handleUserJoined_SlowInsert_ShouldNotBlockOtherChannels() throws Exception {
+            CountDownLatch insertStarted = new CountDownLatch(1);
+            CountDownLatch releaseInsert = new CountDownLatch(1);
+            when(voiceSessionRepository.save(any(VoiceSession.class))).thenAnswer(inv -> {
+                VoiceSession session = inv.getArgument(0);
+                if (CHANNEL_ID.equals(session.getChannelId())) {
+                    insertStarted.countDown();
+                    releaseInsert.await(5, TimeUnit.SECONDS);
+                }
+                session.setId(ids.incrementAndGet());
+                return session;
+            });
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> slowJoin = executor.submit(() ->
+                        voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME));
+                assertThat(insertStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+                voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, "other-channel", "Other Voice", USER_NAME);
+                assertThat(voiceSessionService.getParticipantCount(PLATFORM, "other-channel")).isEqualTo(1);
+                assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isZero();
+
+                releaseInsert.countDown();
+                slowJoin.get(5, TimeUnit.SECONDS);
+            } finally {
+                releaseInsert.countDown();
+                executor.shutdownNow();
+            }
+
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(1);
         }
     }
 
@@ -132,79 +206,174 @@ public class VoiceSessionServiceTest {
         @Test
         @DisplayName("Last user leaving should end session")
         void handleUserLeft_LastUser_ShouldEndSession() {
-            VoiceSession existingSession = VoiceSession.builder()
-                    .id(1L)
-                    .platform(PLATFORM)
-                    .channelId(CHANNEL_ID)
-                    .channelName(CHANNEL_NAME)
-                    .participantCount(1)
-                    .startTime(LocalDateTime.now().minusMinutes(30))
-                    .build();
-
-            when(voiceSessionRepository.save(any(VoiceSession.class))).thenReturn(existingSession);
-            when(voiceSessionRepository.findById(1L)).thenReturn(Optional.of(existingSession));
-
-            
-            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            stubSave();
+            when(voiceSessionRepository.markEnded(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
-            
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
             voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
 
-            assertThat(existingSession.getParticipantCount()).isEqualTo(0);
-            assertThat(existingSession.getEndTime()).isNotNull();
-            verify(outboxEventPublisher).publishEnded(eq(existingSession), eq("1"), eq("VoiceSession"));
+            ArgumentCaptor<VoiceSession> captor = ArgumentCaptor.forClass(VoiceSession.class);
+            verify(outboxEventPublisher).publishEnded(captor.capture(), eq("1"), eq("VoiceSession"));
+            assertThat(captor.getValue().getParticipantCount()).isZero();
+            assertThat(captor.getValue().getEndTime()).isNotNull();
+            assertThat(captor.getValue().getChannelName()).isEqualTo(CHANNEL_NAME);
+            assertThat(voiceSessionService.getActiveSessionCount()).isZero();
+            verify(voiceSessionRepository, never()).findById(anyLong());
         }
 
         @Test
         @DisplayName("User leaving with others remaining should just decrement count")
         void handleUserLeft_WithOthersRemaining_ShouldDecrementCount() {
-            VoiceSession existingSession = VoiceSession.builder()
-                    .id(1L)
-                    .platform(PLATFORM)
-                    .channelId(CHANNEL_ID)
-                    .channelName(CHANNEL_NAME)
-                    .participantCount(2)
-                    .startTime(LocalDateTime.now().minusMinutes(30))
-                    .build();
-
-            when(voiceSessionRepository.save(any(VoiceSession.class))).thenReturn(existingSession);
-            when(voiceSessionRepository.findById(1L)).thenReturn(Optional.of(existingSession));
-
-            
-            Map<String, Long> activeSessions = new ConcurrentHashMap<>();
-            activeSessions.put(PLATFORM + "_" + CHANNEL_ID, 1L);
-            ReflectionTestUtils.setField(voiceSessionService, "activeSessions", activeSessions);
-
-            
+            stubSave();
+
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "SecondUser");
             voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
 
-            assertThat(existingSession.getParticipantCount()).isEqualTo(1);
+            assertThat(voiceSessionService.getParticipantCount(PLATFORM, CHANNEL_ID)).isEqualTo(1);
+            verify(voiceSessionRepository, never()).markEnded(anyLong(), any());
             verify(outboxEventPublisher, never()).publishEnded(any(), anyString(), anyString());
         }
 
         @Test
         @DisplayName("Leaving non-existent session should not throw")
         void handleUserLeft_NoActiveSession_ShouldDoNothing() {
-            
             assertThatCode(() ->
                 voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID))
                 .doesNotThrowAnyException();
 
-            verify(voiceSessionRepository, never()).findById(anyLong());
+            verifyNoInteractions(voiceSessionRepository, outboxEventPublisher);
         }
 
         @Test
-        @DisplayName("Session not found in repository should throw and remove from active sessions")
-        void handleUserLeft_SessionNotInRepo_ShouldThrowAndCleanup() {
-            Map<String, Long> activeSessions = new ConcurrentHashMap<>();
-            activeSessions.put(PLATFORM + "_" + CHANNEL_ID, 999L);
-            ReflectionTestUtils.setField(voiceSessionService, "activeSessions", activeSessions);
+        @DisplayName("Joining after the session ended should start a new session")
+        void handleUserJoined_AfterEnd_ShouldStartNewSession() {
+            stubSave();
+            when(voiceSessionRepository.markEnded(anyLong(), any(LocalDateTime.class))).thenReturn(1);
 
-            when(voiceSessionRepository.findById(999L)).thenReturn(Optional.empty());
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
+            voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
 
-            assertThatThrownBy(() ->
-                voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID))
-                .isInstanceOf(MediaAssetNotFoundException.class);
+            verify(outboxEventPublisher).publishStarted(any(), eq("1"), eq("VoiceSession"));
+            verify(outboxEventPublisher).publishStarted(any(), eq("2"), eq("VoiceSession"));
+            verify(outboxEventPublisher, times(1)).publishEnded(any(), anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Failed end transaction should be retried on the flush tick and publish Ended once")
+        void handleUserLeft_EndFailure_ShouldRetryOnFlush() {
+            stubSave();
+            when(voiceSessionRepository.markEnded(eq(1L), any(LocalDateTime.class)))
+                    .thenThrow(new RuntimeException("db down"))
+                    .thenReturn(1);
+
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            assertThatCode(() -> voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID))
+                    .doesNotThrowAnyException();
+
+            verify(outboxEventPublisher, never()).publishEnded(any(), anyString(), anyString());
+            assertThat(voiceSessionService.getPendingEndCount()).isEqualTo(1);
+
+            voiceSessionService.flushParticipantCounts();
+
+            ArgumentCaptor<LocalDateTime> endTimes = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(voiceSessionRepository, times(2)).markEnded(eq(1L), endTimes.capture());
+            assertThat(endTimes.getAllValues().get(1)).isEqualTo(endTimes.getAllValues().get(0));
+            verify(outboxEventPublisher, times(1)).publishEnded(any(), eq("1"), eq("VoiceSession"));
+            assertThat(voiceSessionService.getPendingEndCount()).isZero();
+
+            voiceSessionService.flushParticipantCounts();
+            verify(voiceSessionRepository, times(2)).markEnded(anyLong(), any(LocalDateTime.class));
+        }
+
+        @Test
+        @DisplayName("A session row that is already ended should not publish Ended again")
+        void handleUserLeft_AlreadyEnded_ShouldNotPublishAgain() {
+            stubSave();
+            when(voiceSessionRepository.markEnded(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
+
+            verify(outboxEventPublisher, never()).publishEnded(any(), anyString(), anyString());
+            assertThat(voiceSessionService.getPendingEndCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Concurrent leaves should end the session exactly once")
+        void handleUserLeft_Concurrent_ShouldEndOnce() throws Exception {
+            stubSave();
+            when(voiceSessionRepository.markEnded(anyLong(), any(LocalDateTime.class))).thenReturn(1);
+            int users = 16;
+            for (int i = 0; i < users; i++) {
+                voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "user-" + i);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(users);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                // Gerçek kullanıcılardan fazla çıkış (tekrarlanan leave event'leri)
+                for (int i = 0; i < users * 2; i++) {
+                    executor.submit(() -> {
+                        start.await();
+                        voiceSessionService.handleUserLeftVoiceChannel(PLATFORM, CHANNEL_ID);
+                        return null;
+                    });
+                }
+                start.countDown();
+                executor.shutdown();
+                assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            } finally {
+                executor.shutdownNow();
+            }
+
+            verify(voiceSessionRepository, times(1)).markEnded(eq(1L), any(LocalDateTime.class));
+            verify(outboxEventPublisher, times(1)).publishEnded(any(), eq("1"), eq("VoiceSession"));
+            assertThat(voiceSessionService.getActiveSessionCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("flushParticipantCounts() tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should batch write only sessions whose counts changed")
+        void flush_ShouldWriteDirtySessionsInOneBatch() {
+            stubSave();
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, "SecondUser");
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, "other", "Other", USER_NAME);
+
+            voiceSessionService.flushParticipantCounts();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+            List<List<Object>> rows = captor.getValue().stream().map(Arrays::asList).toList();
+            assertThat(rows).containsExactlyInAnyOrder(List.of(2, 1L), List.of(1, 2L));
+            assertThat(voiceSessionService.getLastFlushSize()).isEqualTo(2);
+
+            voiceSessionService.flushParticipantCounts();
+            verifyNoMoreInteractions(jdbcTemplate);
+        }
+
+        @Test
+        @DisplayName("Failed flush should be retried on the next run")
+        void flush_Failure_ShouldRetry() {
+            stubSave();
+            voiceSessionService.handleUserJoinedVoiceChannel(PLATFORM, CHANNEL_ID, CHANNEL_NAME, USER_NAME);
+            when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                    .thenThrow(new RuntimeException("db down"))
+                    .thenReturn(new int[]{1});
+
+            voiceSessionService.flushParticipantCounts();
+            voiceSessionService.flushParticipantCounts();
+
+            verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+            assertThat(voiceSessionService.getFlushedUpdateCount()).isEqualTo(1);
         }
     }
 }
@@ -0,0 +1,31 @@
+-- ===================================================================
+-- Outbox Tablosu - Günlük RANGE Bölümleme (Opsiyonel)
+-- ===================================================================
+-- Collector ilk açılışta outbox tablosunu oluşturduktan sonra bir kez elle çalıştırılır.
+-- Ardından collector'da outbox.partitioning.enabled=true yapılır; OutboxPartitionManager
+-- ileri tarihli bölümleri oluşturur ve retention süresi dolan bölümleri DROP eder.
+--
+-- MySQL bölümleme anahtarının her unique key'de bulunmasını şart koşar,
+-- bu yüzden primary key (id, created_at) olarak genişletilir.
+-- Bölüm adları pYYYYMMDD formatındadır ve o günün satırlarını tutar.
+
+USE toplanti_db;
+
+UPDATE outbox SET created_at = NOW(6) WHERE created_at IS NULL;
+
+ALTER TABLE outbox
+    MODIFY created_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+-- Başlangıç bölümü tablodaki en eski güne kadar olan tüm satırları kapsar;
+-- retention süresi dolduğunda OutboxPartitionManager tarafından silinir.
+SET @first_day = (SELECT DATE(COALESCE(MIN(created_at), NOW())) FROM outbox);
+SET @ddl = CONCAT(
+    'ALTER TABLE outbox PARTITION BY RANGE (TO_DAYS(created_at)) (',
+    'PARTITION p', DATE_FORMAT(@first_day, '%Y%m%d'),
+    ' VALUES LESS THAN (TO_DAYS(''', DATE_ADD(@first_day, INTERVAL 1 DAY), ''')),',
+    ' PARTITION pmax VALUES LESS THAN MAXVALUE)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -9,10 +9,17 @@ import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -22,6 +29,7 @@ public class ApiService {
 
     private static final Logger log = LoggerFactory.getLogger(ApiService.class);
     private static final String DEFAULT_BASE_URL = "http://localhost:8084/api/v1";
+    private static final String COLLECTOR_UPLOAD_URL = "http://localhost:8081/api/v1/media/upload";
 
     private final OkHttpClient client;
     private final Gson gson;
@@ -128,18 +136,26 @@ public class ApiService {
     /**
      * Ses/video dosyası yükler (Collector Service'e)
      * Flow: UI → Collector → Kafka → AI → MySQL → Gateway
+     *
+     * Önce dosyanın SHA-256'sı hesaplanıp /upload/check ile sorulur; Collector'ın seçtiği
+     * bayt aralığının kanıtı /upload/check/proof'a gönderilir. Collector dosyayı zaten
+     * biliyorsa toplantıya bağlanır ve dosya hiç gönderilmez.
      */
     public CompletableFuture<Map<String, Object>> uploadMedia(File file, String meetingTitle) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-
-                String collectorUrl = "http://localhost:8081/api/v1/media/upload";
-
                 String metadataJson = String.format("{\"meetingId\":\"%s\",\"platform\":\"UI\",\"meetingTitle\":\"%s\"}",
                         java.util.UUID.randomUUID().toString(), meetingTitle);
 
                 
                 String fileName = file.getName().toLowerCase();
+
+                Map<String, Object> deduped = checkDuplicate(file, metadataJson);
+                if (deduped != null) {
+                    log.info("Dosya Collector'da zaten mevcut, yükleme atlandı: {}", file.getName());
+                    return deduped;
+                }
+
                 String mimeType = "application/octet-stream";
                 if (fileName.endsWith(".mp3")) {
                     mimeType = "audio/mpeg";
@@ -164,7 +180,7 @@ public class ApiService {
                         .build();
 
                 Request request = new Request.Builder()
-                        .url(collectorUrl)
+                        .url(COLLECTOR_UPLOAD_URL)
                         .post(requestBody)
                         .build();
 
@@ -204,6 +220,82 @@ public class ApiService {
         });
     }
 
+    /**
+     * Dosyanın checksum'ını Collector'a sorar ve dosyaya sahip olunduğunu kanıtlar.
+     *
+     * @return Dosya zaten varsa ve toplantıya bağlandıysa yanıt, aksi halde null
+     */
+    private Map<String, Object> checkDuplicate(File file, String metadataJson) {
+        try {
+            String checksumJson = String.format("{\"checksum\":\"%s\",\"fileSize\":%d,\"metadata\":%s}",
+                    sha256(file), file.length(), metadataJson);
+            Map<String, Object> challenge = postJson(COLLECTOR_UPLOAD_URL + "/check", checksumJson);
+            if (challenge == null || !"PROOF_REQUIRED".equals(challenge.get("status"))) {
+                return null;
+            }
+
+            String proofJson = String.format("{\"challengeId\":\"%s\",\"proof\":\"%s\"}",
+                    challenge.get("challengeId"),
+                    rangeProof(file, (String) challenge.get("nonce"),
+                            ((Number) challenge.get("offset")).longValue(),
+                            ((Number) challenge.get("length")).intValue()));
+            Map<String, Object> result = postJson(COLLECTOR_UPLOAD_URL + "/check/proof", proofJson);
+            return result != null && "SUCCESS".equals(result.get("status")) ? result : null;
+        } catch (IOException e) {
+            log.warn("Dedupe kontrolü yapılamadı, normal yüklemeye geçiliyor: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> postJson(String url, String json) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(json, MediaType.parse("application/json")))
+                .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                log.warn("Dedupe kontrolü başarısız: HTTP {}, normal yüklemeye geçiliyor", response.code());
+                return null;
+            }
+            Type type = new TypeToken<Map<String, Object>>(){}.getType();
+            return gson.fromJson(response.body().string(), type);
+        }
+    }
+
+    /**
+     * SHA-256(nonce || dosya[offset, offset + length)) kanıtını hesaplar.
+     */
+    private String rangeProof(File file, String nonceHex, long offset, int length) throws IOException {
+        byte[] range = new byte[length];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset);
+            raf.readFully(range);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(HexFormat.of().parseHex(nonceHex));
+            digest.update(range);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
+    private String sha256(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
     private <T> CompletableFuture<T> makeGetRequest(String endpoint, Type type) {
         return CompletableFuture.supplyAsync(() -> {
             Request.Builder builder = new Request.Builder()
@@ -0,0 +1,109 @@
+package serde;
+
+import model.DiscordVoiceEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AudioEventSerdeBenchmark - Ses event'lerinin JSON ve ikili format ile kodlanma maliyeti
+ *
+ * Discord'un 20 ms'lik ses parçalarını ve daha büyük konuşma (utterance) bloklarını
+ * temsil eden DiscordVoiceEvent'leri üretir ve bir kez yazıp geri okur.
+ *
+ * - json: eski yol (JsonSerializer / JsonDeserializer, type header'lı)
+ * - binary: AudioEventSerializer / AudioEventDeserializer (AudioEventCodec)
+ *
+ * wireBytes / events sayaçları event başına Kafka'ya giden bayt sayısını gösterir.
+ *
+ * Çalıştırma: ./gradlew jmh
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AudioEventSerdeBenchmark {
+
+    private static final String TOPIC = "discord-voice";
+
+    /** 3840 bayt: 48 kHz stereo 16-bit PCM'in 20 ms'si; diğerleri birleştirilmiş konuşmalar */
+    @Param({"3840", "65536", "1048576"})
+    public int audioBytes;
+
+    private DiscordVoiceEvent event;
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final AudioEventSerializer binarySerializer = new AudioEventSerializer();
+    private final AudioEventDeserializer binaryDeserializer = new AudioEventDeserializer();
+
+    /** İterasyondaki toplam wire boyutu; wireBytes / events event başına baytı verir */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireBytes {
+        public long wireBytes;
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wireBytes = 0;
+            events = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] audio = new byte[audioBytes];
+        new Random(7).nextBytes(audio);
+
+        event = DiscordVoiceEvent.builder()
+                .eventId("a3f1c2d4-5b6e-4f70-8a9b-0c1d2e3f4a5b")
+                .guildId("1029384756102938475")
+                .channelId("1122334455667788990")
+                .userId("998877665544332211")
+                .userName("mehmet.yilmaz")
+                .audioData(audio)
+                .audioFormat("PCM_S16LE")
+                .sampleRate(48000)
+                .timestamp(Instant.parse("2024-01-01T10:00:00Z"))
+                .eventType(DiscordVoiceEvent.EventType.VOICE_CHUNK)
+                .build();
+
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "model"), false);
+    }
+
+    @Benchmark
+    public Object json(WireBytes counters) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = jsonSerializer.serialize(TOPIC, headers, event);
+        counters.wireBytes += data.length;
+        counters.events++;
+        return jsonDeserializer.deserialize(TOPIC, headers, data);
+    }
+
+    @Benchmark
+    public Object binary(WireBytes counters) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = binarySerializer.serialize(TOPIC, headers, event);
+        counters.wireBytes += data.length;
+        counters.events++;
+        return binaryDeserializer.deserialize(TOPIC, headers, data);
+    }
+}
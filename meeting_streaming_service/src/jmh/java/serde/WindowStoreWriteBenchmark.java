@@ -0,0 +1,123 @@
+package serde;
+
+import model.WindowedMessages;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WindowStoreWriteBenchmark - Mesaj penceresi aggregate'inin store yazım hacmi
+ *
+ * Bir kanalın 5 dakikalık penceresine messagesPerWindow mesaj gelmesini simüle eder.
+ * Kafka Streams her güncellemede aggregate'i store'dan okur (deserialize) ve
+ * tamamını yeniden yazar (serialize); bu yazım RocksDB'ye ve changelog topic'ine gider.
+ *
+ * - stringConcat: eski aggregate (String birleştirme + StringSerde)
+ * - structured: WindowedMessages + WindowedMessagesSerde (varsayılan 256 KB sınır)
+ *
+ * storeBytes / windows sayaçları pencere başına store'a yazılan toplam baytı gösterir.
+ *
+ * Çalıştırma: ./gradlew jmh
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WindowStoreWriteBenchmark {
+
+    private static final String[] AUTHORS = {
+            "ahmet", "ayşe", "mehmet", "zeynep", "john", "emily", "can", "elif"
+    };
+    private static final String[] WORDS = {
+            "toplantı", "sprint", "deploy", "yarın", "review", "bugün", "müşteri", "release",
+            "the", "build", "is", "green", "görüşme", "planlama", "hotfix", "ok"
+    };
+    private static final int MAX_BYTES = 262144;
+
+    @Param({"100", "1000", "5000"})
+    public int messagesPerWindow;
+
+    private String[] authors;
+    private String[] contents;
+    private long[] timestamps;
+
+    private final Serializer<String> stringSerializer = new StringSerializer();
+    private final Deserializer<String> stringDeserializer = new StringDeserializer();
+    private final WindowedMessagesSerde windowSerde = new WindowedMessagesSerde();
+
+    /** İterasyondaki toplam store yazımı; storeBytes / windows pencere başına baytı verir */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoreWrites {
+        public long storeBytes;
+        public long windows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            storeBytes = 0;
+            windows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        authors = new String[messagesPerWindow];
+        contents = new String[messagesPerWindow];
+        timestamps = new long[messagesPerWindow];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < messagesPerWindow; i++) {
+            authors[i] = AUTHORS[random.nextInt(AUTHORS.length)];
+            StringBuilder sb = new StringBuilder();
+            int words = 6 + random.nextInt(14);
+            for (int w = 0; w < words; w++) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            contents[i] = sb.toString().trim();
+            timestamp += random.nextInt(300_000 / messagesPerWindow + 1);
+            timestamps[i] = timestamp;
+        }
+    }
+
+    @Benchmark
+    public int stringConcat(StoreWrites writes) {
+        byte[] stored = stringSerializer.serialize("t", "");
+        for (int i = 0; i < messagesPerWindow; i++) {
+            String aggregate = stringDeserializer.deserialize("t", stored);
+            aggregate = aggregate + authors[i] + ": " + contents[i] + "\n";
+            stored = stringSerializer.serialize("t", aggregate);
+            writes.storeBytes += stored.length;
+        }
+        writes.windows++;
+        return stored.length;
+    }
+
+    @Benchmark
+    public int structured(StoreWrites writes) {
+        byte[] stored = windowSerde.serializer().serialize("t", new WindowedMessages());
+        for (int i = 0; i < messagesPerWindow; i++) {
+            WindowedMessages aggregate = windowSerde.deserializer().deserialize("t", stored);
+            aggregate.add(authors[i], timestamps[i], contents[i], MAX_BYTES);
+            stored = windowSerde.serializer().serialize("t", aggregate);
+            writes.storeBytes += stored.length;
+        }
+        writes.windows++;
+        return stored.length;
+    }
+}
@@ -0,0 +1,140 @@
+package blob;
+
+import lombok.extern.slf4j.Slf4j;
+import model.DiscordVoiceEvent;
+import model.ProcessedMeetingData;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AudioClaimCheck - Büyük ses payload'ları için claim-check katmanı
+ *
+ * Kafka'nın varsayılan 1 MB mesaj sınırına takılan ve broker depolaması ile
+ * replikasyonu şişiren ses baytları event'ten çıkarılır, blob deposuna yazılır
+ * ve event sadece içerik adresli referansı (audioRef) taşır.
+ *
+ * İş Akışı:
+ * 1. Producer göndermeden önce checkIn() çağırır; threshold-bytes üstündeki ses depoya yazılır
+ * 2. Event audioData = null, audioRef = "sha256:..." olarak gönderilir
+ * 3. Consumer sesi gerçekten kullanacağı anda audioOf() çağırır (lazy)
+ * 4. Okuma önce yerel BlobReadCache'e, yoksa blob deposuna gider
+ *
+ * Metrikler:
+ * - checkedInCount / checkedInBytes: depoya yönlendirilen event sayısı ve ses boyutu
+ * - fetchCount: depodan yapılan okuma sayısı (önbellek isabetleri hariç)
+ * - unresolvedCount: depoda bulunamayan veya okunamayan referans sayısı
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class AudioClaimCheck {
+
+    private final BlobStore blobStore;
+    private final BlobReadCache readCache;
+    private final int thresholdBytes;
+
+    private final AtomicLong checkedInCount = new AtomicLong();
+    private final AtomicLong checkedInBytes = new AtomicLong();
+    private final AtomicLong fetchCount = new AtomicLong();
+    private final AtomicLong unresolvedCount = new AtomicLong();
+
+    public AudioClaimCheck(BlobStore blobStore, BlobReadCache readCache, int thresholdBytes) {
+        this.blobStore = blobStore;
+        this.readCache = readCache;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    /**
+     * Ses eşikten büyükse depoya yazar ve event'i referansla değiştirir (event yerinde güncellenir).
+     */
+    public void checkIn(DiscordVoiceEvent event) {
+        String ref = store(event.getAudioData());
+        if (ref != null) {
+            event.setAudioRef(ref);
+            event.setAudioData(null);
+        }
+    }
+
+    /**
+     * Ses eşikten büyükse depoya yazar ve veriyi referansla değiştirir (veri yerinde güncellenir).
+     */
+    public void checkIn(ProcessedMeetingData data) {
+        String ref = store(data.getAudioData());
+        if (ref != null) {
+            data.setAudioRef(ref);
+            data.setAudioData(null);
+        }
+    }
+
+    /**
+     * @return Event'in sesi; claim-check edilmişse depodan (veya önbellekten) okunur
+     */
+    public byte[] audioOf(DiscordVoiceEvent event) {
+        return event.getAudioData() != null ? event.getAudioData() : fetch(event.getAudioRef());
+    }
+
+    /**
+     * @return Verinin sesi; claim-check edilmişse depodan (veya önbellekten) okunur
+     */
+    public byte[] audioOf(ProcessedMeetingData data) {
+        return data.getAudioData() != null ? data.getAudioData() : fetch(data.getAudioRef());
+    }
+
+    /**
+     * Referansı çözer; referans yoksa null döner.
+     *
+     * @throws BlobNotFoundException Blob depoda yoksa (ör. saklama süresi dolduysa) veya referans geçersizse
+     * @throws java.io.UncheckedIOException Blob okunamazsa
+     */
+    public byte[] fetch(String ref) {
+        if (ref == null) {
+            return null;
+        }
+        byte[] cached = readCache.get(ref);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] audio;
+        try {
+            audio = blobStore.get(ref);
+        } catch (IllegalArgumentException e) {
+            // Kafka'dan gelen bozuk referans eksik blob gibi ele alınır
+            unresolvedCount.incrementAndGet();
+            throw new BlobNotFoundException(ref, e);
+        } catch (RuntimeException e) {
+            unresolvedCount.incrementAndGet();
+            throw e;
+        }
+        fetchCount.incrementAndGet();
+        readCache.put(ref, audio);
+        return audio;
+    }
+
+    private String store(byte[] audio) {
+        if (audio == null || audio.length <= thresholdBytes) {
+            return null;
+        }
+        String ref = blobStore.put(audio);
+        checkedInCount.incrementAndGet();
+        checkedInBytes.addAndGet(audio.length);
+        log.debug("Audio checked in to blob store: ref={}, size={} bytes", ref, audio.length);
+        return ref;
+    }
+
+    public long getCheckedInCount() {
+        return checkedInCount.get();
+    }
+
+    public long getCheckedInBytes() {
+        return checkedInBytes.get();
+    }
+
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    public long getUnresolvedCount() {
+        return unresolvedCount.get();
+    }
+}
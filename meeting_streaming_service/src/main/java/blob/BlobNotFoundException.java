@@ -0,0 +1,18 @@
+package blob;
+
+/**
+ * Claim-check referansı blob deposunda bulunamadığında fırlatılır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class BlobNotFoundException extends RuntimeException {
+
+    public BlobNotFoundException(String ref) {
+        super("Blob not found: " + ref);
+    }
+
+    public BlobNotFoundException(String ref, Throwable cause) {
+        super("Blob not found: " + ref, cause);
+    }
+}
@@ -0,0 +1,76 @@
+package blob;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BlobReadCache - Claim-check okumaları için bayt sınırlı LRU önbellek
+ *
+ * Aynı konuşma sesi birden fazla consumer tarafından kısa aralıklarla okunur
+ * (transkripsiyon, kayıt, yeniden deneme). İçerik adresli blob'lar değişmediği
+ * için önbellekte geçersizleştirme gerekmez; sadece toplam boyut sınırlanır.
+ *
+ * Teknik Detaylar:
+ * - Erişim sırasına göre LinkedHashMap; sınır aşılınca en eski erişilen atılır
+ * - maxBytes'tan büyük tek bir blob önbelleğe alınmaz
+ * - Tüm işlemler senkronizedir; kritik bölüm sadece map işlemleridir
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class BlobReadCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    public BlobReadCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(String ref) {
+        byte[] value = entries.get(ref);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(String ref, byte[] value) {
+        if (value.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(ref, value);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += value.length;
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
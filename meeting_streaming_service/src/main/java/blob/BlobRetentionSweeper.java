@@ -0,0 +1,46 @@
+package blob;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * BlobRetentionSweeper - Claim-check blob deposunun saklama süresi temizleyicisi
+ *
+ * Blob'lar içerik adreslidir ve referanslarını taşıyan event'ler Kafka'dan topic
+ * retention'ı ile silinir; depo ise kendiliğinden küçülmez. Süpürücü, saklama
+ * süresinden daha uzun süredir yazılmamış / yeniden referanslanmamış blob'ları siler.
+ *
+ * Saklama süresi, blob'u okuyabilecek en yavaş consumer'ın gecikmesinden ve
+ * ilgili topic'lerin retention'ından uzun tutulmalıdır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class BlobRetentionSweeper {
+
+    private final BlobStore blobStore;
+    private final Duration retention;
+
+    public BlobRetentionSweeper(BlobStore blobStore, Duration retention) {
+        this.blobStore = blobStore;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${claim-check.sweep-interval-ms:3600000}",
+            initialDelayString = "${claim-check.sweep-interval-ms:3600000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(retention);
+        try {
+            int deleted = blobStore.deleteOlderThan(cutoff);
+            if (deleted > 0) {
+                log.info("Expired claim-check blobs deleted: count={}, cutoff={}", deleted, cutoff);
+            }
+        } catch (RuntimeException e) {
+            log.error("Claim-check blob sweep failed: cutoff={}", cutoff, e);
+        }
+    }
+}
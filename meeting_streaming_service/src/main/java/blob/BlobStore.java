@@ -0,0 +1,45 @@
+package blob;
+
+import java.time.Instant;
+
+/**
+ * BlobStore - Claim-check için içerik adresli blob deposu
+ *
+ * Büyük ses payload'ları Kafka event'i yerine bu depoya yazılır; event sadece
+ * put() tarafından dönen referansı taşır. Referans içeriğin özetinden türetildiği
+ * için aynı ses ikinci kez yazılmaz ve okunan içerik hiçbir zaman değişmez.
+ *
+ * Varsayılan uygulama paylaşımlı dosya sistemi üzerindeki LocalFileBlobStore'dur;
+ * nesne depoları (S3, GCS vb.) bu arayüzü uygulayarak eklenebilir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public interface BlobStore {
+
+    /**
+     * İçeriği depoya yazar; aynı içerik zaten varsa tekrar yazmaz.
+     *
+     * @param data Yazılacak içerik
+     * @return İçerik adresli referans (ör. "sha256:&lt;hex&gt;")
+     */
+    String put(byte[] data);
+
+    /**
+     * @param ref put() tarafından dönen referans
+     * @return İçerik
+     * @throws BlobNotFoundException Referans depoda yoksa
+     */
+    byte[] get(String ref);
+
+    boolean exists(String ref);
+
+    /**
+     * Saklama süresi dolan blob'ları siler. Referansı taşıyan event'ler topic
+     * retention'ı ile silindiği için blob'lar da en az o kadar tutulmalıdır.
+     *
+     * @param cutoff Son yazımı/yeniden referanslanması bu andan önce olan blob'lar silinir
+     * @return Silinen blob sayısı
+     */
+    int deleteOlderThan(Instant cutoff);
+}
@@ -0,0 +1,175 @@
+package blob;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * LocalFileBlobStore - Paylaşımlı dosya sistemi üzerinde içerik adresli blob deposu
+ *
+ * Özellikler:
+ * - Referans içeriğin SHA-256 özetidir ("sha256:&lt;64 hex&gt;"); aynı ses tek kez saklanır
+ * - Dosyalar özetin ilk iki baytıyla iki seviyeli dizinlere dağıtılır (ab/cd/abcd...)
+ * - Yazım geçici dosyaya yapılıp atomik olarak taşınır; okuyucu yarım dosya görmez
+ * - Saklama süresi dosyanın değiştirilme zamanıyla ölçülür; var olan içerik yeniden
+ *   yazıldığında zamanı güncellenir, böylece hâlâ referanslanan blob süpürülmez
+ *
+ * Teknik Detaylar:
+ * - Referanslar Kafka'dan geldiği için biçimi doğrulanır; dizin dışına çıkan yol oluşturulamaz
+ * - Aynı içeriği eşzamanlı yazan iki producer aynı dosyayı üretir; hedef zaten varsa
+ *   (FileAlreadyExistsException) yazım başarılı sayılır, içerik aynıdır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class LocalFileBlobStore implements BlobStore {
+
+    static final String REF_PREFIX = "sha256:";
+    private static final Pattern REF_PATTERN = Pattern.compile("sha256:[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalFileBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String put(byte[] data) {
+        String hash = sha256Hex(data);
+        Path target = pathOf(hash);
+        if (Files.exists(target) && touch(target)) {
+            return REF_PREFIX + hash;
+        }
+
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), hash, ".part");
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            log.debug("Blob stored: hash={}, size={} bytes", hash, data.length);
+        } catch (FileAlreadyExistsException e) {
+            // Aynı içeriği başka bir yazıcı önce taşıdı
+            log.debug("Blob already stored concurrently: hash={}", hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + hash, e);
+        } finally {
+            deleteQuietly(temp);
+        }
+        return REF_PREFIX + hash;
+    }
+
+    @Override
+    public byte[] get(String ref) {
+        try {
+            return Files.readAllBytes(pathOf(hashOf(ref)));
+        } catch (NoSuchFileException e) {
+            throw new BlobNotFoundException(ref);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + ref, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String ref) {
+        return Files.exists(pathOf(hashOf(ref)));
+    }
+
+    @Override
+    public int deleteOlderThan(Instant cutoff) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Path> expired;
+        try (Stream<Path> files = Files.walk(root)) {
+            expired = files.filter(Files::isRegularFile)
+                    .filter(file -> isOlderThan(file, cutoff))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan blob store " + root, e);
+        }
+
+        int deleted = 0;
+        for (Path file : expired) {
+            try {
+                // Tarama sonrası yeniden referanslanan blob silinmez
+                if (isOlderThan(file, cutoff) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete expired blob: {}", file, e);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Var olan blob'un saklama süresini yeniler.
+     *
+     * @return Dosya hâlâ varsa true; arada süpürüldüyse false (içerik yeniden yazılır)
+     */
+    private static boolean touch(Path target) {
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to refresh blob " + target, e);
+        }
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String hashOf(String ref) {
+        if (ref == null || !REF_PATTERN.matcher(ref).matches()) {
+            throw new IllegalArgumentException("Invalid blob reference: " + ref);
+        }
+        return ref.substring(REF_PREFIX.length());
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary blob file: {}", path, e);
+        }
+    }
+}
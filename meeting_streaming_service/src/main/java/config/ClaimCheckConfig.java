@@ -0,0 +1,82 @@
+package config;
+
+import blob.AudioClaimCheck;
+import blob.BlobReadCache;
+import blob.BlobRetentionSweeper;
+import blob.BlobStore;
+import blob.LocalFileBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * ClaimCheckConfig - Büyük ses payload'ları için blob deposu ve claim-check ayarları
+ *
+ * claim-check.store ile depo seçilir; şimdilik sadece "local" (paylaşımlı dosya sistemi)
+ * vardır. Başka bir depo eklemek için BlobStore uygulayan ve aynı property'nin farklı
+ * değerine bağlı bir bean tanımlamak yeterlidir.
+ *
+ * Yerel depo için claim-check.local.path zorunludur ve blob'u yazan ile okuyan tüm
+ * instance'ların gördüğü paylaşımlı bir dizin olmalıdır (ör. ortak volume). Geçici
+ * dizine düşmek blob'ları instance'a özel ve yeniden başlatmada kaybolan hale
+ * getirdiği için varsayılan yoktur; ayar eksikse uygulama açılışta durur.
+ *
+ * Blob'lar claim-check.retention-hours süresince tutulur, BlobRetentionSweeper
+ * claim-check.sweep-interval-ms aralıklarla süresi dolanları siler.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Configuration
+@Slf4j
+public class ClaimCheckConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "claim-check.store", havingValue = "local", matchIfMissing = true)
+    public BlobStore localFileBlobStore(@Value("${claim-check.local.path:}") String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalStateException(
+                    "claim-check.local.path must point to a directory shared by all producers and consumers");
+        }
+        Path root = Path.of(path);
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new IllegalStateException("Claim-check blob directory could not be created: " + root, e);
+        }
+        if (!Files.isWritable(root)) {
+            throw new IllegalStateException("Claim-check blob directory is not writable: " + root);
+        }
+        log.info("Claim-check blob store: local filesystem at {}", root);
+        return new LocalFileBlobStore(root);
+    }
+
+    /**
+     * @param retentionHours Blob'ların son yazım / yeniden referanslanmadan sonra tutulduğu süre
+     */
+    @Bean
+    public BlobRetentionSweeper blobRetentionSweeper(
+            BlobStore blobStore,
+            @Value("${claim-check.retention-hours:168}") long retentionHours) {
+        return new BlobRetentionSweeper(blobStore, Duration.ofHours(retentionHours));
+    }
+
+    /**
+     * @param thresholdBytes Bu boyutun üstündeki ses Kafka yerine blob deposuna yazılır
+     * @param cacheMaxBytes  Consumer tarafı okuma önbelleğinin toplam boyut sınırı
+     */
+    @Bean
+    public AudioClaimCheck audioClaimCheck(
+            BlobStore blobStore,
+            @Value("${claim-check.threshold-bytes:262144}") int thresholdBytes,
+            @Value("${claim-check.cache.max-bytes:33554432}") long cacheMaxBytes) {
+        return new AudioClaimCheck(blobStore, new BlobReadCache(cacheMaxBytes), thresholdBytes);
+    }
+}
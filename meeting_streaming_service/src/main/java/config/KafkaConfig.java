@@ -3,7 +3,6 @@ package config;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +10,7 @@ import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import serde.AudioEventSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +18,12 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    /** Producer'ın linger.ms değeri */
+    public static final int LINGER_MS = 10;
+
+    /** Producer'ın delivery.timeout.ms değeri; gönderim en geç bu sürede sonuçlanır */
+    public static final int DELIVERY_TIMEOUT_MS = 30000;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -26,11 +32,20 @@ public class KafkaConfig {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Ses event'leri ikili, diğer değerler JSON olarak yazılır
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AudioEventSerializer.class);
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
-        config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, LINGER_MS);
+        // Idempotent producer: kendi yeniden denemeleri partition içindeki sırayı bozmaz, kaydı çoğaltmaz
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // Gönderim, OutboxPoller lease'i (varsayılan 60 sn) dolmadan kesin olarak sonuçlanmalı;
+        // aksi halde lease'i dolan satır başka bir relay tarafından da gönderilir.
+        // delivery.timeout.ms >= linger.ms + request.timeout.ms olmalıdır.
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, DELIVERY_TIMEOUT_MS);
 
         return new DefaultKafkaProducerFactory<>(config);
     }
@@ -64,6 +79,12 @@ public class KafkaConfig {
                 .partitions(6).replicas(1).build();
     }
 
+    @Bean
+    public NewTopic meetingSegmentsTopic() {
+        return TopicBuilder.name("meeting-segments")
+                .partitions(6).replicas(1).build();
+    }
+
     @Bean
     public NewTopic meetingMediaTopic() {
         return TopicBuilder.name("meeting-media")
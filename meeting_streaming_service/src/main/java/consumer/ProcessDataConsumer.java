@@ -43,10 +43,11 @@ public class ProcessDataConsumer {
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset
     ) {
-        log.info("Received processed voice data: sourceType={}, speaker={}, audioSize={} bytes",
+        log.info("Received processed voice data: sourceType={}, speaker={}, audioSize={} bytes, audioRef={}",
                 meetingData.getSourceType(),
                 meetingData.getSpeakerName(),
-                meetingData.getAudioData() != null ? meetingData.getAudioData().length : 0);
+                meetingData.getAudioData() != null ? meetingData.getAudioData().length : 0,
+                meetingData.getAudioRef());
 
         handleProcessedData(meetingData);
     }
@@ -18,6 +18,8 @@ public class DiscordVoiceEvent {
     private String userId;
     private String userName;
     private  byte[] audioData;
+    /** Büyük ses claim-check ile blob store'a yazıldıysa içerik referansı; audioData bu durumda null'dır */
+    private String audioRef;
     private String audioFormat;
     private int sampleRate;
     private Instant timestamp;
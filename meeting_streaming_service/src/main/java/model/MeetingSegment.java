@@ -0,0 +1,60 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MeetingSegment - Kanal bazında kapanan toplantı bölümü
+ *
+ * Bir kanalda session-gap süresi boyunca mesaj / ses olayı gelmediğinde bölüm
+ * kapanır ve bu kayıt meeting-segments topic'ine bir kez yazılır. Özetleme
+ * gibi downstream işler bölüm başına tek sefer tetiklenir.
+ *
+ * Voice akışında aynı sınıf session aggregate'i olarak da kullanılır
+ * (olay sayısı ve katılımcılar); zaman aralığı session penceresinden gelir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingSegment {
+
+    /** Bölüm başına tutulan en fazla katılımcı adı */
+    public static final int MAX_PARTICIPANTS = 500;
+
+    private String channelId;
+    private String sourceType;
+    private Instant segmentStart;
+    private Instant segmentEnd;
+    private long eventCount;
+    @Builder.Default
+    private List<String> participants = new ArrayList<>();
+    private Instant closedAt;
+
+    /**
+     * Olayı aggregate'e ekler.
+     *
+     * @param participant Olayın sahibi (null olabilir)
+     * @return Bu aggregate
+     */
+    public MeetingSegment record(String participant) {
+        eventCount++;
+        addParticipant(participant);
+        return this;
+    }
+
+    private void addParticipant(String participant) {
+        if (participant != null && participants.size() < MAX_PARTICIPANTS && !participants.contains(participant)) {
+            participants.add(participant);
+        }
+    }
+}
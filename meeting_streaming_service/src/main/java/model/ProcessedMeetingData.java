@@ -16,6 +16,8 @@ public class ProcessedMeetingData {
     private String channelId;
     private String rawContent;
     private byte[] audioData;
+    /** Büyük ses claim-check ile blob store'a yazıldıysa içerik referansı; audioData bu durumda null'dır */
+    private String audioRef;
     private String speakerName;
     private String speakerId;
     private Instant windowStart;
@@ -0,0 +1,28 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SessionBounds - Kanalın açık toplantı bölümünün (session) sınırları
+ *
+ * Aggregate değeri ayrı bir store'da tutulur; bu kayıt sadece olay zamanı
+ * sınırlarını ve son olayın işlendiği wall-clock zamanını taşır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionBounds {
+    /** İlk olayın zamanı (epoch ms) */
+    private long startMillis;
+    /** Son olayın zamanı (epoch ms) */
+    private long endMillis;
+    /** Son olayın işlendiği wall-clock zamanı (epoch ms); sessiz kanal kontrolü buna göre yapılır */
+    private long lastAppendMillis;
+}
@@ -0,0 +1,36 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * UtteranceBuffer - Bir konuşmacının devam eden konuşmasının (utterance) üst bilgisi
+ *
+ * Ses parçalarının kendisi ayrı bir store'da parça parça tutulur; bu kayıt
+ * sadece sınırları ve sayaçları taşır, böylece her parçada yeniden yazılan
+ * değer küçük kalır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtteranceBuffer {
+    /** Kaynak kaydın anahtarı (guild-channel); çıktı bu anahtarla yazılır */
+    private String channelKey;
+    private String channelId;
+    private String userId;
+    private String userName;
+    /** İlk parçanın zamanı (epoch ms) */
+    private long startMillis;
+    /** Son parçanın zamanı (epoch ms) */
+    private long endMillis;
+    /** Son parçanın eklendiği wall-clock zamanı (epoch ms); sessizlik kontrolü buna göre yapılır */
+    private long lastAppendMillis;
+    private int chunkCount;
+    private long byteCount;
+}
@@ -0,0 +1,132 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WindowedMessages - Kanal mesaj penceresinin (session) aggregate değeri
+ *
+ * Pencere içindeki mesajlar sadece sona eklenen kompakt kayıtlar olarak tutulur.
+ * Yazar adları pencere başına bir kez saklanır, kayıtlar yazar sırasını taşır.
+ * Tahmini kodlanmış boyut maxBytes'ı aşacaksa mesaj eklenmez, sadece sayılır;
+ * böylece yoğun kanallarda tek bir store değeri sınırsız büyümez.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class WindowedMessages {
+
+    /** Kayıt başına sabit ek yük tahmini (yazar sırası, zaman farkı, uzunluk varint'leri) */
+    static final int RECORD_OVERHEAD_BYTES = 12;
+
+    private final List<String> authors;
+    private final List<MessageRecord> messages;
+    private int droppedCount;
+    private int estimatedBytes;
+
+    public WindowedMessages() {
+        this(new ArrayList<>(), new ArrayList<>(), 0);
+    }
+
+    public WindowedMessages(List<String> authors, List<MessageRecord> messages, int droppedCount) {
+        this.authors = authors;
+        this.messages = messages;
+        this.droppedCount = droppedCount;
+        for (String author : authors) {
+            estimatedBytes += utf8Length(author) + 2;
+        }
+        for (MessageRecord message : messages) {
+            estimatedBytes += utf8Length(message.content()) + RECORD_OVERHEAD_BYTES;
+        }
+    }
+
+    /**
+     * Mesajı pencereye ekler.
+     *
+     * @param author    Yazar adı
+     * @param timestamp Mesaj zamanı (epoch ms)
+     * @param content   Mesaj içeriği
+     * @param maxBytes  Pencere başına tahmini kodlanmış boyut sınırı
+     * @return Mesaj eklendiyse true, sınır aşıldığı için atlandıysa false
+     */
+    public boolean add(String author, long timestamp, String content, int maxBytes) {
+        int authorIndex = authors.indexOf(author);
+        int cost = utf8Length(content) + RECORD_OVERHEAD_BYTES + (authorIndex < 0 ? utf8Length(author) + 2 : 0);
+        if (estimatedBytes + cost > maxBytes) {
+            droppedCount++;
+            return false;
+        }
+        if (authorIndex < 0) {
+            authorIndex = authors.size();
+            authors.add(author);
+        }
+        messages.add(new MessageRecord(authorIndex, timestamp, content));
+        estimatedBytes += cost;
+        return true;
+    }
+
+    /**
+     * Pencereyi downstream'in beklediği "yazar: içerik" satırlarına çevirir.
+     *
+     * @return Satır satır mesaj metni; atlanan mesaj varsa son satırda belirtilir
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder(estimatedBytes + 64);
+        for (MessageRecord message : messages) {
+            sb.append(authors.get(message.author()))
+                    .append(": ")
+                    .append(message.content())
+                    .append('\n');
+        }
+        if (droppedCount > 0) {
+            sb.append("[").append(droppedCount).append(" more messages omitted]\n");
+        }
+        return sb.toString();
+    }
+
+    public List<String> getAuthors() {
+        return authors;
+    }
+
+    public List<MessageRecord> getMessages() {
+        return messages;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    public int getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    private static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Çoğu mesaj ASCII; sadece ASCII dışı karakter varsa gerçek uzunluk hesaplanır
+                return value.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Tek mesaj kaydı.
+     *
+     * @param author    authors listesindeki sıra
+     * @param timestamp Mesaj zamanı (epoch ms)
+     * @param content   Mesaj içeriği
+     */
+    public record MessageRecord(int author, long timestamp, String content) {
+    }
+}
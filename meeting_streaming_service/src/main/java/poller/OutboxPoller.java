@@ -1,25 +1,89 @@
 package poller;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.KafkaConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import serde.OutboxPayloadCodec;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * OutboxPoller - Outbox tablosundaki event'leri Kafka'ya aktaran poller
+ *
+ * Özellikler:
+ * - Lease ile sahiplenme: satırlar collector relayer'ı ile aynı lease sütunlarıyla
+ *   (lease_owner / lease_expires_at) koşullu UPDATE sonrası okunur; birden fazla poller
+ *   ve collector relayer'ı aynı satırı aynı anda göndermez
+ * - Başarısız gönderimde lease hemen bırakılır; satır lease süresinin dolması beklenmeden tekrar denenir
+ * - Lease süresi, producer'ın delivery.timeout.ms + linger.ms süresinden uzun tutulur (KafkaConfig);
+ *   gönderim sonuçlanmadan lease dolup satır ikinci kez gönderilmez
+ * - Uçuştaki ID kümesi: gönderilmiş ama henüz işaretlenmemiş satırlar tekrar gönderilmez
+ * - Sınırlı gönderim penceresi: aynı anda en fazla max-in-flight event onay bekler
+ * - Toplu işaretleme: onaylanan ID'ler tur başına tek UPDATE ... IN ile işaretlenir
+ * - Adaptive backoff: boş sorgularda sorgu aralığı uzar
+ * - Sıkıştırılmış payload desteği: payload_codec dolu satırlar açılmadan, content-encoding
+ *   header'ı ile iletilir; düz payload'lar UTF-8 byte olarak gönderilir (collector relayer'ı ile aynı biçim)
+ * - Yönlendirme: collector'ın yazma anında doldurduğu topic sütunu kullanılır; collector
+ *   relayer'ı ile aynı satır hangi relay gönderirse göndersin aynı topic'e gider
+ * - Anahtar bazlı sıra: collector'daki OutboxEventClaimer ile aynı kuralla, partition key'inin
+ *   daha önceki bir satırı lease altındaysa sonraki satırlar sahiplenilmez. Sahiplenilen satırlar
+ *   anahtar başına bir zincirde tutulur; zincirin sıradaki satırı ancak önceki onaylandığında
+ *   (bir sonraki tick'te) gönderilir. Gönderim reddedilirse zincirin kalanı gönderilmez ve
+ *   lease'leri reddedilenle birlikte bırakılır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OutboxPoller {
 
     private final JdbcTemplate jdbcTemplate;
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    public OutboxPoller(JdbcTemplate jdbcTemplate,
+                        KafkaTemplate<String, Object> kafkaTemplate,
+                        @Value("${outbox.poller.max-in-flight:500}") int maxInFlight,
+                        @Value("${outbox.poller.instance-id:}") String instanceId,
+                        @Value("${outbox.poller.lease-seconds:60}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendWindow = new Semaphore(maxInFlight);
+        this.instanceId = instanceId == null || instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+    }
+
+    private static final ObjectMapper HEADER_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> HEADER_TYPE = new TypeReference<>() {};
+
     @Value("${kafka.topics.input.raw-audio}")
     private String rawAudioTopic;
 
@@ -32,60 +96,412 @@ public class OutboxPoller {
     @Value("${kafka.topics.input.text-message}")
     private String textMessageTopic;
 
+    @Value("${kafka.topics.input.media-uploaded:media-uploaded-events}")
+    private String mediaUploadedTopic = "media-uploaded-events";
+
+    /** Outbox'ta event bulunduğunda kullanılan en kısa sorgu aralığı */
+    @Value("${outbox.poller.min-interval-ms:100}")
+    private long minIntervalMillis = 100;
+
+    /** Boş sorgularda ikiye katlanarak ulaşılan en uzun sorgu aralığı */
+    @Value("${outbox.poller.max-interval-ms:5000}")
+    private long maxIntervalMillis = 5000;
+
+    /** Bir sorguda gönderilecek en fazla yeni event */
+    @Value("${outbox.poller.batch-size:100}")
+    private int batchSize = 100;
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    /** Aynı anahtarın (created_at, id) sırasında daha önceki satırı koşulu; p önceki, o sonraki satırdır */
+    private static final String EARLIER_ROW =
+            "AND (p.created_at < o.created_at OR (p.created_at = o.created_at AND p.id < o.id))";
+
+    private static final String RELEASE_SQL_PREFIX =
+            "UPDATE outbox SET lease_owner = NULL, lease_expires_at = NULL WHERE lease_owner = ? AND is_processed = 0 AND id IN (";
+
+    /** Satır ancak lease'inin bitimine en az bu kadar varken gönderilir; gönderim lease dolmadan sonuçlanır */
+    private static final long SEND_BUDGET_MILLIS = KafkaConfig.DELIVERY_TIMEOUT_MS + KafkaConfig.LINGER_MS;
+
+    private long currentIntervalMillis;
+    private long nextPollAtMillis;
+
+    /** Lease sahibi (claim kimliği) öneki ve lease süresi */
+    private final String instanceId;
+    private final Duration leaseDuration;
+    private long claimSequence;
+
+    /** Gönderilmiş, henüz DB'de işaretlenmemiş event ID'leri -> claim kimliği; aynı satırın tekrar gönderilmesini engeller */
+    private final Map<Long, String> inFlight = new ConcurrentHashMap<>();
+
+    /** Kafka'nın onayladığı, bir sonraki flush'ta işaretlenecek event ID'leri */
+    private final Queue<Long> acknowledged = new ConcurrentLinkedQueue<>();
+
+    /** Gönderimi başarısız olan veya pencere dolduğu için gönderilemeyen, lease'i bir sonraki tick'te bırakılacak event'ler */
+    private final Queue<Lease> failed = new ConcurrentLinkedQueue<>();
+
+    /** Gönderimi süren anahtar zincirleri (partition key -> zincir); yalnızca scheduler thread'inde değişir */
+    private final Map<String, KeyChain> chains = new HashMap<>();
+
+    /** Baştaki satırı onaylanan, sıradaki satırı bir sonraki tick'te gönderilecek zincirler */
+    private final Queue<KeyChain> advanceable = new ConcurrentLinkedQueue<>();
+
+    /** Baştaki satırı reddedilen, kalan satırlarının lease'i bırakılacak zincirler */
+    private final Queue<KeyChain> aborted = new ConcurrentLinkedQueue<>();
+
+    /** Aynı anda Kafka onayı beklenen en fazla event (gönderim penceresi) */
+    private final Semaphore sendWindow;
+
+    private final AtomicLong markedEvents = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+
     @PostConstruct
     public void init() {
         log.info("Outbox Poller initialized - Reading from outbox table");
     }
 
-    @Scheduled(fixedRate = 5000)
-    public void pollOutbox() {
-        try {
-            String sql = """
-                SELECT * FROM outbox 
-                WHERE is_processed = 0 
-                ORDER BY created_at ASC 
-                LIMIT 100
-                """;
+    /**
+     * Adaptive backoff ile outbox'ı sorgular.
+     *
+     * Scheduler kısa aralıklarla tetikler; asıl sorgu yalnızca bir sonraki sorgu zamanı
+     * geldiyse yapılır. Event bulunursa aralık min-interval-ms'ye iner, boş geçen her
+     * sorguda max-interval-ms'ye kadar ikiye katlanır. Böylece yoğunken gecikme düşük,
+     * boştayken MySQL'e giden sorgu sayısı düşük kalır.
+     *
+     * Her tick'te önce onaylanmış event'ler toplu olarak işaretlenir, anahtar zincirleri
+     * ilerletilir ve başarısız gönderimlerin lease'leri bırakılır.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poller.tick-ms:50}")
+    public synchronized void pollOutbox() {
+        flushAcknowledged();
+        advanceChains();
+        releaseFailed();
 
-            List<Map<String, Object>> events = jdbcTemplate.queryForList(sql);
+        long now = System.currentTimeMillis();
+        if (now < nextPollAtMillis) {
+            return;
+        }
+
+        // Dönen değer bulunan satır sayısıdır; uçuşta event varken aralık kısa tutulur
+        int found = pollOnce();
+        currentIntervalMillis = found > 0
+                ? minIntervalMillis
+                : Math.min(maxIntervalMillis, Math.max(minIntervalMillis, currentIntervalMillis * 2));
+        nextPollAtMillis = System.currentTimeMillis() + currentIntervalMillis;
+    }
+
+    long getCurrentIntervalMillis() {
+        return currentIntervalMillis;
+    }
+
+    private int pollOnce() {
+        int capacity = sendWindow.availablePermits();
+        if (capacity == 0) {
+            log.debug("Send window full ({} in flight), skipping poll", inFlight.size());
+            return inFlight.size();
+        }
+
+        try {
+            // Claim'den önce alınır; satırların gerçek lease bitişi bundan sonra olamaz
+            long leaseDeadlineMillis = System.currentTimeMillis() + leaseDuration.toMillis();
+            List<Map<String, Object>> events = claim(Math.min(capacity, batchSize));
 
             if (events.isEmpty()) {
                 log.debug("No new events in outbox");
-                return;
+                return 0;
             }
 
-            log.info("Found {} unprocessed events in outbox", events.size());
-
+            // Satırlar claim sırasıyla (created_at, id) anahtar zincirlerine eklenir
+            Map<String, KeyChain> claimedChains = new LinkedHashMap<>();
+            List<KeyChain> started = new ArrayList<>();
             for (Map<String, Object> event : events) {
                 Long eventId = ((Number) event.get("id")).longValue();
-                String aggregateType = (String) event.get("aggregate_type");
-                String payload = (String) event.get("payload");
-
-                String topic = determineTopicByAggregateType(aggregateType);
-                String key = generateKey(payload, aggregateType);
-
-                try {
-                    kafkaTemplate.send(topic, key, payload)
-                            .whenComplete((result, ex) -> {
-                                if (ex == null) {
-                                    markAsProcessed(eventId);
-                                    log.debug("Event {} sent to topic {}", eventId, topic);
-                                } else {
-                                    log.error("Failed to send event {}: {}", eventId, ex.getMessage());
-                                }
-                            });
-                } catch (Exception e) {
-                    log.error("Error sending event {}: {}", eventId, e.getMessage());
+                if (inFlight.containsKey(eventId)) {
+                    continue;
+                }
+                PendingRow row = new PendingRow(eventId, (String) event.get("lease_owner"), event, leaseDeadlineMillis);
+                String key = resolveKey(event);
+                KeyChain chain = key != null ? claimedChains.get(key) : null;
+                if (chain == null) {
+                    if (key != null && chains.containsKey(key)) {
+                        // Anahtarın önceki satırları hâlâ gönderimde (lease süresi dolup tekrar sahiplenilmiş)
+                        failed.add(row.lease());
+                        continue;
+                    }
+                    chain = new KeyChain(key);
+                    if (key != null) {
+                        claimedChains.put(key, chain);
+                        chains.put(key, chain);
+                    }
+                    started.add(chain);
+                }
+                chain.waiting.add(row);
+            }
+
+            int sent = 0;
+            for (KeyChain chain : started) {
+                if (dispatchNext(chain)) {
+                    sent++;
                 }
             }
 
-            log.info("Processed {} events from outbox", events.size());
+            if (sent > 0) {
+                log.info("Sent {} outbox events ({} in flight)", sent, inFlight.size());
+            }
+            return events.size();
 
         } catch (Exception e) {
             log.error("Error polling outbox: {}", e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * En fazla limit kadar satırı bu poller adına lease ile sahiplenir.
+     *
+     * Collector'daki OutboxEventClaimer ile aynı protokol kullanılır: lease'i olmayan veya süresi
+     * dolmuş en eski ID'ler okunur, koşullu UPDATE ile claim kimliği ve lease bitişi yazılır,
+     * ardından yalnızca bu claim kimliğine ait satırlar okunur. Koşul UPDATE sırasında satır
+     * kilidi altında yeniden değerlendirildiği için başka bir poller'ın veya relayer'ın
+     * aldığı satırlar atlanır. Partition key'inin önceki bir satırı lease altında olan satırlar
+     * aday olmaz; yarışta yine de alınanlar releaseOutOfOrder ile hemen bırakılır.
+     */
+    private List<Map<String, Object>> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidateIds = jdbcTemplate.queryForList(
+                "SELECT id FROM outbox o WHERE o.is_processed = 0 AND (o.lease_expires_at IS NULL OR o.lease_expires_at < ?) " +
+                        "AND NOT EXISTS (SELECT 1 FROM outbox p WHERE p.partition_key = o.partition_key " +
+                        "AND p.is_processed = 0 AND p.lease_expires_at >= ? " + EARLIER_ROW + ") " +
+                        "ORDER BY o.created_at ASC, o.id ASC LIMIT " + limit, Long.class, now, now);
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String owner = instanceId + ":" + (++claimSequence);
+        StringJoiner claimSql = new StringJoiner(",",
+                "UPDATE outbox SET lease_owner = ?, lease_expires_at = ? WHERE id IN (",
+                ") AND is_processed = 0 AND (lease_expires_at IS NULL OR lease_expires_at < ?)");
+        candidateIds.forEach(id -> claimSql.add(Long.toString(id)));
+        int claimed = jdbcTemplate.update(claimSql.toString(), owner, now.plus(leaseDuration), now);
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+        releaseOutOfOrder(owner);
+        return jdbcTemplate.queryForList(
+                "SELECT * FROM outbox WHERE lease_owner = ? AND is_processed = 0 ORDER BY created_at ASC, id ASC", owner);
+    }
+
+    /**
+     * Sahiplenilen satırlardan, aynı partition key'in bu claim'e ait olmayan daha önceki bir
+     * işlenmemiş satırının arkasında kalanların lease'ini bırakır. Aday okuması ile claim
+     * arasında başka bir relay anahtarın önceki satırını almış olabilir; bu satırlar onun
+     * önüne geçmemelidir.
+     */
+    private void releaseOutOfOrder(String owner) {
+        List<Long> outOfOrderIds = jdbcTemplate.queryForList(
+                "SELECT o.id FROM outbox o WHERE o.lease_owner = ? AND o.is_processed = 0 " +
+                        "AND EXISTS (SELECT 1 FROM outbox p WHERE p.partition_key = o.partition_key " +
+                        "AND p.is_processed = 0 AND (p.lease_owner IS NULL OR p.lease_owner <> ?) " + EARLIER_ROW + ")",
+                Long.class, owner, owner);
+        if (outOfOrderIds.isEmpty()) {
+            return;
+        }
+        StringJoiner release = new StringJoiner(",", RELEASE_SQL_PREFIX, ")");
+        outOfOrderIds.forEach(id -> release.add(Long.toString(id)));
+        jdbcTemplate.update(release.toString(), owner);
+        log.debug("Deferred {} outbox events behind earlier events of the same key", outOfOrderIds.size());
+    }
+
+    /**
+     * Zincirin sıradaki satırını gönderir. Satır gönderilemezse (lease bitimine az kaldı, pencere
+     * dolu) zincirin kalanıyla birlikte bırakılır; sıra bir sonraki claim'de baştan kurulur.
+     *
+     * @return Satır gönderildiyse true
+     */
+    private boolean dispatchNext(KeyChain chain) {
+        PendingRow row = chain.waiting.pollFirst();
+        if (row == null) {
+            closeChain(chain);
+            return false;
+        }
+        if (System.currentTimeMillis() + SEND_BUDGET_MILLIS >= row.leaseDeadlineMillis()) {
+            abort(chain, row);
+            return false;
+        }
+        if (inFlight.putIfAbsent(row.eventId(), row.owner()) != null) {
+            abort(chain, null);
+            return false;
+        }
+        if (!sendWindow.tryAcquire()) {
+            inFlight.remove(row.eventId());
+            abort(chain, row);
+            return false;
+        }
+        send(chain, row);
+        return true;
+    }
+
+    private void send(KeyChain chain, PendingRow row) {
+        long eventId = row.eventId();
+        String topic = resolveTopic(row.event());
+
+        try {
+            kafkaTemplate.send(toRecord(topic, chain.key, row.event()))
+                    .whenComplete((result, ex) -> {
+                        sendWindow.release();
+                        if (ex == null) {
+                            acknowledged.add(eventId);
+                            advanceable.add(chain);
+                            log.debug("Event {} sent to topic {}", eventId, topic);
+                        } else {
+                            inFlight.remove(eventId);
+                            failed.add(row.lease());
+                            aborted.add(chain);
+                            log.error("Failed to send event {}: {}", eventId, ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            sendWindow.release();
+            inFlight.remove(eventId);
+            abort(chain, row);
+            log.error("Error sending event {}: {}", eventId, e.getMessage());
         }
     }
 
+    /**
+     * Kafka callback'lerinin bildirdiği zincirleri scheduler thread'inde ilerletir: reddedilen
+     * zincirlerin kalan satırları bırakılır, onaylanan zincirlerin sıradaki satırı gönderilir.
+     */
+    void advanceChains() {
+        KeyChain chain;
+        while ((chain = aborted.poll()) != null) {
+            abort(chain, null);
+        }
+        while ((chain = advanceable.poll()) != null) {
+            dispatchNext(chain);
+        }
+    }
+
+    /**
+     * Zinciri kapatır; verilen satırın ve gönderilmemiş tüm satırların lease'i bir sonraki
+     * releaseFailed'de tek UPDATE ile bırakılır.
+     */
+    private void abort(KeyChain chain, PendingRow row) {
+        if (row != null) {
+            failed.add(row.lease());
+        }
+        chain.waiting.forEach(waiting -> failed.add(waiting.lease()));
+        chain.waiting.clear();
+        closeChain(chain);
+    }
+
+    private void closeChain(KeyChain chain) {
+        if (chain.key != null) {
+            chains.remove(chain.key, chain);
+        }
+    }
+
+    /**
+     * Gönderimi başarısız olan satırların lease'ini bırakır; satırlar lease süresi dolmadan
+     * bir sonraki sorguda tekrar sahiplenilebilir. Yalnızca hâlâ aynı claim kimliğine ait
+     * satırlar bırakılır. Kafka callback thread'inde DB'ye gidilmez; bırakma scheduler
+     * thread'inde yapılır. Başarısız olursa lease süresinin dolması yeterlidir.
+     */
+    void releaseFailed() {
+        if (failed.isEmpty()) {
+            return;
+        }
+        Map<String, StringJoiner> byOwner = new LinkedHashMap<>();
+        Lease lease;
+        while ((lease = failed.poll()) != null) {
+            byOwner.computeIfAbsent(lease.owner(), owner -> new StringJoiner(",", RELEASE_SQL_PREFIX, ")"))
+                    .add(Long.toString(lease.eventId()));
+        }
+        byOwner.forEach((owner, sql) -> {
+            try {
+                jdbcTemplate.update(sql.toString(), owner);
+            } catch (Exception e) {
+                log.warn("Could not release outbox leases of {}: {}", owner, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Kafka'nın onayladığı event'leri tek bir UPDATE ... WHERE id IN (...) ile işaretler.
+     * ID'ler ancak güncelleme başarılı olduktan sonra uçuştaki kümeden çıkarılır; böylece
+     * işaretlenmemiş bir satır bir sonraki sorguda tekrar seçilse bile tekrar gönderilmez.
+     * Güncelleme başarısız olursa ID'ler bir sonraki tura bırakılır.
+     */
+    void flushAcknowledged() {
+        if (acknowledged.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = acknowledged.poll()) != null) {
+            ids.add(id);
+        }
+
+        for (int from = 0; from < ids.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + FLUSH_CHUNK_SIZE));
+            StringJoiner in = new StringJoiner(",", "UPDATE outbox SET is_processed = 1 WHERE id IN (", ")");
+            chunk.forEach(eventId -> in.add(Long.toString(eventId)));
+            try {
+                jdbcTemplate.update(in.toString());
+                chunk.forEach(inFlight::remove);
+                markedEvents.addAndGet(chunk.size());
+                flushCount.incrementAndGet();
+            } catch (Exception e) {
+                acknowledged.addAll(chunk);
+                log.error("Failed to mark {} events as processed: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        flushAcknowledged();
+        // Gönderilmemiş zincir satırları bırakılır; gönderimdekiler lease süresini bekler
+        new ArrayList<>(chains.values()).forEach(chain -> abort(chain, null));
+        releaseFailed();
+        log.info("Outbox Poller stopped. Marked: {}, Flushes: {}, In flight: {}",
+                markedEvents.get(), flushCount.get(), inFlight.size());
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    long getFlushCount() {
+        return flushCount.get();
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "streaming";
+        }
+        String id = "poller-" + host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return id.length() > 80 ? id.substring(id.length() - 80) : id;
+    }
+
+    /**
+     * Hedef topic'i collector'ın yazma anında doldurduğu topic sütunundan alır.
+     * Sütun boşsa (eski satırlar) aggregate tipine göre belirlenir.
+     */
+    private String resolveTopic(Map<String, Object> event) {
+        Object topic = event.get("topic");
+        if (topic != null && !topic.toString().isBlank()) {
+            return topic.toString();
+        }
+        return determineTopicByAggregateType((String) event.get("aggregate_type"));
+    }
+
+    /**
+     * Topic sütunu olmayan eski satırlar için collector'ın OutboxRouting eşlemesiyle aynı yönlendirme.
+     */
     private String determineTopicByAggregateType(String aggregateType) {
         if (aggregateType == null) {
             return rawAudioTopic;
@@ -97,7 +513,8 @@ public class OutboxPoller {
             case "VoiceSession" -> voiceSessionTopic;
             case "Message" -> textMessageTopic;
 
-            case "MeetingMedia", "ZoomMedia", "TeamsMedia", "GoogleMeetMedia", "WebexMedia" -> rawAudioTopic;
+            case "MeetingMedia" -> mediaUploadedTopic;
+            case "ZoomMedia", "TeamsMedia", "GoogleMeetMedia", "WebexMedia" -> rawAudioTopic;
 
             default -> {
                 log.warn("Unknown aggregate type: {}, using raw-audio-events topic", aggregateType);
@@ -106,38 +523,71 @@ public class OutboxPoller {
         };
     }
 
-    private String generateKey(String payload, String aggregateType) {
-        try {
-            if (payload != null && payload.contains("channelId")) {
-                int start = payload.indexOf("\"channelId\":\"") + 13;
-                int end = payload.indexOf("\"", start);
-                if (start > 12 && end > start) {
-                    return payload.substring(start, end);
-                }
-            }
-            if (payload != null && payload.contains("meetingId")) {
-                int start = payload.indexOf("\"meetingId\":\"") + 13;
-                int end = payload.indexOf("\"", start);
-                if (start > 12 && end > start) {
-                    return payload.substring(start, end);
-                }
-            }
-            return aggregateType + "-" + System.currentTimeMillis();
-        } catch (Exception e) {
-            return "default-key";
+    /**
+     * Partition key'i collector'ın yazma anında doldurduğu partition_key sütunundan alır.
+     * Sütun boşsa (eski satırlar) aggregate_id kullanılır; payload hiç okunmaz.
+     */
+    private String resolveKey(Map<String, Object> event) {
+        Object partitionKey = event.get("partition_key");
+        if (partitionKey != null) {
+            return partitionKey.toString();
         }
+        Object aggregateId = event.get("aggregate_id");
+        return aggregateId != null ? aggregateId.toString() : null;
     }
 
-    private void markAsProcessed(Long eventId) {
-        try {
-            String sql = "UPDATE outbox SET is_processed = 1 WHERE id = ?";
-            int updated = jdbcTemplate.update(sql, eventId);
-            if (updated > 0) {
-                log.debug("Marked event {} as processed", eventId);
+    /**
+     * Outbox satırını Kafka kaydına çevirir. Değer collector relayer'ı ile aynı biçimdedir:
+     * sıkıştırılmış payload açılmadan iletilir ve content-encoding header'ı yalnızca
+     * payload_codec sütunundan türetilir; saklanan header'lardaki content-encoding atlanır,
+     * böylece header ile gövde hiçbir zaman çelişmez.
+     */
+    private ProducerRecord<String, Object> toRecord(String topic, String key, Map<String, Object> event) {
+        Object codec = event.get("payload_codec");
+        byte[] value = OutboxPayloadCodec.wireBytes((String) event.get("payload"),
+                codec != null ? codec.toString() : null, (byte[]) event.get("compressed_payload"));
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, value);
+
+        String headersJson = (String) event.get("headers");
+        if (headersJson != null) {
+            try {
+                HEADER_MAPPER.readValue(headersJson, HEADER_TYPE).forEach((name, headerValue) -> {
+                    if (!OutboxPayloadCodec.HEADER_CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                        record.headers().add(new RecordHeader(name, headerValue.getBytes(StandardCharsets.UTF_8)));
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Ignoring malformed outbox headers: {}", e.getMessage());
             }
-        } catch (Exception e) {
-            log.error("Failed to mark event {} as processed: {}", eventId, e.getMessage());
         }
+        if (codec != null) {
+            record.headers().add(new RecordHeader(OutboxPayloadCodec.HEADER_CONTENT_ENCODING,
+                    codec.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return record;
+    }
+
+    /** Bırakılacak lease: event ID ve onu sahiplenen claim kimliği */
+    private record Lease(long eventId, String owner) {
     }
-}
 
+    /** Sahiplenilmiş, gönderilmeyi bekleyen satır */
+    private record PendingRow(long eventId, String owner, Map<String, Object> event, long leaseDeadlineMillis) {
+        Lease lease() {
+            return new Lease(eventId, owner);
+        }
+    }
+
+    /**
+     * Bir partition key'in sahiplenilmiş satırları. Baştaki satır gönderimdeyken diğerleri
+     * waiting'de claim sırasıyla bekler. Anahtarı olmayan satırlar kayıtsız tek satırlık zincirdir.
+     */
+    private static final class KeyChain {
+        private final String key;
+        private final Deque<PendingRow> waiting = new ArrayDeque<>();
+
+        private KeyChain(String key) {
+            this.key = key;
+        }
+    }
+}
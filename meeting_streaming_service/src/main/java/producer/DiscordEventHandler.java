@@ -1,5 +1,6 @@
 package producer;
 
+import blob.AudioClaimCheck;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import model.DiscordMessageEvent;
@@ -17,6 +18,7 @@ import java.util.concurrent.CompletableFuture;
 public class DiscordEventHandler {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final AudioClaimCheck audioClaimCheck;
 
     @Value("${kafka.topics.discord-voice}")
     private String voiceTopic;
@@ -26,6 +28,8 @@ public class DiscordEventHandler {
 
     public void sendVoiceEvent(DiscordVoiceEvent event) {
         String key = event.getGuildId() + "-" + event.getChannelId();
+        // Eşikten büyük ses Kafka'ya değil blob deposuna gider; event sadece referansı taşır
+        audioClaimCheck.checkIn(event);
 
         CompletableFuture<SendResult<String, Object>> future =
                 kafkaTemplate.send(voiceTopic, key, event);
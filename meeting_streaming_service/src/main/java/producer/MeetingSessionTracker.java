@@ -0,0 +1,168 @@
+package producer;
+
+import lombok.extern.slf4j.Slf4j;
+import model.SessionBounds;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Window;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * MeetingSessionTracker - Kanal bazında toplantı bölümü (session) tespiti
+ *
+ * Kanalın olayları inactivity gap'e kadar tek bir aggregate'te toplanır; bölüm
+ * kapanınca aggregate bir kez, session penceresi anahtarıyla (başlangıç = ilk olay,
+ * bitiş = son olay) downstream'e gönderilir.
+ *
+ * suppress(untilWindowCloses) sadece stream time ilerledikçe pencere kapatır; kanal
+ * (ve partition) sessizleşince son toplantı hiç gönderilmez. Bu işlemci bölümü üç
+ * yoldan kapatır:
+ * 1. Aynı kanalda gap'ten sonra gelen olay eski bölümü kapatıp yenisini başlatır
+ * 2. Stream-time punctuator, stream time son olaydan gap kadar ilerlemiş bölümleri kapatır
+ *    (yeniden oynatma / geride kalan tüketim sırasında da doğru sınırlar)
+ * 3. Wall-clock punctuator, son olayı gap süresinden uzun süredir işlenmemiş bölümleri
+ *    kapatır; sessiz kanalın son toplantısı yeni olay beklemeden gönderilir. Sadece bu
+ *    işlemci başlatıldıktan sonra olay işlenen kanallara uygulanır: yeniden başlatmadan önce
+ *    yazılmış lastAppendMillis, kesinti gap'ten uzun sürdüyse bekleyen backlog işlenmeden
+ *    bölümü kapatıp aynı toplantının iki kez özetlenmesine yol açardı
+ *
+ * Teknik Detaylar:
+ * - Sınırlar (SessionBounds) ve aggregate ayrı store'larda, kanal anahtarıyla tutulur;
+ *   store'lar önbellekli olmalıdır, aksi halde her olay tüm aggregate'i RocksDB'ye ve changelog'a yazar
+ * - Anahtarın penceresi public Window API'si üzerine kurulu SegmentWindow'dur; Kafka Streams'in
+ *   internals paketindeki SessionWindow'a bağımlılık yoktur
+ * - Sıra dışı gelen olaylar açık bölümün sınırlarını genişletir; açık bölümün
+ *   başlangıcından gap'ten daha eskiyse (kapanmış bir bölüme aitse) atlanır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class MeetingSessionTracker<V, A> implements Processor<String, V, Windowed<String>, A> {
+
+    private final String aggregateStoreName;
+    private final String boundsStoreName;
+    private final long gapMillis;
+    private final Duration punctuateInterval;
+    private final Initializer<A> initializer;
+    private final Aggregator<String, V, A> aggregator;
+
+    private ProcessorContext<Windowed<String>, A> context;
+    private KeyValueStore<String, A> aggregateStore;
+    private KeyValueStore<String, SessionBounds> boundsStore;
+    private final Set<String> activeKeys = new HashSet<>();
+
+    public MeetingSessionTracker(String aggregateStoreName, String boundsStoreName,
+                                 long gapMillis, Duration punctuateInterval,
+                                 Initializer<A> initializer, Aggregator<String, V, A> aggregator) {
+        this.aggregateStoreName = aggregateStoreName;
+        this.boundsStoreName = boundsStoreName;
+        this.gapMillis = gapMillis;
+        this.punctuateInterval = punctuateInterval;
+        this.initializer = initializer;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, A> context) {
+        this.context = context;
+        this.aggregateStore = context.getStateStore(aggregateStoreName);
+        this.boundsStore = context.getStateStore(boundsStoreName);
+        context.schedule(punctuateInterval, PunctuationType.STREAM_TIME,
+                streamTime -> closeSessions((key, bounds) -> streamTime - bounds.getEndMillis() > gapMillis));
+        context.schedule(punctuateInterval, PunctuationType.WALL_CLOCK_TIME,
+                now -> closeSessions((key, bounds) -> activeKeys.contains(key)
+                        && now - bounds.getLastAppendMillis() > gapMillis));
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        if (record.key() == null || record.value() == null) {
+            return;
+        }
+        String key = record.key();
+        long timestamp = record.timestamp();
+
+        SessionBounds bounds = boundsStore.get(key);
+        if (bounds != null && timestamp - bounds.getEndMillis() > gapMillis) {
+            emit(key, bounds);
+            bounds = null;
+        }
+        if (bounds != null && bounds.getStartMillis() - timestamp > gapMillis) {
+            log.debug("Late event for an already closed session skipped: channel={}, timestamp={}", key, timestamp);
+            return;
+        }
+
+        A aggregate;
+        if (bounds == null) {
+            bounds = SessionBounds.builder().startMillis(timestamp).endMillis(timestamp).build();
+            aggregate = initializer.apply();
+        } else {
+            aggregate = aggregateStore.get(key);
+        }
+
+        aggregateStore.put(key, aggregator.apply(key, record.value(), aggregate));
+        bounds.setStartMillis(Math.min(bounds.getStartMillis(), timestamp));
+        bounds.setEndMillis(Math.max(bounds.getEndMillis(), timestamp));
+        bounds.setLastAppendMillis(context.currentSystemTimeMs());
+        boundsStore.put(key, bounds);
+        activeKeys.add(key);
+    }
+
+    private void closeSessions(BiPredicate<String, SessionBounds> closed) {
+        List<KeyValue<String, SessionBounds>> expired = new ArrayList<>();
+        try (KeyValueIterator<String, SessionBounds> iterator = boundsStore.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, SessionBounds> entry = iterator.next();
+                if (closed.test(entry.key, entry.value)) {
+                    expired.add(entry);
+                }
+            }
+        }
+        expired.forEach(entry -> emit(entry.key, entry.value));
+    }
+
+    /**
+     * Bölümün aggregate'ini session penceresi anahtarıyla gönderir ve store'lardan siler.
+     */
+    private void emit(String key, SessionBounds bounds) {
+        A aggregate = aggregateStore.delete(key);
+        boundsStore.delete(key);
+        activeKeys.remove(key);
+        if (aggregate == null) {
+            return;
+        }
+        Windowed<String> windowedKey = new Windowed<>(key, new SegmentWindow(bounds.getStartMillis(), bounds.getEndMillis()));
+        context.forward(new Record<>(windowedKey, aggregate, bounds.getEndMillis()));
+    }
+
+    /**
+     * Kapanan bölümün [ilk olay, son olay] aralığı. İki uç da dahildir; session penceresi
+     * semantiğiyle aynı şekilde kesişen veya uç uca değen pencereler çakışmış sayılır.
+     */
+    static final class SegmentWindow extends Window {
+
+        SegmentWindow(long startMs, long endMs) {
+            super(startMs, endMs);
+        }
+
+        @Override
+        public boolean overlap(Window other) {
+            return startMs <= other.end() && other.start() <= endMs;
+        }
+    }
+}
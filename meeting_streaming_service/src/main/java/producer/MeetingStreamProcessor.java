@@ -1,24 +1,54 @@
 package producer;
 
 
+import blob.AudioClaimCheck;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import model.DiscordMessageEvent;
+import model.DiscordVoiceEvent;
+import model.MeetingSegment;
 import model.ProcessedMeetingData;
+import model.WindowedMessages;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.support.serializer.JsonSerde;
 import org.springframework.stereotype.Service;
+import serde.AudioEventSerde;
+import serde.SessionBoundsSerde;
+import serde.UtteranceBufferSerde;
+import serde.WindowedMessagesSerde;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 
 
 /**
  * MeetingStreamProcessor - Kafka Streams ile toplantı mesajlarını işleyen servis
+ *
+ * Discord mesajları ve ses olayları kanal bazında session'larda toplanır (bkz. MeetingSessionTracker).
+ * Kanalda session-gap süresi boyunca olay gelmezse toplantı bölümü kapanır; gap stream
+ * time'a göre, kanal tamamen sessizleşmişse wall-clock'a göre ölçülür:
+ * - Mesajlar: tüm konuşma tek bir ProcessedMeetingData olarak processed-messages'a,
+ *   bölüm özeti MeetingSegment olarak meeting-segments'e yazılır
+ * - Ses: olay sayısı ve katılımcılar MeetingSegment olarak meeting-segments'e yazılır
+ *
+ * Ses parçaları ayrıca konuşmacı bazında konuşmalara (utterance) birleştirilir ve
+ * processed-voice topic'ine yazılır (bkz. VoiceUtteranceAssembler); transkripsiyon
+ * tüm toplantı dosyasını beklemeden başlayabilir.
+ *
+ * Sabit 5 dakikalık pencerelerin aksine bir konuşma rastgele sınırlarda bölünmez;
+ * özetleme bölüm başına bir kez ve boşluk dolar dolmaz tetiklenir.
+ *
+ * Mesaj aggregate'i ikili serde ile saklanan ve boyutu sınırlı bir WindowedMessages'tır.
+ * Ses topic'leri (discord-voice, processed-voice) AudioEventSerde ile ikili okunur/yazılır.
+ *
  * @author Ahmet
  * @version 1.0
  */
@@ -27,6 +57,17 @@ import java.time.Duration;
 @Slf4j
 public class MeetingStreamProcessor {
 
+    static final String MESSAGE_SESSION_STORE = "discord-message-session-aggregates";
+    static final String MESSAGE_SESSION_BOUNDS_STORE = "discord-message-session-bounds";
+    static final String VOICE_SESSION_STORE = "discord-voice-session-aggregates";
+    static final String VOICE_SESSION_BOUNDS_STORE = "discord-voice-session-bounds";
+    static final String UTTERANCE_META_STORE = "voice-utterance-meta";
+    static final String UTTERANCE_CHUNK_STORE = "voice-utterance-chunks";
+    static final String SOURCE_DISCORD_MESSAGES = "DISCORD_MESSAGES";
+    static final String SOURCE_DISCORD_VOICE = "DISCORD_VOICE";
+
+    private final AudioClaimCheck audioClaimCheck;
+
     @Value("${kafka.topics.discord-voice}")
     private String discordVoiceTopic;
 
@@ -39,6 +80,37 @@ public class MeetingStreamProcessor {
     @Value("${kafka.topics.processed-voice}")
     private String processedVoiceTopic;
 
+    @Value("${kafka.topics.meeting-segments:meeting-segments}")
+    private String meetingSegmentTopic = "meeting-segments";
+
+    /** Kanalda bu süre boyunca olay gelmezse toplantı bölümü kapanır */
+    @Value("${streams.meeting.session-gap-ms:600000}")
+    private long sessionGapMillis = 600000;
+
+    /** Sessiz kanalların açık bölümlerinin kontrol aralığı (stream time ve wall-clock) */
+    @Value("${streams.meeting.session-punctuate-ms:1000}")
+    private long sessionPunctuateMillis = 1000;
+
+    /** Konuşmacı bu süre boyunca ses göndermezse konuşma (utterance) kapanır */
+    @Value("${streams.voice.utterance-gap-ms:800}")
+    private long utteranceGapMillis = 800;
+
+    /**
+     * Bu boyuta ulaşan konuşma beklemeden gönderilir. Producer'ın varsayılan
+     * max.request.size (1 MB) sınırının altında tutulur; kayıt başlıkları ve
+     * serde alanları için pay bırakılır.
+     */
+    @Value("${streams.voice.utterance-max-bytes:786432}")
+    private long utteranceMaxBytes = 786432;
+
+    /** Sessiz kalan konuşmaların kontrol aralığı (wall-clock) */
+    @Value("${streams.voice.utterance-punctuate-ms:200}")
+    private long utterancePunctuateMillis = 200;
+
+    /** Pencere başına tutulan mesajların tahmini kodlanmış boyut sınırı */
+    @Value("${streams.messages.window-max-bytes:262144}")
+    private int messageWindowMaxBytes = 262144;
+
     /**
      * Discord mesajları için Kafka Streams topology'sini oluşturur.
      * @param builder Kafka Streams builder (Spring tarafından inject edilir)
@@ -48,44 +120,145 @@ public class MeetingStreamProcessor {
     public KStream<String, DiscordMessageEvent> discordMessageStream(StreamsBuilder builder) {
         JsonSerde<DiscordMessageEvent> messageSerde = new JsonSerde<>(DiscordMessageEvent.class);
         JsonSerde<ProcessedMeetingData> processedSerde = new JsonSerde<>(ProcessedMeetingData.class);
+        JsonSerde<MeetingSegment> segmentSerde = new JsonSerde<>(MeetingSegment.class);
 
         KStream<String, DiscordMessageEvent> messageEventKStream = builder.stream(
                 discordMessageTopic,
                 Consumed.with(Serdes.String(), messageSerde)
         );
 
-        messageEventKStream
-                .groupByKey()
-                .windowedBy(TimeWindows.ofSizeWithNoGrace(Duration.ofMinutes(5))) // 5 dakikalık pencere
-                .aggregate(
-                        () -> "",
-                        (key, message, aggregate) -> {
-                            return aggregate + message.getAuthorName()
-                                    + ": "
-                                    + message.getContent()
-                                    + "\n";
-                        },
-                        Materialized.with(Serdes.String(), Serdes.String())
-                )
-                .toStream()
-                .map((windowedKey, aggregatedMessages) -> {
-                    log.info("Processing windowed messages: channel={}, windowStart={}, windowEnd={}", 
-                            windowedKey.key(), 
-                            windowedKey.window().startTime(), 
-                            windowedKey.window().endTime());
+        // Session kapanana (gap dolana) kadar ara sonuçlar downstream'e gönderilmez
+        KStream<Windowed<String>, WindowedMessages> closedSessions = trackSessions(builder, messageEventKStream,
+                MESSAGE_SESSION_STORE, MESSAGE_SESSION_BOUNDS_STORE, new WindowedMessagesSerde(),
+                WindowedMessages::new,
+                (key, message, aggregate) -> {
+                    long timestamp = message.getTimestamp() != null ? message.getTimestamp().toEpochMilli() : 0L;
+                    if (!aggregate.add(message.getAuthorName(), timestamp, message.getContent(), messageWindowMaxBytes)
+                            && aggregate.getDroppedCount() == 1) {
+                        log.warn("Message window size limit reached, further messages are counted only: channel={}, limit={} bytes",
+                                key, messageWindowMaxBytes);
+                    }
+                    return aggregate;
+                });
+
+        closedSessions
+                .map((windowedKey, session) -> {
+                    log.info("Meeting segment closed: channel={}, start={}, end={}, messages={}, dropped={}",
+                            windowedKey.key(),
+                            windowedKey.window().startTime(),
+                            windowedKey.window().endTime(),
+                            session.size(),
+                            session.getDroppedCount());
 
                     ProcessedMeetingData processed = ProcessedMeetingData.builder()
-                            .sourceType("DISCORD_MESSAGES")
+                            .sourceType(SOURCE_DISCORD_MESSAGES)
                             .channelId(windowedKey.key())
-                            .rawContent(aggregatedMessages)
+                            .rawContent(session.render())
                             .windowStart(windowedKey.window().startTime())
                             .windowEnd(windowedKey.window().endTime())
+                            .processedAt(Instant.now())
                             .build();
 
                     return KeyValue.pair(windowedKey.key(), processed);
                 })
                 .to(processedMessageTopic, Produced.with(Serdes.String(), processedSerde));
 
+        closedSessions
+                .map((windowedKey, session) -> KeyValue.pair(windowedKey.key(), MeetingSegment.builder()
+                        .channelId(windowedKey.key())
+                        .sourceType(SOURCE_DISCORD_MESSAGES)
+                        .segmentStart(windowedKey.window().startTime())
+                        .segmentEnd(windowedKey.window().endTime())
+                        .eventCount(session.size() + session.getDroppedCount())
+                        .participants(new ArrayList<>(session.getAuthors()))
+                        .closedAt(Instant.now())
+                        .build()))
+                .to(meetingSegmentTopic, Produced.with(Serdes.String(), segmentSerde));
+
         return messageEventKStream;
     }
+
+    /**
+     * Discord ses olayları için Kafka Streams topology'sini oluşturur.
+     * Aynı kaynak akıştan iki dal beslenir: konuşmacı bazında konuşma (utterance)
+     * birleştirme ve kanal bazında toplantı bölümü tespiti.
+     * @param builder Kafka Streams builder (Spring tarafından inject edilir)
+     * @return KStream<String, DiscordVoiceEvent> (downstream işlemler için)
+     */
+    @Bean
+    public KStream<String, DiscordVoiceEvent> discordVoiceStream(StreamsBuilder builder) {
+        AudioEventSerde<DiscordVoiceEvent> voiceSerde = new AudioEventSerde<>(DiscordVoiceEvent.class);
+
+        KStream<String, DiscordVoiceEvent> voiceEventKStream = builder.stream(
+                discordVoiceTopic,
+                Consumed.with(Serdes.String(), voiceSerde)
+        );
+
+        buildVoiceUtterances(builder, voiceEventKStream);
+        buildVoiceSegments(builder, voiceEventKStream);
+
+        return voiceEventKStream;
+    }
+
+    /**
+     * VOICE_CHUNK olaylarını (kanal, kullanıcı) bazında konuşmalara birleştirir ve
+     * sessizlik gap'i dolunca processed-voice topic'ine yazar.
+     */
+    private void buildVoiceUtterances(StreamsBuilder builder, KStream<String, DiscordVoiceEvent> voiceEventKStream) {
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(UTTERANCE_META_STORE), Serdes.String(), new UtteranceBufferSerde()));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(UTTERANCE_CHUNK_STORE), Serdes.String(), Serdes.ByteArray()));
+
+        voiceEventKStream
+                .process(() -> new VoiceUtteranceAssembler(UTTERANCE_META_STORE, UTTERANCE_CHUNK_STORE,
+                                utteranceGapMillis, utteranceMaxBytes, Duration.ofMillis(utterancePunctuateMillis),
+                                audioClaimCheck),
+                        UTTERANCE_META_STORE, UTTERANCE_CHUNK_STORE)
+                .to(processedVoiceTopic, Produced.with(Serdes.String(), new AudioEventSerde<>(ProcessedMeetingData.class)));
+    }
+
+    /**
+     * Kanalda session-gap boyunca ses olayı gelmezse bölümü kapatır ve
+     * meeting-segments topic'ine tek bir MeetingSegment yazar.
+     */
+    private void buildVoiceSegments(StreamsBuilder builder, KStream<String, DiscordVoiceEvent> voiceEventKStream) {
+        JsonSerde<MeetingSegment> segmentSerde = new JsonSerde<>(MeetingSegment.class);
+
+        trackSessions(builder, voiceEventKStream, VOICE_SESSION_STORE, VOICE_SESSION_BOUNDS_STORE, segmentSerde,
+                MeetingSegment::new,
+                (key, event, aggregate) -> aggregate.record(event.getUserName()))
+                .map((windowedKey, segment) -> {
+                    segment.setChannelId(windowedKey.key());
+                    segment.setSourceType(SOURCE_DISCORD_VOICE);
+                    segment.setSegmentStart(windowedKey.window().startTime());
+                    segment.setSegmentEnd(windowedKey.window().endTime());
+                    segment.setClosedAt(Instant.now());
+                    log.info("Voice meeting segment closed: channel={}, start={}, end={}, events={}, participants={}",
+                            windowedKey.key(), segment.getSegmentStart(), segment.getSegmentEnd(),
+                            segment.getEventCount(), segment.getParticipants().size());
+                    return KeyValue.pair(windowedKey.key(), segment);
+                })
+                .to(meetingSegmentTopic, Produced.with(Serdes.String(), segmentSerde));
+    }
+
+    /**
+     * Kanal bazında session takibi için store'ları ekler ve kapanan bölümleri
+     * session penceresi anahtarıyla döndürür.
+     */
+    private <V, A> KStream<Windowed<String>, A> trackSessions(StreamsBuilder builder, KStream<String, V> stream,
+                                                              String aggregateStore, String boundsStore, Serde<A> aggregateSerde,
+                                                              Initializer<A> initializer, Aggregator<String, V, A> aggregator) {
+        // Önbellek, aynı kanalın ardışık güncellemelerini commit aralığında tek yazıma indirir
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(aggregateStore), Serdes.String(), aggregateSerde)
+                .withCachingEnabled());
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(boundsStore), Serdes.String(), new SessionBoundsSerde())
+                .withCachingEnabled());
+
+        return stream.process(() -> new MeetingSessionTracker<>(aggregateStore, boundsStore,
+                        sessionGapMillis, Duration.ofMillis(sessionPunctuateMillis), initializer, aggregator),
+                aggregateStore, boundsStore);
+    }
 }
@@ -0,0 +1,238 @@
+package producer;
+
+import blob.AudioClaimCheck;
+import blob.BlobNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import model.DiscordVoiceEvent;
+import model.ProcessedMeetingData;
+import model.UtteranceBuffer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * VoiceUtteranceAssembler - Konuşmacı bazında ses parçalarını konuşmalara (utterance) birleştirir
+ *
+ * discord-voice akışındaki VOICE_CHUNK olayları (kanal, kullanıcı) çifti için
+ * biriktirilir. Konuşmacı gap-ms süresi boyunca sessiz kalırsa (Discord sessizlikte
+ * paket göndermez) konuşma kapanır ve birleştirilmiş ses tek bir ProcessedMeetingData
+ * olarak processed-voice topic'ine yazılır.
+ *
+ * İş Akışı:
+ * 1. Parça geldiğinde önceki parçayla arasındaki süre gap'i aşıyorsa eski konuşma gönderilir
+ * 2. Parça sıra numarasıyla parça store'una, konuşma üst bilgisi meta store'a yazılır
+ * 3. Konuşma max-bytes'a ulaşırsa hemen gönderilir (uzun konuşmalar bölünür)
+ * 4. LEAVE / MUTE olayı konuşmacının açık konuşmasını hemen kapatır
+ * 5. Wall-clock punctuator, yeni parça gelmeyen konuşmaları gap dolunca kapatır;
+ *    sessizlik son parçanın eklendiği wall-clock zamanına göre ölçülür, böylece olay
+ *    zamanı geride kalan (gecikmeli tüketilen) kayıtlar erken kapatılmaz
+ *
+ * Teknik Detaylar:
+ * - Kayıtlar zaten kanal anahtarıyla bölümlendiği için yeniden bölümleme (repartition) yapılmaz;
+ *   store anahtarı "kanalAnahtarı|kullanıcı" biçimindedir
+ * - Ses parçaları tek tek yazılır; büyüyen bir byte dizisi her parçada yeniden yazılmaz
+ * - Parça anahtarları sıfır dolgulu sıra numarası taşır, prefixScan sırayla döndürür
+ * - Claim-check edilmiş parçaların parça store'una baytı değil referansı yazılır (anahtar
+ *   REF_SUFFIX ile biter); store'un changelog'u aynı büyük sesi Kafka'ya geri taşımaz.
+ *   Referans emit() sırasında blob deposundan (çoğunlukla BlobReadCache'ten) çözülür
+ * - Eşikten büyük konuşmalar processed-voice'a referansla yazılır (bkz. AudioClaimCheck)
+ * - Blob'u bulunamayan / okunamayan / referansı bozuk parça loglanıp atlanır
+ *   (AudioClaimCheck.unresolvedCount); tek bir eksik blob stream thread'ini durdurmaz
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+@Slf4j
+public class VoiceUtteranceAssembler implements Processor<String, DiscordVoiceEvent, String, ProcessedMeetingData> {
+
+    static final String SOURCE_DISCORD_VOICE = "DISCORD_VOICE";
+    /** Değeri ses yerine claim-check referansı olan parça anahtarlarının son eki; prefixScan sırasını bozmaz */
+    static final String REF_SUFFIX = "@ref";
+
+    private final String metaStoreName;
+    private final String chunkStoreName;
+    private final long gapMillis;
+    private final long maxBytes;
+    private final Duration punctuateInterval;
+    private final AudioClaimCheck audioClaimCheck;
+
+    private ProcessorContext<String, ProcessedMeetingData> context;
+    private KeyValueStore<String, UtteranceBuffer> metaStore;
+    private KeyValueStore<String, byte[]> chunkStore;
+    private final StringSerializer prefixSerializer = new StringSerializer();
+
+    public VoiceUtteranceAssembler(String metaStoreName, String chunkStoreName,
+                                   long gapMillis, long maxBytes, Duration punctuateInterval,
+                                   AudioClaimCheck audioClaimCheck) {
+        this.metaStoreName = metaStoreName;
+        this.chunkStoreName = chunkStoreName;
+        this.gapMillis = gapMillis;
+        this.maxBytes = maxBytes;
+        this.punctuateInterval = punctuateInterval;
+        this.audioClaimCheck = audioClaimCheck;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, ProcessedMeetingData> context) {
+        this.context = context;
+        this.metaStore = context.getStateStore(metaStoreName);
+        this.chunkStore = context.getStateStore(chunkStoreName);
+        context.schedule(punctuateInterval, PunctuationType.WALL_CLOCK_TIME, this::closeSilentUtterances);
+    }
+
+    @Override
+    public void process(Record<String, DiscordVoiceEvent> record) {
+        DiscordVoiceEvent event = record.value();
+        if (event == null || event.getEventType() == null || event.getUserId() == null) {
+            return;
+        }
+        String utteranceKey = record.key() + "|" + event.getUserId();
+
+        switch (event.getEventType()) {
+            case VOICE_CHUNK -> appendChunk(utteranceKey, record, event);
+            case LEAVE, MUTE -> {
+                UtteranceBuffer open = metaStore.get(utteranceKey);
+                if (open != null) {
+                    emit(utteranceKey, open);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void appendChunk(String utteranceKey, Record<String, DiscordVoiceEvent> record, DiscordVoiceEvent event) {
+        byte[] audio;
+        try {
+            audio = audioClaimCheck.audioOf(event);
+        } catch (BlobNotFoundException | UncheckedIOException e) {
+            log.warn("Voice chunk skipped, audio could not be resolved: channel={}, user={}, ref={}, unresolved={}",
+                    event.getChannelId(), event.getUserId(), event.getAudioRef(), audioClaimCheck.getUnresolvedCount(), e);
+            return;
+        }
+        if (audio == null || audio.length == 0) {
+            return;
+        }
+        long timestamp = event.getTimestamp() != null ? event.getTimestamp().toEpochMilli() : record.timestamp();
+
+        UtteranceBuffer buffer = metaStore.get(utteranceKey);
+        if (buffer != null && timestamp - buffer.getEndMillis() > gapMillis) {
+            emit(utteranceKey, buffer);
+            buffer = null;
+        }
+        if (buffer == null) {
+            buffer = UtteranceBuffer.builder()
+                    .channelKey(record.key())
+                    .channelId(event.getChannelId())
+                    .userId(event.getUserId())
+                    .userName(event.getUserName())
+                    .startMillis(timestamp)
+                    .endMillis(timestamp)
+                    .build();
+        }
+
+        String chunkKey = chunkKey(utteranceKey, buffer.getChunkCount());
+        if (event.getAudioData() == null && event.getAudioRef() != null) {
+            chunkStore.put(chunkKey + REF_SUFFIX, event.getAudioRef().getBytes(StandardCharsets.UTF_8));
+        } else {
+            chunkStore.put(chunkKey, audio);
+        }
+        buffer.setChunkCount(buffer.getChunkCount() + 1);
+        buffer.setByteCount(buffer.getByteCount() + audio.length);
+        buffer.setEndMillis(Math.max(buffer.getEndMillis(), timestamp));
+        buffer.setLastAppendMillis(context.currentSystemTimeMs());
+
+        if (buffer.getByteCount() >= maxBytes) {
+            emit(utteranceKey, buffer);
+        } else {
+            metaStore.put(utteranceKey, buffer);
+        }
+    }
+
+    /**
+     * Son parçasının eklenmesinden bu yana (wall-clock) gap süresi geçmiş konuşmaları kapatır.
+     */
+    private void closeSilentUtterances(long now) {
+        List<KeyValue<String, UtteranceBuffer>> silent = new ArrayList<>();
+        try (KeyValueIterator<String, UtteranceBuffer> iterator = metaStore.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, UtteranceBuffer> entry = iterator.next();
+                if (now - entry.value.getLastAppendMillis() > gapMillis) {
+                    silent.add(entry);
+                }
+            }
+        }
+        silent.forEach(entry -> emit(entry.key, entry.value));
+    }
+
+    /**
+     * Konuşmanın parçalarını sırayla birleştirip gönderir ve store'lardan siler.
+     */
+    private void emit(String utteranceKey, UtteranceBuffer buffer) {
+        ByteArrayOutputStream audio = new ByteArrayOutputStream((int) Math.min(buffer.getByteCount(), Integer.MAX_VALUE - 8));
+        List<String> chunkKeys = new ArrayList<>(buffer.getChunkCount());
+        try (KeyValueIterator<String, byte[]> chunks = chunkStore.prefixScan(utteranceKey + "#", prefixSerializer)) {
+            while (chunks.hasNext()) {
+                KeyValue<String, byte[]> chunk = chunks.next();
+                chunkKeys.add(chunk.key);
+                byte[] chunkAudio = chunk.key.endsWith(REF_SUFFIX)
+                        ? resolveChunk(buffer, new String(chunk.value, StandardCharsets.UTF_8))
+                        : chunk.value;
+                if (chunkAudio != null) {
+                    audio.writeBytes(chunkAudio);
+                }
+            }
+        }
+        chunkKeys.forEach(chunkStore::delete);
+        metaStore.delete(utteranceKey);
+
+        ProcessedMeetingData utterance = ProcessedMeetingData.builder()
+                .sourceType(SOURCE_DISCORD_VOICE)
+                .channelId(buffer.getChannelId())
+                .speakerId(buffer.getUserId())
+                .speakerName(buffer.getUserName())
+                .audioData(audio.toByteArray())
+                .windowStart(Instant.ofEpochMilli(buffer.getStartMillis()))
+                .windowEnd(Instant.ofEpochMilli(buffer.getEndMillis()))
+                .processedAt(Instant.now())
+                .build();
+        audioClaimCheck.checkIn(utterance);
+
+        log.debug("Utterance assembled: channel={}, speaker={}, chunks={}, bytes={}, durationMs={}",
+                buffer.getChannelId(), buffer.getUserName(), buffer.getChunkCount(), buffer.getByteCount(),
+                buffer.getEndMillis() - buffer.getStartMillis());
+        context.forward(new Record<>(buffer.getChannelKey(), utterance, buffer.getEndMillis()));
+    }
+
+    /**
+     * Parça store'unda referansla tutulan parçanın sesini okur.
+     *
+     * @return Ses; blob eklemeden bu yana silinmiş veya okunamıyorsa null (parça atlanır)
+     */
+    private byte[] resolveChunk(UtteranceBuffer buffer, String ref) {
+        try {
+            return audioClaimCheck.fetch(ref);
+        } catch (BlobNotFoundException | UncheckedIOException e) {
+            log.warn("Voice chunk dropped from utterance, blob could not be resolved: channel={}, user={}, ref={}, unresolved={}",
+                    buffer.getChannelId(), buffer.getUserId(), ref, audioClaimCheck.getUnresolvedCount(), e);
+            return null;
+        }
+    }
+
+    static String chunkKey(String utteranceKey, int sequence) {
+        return utteranceKey + "#" + String.format("%08d", sequence);
+    }
+}
@@ -0,0 +1,251 @@
+package serde;
+
+import model.DiscordVoiceEvent;
+import model.ProcessedMeetingData;
+import model.ZoomMeetingEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.time.Instant;
+
+/**
+ * AudioEventCodec - Ses taşıyan Kafka event'leri için ikili wire formatı
+ *
+ * JsonSerializer byte[] alanları base64'e çevirir; her ses parçası %33 büyür ve
+ * Jackson encode/decode maliyeti ses boyutuyla artar. Bu format ses baytlarını
+ * olduğu gibi yazar, metin alanlarını uzunluk önekli UTF-8 olarak taşır.
+ *
+ * Format (versiyon 2):
+ * - Sabit başlık: 1 bayt versiyon + 1 bayt tip (DiscordVoiceEvent / ZoomMeetingEvent / ProcessedMeetingData)
+ * - Alanlar sınıftaki sırayla: metinler ve ses uzunluk önekli (null = -1),
+ *   enum'lar ordinal + 1 (null = 0), zamanlar saniye + nanosaniye varint'i
+ * - Ses alanı en sonda, tek bir uzunluk önekli blok olarak yazılır
+ * - Versiyon 2, DiscordVoiceEvent ve ProcessedMeetingData'ya sesten hemen önce
+ *   claim-check referansını (audioRef) ekler; versiyon 1 kayıtlar okunmaya devam eder
+ *
+ * Teknik Detaylar:
+ * - İlk bayt JSON'da geçerli bir başlangıç karakteri değildir; isBinary() eski JSON
+ *   kayıtlarını ayırt eder (bkz. AudioEventDeserializer)
+ * - Enum sabitleri sadece sona eklenmelidir; sıra değişirse VERSION artırılmalıdır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public final class AudioEventCodec {
+
+    static final byte VERSION = 2;
+    static final byte VERSION_1 = 1;
+
+    static final byte TYPE_DISCORD_VOICE_EVENT = 1;
+    static final byte TYPE_ZOOM_MEETING_EVENT = 2;
+    static final byte TYPE_PROCESSED_MEETING_DATA = 3;
+
+    /** Başlık ve metadata alanları için tahmini kapasite; ses boyutu buna eklenir */
+    private static final int METADATA_CAPACITY = 160;
+
+    private AudioEventCodec() {
+    }
+
+    /**
+     * @return Değer bu formatla kodlanabiliyorsa true
+     */
+    public static boolean supports(Object value) {
+        return value != null && supports(value.getClass());
+    }
+
+    /**
+     * @return Bu tipteki değerler bu formatla kodlanabiliyorsa true
+     */
+    public static boolean supports(Class<?> type) {
+        return type == DiscordVoiceEvent.class
+                || type == ZoomMeetingEvent.class
+                || type == ProcessedMeetingData.class;
+    }
+
+    /**
+     * @return Veri bu formatla kodlanmış görünüyorsa true (eski JSON kayıtları için false)
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 2 && (data[0] == VERSION || data[0] == VERSION_1);
+    }
+
+    public static byte[] encode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof DiscordVoiceEvent event) {
+            return encode(event);
+        }
+        if (value instanceof ZoomMeetingEvent event) {
+            return encode(event);
+        }
+        if (value instanceof ProcessedMeetingData data) {
+            return encode(data);
+        }
+        throw new SerializationException("Unsupported audio event type: " + value.getClass().getName());
+    }
+
+    public static Object decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryReader reader = new BinaryReader(data);
+        int version = reader.readByte();
+        if (version != VERSION && version != VERSION_1) {
+            throw new SerializationException("Unsupported audio event version: " + version);
+        }
+        int type = reader.readByte();
+        return switch (type) {
+            case TYPE_DISCORD_VOICE_EVENT -> readDiscordVoiceEvent(reader, version);
+            case TYPE_ZOOM_MEETING_EVENT -> readZoomMeetingEvent(reader);
+            case TYPE_PROCESSED_MEETING_DATA -> readProcessedMeetingData(reader, version);
+            default -> throw new SerializationException("Unknown audio event type: " + type);
+        };
+    }
+
+    /**
+     * Veriyi çözer ve beklenen tipte olduğunu doğrular.
+     */
+    public static <T> T decode(byte[] data, Class<T> type) {
+        Object value = decode(data);
+        if (value != null && !type.isInstance(value)) {
+            throw new SerializationException("Expected " + type.getSimpleName()
+                    + " but found " + value.getClass().getSimpleName());
+        }
+        return type.cast(value);
+    }
+
+    public static byte[] encode(DiscordVoiceEvent event) {
+        BinaryWriter writer = header(TYPE_DISCORD_VOICE_EVENT, event.getAudioData());
+        writer.writeString(event.getEventId())
+                .writeString(event.getGuildId())
+                .writeString(event.getChannelId())
+                .writeString(event.getUserId())
+                .writeString(event.getUserName())
+                .writeString(event.getAudioFormat())
+                .writeVarInt(event.getSampleRate());
+        writeInstant(writer, event.getTimestamp());
+        writeEnum(writer, event.getEventType());
+        return writer.writeString(event.getAudioRef())
+                .writeBytes(event.getAudioData())
+                .toByteArray();
+    }
+
+    public static byte[] encode(ZoomMeetingEvent event) {
+        BinaryWriter writer = header(TYPE_ZOOM_MEETING_EVENT, event.getAudioData());
+        writer.writeString(event.getMeetingId())
+                .writeString(event.getMeetingTopic())
+                .writeString(event.getHostId())
+                .writeString(event.getParticipantId())
+                .writeString(event.getParticipantName());
+        writeEnum(writer, event.getEventType());
+        writer.writeString(event.getTranscriptionChunk());
+        writeInstant(writer, event.getTimestamp());
+        return writer.writeBytes(event.getAudioData()).toByteArray();
+    }
+
+    public static byte[] encode(ProcessedMeetingData data) {
+        BinaryWriter writer = header(TYPE_PROCESSED_MEETING_DATA, data.getAudioData());
+        writer.writeString(data.getSourceType())
+                .writeString(data.getChannelId())
+                .writeString(data.getRawContent())
+                .writeString(data.getSpeakerName())
+                .writeString(data.getSpeakerId());
+        writeInstant(writer, data.getWindowStart());
+        writeInstant(writer, data.getWindowEnd());
+        writeInstant(writer, data.getProcessedAt());
+        return writer.writeString(data.getAudioRef())
+                .writeBytes(data.getAudioData())
+                .toByteArray();
+    }
+
+    private static DiscordVoiceEvent readDiscordVoiceEvent(BinaryReader reader, int version) {
+        DiscordVoiceEvent event = new DiscordVoiceEvent();
+        event.setEventId(reader.readString());
+        event.setGuildId(reader.readString());
+        event.setChannelId(reader.readString());
+        event.setUserId(reader.readString());
+        event.setUserName(reader.readString());
+        event.setAudioFormat(reader.readString());
+        event.setSampleRate(reader.readVarInt());
+        event.setTimestamp(readInstant(reader));
+        event.setEventType(readEnum(reader, DiscordVoiceEvent.EventType.values()));
+        if (version >= VERSION) {
+            event.setAudioRef(reader.readString());
+        }
+        event.setAudioData(reader.readBytes());
+        return event;
+    }
+
+    private static ZoomMeetingEvent readZoomMeetingEvent(BinaryReader reader) {
+        ZoomMeetingEvent event = new ZoomMeetingEvent();
+        event.setMeetingId(reader.readString());
+        event.setMeetingTopic(reader.readString());
+        event.setHostId(reader.readString());
+        event.setParticipantId(reader.readString());
+        event.setParticipantName(reader.readString());
+        event.setEventType(readEnum(reader, ZoomMeetingEvent.EventType.values()));
+        event.setTranscriptionChunk(reader.readString());
+        event.setTimestamp(readInstant(reader));
+        event.setAudioData(reader.readBytes());
+        return event;
+    }
+
+    private static ProcessedMeetingData readProcessedMeetingData(BinaryReader reader, int version) {
+        ProcessedMeetingData data = new ProcessedMeetingData();
+        data.setSourceType(reader.readString());
+        data.setChannelId(reader.readString());
+        data.setRawContent(reader.readString());
+        data.setSpeakerName(reader.readString());
+        data.setSpeakerId(reader.readString());
+        data.setWindowStart(readInstant(reader));
+        data.setWindowEnd(readInstant(reader));
+        data.setProcessedAt(readInstant(reader));
+        if (version >= VERSION) {
+            data.setAudioRef(reader.readString());
+        }
+        data.setAudioData(reader.readBytes());
+        return data;
+    }
+
+    private static BinaryWriter header(byte type, byte[] audio) {
+        // Ses baytları için kapasite baştan ayrılır; büyük parçalarda ara kopya oluşmaz
+        int capacity = METADATA_CAPACITY + (audio != null ? audio.length : 0);
+        return new BinaryWriter(capacity)
+                .writeByte(VERSION)
+                .writeByte(type);
+    }
+
+    private static void writeInstant(BinaryWriter writer, Instant value) {
+        if (value == null) {
+            writer.writeByte(0);
+            return;
+        }
+        writer.writeByte(1)
+                .writeVarLong(value.getEpochSecond())
+                .writeVarInt(value.getNano());
+    }
+
+    private static Instant readInstant(BinaryReader reader) {
+        if (reader.readByte() == 0) {
+            return null;
+        }
+        long seconds = reader.readVarLong();
+        return Instant.ofEpochSecond(seconds, reader.readVarInt());
+    }
+
+    private static void writeEnum(BinaryWriter writer, Enum<?> value) {
+        writer.writeVarInt(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static <E extends Enum<E>> E readEnum(BinaryReader reader, E[] values) {
+        int index = reader.readVarInt();
+        if (index == 0) {
+            return null;
+        }
+        if (index > values.length) {
+            throw new SerializationException("Unknown " + values.getClass().getComponentType().getSimpleName()
+                    + " ordinal: " + (index - 1));
+        }
+        return values[index - 1];
+    }
+}
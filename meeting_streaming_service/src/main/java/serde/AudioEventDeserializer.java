@@ -0,0 +1,48 @@
+package serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * AudioEventDeserializer - İkili ses event'lerini ve JSON değerleri okuyan Kafka deserializer
+ *
+ * Kayıt AudioEventCodec başlığıyla başlıyorsa tip baytına göre çözülür; aksi halde
+ * JsonDeserializer'a devredilir. Böylece aynı topic'te geçiş öncesi yazılmış JSON
+ * kayıtlar ve dış kaynaklı JSON event'ler (ör. Zoom) okunmaya devam eder.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class AudioEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (AudioEventCodec.isBinary(data)) {
+            return AudioEventCodec.decode(data);
+        }
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (AudioEventCodec.isBinary(data)) {
+            return AudioEventCodec.decode(data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,49 @@
+package serde;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * AudioEventSerde - Kafka Streams için tipli ikili ses event serde'si
+ *
+ * JsonSerde<T> yerine kullanılır: yazarken AudioEventCodec formatını üretir,
+ * okurken ikili kayıtları çözer ve geçiş öncesi yazılmış JSON kayıtlara düşer.
+ *
+ * Kullanım: new AudioEventSerde<>(DiscordVoiceEvent.class)
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class AudioEventSerde<T> implements Serde<T> {
+
+    private final Serializer<T> serializer;
+    private final Deserializer<T> deserializer;
+
+    public AudioEventSerde(Class<T> type) {
+        if (!AudioEventCodec.supports(type)) {
+            throw new IllegalArgumentException("Unsupported audio event type: " + type.getName());
+        }
+        JsonDeserializer<T> legacyJson = new JsonDeserializer<>(type, false);
+        this.serializer = (topic, value) -> AudioEventCodec.encode(value);
+        this.deserializer = (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            return AudioEventCodec.isBinary(data)
+                    ? AudioEventCodec.decode(data, type)
+                    : legacyJson.deserialize(topic, data);
+        };
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+}
@@ -0,0 +1,55 @@
+package serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * AudioEventSerializer - Ses event'lerini ikili, diğer değerleri JSON olarak yazan Kafka serializer
+ *
+ * Producer'lar tek bir KafkaTemplate<String, Object> paylaştığı için tip bazında seçim yapılır:
+ * DiscordVoiceEvent, ZoomMeetingEvent ve ProcessedMeetingData AudioEventCodec ile kodlanır,
+ * hazır byte dizileri (ör. outbox relay'inin ilettiği payload) olduğu gibi yazılır,
+ * geri kalan her şey önceki gibi JsonSerializer'a devredilir.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class AudioEventSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (AudioEventCodec.supports(data)) {
+            return AudioEventCodec.encode(data);
+        }
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (AudioEventCodec.supports(data)) {
+            return AudioEventCodec.encode(data);
+        }
+        return jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,101 @@
+package serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryReader - BinaryWriter ile yazılmış değerleri okur
+ *
+ * Bozuk veya kesik veri SerializationException fırlatır; Kafka Streams
+ * bunu deserialization hatası olarak ele alır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint at offset " + position);
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new SerializationException("Malformed varlong at offset " + position);
+    }
+
+    public byte[] readBytes() {
+        long length = readVarLong();
+        if (length < 0) {
+            return null;
+        }
+        if (length > remaining()) {
+            throw new SerializationException("Length " + length + " exceeds remaining " + remaining() + " bytes");
+        }
+        byte[] value = new byte[(int) length];
+        System.arraycopy(buffer, position, value, 0, value.length);
+        position += value.length;
+        return value;
+    }
+
+    public String readString() {
+        long length = readVarLong();
+        if (length < 0) {
+            return null;
+        }
+        if (length > remaining()) {
+            throw new SerializationException("Length " + length + " exceeds remaining " + remaining() + " bytes");
+        }
+        String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    public int remaining() {
+        return buffer.length - position;
+    }
+
+    private void require(int bytes) {
+        if (remaining() < bytes) {
+            throw new SerializationException("Unexpected end of data at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package serde;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * BinaryWriter - State store ve topic değerleri için küçük ikili yazıcı
+ *
+ * Kafka Streams serde'leri her store güncellemesinde değerin tamamını yeniden
+ * yazar. JSON yerine bu yazıcı ile üretilen ikili format alan adı taşımaz;
+ * tam sayılar varint, metinler uzunluk önekli UTF-8 olarak yazılır.
+ *
+ * Teknik Detaylar:
+ * - Tek bir büyüyen byte dizisi kullanılır (ByteArrayOutputStream senkronizasyonu yok)
+ * - null metin -1 uzunluk ile yazılır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public final class BinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /** Negatif olmayan tam sayıyı 1-5 bayt varint olarak yazar */
+    public BinaryWriter writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /** İşaretli değeri zigzag varint olarak yazar (küçük farklar 1-2 bayt tutar) */
+    public BinaryWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return this;
+    }
+
+    public BinaryWriter writeBytes(byte[] value) {
+        if (value == null) {
+            return writeVarLong(-1);
+        }
+        writeVarLong(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+        return this;
+    }
+
+    public BinaryWriter writeString(String value) {
+        return writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
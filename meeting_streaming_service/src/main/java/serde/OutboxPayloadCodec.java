@@ -0,0 +1,44 @@
+package serde;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * OutboxPayloadCodec - Outbox satırlarının Kafka'ya gönderilecek byte'larını belirleyen yardımcı
+ *
+ * Collector büyük outbox payload'larını zstd ile sıkıştırıp payload_codec /
+ * compressed_payload sütunlarına yazar. Relay'ler sıkıştırılmış byte'ları açmadan iletir
+ * ve Kafka kaydına "content-encoding" header'ı ekler; düz payload'lar UTF-8 byte olarak
+ * gönderilir. Bu sınıf collector'daki OutboxPayloadCodec.wireBytes ile aynı sözleşmeyi
+ * uygular; böylece bir satır hangi relay gönderirse göndersin aynı biçimde yayınlanır ve
+ * ai_service'teki EncodedPayload tarafından, listener payload'ı okuduğunda açılır.
+ *
+ * Teknik Detaylar:
+ * - codec null ise payload düz UTF-8 olarak gönderilir, content-encoding header'ı eklenmez
+ * - codec doluysa compressed_payload olduğu gibi gönderilir, header değeri codec adıdır
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public final class OutboxPayloadCodec {
+
+    public static final String HEADER_CONTENT_ENCODING = "content-encoding";
+    public static final String CODEC_ZSTD = "zstd";
+
+    private OutboxPayloadCodec() {
+    }
+
+    /**
+     * Kafka kaydının değeri olarak gönderilecek byte'ları döndürür; sıkıştırılmış payload açılmaz.
+     *
+     * @param payload           Düz JSON payload (payload sütunu)
+     * @param codec             Codec adı (payload_codec sütunu); null ise payload düzdür
+     * @param compressedPayload Sıkıştırılmış payload (compressed_payload sütunu)
+     * @return Kayıt değeri
+     */
+    public static byte[] wireBytes(String payload, String codec, byte[] compressedPayload) {
+        if (codec != null) {
+            return compressedPayload;
+        }
+        return payload != null ? payload.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
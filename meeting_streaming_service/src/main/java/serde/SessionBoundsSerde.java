@@ -0,0 +1,62 @@
+package serde;
+
+import model.SessionBounds;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * SessionBoundsSerde - SessionBounds için ikili Kafka serde'si
+ *
+ * Format (versiyon 1): 1 bayt versiyon, başlangıç zamanı, bitiş zamanı farkı (varint),
+ * son olayın wall-clock zamanı.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class SessionBoundsSerde implements Serde<SessionBounds> {
+
+    static final byte VERSION = 1;
+
+    private final Serializer<SessionBounds> serializer = (topic, value) -> serialize(value);
+    private final Deserializer<SessionBounds> deserializer = (topic, data) -> deserialize(data);
+
+    @Override
+    public Serializer<SessionBounds> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<SessionBounds> deserializer() {
+        return deserializer;
+    }
+
+    public static byte[] serialize(SessionBounds value) {
+        if (value == null) {
+            return null;
+        }
+        return new BinaryWriter(24)
+                .writeByte(VERSION)
+                .writeLong(value.getStartMillis())
+                .writeVarLong(value.getEndMillis() - value.getStartMillis())
+                .writeLong(value.getLastAppendMillis())
+                .toByteArray();
+    }
+
+    public static SessionBounds deserialize(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryReader reader = new BinaryReader(data);
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported SessionBounds version: " + version);
+        }
+        SessionBounds bounds = new SessionBounds();
+        bounds.setStartMillis(reader.readLong());
+        bounds.setEndMillis(bounds.getStartMillis() + reader.readVarLong());
+        bounds.setLastAppendMillis(reader.readLong());
+        return bounds;
+    }
+}
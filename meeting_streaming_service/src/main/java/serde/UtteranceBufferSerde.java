@@ -0,0 +1,77 @@
+package serde;
+
+import model.UtteranceBuffer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * UtteranceBufferSerde - UtteranceBuffer için ikili Kafka serde'si
+ *
+ * Format (versiyon 2): 1 bayt versiyon, uzunluk önekli channelKey / channelId /
+ * userId / userName, başlangıç zamanı, bitiş zamanı farkı, parça ve bayt sayısı (varint),
+ * son eklemenin wall-clock zamanı. Versiyon 1 kayıtları okunurken wall-clock zamanı
+ * olarak bitiş zamanı kullanılır.
+ *
+ * @author Ahmet
+ * @version 1.0
+ */
+public class UtteranceBufferSerde implements Serde<UtteranceBuffer> {
+
+    static final byte VERSION = 2;
+    static final byte VERSION_1 = 1;
+
+    private final Serializer<UtteranceBuffer> serializer = (topic, value) -> serialize(value);
+    private final Deserializer<UtteranceBuffer> deserializer = (topic, data) -> deserialize(data);
+
+    @Override
+    public Serializer<UtteranceBuffer> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<UtteranceBuffer> deserializer() {
+        return deserializer;
+    }
+
+    public static byte[] serialize(UtteranceBuffer value) {
+        if (value == null) {
+            return null;
+        }
+        return new BinaryWriter(64)
+                .writeByte(VERSION)
+                .writeString(value.getChannelKey())
+                .writeString(value.getChannelId())
+                .writeString(value.getUserId())
+                .writeString(value.getUserName())
+                .writeLong(value.getStartMillis())
+                .writeVarLong(value.getEndMillis() - value.getStartMillis())
+                .writeVarInt(value.getChunkCount())
+                .writeVarLong(value.getByteCount())
+                .writeLong(value.getLastAppendMillis())
+                .toByteArray();
+    }
+
+    public static UtteranceBuffer deserialize(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryReader reader = new BinaryReader(data);
+        int version = reader.readByte();
+        if (version != VERSION && version != VERSION_1) {
+            throw new SerializationException("Unsupported UtteranceBuffer version: " + version);
+        }
+        UtteranceBuffer buffer = new UtteranceBuffer();
+        buffer.setChannelKey(reader.readString());
+        buffer.setChannelId(reader.readString());
+        buffer.setUserId(reader.readString());
+        buffer.setUserName(reader.readString());
+        buffer.setStartMillis(reader.readLong());
+        buffer.setEndMillis(buffer.getStartMillis() + reader.readVarLong());
+        buffer.setChunkCount(reader.readVarInt());
+        buffer.setByteCount(reader.readVarLong());
+        buffer.setLastAppendMillis(version == VERSION ? reader.readLong() : buffer.getEndMillis());
+        return buffer;
+    }
+}
@@ -0,0 +1,88 @@
+package blob;
+
+import model.DiscordVoiceEvent;
+import model.ProcessedMeetingData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AudioClaimCheck Unit Tests")
+class AudioClaimCheckTest {
+
+    private static final int THRESHOLD = 16;
+
+    @TempDir
+    Path root;
+
+    private AudioClaimCheck claimCheck;
+
+    @BeforeEach
+    void setUp() {
+        claimCheck = new AudioClaimCheck(new LocalFileBlobStore(root), new BlobReadCache(1024), THRESHOLD);
+    }
+
+    @Test
+    @DisplayName("Audio at or below the threshold should stay inline")
+    void shouldKeepSmallAudioInline() {
+        byte[] audio = new byte[THRESHOLD];
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder().audioData(audio).build();
+
+        claimCheck.checkIn(event);
+
+        assertSame(audio, event.getAudioData());
+        assertNull(event.getAudioRef());
+        assertSame(audio, claimCheck.audioOf(event));
+        assertEquals(0, claimCheck.getCheckedInCount());
+    }
+
+    @Test
+    @DisplayName("Audio above the threshold should be replaced by a reference and fetched lazily")
+    void shouldCheckInLargeAudio() {
+        byte[] audio = new byte[THRESHOLD + 1];
+        audio[0] = 42;
+        ProcessedMeetingData data = ProcessedMeetingData.builder().audioData(audio).build();
+
+        claimCheck.checkIn(data);
+
+        assertNull(data.getAudioData());
+        assertNotNull(data.getAudioRef());
+        assertEquals(1, claimCheck.getCheckedInCount());
+        assertEquals(THRESHOLD + 1, claimCheck.getCheckedInBytes());
+        assertEquals(0, claimCheck.getFetchCount());
+
+        assertArrayEquals(audio, claimCheck.audioOf(data));
+        assertArrayEquals(audio, claimCheck.audioOf(data));
+        assertEquals(1, claimCheck.getFetchCount());
+    }
+
+    @Test
+    @DisplayName("Events without audio or reference should resolve to null")
+    void shouldResolveMissingAudioToNull() {
+        assertNull(claimCheck.audioOf(new DiscordVoiceEvent()));
+        assertNull(claimCheck.fetch(null));
+    }
+
+    @Test
+    @DisplayName("Missing blobs should be counted as unresolved and rethrown")
+    void shouldCountUnresolvedReferences() {
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder().audioRef("sha256:" + "0".repeat(64)).build();
+
+        assertThrows(BlobNotFoundException.class, () -> claimCheck.audioOf(event));
+        assertEquals(1, claimCheck.getUnresolvedCount());
+        assertEquals(0, claimCheck.getFetchCount());
+    }
+
+    @Test
+    @DisplayName("Malformed references should be reported as missing blobs")
+    void shouldTreatMalformedReferenceAsUnresolved() {
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder().audioRef("not-a-ref").build();
+
+        assertThrows(BlobNotFoundException.class, () -> claimCheck.audioOf(event));
+        assertEquals(1, claimCheck.getUnresolvedCount());
+    }
+}
@@ -0,0 +1,54 @@
+package blob;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BlobReadCache Unit Tests")
+class BlobReadCacheTest {
+
+    @Test
+    @DisplayName("Should evict least recently used entries above the byte limit")
+    void shouldEvictLeastRecentlyUsed() {
+        BlobReadCache cache = new BlobReadCache(10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.getCurrentBytes());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Entries larger than the limit should not be cached")
+    void shouldSkipOversizedEntries() {
+        BlobReadCache cache = new BlobReadCache(10);
+        cache.put("a", new byte[4]);
+
+        cache.put("big", new byte[11]);
+
+        assertNull(cache.get("big"));
+        assertNotNull(cache.get("a"));
+        assertEquals(4, cache.getCurrentBytes());
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    void shouldCountHitsAndMisses() {
+        BlobReadCache cache = new BlobReadCache(10);
+        cache.put("a", new byte[1]);
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,98 @@
+package blob;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocalFileBlobStore Unit Tests")
+class LocalFileBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private Path blobPath(String ref) {
+        String hash = ref.substring(LocalFileBlobStore.REF_PREFIX.length());
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    @Test
+    @DisplayName("Should store content under its SHA-256 reference and read it back")
+    void shouldPutAndGet() {
+        LocalFileBlobStore store = new LocalFileBlobStore(root);
+        byte[] data = "hello".getBytes(StandardCharsets.UTF_8);
+
+        String ref = store.put(data);
+
+        assertEquals("sha256:2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", ref);
+        assertTrue(store.exists(ref));
+        assertArrayEquals(data, store.get(ref));
+    }
+
+    @Test
+    @DisplayName("Same content should be stored once")
+    void shouldDeduplicateContent() throws IOException {
+        LocalFileBlobStore store = new LocalFileBlobStore(root);
+
+        String first = store.put(new byte[]{1, 2, 3});
+        String second = store.put(new byte[]{1, 2, 3});
+        store.put(new byte[]{4, 5, 6});
+
+        assertEquals(first, second);
+        assertEquals(2, countFiles(root));
+    }
+
+    @Test
+    @DisplayName("Blobs older than the cutoff should be deleted and re-written blobs should be kept")
+    void shouldDeleteExpiredBlobs() throws IOException {
+        LocalFileBlobStore store = new LocalFileBlobStore(root);
+        Instant old = Instant.now().minus(Duration.ofDays(10));
+        String expired = store.put(new byte[]{1, 2, 3});
+        String refreshed = store.put(new byte[]{4, 5, 6});
+        String fresh = store.put(new byte[]{7, 8, 9});
+        Files.setLastModifiedTime(blobPath(expired), FileTime.from(old));
+        Files.setLastModifiedTime(blobPath(refreshed), FileTime.from(old));
+
+        // Var olan içeriğin yeniden yazılması saklama süresini yeniler
+        assertEquals(refreshed, store.put(new byte[]{4, 5, 6}));
+
+        assertEquals(1, store.deleteOlderThan(Instant.now().minus(Duration.ofDays(7))));
+        assertFalse(store.exists(expired));
+        assertTrue(store.exists(refreshed));
+        assertTrue(store.exists(fresh));
+    }
+
+    @Test
+    @DisplayName("Sweeping a store whose directory does not exist yet should delete nothing")
+    void shouldSweepMissingRoot() {
+        assertEquals(0, new LocalFileBlobStore(root.resolve("missing")).deleteOlderThan(Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Missing blobs and malformed references should be rejected")
+    void shouldRejectMissingAndInvalidReferences() {
+        LocalFileBlobStore store = new LocalFileBlobStore(root);
+        String missing = "sha256:" + "0".repeat(64);
+
+        assertFalse(store.exists(missing));
+        assertThrows(BlobNotFoundException.class, () -> store.get(missing));
+        assertThrows(IllegalArgumentException.class, () -> store.get("sha256:../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.get(null));
+    }
+}
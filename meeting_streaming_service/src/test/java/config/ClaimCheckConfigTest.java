@@ -0,0 +1,40 @@
+package config;
+
+import blob.BlobStore;
+import blob.LocalFileBlobStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClaimCheckConfig Unit Tests")
+class ClaimCheckConfigTest {
+
+    private final ClaimCheckConfig claimCheckConfig = new ClaimCheckConfig();
+
+    @TempDir
+    Path root;
+
+    @Test
+    @DisplayName("Local blob store should require an explicit shared path")
+    void shouldRequireLocalPath() {
+        assertThrows(IllegalStateException.class, () -> claimCheckConfig.localFileBlobStore(""));
+        assertThrows(IllegalStateException.class, () -> claimCheckConfig.localFileBlobStore("  "));
+        assertThrows(IllegalStateException.class, () -> claimCheckConfig.localFileBlobStore(null));
+    }
+
+    @Test
+    @DisplayName("Local blob store should create the configured directory")
+    void shouldCreateLocalStoreDirectory() {
+        Path path = root.resolve("claim-check");
+
+        BlobStore store = claimCheckConfig.localFileBlobStore(path.toString());
+
+        assertInstanceOf(LocalFileBlobStore.class, store);
+        assertTrue(Files.isDirectory(path));
+    }
+}
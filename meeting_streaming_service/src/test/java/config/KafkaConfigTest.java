@@ -82,6 +82,16 @@ class KafkaConfigTest {
         assertEquals(6, topic.numPartitions());
     }
 
+    @Test
+    @DisplayName("Should create meeting segments topic")
+    void shouldCreateMeetingSegmentsTopic() {
+        NewTopic topic = kafkaConfig.meetingSegmentsTopic();
+
+        assertNotNull(topic);
+        assertEquals("meeting-segments", topic.name());
+        assertEquals(6, topic.numPartitions());
+    }
+
     @Test
     @DisplayName("Should create meeting media topic")
     void shouldCreateMeetingMediaTopic() {
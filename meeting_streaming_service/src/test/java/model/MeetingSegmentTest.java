@@ -0,0 +1,35 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MeetingSegment Unit Tests")
+class MeetingSegmentTest {
+
+    @Test
+    @DisplayName("record() should count events and collect distinct participants")
+    void recordShouldCountEventsAndParticipants() {
+        MeetingSegment segment = new MeetingSegment();
+
+        segment.record("ahmet").record("john").record("ahmet").record(null);
+
+        assertEquals(4, segment.getEventCount());
+        assertEquals(List.of("ahmet", "john"), segment.getParticipants());
+    }
+
+    @Test
+    @DisplayName("Participants should be capped")
+    void participantsShouldBeCapped() {
+        MeetingSegment segment = new MeetingSegment();
+        for (int i = 0; i < MeetingSegment.MAX_PARTICIPANTS + 10; i++) {
+            segment.record("user-" + i);
+        }
+
+        assertEquals(MeetingSegment.MAX_PARTICIPANTS, segment.getParticipants().size());
+        assertEquals(MeetingSegment.MAX_PARTICIPANTS + 10, segment.getEventCount());
+    }
+}
@@ -0,0 +1,37 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WindowedMessages Unit Tests")
+class WindowedMessagesTest {
+
+    @Test
+    @DisplayName("Should render messages in arrival order")
+    void shouldRenderMessages() {
+        WindowedMessages window = new WindowedMessages();
+        window.add("ahmet", 1L, "merhaba", 1000);
+        window.add("john", 2L, "hello", 1000);
+
+        assertEquals("ahmet: merhaba\njohn: hello\n", window.render());
+        assertEquals(List.of("ahmet", "john"), window.getAuthors());
+    }
+
+    @Test
+    @DisplayName("add() should drop messages beyond the byte cap and count them")
+    void addShouldRespectByteCap() {
+        WindowedMessages window = new WindowedMessages();
+
+        assertTrue(window.add("ahmet", 1L, "first message", 40));
+        assertFalse(window.add("ahmet", 2L, "dropped", 40));
+
+        assertEquals(1, window.size());
+        assertEquals(1, window.getDroppedCount());
+        assertTrue(window.getEstimatedBytes() <= 40);
+        assertEquals("ahmet: first message\n[1 more messages omitted]\n", window.render());
+    }
+}
@@ -1,17 +1,22 @@
 package poller;
 
+import com.github.luben.zstd.Zstd;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
@@ -32,14 +37,53 @@ class OutboxPollerTest {
     @Mock
     private SendResult<String, Object> sendResult;
 
-    @InjectMocks
     private OutboxPoller outboxPoller;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(outboxPoller, "discordMessagesTopic", "discord-messages");
-        ReflectionTestUtils.setField(outboxPoller, "discordVoiceTopic", "discord-voice");
-        ReflectionTestUtils.setField(outboxPoller, "meetingMediaTopic", "meeting-media");
+        outboxPoller = createPoller(100);
+    }
+
+    private OutboxPoller createPoller(int maxInFlight) {
+        OutboxPoller poller = new OutboxPoller(jdbcTemplate, kafkaTemplate, maxInFlight, "test-poller", 60);
+        ReflectionTestUtils.setField(poller, "rawAudioTopic", "raw-audio");
+        ReflectionTestUtils.setField(poller, "meetingTopic", "meeting");
+        ReflectionTestUtils.setField(poller, "voiceSessionTopic", "voice-session");
+        ReflectionTestUtils.setField(poller, "textMessageTopic", "text-message");
+        // Testlerde her çağrı gerçek bir sorgu yapsın
+        ReflectionTestUtils.setField(poller, "minIntervalMillis", 0L);
+        ReflectionTestUtils.setField(poller, "maxIntervalMillis", 0L);
+        return poller;
+    }
+
+    /** Her poll'da sırasıyla verilen batch'lerin lease ile sahiplenildiğini simüle eder */
+    @SafeVarargs
+    private void stubClaims(List<Map<String, Object>>... batches) {
+        // Bir stubbing zinciri bitmeden diğeri başlatılmaz
+        OngoingStubbing<List<Long>> ids = lenient().when(jdbcTemplate.queryForList(
+                startsWith("SELECT id FROM outbox"), eq(Long.class), any(Object[].class)));
+        for (List<Map<String, Object>> batch : batches) {
+            ids = ids.thenReturn(batch.stream().map(event -> (Long) event.get("id")).toList());
+        }
+        OngoingStubbing<List<Map<String, Object>>> rows = lenient().when(jdbcTemplate.queryForList(
+                startsWith("SELECT * FROM outbox WHERE lease_owner"), any(Object[].class)));
+        for (List<Map<String, Object>> batch : batches) {
+            rows = rows.thenReturn(batch);
+        }
+        lenient().when(jdbcTemplate.update(startsWith("UPDATE outbox SET lease_owner = ?"), any(Object[].class)))
+                .thenReturn(1);
+    }
+
+    /** KafkaTemplate.send(ProducerRecord) için tip güvenli matcher */
+    private static ProducerRecord<String, Object> anyRecord() {
+        return any();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProducerRecord<String, Object>> sentRecords(int count) {
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(count)).send(captor.capture());
+        return captor.getAllValues();
     }
 
     @Test
@@ -51,221 +95,347 @@ class OutboxPollerTest {
     @Test
     @DisplayName("Should handle empty outbox")
     void shouldHandleEmptyOutbox() {
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(Collections.emptyList());
+        stubClaims(Collections.emptyList());
 
         assertDoesNotThrow(() -> outboxPoller.pollOutbox());
 
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(kafkaTemplate, never()).send(anyRecord());
     }
 
     @Test
-    @DisplayName("Should process Message aggregate type")
-    void shouldProcessMessageAggregateType() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"channel-123\",\"content\":\"test\"}");
-
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+    @DisplayName("Should route by aggregate type and key by partition_key column")
+    void shouldRouteAndKeyFromColumns() {
+        Map<String, Object> event = createEvent(1L, "Message", "{\"content\":\"test\"}");
+        event.put("partition_key", "channel-123");
+        event.put("headers", "{\"eventType\":\"Created\"}");
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("discord-messages"), anyString(), any())).thenReturn(future);
-        when(jdbcTemplate.update(anyString(), any(Long.class))).thenReturn(1);
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        outboxPoller.pollOutbox();
 
-        verify(kafkaTemplate).send(eq("discord-messages"), eq("channel-123"), any());
+        ProducerRecord<String, Object> record = sentRecords(1).get(0);
+        assertEquals("text-message", record.topic());
+        assertEquals("channel-123", record.key());
+        assertEquals("Created", new String(record.headers().lastHeader("eventType").value()));
     }
 
     @Test
-    @DisplayName("Should process AudioMessage aggregate type")
-    void shouldProcessAudioMessageAggregateType() {
-        Map<String, Object> event = createEvent(1L, "AudioMessage", "AUDIO_CHUNK",
-                "{\"channelId\":\"voice-channel\",\"data\":\"audio\"}");
+    @DisplayName("Should send to the topic column written by the collector")
+    void shouldRouteByTopicColumn() {
+        Map<String, Object> event = createEvent(1L, "MeetingMedia", "{}");
+        event.put("topic", "media-uploaded-events");
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("discord-voice"), anyString(), any())).thenReturn(future);
-
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        outboxPoller.pollOutbox();
 
-        verify(kafkaTemplate).send(eq("discord-voice"), anyString(), any());
+        assertEquals("media-uploaded-events", sentRecords(1).get(0).topic());
     }
 
     @Test
-    @DisplayName("Should process AudioMess aggregate type")
-    void shouldProcessAudioMessAggregateType() {
-        Map<String, Object> event = createEvent(1L, "AudioMess", "AUDIO_CHUNK",
-                "{\"channelId\":\"voice-channel\"}");
+    @DisplayName("Rows without a topic column should route MeetingMedia like the collector")
+    void shouldRouteLegacyMeetingMediaRowsToMediaUploaded() {
+        stubClaims(List.of(createEvent(1L, "MeetingMedia", "{}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        outboxPoller.pollOutbox();
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("discord-voice"), anyString(), any())).thenReturn(future);
+        assertEquals("media-uploaded-events", sentRecords(1).get(0).topic());
+    }
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+    @Test
+    @DisplayName("Should fall back to aggregate_id and default topic")
+    void shouldFallBackToAggregateIdAndDefaultTopic() {
+        Map<String, Object> event = createEvent(1L, "UnknownType", "{\"data\":\"test\"}");
+
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        verify(kafkaTemplate).send(eq("discord-voice"), anyString(), any());
+        outboxPoller.pollOutbox();
+
+        ProducerRecord<String, Object> record = sentRecords(1).get(0);
+        assertEquals("raw-audio", record.topic());
+        assertEquals("agg-1", record.key());
     }
 
     @Test
-    @DisplayName("Should handle unknown aggregate type with default topic")
-    void shouldHandleUnknownAggregateTypeWithDefaultTopic() {
-        Map<String, Object> event = createEvent(1L, "UnknownType", "UNKNOWN_EVENT",
-                "{\"data\":\"test\"}");
+    @DisplayName("Should send plain payloads as UTF-8 bytes")
+    void shouldSendPlainPayloadAsBytes() {
+        stubClaims(List.of(createEvent(1L, "Message", "{\"content\":\"ş\"}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        outboxPoller.pollOutbox();
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        ProducerRecord<String, Object> record = sentRecords(1).get(0);
+        assertArrayEquals("{\"content\":\"ş\"}".getBytes(StandardCharsets.UTF_8), (byte[]) record.value());
+        assertNull(record.headers().lastHeader("content-encoding"));
+    }
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("discord-messages"), anyString(), any())).thenReturn(future);
+    @Test
+    @DisplayName("Should forward zstd payloads compressed with a content-encoding header")
+    void shouldForwardCompressedPayloads() {
+        String json = "{\"transcription\":\"" + "merhaba dunya ".repeat(100) + "\"}";
+        byte[] compressed = Zstd.compress(json.getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> event = createEvent(1L, "AudioMessage", null);
+        event.put("payload_codec", "zstd");
+        event.put("compressed_payload", compressed);
+        event.put("headers", "{\"eventType\":\"Created\",\"content-encoding\":\"gzip\"}");
+
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        outboxPoller.pollOutbox();
 
-        verify(kafkaTemplate).send(eq("discord-messages"), anyString(), any());
+        ProducerRecord<String, Object> record = sentRecords(1).get(0);
+        assertSame(compressed, record.value());
+        assertEquals("zstd", new String(record.headers().lastHeader("content-encoding").value(), StandardCharsets.UTF_8));
+        assertEquals(1, Arrays.stream(record.headers().toArray())
+                .filter(header -> header.key().equals("content-encoding")).count());
     }
 
     @Test
-    @DisplayName("Should handle null aggregate type")
-    void shouldHandleNullAggregateType() {
-        Map<String, Object> event = createEvent(1L, null, "EVENT", "{\"data\":\"test\"}");
+    @DisplayName("Stored content-encoding headers should be dropped for uncompressed rows")
+    void shouldDropStaleContentEncodingHeader() {
+        Map<String, Object> event = createEvent(1L, "Message", "{}");
+        event.put("headers", "{\"content-encoding\":\"zstd\"}");
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(eq("discord-messages"), anyString(), any())).thenReturn(future);
+        outboxPoller.pollOutbox();
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        assertNull(sentRecords(1).get(0).headers().lastHeader("content-encoding"));
     }
 
     @Test
-    @DisplayName("Should extract channelId from payload for key")
-    void shouldExtractChannelIdFromPayloadForKey() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"extracted-channel\",\"content\":\"test\"}");
+    @DisplayName("Should claim candidate rows with a lease before reading them")
+    void shouldClaimRowsWithLease() {
+        stubClaims(Arrays.asList(createEvent(1L, "Message", "{}"), createEvent(2L, "Message", "{}")));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        outboxPoller.pollOutbox();
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), eq("extracted-channel"), any())).thenReturn(future);
+        verify(jdbcTemplate).update(eq("UPDATE outbox SET lease_owner = ?, lease_expires_at = ? WHERE id IN (1,2) " +
+                        "AND is_processed = 0 AND (lease_expires_at IS NULL OR lease_expires_at < ?)"),
+                eq("test-poller:1"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(jdbcTemplate).queryForList(
+                "SELECT * FROM outbox WHERE lease_owner = ? AND is_processed = 0 ORDER BY created_at ASC, id ASC",
+                "test-poller:1");
+        verify(jdbcTemplate, never()).queryForList(anyString());
+    }
+
+    @Test
+    @DisplayName("Should not read rows when another instance claimed all candidates")
+    void shouldSkipRowsClaimedElsewhere() {
+        stubClaims(List.of(createEvent(1L, "Message", "{}")));
+        when(jdbcTemplate.update(startsWith("UPDATE outbox SET lease_owner = ?"), any(Object[].class))).thenReturn(0);
 
         outboxPoller.pollOutbox();
 
-        verify(kafkaTemplate).send(anyString(), eq("extracted-channel"), any());
+        verify(jdbcTemplate, never()).queryForList(startsWith("SELECT * FROM outbox"), any(Object[].class));
+        verify(kafkaTemplate, never()).send(anyRecord());
     }
 
     @Test
-    @DisplayName("Should generate fallback key when channelId not found")
-    void shouldGenerateFallbackKeyWhenChannelIdNotFound() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"content\":\"no channel id here\"}");
+    @DisplayName("Should release the lease of a failed send on the next tick")
+    void shouldReleaseLeaseOfFailedSend() {
+        stubClaims(List.of(createEvent(1L, "Message", "{}")), Collections.emptyList());
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka send failed")));
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
-
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), argThat(key -> key.startsWith("Message-")), any()))
-                .thenReturn(future);
+        outboxPoller.pollOutbox();
+        outboxPoller.pollOutbox();
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        verify(jdbcTemplate).update("UPDATE outbox SET lease_owner = NULL, lease_expires_at = NULL " +
+                "WHERE lease_owner = ? AND is_processed = 0 AND id IN (1)", "test-poller:1");
+        assertEquals(0, outboxPoller.getInFlightCount());
     }
 
     @Test
-    @DisplayName("Should mark event as processed on successful send")
-    void shouldMarkEventAsProcessedOnSuccessfulSend() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"channel-123\"}");
-
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+    @DisplayName("Should mark all acknowledged events with one batched update")
+    void shouldMarkAcknowledgedEventsInOneUpdate() {
+        List<Map<String, Object>> events = Arrays.asList(
+                createEvent(1L, "Message", "{}"),
+                createEvent(2L, "Message", "{}"),
+                createEvent(3L, "AudioMessage", "{}")
+        );
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(future);
-        when(jdbcTemplate.update(anyString(), eq(1L))).thenReturn(1);
+        stubClaims(events, Collections.emptyList());
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
+        outboxPoller.pollOutbox();
         outboxPoller.pollOutbox();
 
-        verify(jdbcTemplate).update(contains("UPDATE outbox SET is_processed = 1"), eq(1L));
+        verify(jdbcTemplate, times(1)).update("UPDATE outbox SET is_processed = 1 WHERE id IN (1,2,3)");
+        assertEquals(1, outboxPoller.getFlushCount());
+        assertEquals(0, outboxPoller.getInFlightCount());
     }
 
     @Test
-    @DisplayName("Should not mark event as processed on send failure")
-    void shouldNotMarkEventAsProcessedOnSendFailure() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"channel-123\"}");
+    @DisplayName("Should not resend events that are still in flight")
+    void shouldNotResendInFlightEvents() {
+        Map<String, Object> event = createEvent(1L, "Message", "{}");
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
 
+        outboxPoller.pollOutbox();
+        outboxPoller.pollOutbox();
+        outboxPoller.pollOutbox();
+
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        assertEquals(1, outboxPoller.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Should not resend acknowledged events selected again before the flush")
+    void shouldNotResendAcknowledgedEventsBeforeFlush() {
+        Map<String, Object> event = createEvent(1L, "Message", "{}");
         CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
-        future.completeExceptionally(new RuntimeException("Kafka send failed"));
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(future);
 
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(future);
+        lenient().when(jdbcTemplate.update(anyString())).thenThrow(new RuntimeException("Update failed"));
+
+        outboxPoller.pollOutbox();
+        future.complete(sendResult);
+        outboxPoller.pollOutbox();
+
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        assertEquals(1, outboxPoller.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Should retry events whose send failed")
+    void shouldRetryFailedSends() {
+        Map<String, Object> event = createEvent(1L, "Message", "{}");
+
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka send failed")))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        outboxPoller.pollOutbox();
         outboxPoller.pollOutbox();
+        outboxPoller.flushAcknowledged();
 
-        verify(jdbcTemplate, never()).update(contains("UPDATE outbox SET is_processed = 1"), anyLong());
+        verify(kafkaTemplate, times(2)).send(anyRecord());
+        verify(jdbcTemplate, times(1)).update("UPDATE outbox SET is_processed = 1 WHERE id IN (1)");
     }
 
     @Test
-    @DisplayName("Should process multiple events")
-    void shouldProcessMultipleEvents() {
+    @DisplayName("Should bound the number of unacknowledged sends")
+    void shouldBoundSendWindow() {
+        OutboxPoller boundedPoller = createPoller(2);
         List<Map<String, Object>> events = Arrays.asList(
-                createEvent(1L, "Message", "MESSAGE_CREATED", "{\"channelId\":\"ch-1\"}"),
-                createEvent(2L, "Message", "MESSAGE_CREATED", "{\"channelId\":\"ch-2\"}"),
-                createEvent(3L, "AudioMessage", "AUDIO_CHUNK", "{\"channelId\":\"ch-3\"}")
+                createEvent(1L, "Message", "{}"),
+                createEvent(2L, "Message", "{}"),
+                createEvent(3L, "Message", "{}")
         );
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(events);
+        stubClaims(events);
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(future);
-        when(jdbcTemplate.update(anyString(), anyLong())).thenReturn(1);
+        boundedPoller.pollOutbox();
+        boundedPoller.pollOutbox();
 
+        verify(kafkaTemplate, times(2)).send(anyRecord());
+        assertEquals(2, boundedPoller.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Should send a key's next row only after the previous one is acknowledged")
+    void shouldSendRowsOfSameKeyInSequence() {
+        Map<String, Object> started = createEvent(1L, "Meeting", "{\"status\":\"started\"}");
+        Map<String, Object> message = createEvent(2L, "Message", "{\"content\":\"hi\"}");
+        started.put("partition_key", "meeting-1");
+        message.put("partition_key", "meeting-1");
+        CompletableFuture<SendResult<String, Object>> first = new CompletableFuture<>();
+
+        stubClaims(Arrays.asList(started, message), Collections.emptyList());
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(first)
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        outboxPoller.pollOutbox();
         outboxPoller.pollOutbox();
+        verify(kafkaTemplate, times(1)).send(anyRecord());
 
-        verify(kafkaTemplate, times(3)).send(anyString(), anyString(), any());
+        first.complete(sendResult);
+        outboxPoller.pollOutbox();
+
+        List<ProducerRecord<String, Object>> records = sentRecords(2);
+        assertEquals("meeting", records.get(0).topic());
+        assertEquals("text-message", records.get(1).topic());
+        assertEquals("meeting-1", records.get(1).key());
     }
 
     @Test
-    @DisplayName("Should handle database exception gracefully")
-    void shouldHandleDatabaseExceptionGracefully() {
-        when(jdbcTemplate.queryForList(anyString()))
-                .thenThrow(new RuntimeException("Database connection failed"));
+    @DisplayName("Should release a key's waiting rows together with its rejected row")
+    void shouldReleaseRestOfKeyWhenSendFails() {
+        Map<String, Object> rejected = createEvent(1L, "Meeting", "{}");
+        Map<String, Object> waiting = createEvent(2L, "Message", "{}");
+        rejected.put("partition_key", "meeting-1");
+        waiting.put("partition_key", "meeting-1");
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        stubClaims(Arrays.asList(rejected, waiting), Collections.emptyList());
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka send failed")));
+
+        outboxPoller.pollOutbox();
+        outboxPoller.pollOutbox();
+
+        verify(kafkaTemplate, times(1)).send(anyRecord());
+        verify(jdbcTemplate).update("UPDATE outbox SET lease_owner = NULL, lease_expires_at = NULL " +
+                "WHERE lease_owner = ? AND is_processed = 0 AND id IN (1,2)", "test-poller:1");
     }
 
     @Test
-    @DisplayName("Should handle Kafka exception gracefully")
-    void shouldHandleKafkaExceptionGracefully() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"channel-123\"}");
+    @DisplayName("Should release claimed rows that are behind another relay's earlier row of the same key")
+    void shouldReleaseRowsClaimedOutOfOrder() {
+        stubClaims(List.of(createEvent(1L, "Message", "{}")));
+        when(jdbcTemplate.queryForList(startsWith("SELECT o.id FROM outbox o WHERE o.lease_owner"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(2L));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(CompletableFuture.completedFuture(sendResult));
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
-        when(kafkaTemplate.send(anyString(), anyString(), any()))
-                .thenThrow(new RuntimeException("Kafka exception"));
+        outboxPoller.pollOutbox();
 
-        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        verify(jdbcTemplate).update("UPDATE outbox SET lease_owner = NULL, lease_expires_at = NULL " +
+                "WHERE lease_owner = ? AND is_processed = 0 AND id IN (2)", "test-poller:1");
     }
 
     @Test
-    @DisplayName("Should handle mark as processed failure")
-    void shouldHandleMarkAsProcessedFailure() {
-        Map<String, Object> event = createEvent(1L, "Message", "MESSAGE_CREATED",
-                "{\"channelId\":\"channel-123\"}");
+    @DisplayName("Should handle database exception gracefully")
+    void shouldHandleDatabaseExceptionGracefully() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM outbox"), eq(Long.class), any(Object[].class)))
+                .thenThrow(new RuntimeException("Database connection failed"));
+
+        assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+    }
 
-        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(event));
+    @Test
+    @DisplayName("Should release the event when Kafka throws synchronously")
+    void shouldHandleKafkaExceptionGracefully() {
+        Map<String, Object> event = createEvent(1L, "Message", "{}");
 
-        CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
-        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(future);
-        when(jdbcTemplate.update(anyString(), anyLong()))
-                .thenThrow(new RuntimeException("Update failed"));
+        stubClaims(List.of(event));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenThrow(new RuntimeException("Kafka exception"));
 
         assertDoesNotThrow(() -> outboxPoller.pollOutbox());
+        assertEquals(0, outboxPoller.getInFlightCount());
     }
 
-    private Map<String, Object> createEvent(Long id, String aggregateType, String eventType, String payload) {
+    private Map<String, Object> createEvent(Long id, String aggregateType, String payload) {
         Map<String, Object> event = new HashMap<>();
         event.put("id", id);
         event.put("aggregate_type", aggregateType);
-        event.put("event_type", eventType);
+        event.put("aggregate_id", "agg-" + id);
+        event.put("event_type", "Created");
         event.put("payload", payload);
+        event.put("lease_owner", "test-poller:1");
         return event;
     }
 }
-
@@ -1,7 +1,9 @@
 package producer;
 
+import blob.AudioClaimCheck;
 import model.DiscordMessageEvent;
 import model.DiscordVoiceEvent;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -35,6 +37,9 @@ class DiscordEventHandlerTest {
     @Mock
     private SendResult<String, Object> sendResult;
 
+    @Mock
+    private AudioClaimCheck audioClaimCheck;
+
     @InjectMocks
     private DiscordEventHandler discordEventHandler;
 
@@ -79,7 +84,7 @@ class DiscordEventHandlerTest {
     void shouldSendVoiceEventSuccessfully() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(metadata.partition()).thenReturn(0);
         when(metadata.offset()).thenReturn(100L);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
@@ -91,12 +96,26 @@ class DiscordEventHandlerTest {
         verify(kafkaTemplate, times(1)).send(eq("discord-voice"), eq("guild-456-channel-789"), eq(voiceEvent));
     }
 
+    @Test
+    @DisplayName("Should check in large audio before sending voice event")
+    void shouldCheckInAudioBeforeSending() {
+        when(sendResult.getRecordMetadata()).thenReturn(mock(RecordMetadata.class));
+        when(kafkaTemplate.send(any(String.class), any(String.class), any()))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        discordEventHandler.sendVoiceEvent(voiceEvent);
+
+        var inOrder = inOrder(audioClaimCheck, kafkaTemplate);
+        inOrder.verify(audioClaimCheck).checkIn(voiceEvent);
+        inOrder.verify(kafkaTemplate).send(eq("discord-voice"), any(String.class), eq(voiceEvent));
+    }
+
     @Test
     @DisplayName("Should send message event successfully")
     void shouldSendMessageEventSuccessfully() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
         when(kafkaTemplate.send(eq("discord-messages"), any(String.class), any(DiscordMessageEvent.class)))
                 .thenReturn(future);
@@ -111,7 +130,7 @@ class DiscordEventHandlerTest {
     void shouldGenerateCorrectKeyForVoiceEvent() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(metadata.partition()).thenReturn(0);
         when(metadata.offset()).thenReturn(100L);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
@@ -129,7 +148,7 @@ class DiscordEventHandlerTest {
     void shouldGenerateCorrectKeyForMessageEvent() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
         when(kafkaTemplate.send(any(String.class), any(String.class), any()))
                 .thenReturn(future);
@@ -169,7 +188,7 @@ class DiscordEventHandlerTest {
     void shouldSendVoiceEventWithDifferentEventTypes() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(metadata.partition()).thenReturn(0);
         when(metadata.offset()).thenReturn(100L);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
@@ -189,7 +208,7 @@ class DiscordEventHandlerTest {
     void shouldSendMessageEventWithAttachments() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
         when(kafkaTemplate.send(any(String.class), any(String.class), any()))
                 .thenReturn(future);
@@ -204,7 +223,7 @@ class DiscordEventHandlerTest {
     void shouldSendMessageEventWithMentions() {
         CompletableFuture<SendResult<String, Object>> future = CompletableFuture.completedFuture(sendResult);
 
-        org.apache.kafka.clients.producer.RecordMetadata metadata = mock(org.apache.kafka.clients.producer.RecordMetadata.class);
+        RecordMetadata metadata = mock(RecordMetadata.class);
         when(sendResult.getRecordMetadata()).thenReturn(metadata);
         when(kafkaTemplate.send(any(String.class), any(String.class), any()))
                 .thenReturn(future);
@@ -0,0 +1,107 @@
+package producer;
+
+import model.SessionBounds;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import serde.SessionBoundsSerde;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MeetingSessionTracker Unit Tests")
+class MeetingSessionTrackerTest {
+
+    private static final String AGGREGATE_STORE = "aggregate-store";
+    private static final String BOUNDS_STORE = "bounds-store";
+    private static final long GAP_MILLIS = 300_000;
+
+    private MockProcessorContext<Windowed<String>, Long> context;
+    private KeyValueStore<String, Long> aggregateStore;
+    private KeyValueStore<String, SessionBounds> boundsStore;
+    private MeetingSessionTracker<String, Long> tracker;
+
+    @BeforeEach
+    void setUp() {
+        context = new MockProcessorContext<>();
+        aggregateStore = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(AGGREGATE_STORE), Serdes.String(), Serdes.Long())
+                .withLoggingDisabled().build();
+        aggregateStore.init(context.getStateStoreContext(), aggregateStore);
+        context.addStateStore(aggregateStore);
+        boundsStore = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(BOUNDS_STORE), Serdes.String(), new SessionBoundsSerde())
+                .withLoggingDisabled().build();
+        boundsStore.init(context.getStateStoreContext(), boundsStore);
+        context.addStateStore(boundsStore);
+
+        tracker = new MeetingSessionTracker<>(AGGREGATE_STORE, BOUNDS_STORE, GAP_MILLIS, Duration.ofSeconds(1),
+                () -> 0L, (key, value, count) -> count + 1);
+    }
+
+    private void punctuate(PunctuationType type, long timestamp) {
+        context.scheduledPunctuators().stream()
+                .filter(punctuator -> punctuator.getType() == type)
+                .forEach(punctuator -> punctuator.getPunctuator().punctuate(timestamp));
+    }
+
+    @Test
+    @DisplayName("Wall-clock punctuation should close sessions that went quiet after being processed")
+    void shouldCloseQuietSessionByWallClock() {
+        context.setCurrentSystemTimeMs(0);
+        tracker.init(context);
+
+        tracker.process(new Record<>("channel-1", "hello", 1_000L));
+        punctuate(PunctuationType.WALL_CLOCK_TIME, GAP_MILLIS / 2);
+        assertTrue(context.forwarded().isEmpty());
+
+        punctuate(PunctuationType.WALL_CLOCK_TIME, GAP_MILLIS + 1);
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(1L, (long) context.forwarded().get(0).record().value());
+        assertNull(boundsStore.get("channel-1"));
+    }
+
+    @Test
+    @DisplayName("Sessions restored after a restart should not be closed by wall-clock time before new events")
+    void shouldNotCloseRestoredSessionByWallClock() {
+        boundsStore.put("channel-1", SessionBounds.builder().startMillis(1_000L).endMillis(2_000L).lastAppendMillis(0L).build());
+        aggregateStore.put("channel-1", 2L);
+        context.setCurrentSystemTimeMs(10 * GAP_MILLIS);
+        tracker.init(context);
+
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 10 * GAP_MILLIS);
+        assertTrue(context.forwarded().isEmpty());
+
+        // Backlog'daki olay restore edilen bölüme eklenir; bölüm tek parça kapanır
+        tracker.process(new Record<>("channel-1", "backlog", 3_000L));
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 12 * GAP_MILLIS);
+
+        assertEquals(1, context.forwarded().size());
+        Record<? extends Windowed<String>, ? extends Long> segment = context.forwarded().get(0).record();
+        assertEquals(3L, (long) segment.value());
+        assertEquals(1_000L, segment.key().window().start());
+        assertEquals(3_000L, segment.key().window().end());
+    }
+
+    @Test
+    @DisplayName("Stream-time punctuation should still close restored sessions")
+    void shouldCloseRestoredSessionByStreamTime() {
+        boundsStore.put("channel-1", SessionBounds.builder().startMillis(1_000L).endMillis(2_000L).lastAppendMillis(0L).build());
+        aggregateStore.put("channel-1", 2L);
+        tracker.init(context);
+
+        punctuate(PunctuationType.STREAM_TIME, 2_000L + GAP_MILLIS + 1);
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(2L, (long) context.forwarded().get(0).record().value());
+    }
+}
@@ -0,0 +1,453 @@
+package producer;
+
+import blob.AudioClaimCheck;
+import blob.BlobReadCache;
+import blob.LocalFileBlobStore;
+import model.DiscordMessageEvent;
+import model.DiscordVoiceEvent;
+import model.MeetingSegment;
+import model.ProcessedMeetingData;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.test.util.ReflectionTestUtils;
+import serde.AudioEventSerde;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MeetingStreamProcessor Topology Tests")
+class MeetingStreamProcessorTest {
+
+    private static final String MESSAGE_TOPIC = "discord-messages";
+    private static final String VOICE_TOPIC = "discord-voice";
+    private static final String PROCESSED_TOPIC = "processed-messages";
+    private static final String SEGMENT_TOPIC = "meeting-segments";
+    private static final String PROCESSED_VOICE_TOPIC = "processed-voice";
+    private static final long GAP_MILLIS = 300_000;
+    private static final long UTTERANCE_GAP_MILLIS = 800;
+    private static final Instant T0 = Instant.parse("2024-01-01T10:00:00Z");
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, DiscordMessageEvent> messages;
+    private TestInputTopic<String, DiscordVoiceEvent> voice;
+    private TestOutputTopic<String, ProcessedMeetingData> processed;
+    private TestOutputTopic<String, MeetingSegment> segments;
+    private TestOutputTopic<String, ProcessedMeetingData> utterances;
+    private AudioClaimCheck claimCheck;
+
+    @TempDir
+    Path blobDir;
+
+    private void createDriver(int windowMaxBytes, long utteranceMaxBytes, int claimCheckThresholdBytes) {
+        claimCheck = new AudioClaimCheck(new LocalFileBlobStore(blobDir), new BlobReadCache(1 << 20), claimCheckThresholdBytes);
+        MeetingStreamProcessor processor = new MeetingStreamProcessor(claimCheck);
+        ReflectionTestUtils.setField(processor, "discordMessageTopic", MESSAGE_TOPIC);
+        ReflectionTestUtils.setField(processor, "discordVoiceTopic", VOICE_TOPIC);
+        ReflectionTestUtils.setField(processor, "processedMessageTopic", PROCESSED_TOPIC);
+        ReflectionTestUtils.setField(processor, "meetingSegmentTopic", SEGMENT_TOPIC);
+        ReflectionTestUtils.setField(processor, "sessionGapMillis", GAP_MILLIS);
+        ReflectionTestUtils.setField(processor, "messageWindowMaxBytes", windowMaxBytes);
+        ReflectionTestUtils.setField(processor, "processedVoiceTopic", PROCESSED_VOICE_TOPIC);
+        ReflectionTestUtils.setField(processor, "utteranceGapMillis", UTTERANCE_GAP_MILLIS);
+        ReflectionTestUtils.setField(processor, "utteranceMaxBytes", utteranceMaxBytes);
+        ReflectionTestUtils.setField(processor, "utterancePunctuateMillis", 100L);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        processor.discordMessageStream(builder);
+        processor.discordVoiceStream(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "meeting-stream-processor-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        // Wall-clock punctuator'ın olay zamanlarıyla aynı eksende çalışması için sürücü saati T0'dan başlar
+        driver = new TopologyTestDriver(builder.build(), props, T0);
+
+        messages = driver.createInputTopic(MESSAGE_TOPIC, Serdes.String().serializer(),
+                new JsonSerde<>(DiscordMessageEvent.class).serializer());
+        voice = driver.createInputTopic(VOICE_TOPIC, Serdes.String().serializer(),
+                new AudioEventSerde<>(DiscordVoiceEvent.class).serializer());
+        processed = driver.createOutputTopic(PROCESSED_TOPIC, Serdes.String().deserializer(),
+                new JsonSerde<>(ProcessedMeetingData.class).deserializer());
+        segments = driver.createOutputTopic(SEGMENT_TOPIC, Serdes.String().deserializer(),
+                new JsonSerde<>(MeetingSegment.class).deserializer());
+        utterances = driver.createOutputTopic(PROCESSED_VOICE_TOPIC, Serdes.String().deserializer(),
+                new AudioEventSerde<>(ProcessedMeetingData.class).deserializer());
+    }
+
+    @BeforeEach
+    void setUp() {
+        createDriver(262144, 1048576, 262144);
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    private void send(String channelId, String author, String content, Instant timestamp) {
+        DiscordMessageEvent event = DiscordMessageEvent.builder()
+                .channelId(channelId)
+                .authorName(author)
+                .content(content)
+                .timestamp(timestamp)
+                .build();
+        messages.pipeInput(new TestRecord<>(channelId, event, timestamp));
+    }
+
+    private void sendVoice(String channelId, String user, DiscordVoiceEvent.EventType type, Instant timestamp) {
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder()
+                .channelId(channelId)
+                .userName(user)
+                .eventType(type)
+                .timestamp(timestamp)
+                .build();
+        voice.pipeInput(new TestRecord<>(channelId, event, timestamp));
+    }
+
+    private void sendChunk(String channelId, String userId, String audio, Instant timestamp) {
+        sendSpeakerEvent(channelId, userId, DiscordVoiceEvent.EventType.VOICE_CHUNK, audio.getBytes(StandardCharsets.UTF_8), timestamp);
+    }
+
+    private void sendSpeakerEvent(String channelId, String userId, DiscordVoiceEvent.EventType type, byte[] audio, Instant timestamp) {
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder()
+                .channelId(channelId)
+                .userId(userId)
+                .userName("user-" + userId)
+                .eventType(type)
+                .audioData(audio)
+                .timestamp(timestamp)
+                .build();
+        voice.pipeInput(new TestRecord<>(channelId, event, timestamp));
+    }
+
+    private static String audioOf(ProcessedMeetingData utterance) {
+        return new String(utterance.getAudioData(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should emit the whole conversation once after the inactivity gap")
+    void shouldEmitConversationOnceAfterGap() {
+        send("channel-1", "ahmet", "merhaba", T0);
+        send("channel-1", "john", "hello", T0.plusSeconds(60));
+        // Sabit 5 dakikalık pencere sınırını geçen ama gap içinde kalan mesaj aynı bölümdedir
+        send("channel-1", "ahmet", "toplantı başlıyor", T0.plusSeconds(330));
+
+        assertTrue(processed.isEmpty());
+        assertTrue(segments.isEmpty());
+
+        send("channel-1", "john", "next meeting", T0.plusSeconds(330).plusMillis(GAP_MILLIS + 1000));
+
+        List<ProcessedMeetingData> results = processed.readValuesToList();
+        assertEquals(1, results.size());
+        ProcessedMeetingData result = results.get(0);
+        assertEquals("DISCORD_MESSAGES", result.getSourceType());
+        assertEquals("channel-1", result.getChannelId());
+        assertEquals("ahmet: merhaba\njohn: hello\nahmet: toplantı başlıyor\n", result.getRawContent());
+        assertEquals(T0, result.getWindowStart());
+        assertEquals(T0.plusSeconds(330), result.getWindowEnd());
+
+        List<MeetingSegment> closed = segments.readValuesToList();
+        assertEquals(1, closed.size());
+        MeetingSegment segment = closed.get(0);
+        assertEquals("channel-1", segment.getChannelId());
+        assertEquals("DISCORD_MESSAGES", segment.getSourceType());
+        assertEquals(3, segment.getEventCount());
+        assertEquals(List.of("ahmet", "john"), segment.getParticipants());
+        assertEquals(T0, segment.getSegmentStart());
+        assertEquals(T0.plusSeconds(330), segment.getSegmentEnd());
+        assertNotNull(segment.getClosedAt());
+    }
+
+    @Test
+    @DisplayName("Channels should be segmented separately")
+    void shouldSegmentPerChannel() {
+        send("channel-1", "ahmet", "one", T0);
+        send("channel-2", "john", "two", T0.plusSeconds(10));
+        send("channel-1", "ahmet", "later", T0.plusSeconds(400));
+
+        List<ProcessedMeetingData> results = processed.readValuesToList();
+        assertEquals(2, results.size());
+        assertTrue(results.stream().anyMatch(r -> "channel-1".equals(r.getChannelId()) && "ahmet: one\n".equals(r.getRawContent())));
+        assertTrue(results.stream().anyMatch(r -> "channel-2".equals(r.getChannelId()) && "john: two\n".equals(r.getRawContent())));
+    }
+
+    @Test
+    @DisplayName("The last meeting of a channel that goes quiet should be emitted by wall-clock time")
+    void shouldEmitTrailingSessionOnQuietChannel() {
+        send("channel-1", "ahmet", "merhaba", T0);
+        send("channel-1", "john", "bye", T0.plusSeconds(30));
+        sendVoice("channel-1", "ahmet", DiscordVoiceEvent.EventType.JOIN, T0.plusSeconds(30));
+
+        // Yeni olay gelmez, stream time ilerlemez
+        driver.advanceWallClockTime(Duration.ofMillis(GAP_MILLIS / 2));
+        assertTrue(processed.isEmpty());
+        assertTrue(segments.isEmpty());
+
+        driver.advanceWallClockTime(Duration.ofMillis(GAP_MILLIS / 2 + 2000));
+
+        ProcessedMeetingData result = processed.readValue();
+        assertEquals("ahmet: merhaba\njohn: bye\n", result.getRawContent());
+        assertEquals(T0, result.getWindowStart());
+        assertEquals(T0.plusSeconds(30), result.getWindowEnd());
+        assertTrue(processed.isEmpty());
+
+        List<MeetingSegment> closed = segments.readValuesToList();
+        assertEquals(2, closed.size());
+        assertTrue(closed.stream().anyMatch(segment -> "DISCORD_MESSAGES".equals(segment.getSourceType()) && segment.getEventCount() == 2));
+        assertTrue(closed.stream().anyMatch(segment -> "DISCORD_VOICE".equals(segment.getSourceType()) && segment.getEventCount() == 1));
+
+        // Kapanan bölüm tekrar gönderilmez; sonraki mesaj yeni bölüm başlatır
+        driver.advanceWallClockTime(Duration.ofMillis(GAP_MILLIS));
+        assertTrue(processed.isEmpty());
+        send("channel-1", "ahmet", "again", T0.plusSeconds(60));
+        driver.advanceWallClockTime(Duration.ofMillis(GAP_MILLIS + 2000));
+        assertEquals("ahmet: again\n", processed.readValue().getRawContent());
+    }
+
+    @Test
+    @DisplayName("Messages beyond the window byte cap should be counted, not stored")
+    void shouldRespectWindowByteCap() {
+        driver.close();
+        createDriver(64, 1048576, 262144);
+
+        for (int i = 0; i < 10; i++) {
+            send("channel-1", "ahmet", "message " + i, T0.plusSeconds(i));
+        }
+        send("channel-1", "ahmet", "close", T0.plusSeconds(400));
+
+        ProcessedMeetingData result = processed.readValue();
+        assertTrue(result.getRawContent().startsWith("ahmet: message 0\n"));
+        assertTrue(result.getRawContent().endsWith(" more messages omitted]\n"));
+        assertEquals(10, segments.readValue().getEventCount());
+    }
+
+    @Test
+    @DisplayName("Voice activity should close a meeting segment after the gap")
+    void shouldEmitVoiceSegment() {
+        sendVoice("channel-1", "ahmet", DiscordVoiceEvent.EventType.JOIN, T0);
+        sendVoice("channel-1", "john", DiscordVoiceEvent.EventType.VOICE_CHUNK, T0.plusSeconds(30));
+        sendVoice("channel-1", "ahmet", DiscordVoiceEvent.EventType.VOICE_CHUNK, T0.plusSeconds(90));
+
+        assertTrue(segments.isEmpty());
+
+        sendVoice("channel-1", "ahmet", DiscordVoiceEvent.EventType.JOIN, T0.plusSeconds(90).plusMillis(GAP_MILLIS + 1000));
+
+        List<MeetingSegment> closed = segments.readValuesToList();
+        assertEquals(1, closed.size());
+        MeetingSegment segment = closed.get(0);
+        assertEquals("DISCORD_VOICE", segment.getSourceType());
+        assertEquals(3, segment.getEventCount());
+        assertEquals(List.of("ahmet", "john"), segment.getParticipants());
+        assertEquals(T0, segment.getSegmentStart());
+        assertEquals(T0.plusSeconds(90), segment.getSegmentEnd());
+        assertTrue(processed.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Voice chunks should be joined into one utterance and split on silence")
+    void shouldSplitUtterancesOnSilence() {
+        sendChunk("channel-1", "u1", "aa", T0);
+        sendChunk("channel-1", "u1", "bb", T0.plusMillis(20));
+        sendChunk("channel-1", "u1", "cc", T0.plusMillis(40));
+
+        assertTrue(utterances.isEmpty());
+
+        sendChunk("channel-1", "u1", "dd", T0.plusMillis(40 + UTTERANCE_GAP_MILLIS + 1));
+
+        TestRecord<String, ProcessedMeetingData> record = utterances.readRecord();
+        ProcessedMeetingData utterance = record.value();
+        assertEquals("channel-1", record.key());
+        assertEquals("DISCORD_VOICE", utterance.getSourceType());
+        assertEquals("channel-1", utterance.getChannelId());
+        assertEquals("u1", utterance.getSpeakerId());
+        assertEquals("user-u1", utterance.getSpeakerName());
+        assertEquals("aabbcc", audioOf(utterance));
+        assertEquals(T0, utterance.getWindowStart());
+        assertEquals(T0.plusMillis(40), utterance.getWindowEnd());
+        assertTrue(utterances.isEmpty());
+    }
+
+    @Test
+    @DisplayName("LEAVE should flush the speaker's open utterance immediately")
+    void shouldFlushUtteranceOnLeave() {
+        sendChunk("channel-1", "u1", "hello", T0);
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(10));
+
+        assertEquals("hello", audioOf(utterances.readValue()));
+        assertTrue(utterances.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Utterances reaching the byte cap should be emitted without waiting for silence")
+    void shouldSplitUtteranceAtMaxBytes() {
+        driver.close();
+        createDriver(262144, 6, 262144);
+
+        sendChunk("channel-1", "u1", "aaa", T0);
+        sendChunk("channel-1", "u1", "bbb", T0.plusMillis(20));
+        sendChunk("channel-1", "u1", "ccc", T0.plusMillis(40));
+
+        assertEquals("aaabbb", audioOf(utterances.readValue()));
+        assertTrue(utterances.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Wall-clock punctuation should close utterances when the speaker goes silent")
+    void shouldCloseSilentUtteranceOnPunctuation() {
+        sendChunk("channel-1", "u1", "xyz", T0);
+
+        driver.advanceWallClockTime(Duration.ofMillis(UTTERANCE_GAP_MILLIS / 2));
+        assertTrue(utterances.isEmpty());
+
+        driver.advanceWallClockTime(Duration.ofMillis(UTTERANCE_GAP_MILLIS));
+        assertEquals("xyz", audioOf(utterances.readValue()));
+
+        // Parçalar emit sonrası silinir; aynı konuşmacının yeni konuşması temiz başlar
+        sendChunk("channel-1", "u1", "new", T0.plusSeconds(5));
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.MUTE, null, T0.plusSeconds(5));
+        assertEquals("new", audioOf(utterances.readValue()));
+    }
+
+    @Test
+    @DisplayName("Silence should be measured in wall-clock time even when event time lags behind")
+    void shouldNotCloseUtteranceWhenEventTimeLagsWallClock() {
+        // Gecikmeli tüketim: olay zamanı wall-clock'un bir saat gerisinde
+        Instant lagging = T0.minus(Duration.ofHours(1));
+        sendChunk("channel-1", "u1", "aa", lagging);
+
+        driver.advanceWallClockTime(Duration.ofMillis(UTTERANCE_GAP_MILLIS / 2));
+        sendChunk("channel-1", "u1", "bb", lagging.plusMillis(20));
+        driver.advanceWallClockTime(Duration.ofMillis(UTTERANCE_GAP_MILLIS / 2));
+        assertTrue(utterances.isEmpty());
+
+        driver.advanceWallClockTime(Duration.ofMillis(UTTERANCE_GAP_MILLIS));
+        ProcessedMeetingData utterance = utterances.readValue();
+        assertEquals("aabb", audioOf(utterance));
+        assertEquals(lagging, utterance.getWindowStart());
+        assertEquals(lagging.plusMillis(20), utterance.getWindowEnd());
+    }
+
+    @Test
+    @DisplayName("Overlapping speakers in the same channel should get separate utterances")
+    void shouldAssembleSpeakersSeparately() {
+        sendChunk("channel-1", "u1", "a1", T0);
+        sendChunk("channel-1", "u2", "b1", T0.plusMillis(10));
+        sendChunk("channel-1", "u1", "a2", T0.plusMillis(20));
+        sendChunk("channel-1", "u2", "b2", T0.plusMillis(30));
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(40));
+        sendSpeakerEvent("channel-1", "u2", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(50));
+
+        List<ProcessedMeetingData> results = utterances.readValuesToList();
+        assertEquals(2, results.size());
+        assertEquals("u1", results.get(0).getSpeakerId());
+        assertEquals("a1a2", audioOf(results.get(0)));
+        assertEquals("u2", results.get(1).getSpeakerId());
+        assertEquals("b1b2", audioOf(results.get(1)));
+    }
+
+    @Test
+    @DisplayName("Utterances above the claim-check threshold should carry a blob reference instead of audio")
+    void shouldClaimCheckLargeUtterances() {
+        driver.close();
+        createDriver(262144, 1048576, 8);
+
+        sendChunk("channel-1", "u1", "short", T0);
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(10));
+        sendChunk("channel-1", "u1", "0123456789", T0.plusSeconds(1));
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusSeconds(2));
+
+        ProcessedMeetingData small = utterances.readValue();
+        ProcessedMeetingData large = utterances.readValue();
+        assertEquals("short", audioOf(small));
+        assertNull(small.getAudioRef());
+        assertNull(large.getAudioData());
+        assertTrue(large.getAudioRef().startsWith("sha256:"));
+        assertEquals("0123456789", new String(claimCheck.audioOf(large), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Claim-checked voice chunks should be fetched from the blob store when assembled")
+    void shouldResolveClaimCheckedChunks() {
+        driver.close();
+        createDriver(262144, 1048576, 4);
+
+        DiscordVoiceEvent chunk = DiscordVoiceEvent.builder()
+                .channelId("channel-1")
+                .userId("u1")
+                .eventType(DiscordVoiceEvent.EventType.VOICE_CHUNK)
+                .audioData("large-chunk".getBytes(StandardCharsets.UTF_8))
+                .timestamp(T0)
+                .build();
+        claimCheck.checkIn(chunk);
+        voice.pipeInput(new TestRecord<>("channel-1", chunk, T0));
+
+        // Parça store'u (ve changelog'u) sesi değil referansı tutar
+        KeyValueStore<String, byte[]> chunkStore = driver.getKeyValueStore(MeetingStreamProcessor.UTTERANCE_CHUNK_STORE);
+        byte[] stored = chunkStore.get(VoiceUtteranceAssembler.chunkKey("channel-1|u1", 0) + VoiceUtteranceAssembler.REF_SUFFIX);
+        assertEquals(chunk.getAudioRef(), new String(stored, StandardCharsets.UTF_8));
+        assertNull(chunkStore.get(VoiceUtteranceAssembler.chunkKey("channel-1|u1", 0)));
+
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(10));
+
+        assertNull(chunk.getAudioData());
+        assertEquals("large-chunk", new String(claimCheck.audioOf(utterances.readValue()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Chunks whose blob is missing should be skipped without stopping the assembler")
+    void shouldSkipChunksWithMissingBlob() {
+        DiscordVoiceEvent missing = DiscordVoiceEvent.builder()
+                .channelId("channel-1")
+                .userId("u1")
+                .eventType(DiscordVoiceEvent.EventType.VOICE_CHUNK)
+                .audioRef("sha256:" + "0".repeat(64))
+                .timestamp(T0)
+                .build();
+        voice.pipeInput(new TestRecord<>("channel-1", missing, T0));
+        sendChunk("channel-1", "u1", "kept", T0.plusMillis(20));
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(40));
+
+        ProcessedMeetingData utterance = utterances.readValue();
+        assertEquals("kept", audioOf(utterance));
+        assertEquals(T0.plusMillis(20), utterance.getWindowStart());
+        assertEquals(1, claimCheck.getUnresolvedCount());
+    }
+
+    @Test
+    @DisplayName("Chunks with a malformed blob reference should be skipped without stopping the assembler")
+    void shouldSkipChunksWithMalformedReference() {
+        DiscordVoiceEvent malformed = DiscordVoiceEvent.builder()
+                .channelId("channel-1")
+                .userId("u1")
+                .eventType(DiscordVoiceEvent.EventType.VOICE_CHUNK)
+                .audioRef("../../etc/passwd")
+                .timestamp(T0)
+                .build();
+        voice.pipeInput(new TestRecord<>("channel-1", malformed, T0));
+        sendChunk("channel-1", "u1", "kept", T0.plusMillis(20));
+        sendSpeakerEvent("channel-1", "u1", DiscordVoiceEvent.EventType.LEAVE, null, T0.plusMillis(40));
+
+        assertEquals("kept", audioOf(utterances.readValue()));
+        assertEquals(1, claimCheck.getUnresolvedCount());
+    }
+}
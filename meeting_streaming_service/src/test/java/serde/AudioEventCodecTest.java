@@ -0,0 +1,220 @@
+package serde;
+
+import model.DiscordMessageEvent;
+import model.DiscordVoiceEvent;
+import model.ProcessedMeetingData;
+import model.ZoomMeetingEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AudioEventCodec Unit Tests")
+class AudioEventCodecTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-01-01T10:00:00.123456789Z");
+
+    private static byte[] audio(int size) {
+        byte[] audio = new byte[size];
+        for (int i = 0; i < size; i++) {
+            audio[i] = (byte) (i * 31);
+        }
+        return audio;
+    }
+
+    private static DiscordVoiceEvent voiceEvent() {
+        return DiscordVoiceEvent.builder()
+                .eventId("evt-1")
+                .guildId("guild-1")
+                .channelId("channel-1")
+                .userId("123456789012345678")
+                .userName("ahmet")
+                .audioData(audio(3840))
+                .audioFormat("PCM_S16LE")
+                .sampleRate(48000)
+                .timestamp(TIMESTAMP)
+                .eventType(DiscordVoiceEvent.EventType.VOICE_CHUNK)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should round trip DiscordVoiceEvent including raw audio and nanosecond timestamp")
+    void shouldRoundTripDiscordVoiceEvent() {
+        DiscordVoiceEvent event = voiceEvent();
+
+        DiscordVoiceEvent copy = AudioEventCodec.decode(AudioEventCodec.encode(event), DiscordVoiceEvent.class);
+
+        assertEquals(event, copy);
+    }
+
+    @Test
+    @DisplayName("Should round trip ZoomMeetingEvent and ProcessedMeetingData")
+    void shouldRoundTripZoomAndProcessedData() {
+        ZoomMeetingEvent zoom = ZoomMeetingEvent.builder()
+                .meetingId("zoom-1")
+                .meetingTopic("Sprint planlama")
+                .participantName("john")
+                .eventType(ZoomMeetingEvent.EventType.AUIDO_CHUNK)
+                .audioData(audio(100))
+                .timestamp(TIMESTAMP)
+                .build();
+        ProcessedMeetingData processed = ProcessedMeetingData.builder()
+                .sourceType("DISCORD_VOICE")
+                .channelId("channel-1")
+                .speakerId("u1")
+                .speakerName("ahmet")
+                .audioData(audio(10_000))
+                .windowStart(TIMESTAMP)
+                .windowEnd(TIMESTAMP.plusSeconds(2))
+                .build();
+
+        assertEquals(zoom, AudioEventCodec.decode(AudioEventCodec.encode(zoom)));
+        assertEquals(processed, AudioEventCodec.decode(AudioEventCodec.encode(processed)));
+    }
+
+    @Test
+    @DisplayName("Null fields should stay null")
+    void shouldPreserveNullFields() {
+        DiscordVoiceEvent event = DiscordVoiceEvent.builder().channelId("channel-1").build();
+
+        DiscordVoiceEvent copy = AudioEventCodec.decode(AudioEventCodec.encode(event), DiscordVoiceEvent.class);
+
+        assertEquals(event, copy);
+        assertNull(copy.getAudioData());
+        assertNull(copy.getTimestamp());
+        assertNull(copy.getEventType());
+    }
+
+    @Test
+    @DisplayName("Encoded size should be audio plus small metadata, well below base64 JSON")
+    void shouldBeSmallerThanJson() {
+        DiscordVoiceEvent event = voiceEvent();
+
+        byte[] binary = AudioEventCodec.encode(event);
+        byte[] json = new JsonSerializer<>().serialize("discord-voice", event);
+
+        assertTrue(binary.length < event.getAudioData().length + 100);
+        assertTrue(json.length > event.getAudioData().length * 4 / 3);
+    }
+
+    @Test
+    @DisplayName("Unknown version, unknown type, wrong type and truncated data should be rejected")
+    void shouldRejectCorruptData() {
+        byte[] bytes = AudioEventCodec.encode(voiceEvent());
+
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 99;
+        byte[] wrongType = bytes.clone();
+        wrongType[1] = 99;
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 10);
+
+        assertThrows(SerializationException.class, () -> AudioEventCodec.decode(wrongVersion));
+        assertThrows(SerializationException.class, () -> AudioEventCodec.decode(wrongType));
+        assertThrows(SerializationException.class, () -> AudioEventCodec.decode(truncated));
+        assertThrows(SerializationException.class, () -> AudioEventCodec.decode(bytes, ZoomMeetingEvent.class));
+    }
+
+    @Test
+    @DisplayName("Serializer should write audio events in binary and delegate other values to JSON")
+    void serializerShouldDispatchByType() {
+        AudioEventSerializer serializer = new AudioEventSerializer();
+        DiscordMessageEvent message = DiscordMessageEvent.builder().channelId("channel-1").content("merhaba").build();
+
+        byte[] voiceBytes = serializer.serialize("discord-voice", new RecordHeaders(), voiceEvent());
+        byte[] messageBytes = serializer.serialize("discord-messages", new RecordHeaders(), message);
+
+        assertTrue(AudioEventCodec.isBinary(voiceBytes));
+        assertFalse(AudioEventCodec.isBinary(messageBytes));
+        assertEquals('{', messageBytes[0]);
+    }
+
+    @Test
+    @DisplayName("Serializer should pass pre-encoded byte arrays through unchanged")
+    void serializerShouldPassBytesThrough() {
+        byte[] payload = "{\"content\":\"merhaba\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(payload, new AudioEventSerializer().serialize("discord-messages", new RecordHeaders(), payload));
+        assertSame(payload, new AudioEventSerializer().serialize("discord-messages", payload));
+    }
+
+    @Test
+    @DisplayName("Deserializer should read binary records and fall back to JSON for legacy records")
+    void deserializerShouldReadBinaryAndLegacyJson() {
+        AudioEventDeserializer deserializer = new AudioEventDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "model"), false);
+        DiscordVoiceEvent event = voiceEvent();
+
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json = new JsonSerializer<>().serialize("discord-voice", jsonHeaders, event);
+        byte[] binary = new AudioEventSerializer().serialize("discord-voice", new RecordHeaders(), event);
+
+        assertEquals(event, deserializer.deserialize("discord-voice", jsonHeaders, json));
+        assertEquals(event, deserializer.deserialize("discord-voice", new RecordHeaders(), binary));
+        assertNull(deserializer.deserialize("discord-voice", new RecordHeaders(), (byte[]) null));
+    }
+
+    @Test
+    @DisplayName("Typed serde should round trip and accept legacy JSON values")
+    void serdeShouldRoundTripAndAcceptLegacyJson() {
+        AudioEventSerde<ProcessedMeetingData> serde = new AudioEventSerde<>(ProcessedMeetingData.class);
+        ProcessedMeetingData data = ProcessedMeetingData.builder()
+                .sourceType("DISCORD_VOICE")
+                .audioData(audio(64))
+                .windowStart(TIMESTAMP)
+                .build();
+
+        byte[] binary = serde.serializer().serialize("processed-voice", data);
+        byte[] json = new JsonSerializer<>().serialize("processed-voice", data);
+
+        assertEquals(data, serde.deserializer().deserialize("processed-voice", binary));
+        assertEquals(data, serde.deserializer().deserialize("processed-voice", json));
+        assertNull(serde.serializer().serialize("processed-voice", null));
+        assertThrows(IllegalArgumentException.class, () -> new AudioEventSerde<>(DiscordMessageEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should round trip claim-check references")
+    void shouldRoundTripAudioRef() {
+        DiscordVoiceEvent event = voiceEvent();
+        event.setAudioData(null);
+        event.setAudioRef("sha256:" + "ab".repeat(32));
+        ProcessedMeetingData data = ProcessedMeetingData.builder().audioRef("sha256:" + "cd".repeat(32)).build();
+
+        assertEquals(event, AudioEventCodec.decode(AudioEventCodec.encode(event)));
+        assertEquals(data, AudioEventCodec.decode(AudioEventCodec.encode(data)));
+    }
+
+    @Test
+    @DisplayName("Version 1 records without a reference field should still decode")
+    void shouldDecodeVersion1() {
+        byte[] v1 = new BinaryWriter(64)
+                .writeByte(AudioEventCodec.VERSION_1)
+                .writeByte(AudioEventCodec.TYPE_PROCESSED_MEETING_DATA)
+                .writeString("DISCORD_VOICE")
+                .writeString("channel-1")
+                .writeString(null)
+                .writeString("ahmet")
+                .writeString("u1")
+                .writeByte(0)
+                .writeByte(0)
+                .writeByte(0)
+                .writeBytes(new byte[]{1, 2, 3})
+                .toByteArray();
+
+        ProcessedMeetingData data = AudioEventCodec.decode(v1, ProcessedMeetingData.class);
+
+        assertTrue(AudioEventCodec.isBinary(v1));
+        assertEquals("ahmet", data.getSpeakerName());
+        assertNull(data.getAudioRef());
+        assertArrayEquals(new byte[]{1, 2, 3}, data.getAudioData());
+    }
+}
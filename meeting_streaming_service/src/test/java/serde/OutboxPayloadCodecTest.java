@@ -0,0 +1,33 @@
+package serde;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OutboxPayloadCodec Unit Tests")
+class OutboxPayloadCodecTest {
+
+    private static final String JSON = "{\"content\":\"" + "toplantı notu ".repeat(100) + "\"}";
+
+    @Test
+    @DisplayName("Plain payloads should be sent as UTF-8 bytes")
+    void shouldSendPlainPayloadAsUtf8() {
+        assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), OutboxPayloadCodec.wireBytes(JSON, null, null));
+        assertNull(OutboxPayloadCodec.wireBytes(null, null, null));
+    }
+
+    @Test
+    @DisplayName("zstd payloads should be forwarded without decompression and round-trip")
+    void shouldForwardZstdPayload() {
+        byte[] compressed = Zstd.compress(JSON.getBytes(StandardCharsets.UTF_8));
+
+        byte[] wire = OutboxPayloadCodec.wireBytes(null, OutboxPayloadCodec.CODEC_ZSTD, compressed);
+
+        assertSame(compressed, wire);
+        assertEquals(JSON, new String(Zstd.decompress(wire, (int) Zstd.getFrameContentSize(wire)), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package serde;
+
+import model.SessionBounds;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionBoundsSerde Unit Tests")
+class SessionBoundsSerdeTest {
+
+    private final SessionBoundsSerde serde = new SessionBoundsSerde();
+
+    @Test
+    @DisplayName("Should round trip all fields")
+    void shouldRoundTrip() {
+        SessionBounds bounds = SessionBounds.builder()
+                .startMillis(1_700_000_000_000L)
+                .endMillis(1_700_000_330_000L)
+                .lastAppendMillis(1_700_003_600_000L)
+                .build();
+
+        byte[] bytes = serde.serializer().serialize("topic", bounds);
+
+        assertEquals(bounds, serde.deserializer().deserialize("topic", bytes));
+    }
+
+    @Test
+    @DisplayName("Null values should serialize to null and unknown versions should be rejected")
+    void shouldHandleNullAndRejectUnknownVersion() {
+        assertNull(serde.serializer().serialize("topic", null));
+        assertNull(serde.deserializer().deserialize("topic", null));
+
+        byte[] bytes = serde.serializer().serialize("topic", new SessionBounds());
+        bytes[0] = 99;
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("topic", bytes));
+    }
+}
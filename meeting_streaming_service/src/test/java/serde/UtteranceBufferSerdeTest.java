@@ -0,0 +1,67 @@
+package serde;
+
+import model.UtteranceBuffer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UtteranceBufferSerde Unit Tests")
+class UtteranceBufferSerdeTest {
+
+    private final UtteranceBufferSerde serde = new UtteranceBufferSerde();
+
+    @Test
+    @DisplayName("Should round trip all fields")
+    void shouldRoundTrip() {
+        UtteranceBuffer buffer = UtteranceBuffer.builder()
+                .channelKey("guild-1-channel-1")
+                .channelId("channel-1")
+                .userId("123456789012345678")
+                .userName("ahmet")
+                .startMillis(1_700_000_000_000L)
+                .endMillis(1_700_000_001_250L)
+                .chunkCount(62)
+                .byteCount(238_080)
+                .lastAppendMillis(1_700_000_030_000L)
+                .build();
+
+        byte[] bytes = serde.serializer().serialize("topic", buffer);
+
+        assertEquals(buffer, serde.deserializer().deserialize("topic", bytes));
+    }
+
+    @Test
+    @DisplayName("Version 1 records should fall back to the end time as the last append time")
+    void shouldReadVersion1() {
+        byte[] bytes = new BinaryWriter(64)
+                .writeByte(UtteranceBufferSerde.VERSION_1)
+                .writeString("guild-1-channel-1")
+                .writeString("channel-1")
+                .writeString("u1")
+                .writeString("ahmet")
+                .writeLong(1_700_000_000_000L)
+                .writeVarLong(1_250)
+                .writeVarInt(62)
+                .writeVarLong(238_080)
+                .toByteArray();
+
+        UtteranceBuffer buffer = serde.deserializer().deserialize("topic", bytes);
+
+        assertEquals(1_700_000_001_250L, buffer.getEndMillis());
+        assertEquals(1_700_000_001_250L, buffer.getLastAppendMillis());
+        assertEquals(238_080, buffer.getByteCount());
+    }
+
+    @Test
+    @DisplayName("Null values should serialize to null and unknown versions should be rejected")
+    void shouldHandleNullAndRejectUnknownVersion() {
+        assertNull(serde.serializer().serialize("topic", null));
+        assertNull(serde.deserializer().deserialize("topic", null));
+
+        byte[] bytes = serde.serializer().serialize("topic", new UtteranceBuffer());
+        bytes[0] = 99;
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("topic", bytes));
+    }
+}
@@ -0,0 +1,100 @@
+package serde;
+
+import model.WindowedMessages;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WindowedMessagesSerde Unit Tests")
+class WindowedMessagesSerdeTest {
+
+    private final WindowedMessagesSerde serde = new WindowedMessagesSerde();
+
+    private WindowedMessages roundTrip(WindowedMessages value) {
+        byte[] bytes = serde.serializer().serialize("topic", value);
+        return serde.deserializer().deserialize("topic", bytes);
+    }
+
+    @Test
+    @DisplayName("Should round trip messages, authors and timestamps")
+    void shouldRoundTrip() {
+        WindowedMessages window = new WindowedMessages();
+        window.add("ahmet", 1_700_000_000_000L, "Yarınki toplantı 10'da", 10_000);
+        window.add("john", 1_700_000_005_000L, "ok", 10_000);
+        window.add("ahmet", 1_700_000_004_000L, "geç gelen mesaj", 10_000);
+
+        WindowedMessages copy = roundTrip(window);
+
+        assertEquals(window.getAuthors(), copy.getAuthors());
+        assertEquals(window.getMessages(), copy.getMessages());
+        assertEquals(window.getEstimatedBytes(), copy.getEstimatedBytes());
+        assertEquals(window.render(), copy.render());
+    }
+
+    @Test
+    @DisplayName("Should round trip an empty window and dropped count")
+    void shouldRoundTripEmptyWindow() {
+        WindowedMessages window = new WindowedMessages();
+        window.add("ahmet", 1L, "x".repeat(100), 10);
+
+        WindowedMessages copy = roundTrip(window);
+
+        assertEquals(0, copy.size());
+        assertEquals(1, copy.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Null values should serialize to null")
+    void shouldHandleNull() {
+        assertNull(serde.serializer().serialize("topic", null));
+        assertNull(serde.deserializer().deserialize("topic", null));
+    }
+
+    @Test
+    @DisplayName("Encoding should be smaller than the rendered text for repeated authors")
+    void shouldBeSmallerThanRenderedText() {
+        WindowedMessages window = new WindowedMessages();
+        for (int i = 0; i < 200; i++) {
+            window.add(i % 2 == 0 ? "mehmet.yilmaz" : "zeynep.kaya", 1_700_000_000_000L + i * 1000L, "mesaj " + i, 1 << 20);
+        }
+
+        byte[] encoded = serde.serializer().serialize("topic", window);
+
+        assertTrue(encoded.length < window.render().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("Unknown version and truncated data should be rejected")
+    void shouldRejectCorruptData() {
+        WindowedMessages window = new WindowedMessages();
+        window.add("ahmet", 1L, "hello", 1000);
+        byte[] bytes = serde.serializer().serialize("topic", window);
+
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 99;
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("topic", wrongVersion));
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("topic", truncated));
+    }
+
+    @Test
+    @DisplayName("add() should stop storing messages at the byte cap and count the rest")
+    void addShouldRespectByteCap() {
+        WindowedMessages window = new WindowedMessages();
+        int cap = 200;
+        for (int i = 0; i < 50; i++) {
+            window.add("ahmet", i, "message number " + i, cap);
+        }
+
+        assertTrue(window.getEstimatedBytes() <= cap);
+        assertTrue(window.size() > 0);
+        assertEquals(50, window.size() + window.getDroppedCount());
+        assertTrue(window.render().endsWith("[" + window.getDroppedCount() + " more messages omitted]\n"));
+    }
+}
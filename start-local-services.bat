@@ -63,7 +63,7 @@ start "Gateway API" cmd /k "cd gateway_api && gradlew.bat bootRun"
 timeout /t 5 /nobreak >nul
 
 echo [6/8] Meeting Streaming Service başlatılıyor (Port 8082)...
-start "Streaming Service" cmd /k "cd meeting_streaming_service && gradlew.bat bootRun"
+start "Streaming Service" cmd /k "cd meeting_streaming_service && set "CLAIM_CHECK_LOCAL_PATH=%CD%\claim-check" && gradlew.bat bootRun"
 timeout /t 5 /nobreak >nul
 
 echo [7/8] Servisler başlatıldı!